@@ -3,10 +3,14 @@ package com.kdn.ets.api_gateway;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import reactor.core.scheduler.Schedulers;
+
 @SpringBootApplication
 public class ApiGatewayApplication {
 
 	public static void main(String[] args) {
+		// boundedElastic 등 Reactor 스케줄러의 작업 큐/활성 스레드 지표 (스케줄러 생성 전에 켜야 함)
+		Schedulers.enableMetrics();
 		SpringApplication.run(ApiGatewayApplication.class, args);
 	}
 
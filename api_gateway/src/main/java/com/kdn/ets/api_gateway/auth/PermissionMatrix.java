@@ -0,0 +1,146 @@
+package com.kdn.ets.api_gateway.auth;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository.PermissionGrant;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * api_permissions 를 정수 인덱스 기반 비트셋으로 적재한 권한 매트릭스.
+ * - apiId → API 서수(ordinal), userId → 사용자 인덱스로 한 번만 인턴합니다.
+ * - 기존 existsById_UserIdAndId_ApiId 와 같이 (userId, apiId) 단위로 판정하며, 권한 행의 method 는 보지 않습니다.
+ * - 사용자마다 API 서수 크기의 long[] 비트셋 한 줄을 가지므로
+ *   권한 확인은 Map 조회 2회 + 배열 읽기로 끝나고 객체를 할당하지 않습니다.
+ * - 사용자 5만 × API 500개 기준 약 3~4MB 입니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PermissionMatrix {
+
+    private final ApiPermissionRepository permissionRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    /** 권한 확인 (DB 호출 없음) */
+    public boolean isAllowed(String userId, String apiId) {
+        if (userId == null || apiId == null) return false;
+        Snapshot s = snapshot;
+
+        Integer ordinal = s.routeOrdinals.get(apiId);
+        if (ordinal == null) return false;
+
+        Integer userIdx = s.userIndex.get(userId);
+        if (userIdx == null) return false;
+        long[] row = s.rows.get(userIdx);
+        return (row[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    @Scheduled(initialDelayString = "${app.auth.permission-refresh-interval-ms:60000}",
+               fixedDelayString = "${app.auth.permission-refresh-interval-ms:60000}")
+    void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // 갱신 실패 시 기존 매트릭스를 그대로 사용
+            log.warn("permission matrix reload failed, keeping previous snapshot", e);
+        }
+    }
+
+    /** api_permissions 전체를 다시 읽어 매트릭스를 교체합니다. */
+    public synchronized void reload() {
+        List<PermissionGrant> grants = permissionRepository.findAllGrants();
+
+        Map<String, Integer> routeOrdinals = new HashMap<>();
+        Map<String, Integer> userIndex = new HashMap<>();
+
+        // 1차: API 서수 / 사용자 인덱스 인턴
+        for (PermissionGrant g : grants) {
+            if (g.getApiId() == null || g.getUserId() == null) continue;
+            routeOrdinals.putIfAbsent(g.getApiId(), routeOrdinals.size());
+            userIndex.putIfAbsent(g.getUserId(), userIndex.size());
+        }
+        int routeCount = routeOrdinals.size();
+
+        // 2차: 사용자별 비트셋 채우기
+        int words = wordsFor(routeCount);
+        long[][] rows = new long[userIndex.size()][];
+        for (int i = 0; i < rows.length; i++) rows[i] = new long[words];
+        for (PermissionGrant g : grants) {
+            if (g.getApiId() == null || g.getUserId() == null) continue;
+
+            int ordinal = routeOrdinals.get(g.getApiId());
+            long[] row = rows[userIndex.get(g.getUserId())];
+            row[ordinal >>> 6] |= 1L << ordinal;
+        }
+
+        this.snapshot = new Snapshot(routeOrdinals, routeCount, userIndex, new AtomicReferenceArray<>(rows));
+        log.info("Permission matrix loaded: {} user(s) x {} api(s)", userIndex.size(), routeCount);
+    }
+
+    /**
+     * 특정 사용자의 권한이 바뀌었을 때 해당 사용자 행만 교체합니다.
+     * 처음 보는 사용자이거나 새 apiId 가 포함되어 있으면 인덱스가 바뀌므로 전체 재적재합니다.
+     */
+    public synchronized void reloadUser(String userId) {
+        Snapshot s = snapshot;
+        Integer userIdx = s.userIndex.get(userId);
+        List<PermissionGrant> grants = permissionRepository.findGrantsByUserId(userId);
+
+        if (userIdx == null) {
+            if (!grants.isEmpty()) reload();
+            return;
+        }
+
+        long[] row = new long[wordsFor(s.routeCount)];
+        for (PermissionGrant g : grants) {
+            if (g.getApiId() == null) continue;
+
+            Integer ordinal = s.routeOrdinals.get(g.getApiId());
+            if (ordinal == null) {
+                reload();
+                return;
+            }
+            row[ordinal >>> 6] |= 1L << ordinal;
+        }
+        s.rows.set(userIdx, row);
+        log.info("Permission matrix row reloaded: userId={}, grants={}", userId, grants.size());
+    }
+
+    private static int wordsFor(int routeCount) {
+        return (routeCount + 63) >>> 6;
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new HashMap<>(), 0, new HashMap<>(), new AtomicReferenceArray<>(0));
+
+        final Map<String, Integer> routeOrdinals;
+        final int routeCount;
+        final Map<String, Integer> userIndex;
+        // 행 단위 교체(reloadUser)가 다른 스레드에 바로 보이도록 AtomicReferenceArray 사용
+        final AtomicReferenceArray<long[]> rows;
+
+        Snapshot(Map<String, Integer> routeOrdinals, int routeCount, Map<String, Integer> userIndex, AtomicReferenceArray<long[]> rows) {
+            this.routeOrdinals = routeOrdinals;
+            this.routeCount = routeCount;
+            this.userIndex = userIndex;
+            this.rows = rows;
+        }
+    }
+}
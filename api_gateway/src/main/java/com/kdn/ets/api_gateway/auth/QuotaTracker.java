@@ -0,0 +1,494 @@
+package com.kdn.ets.api_gateway.auth;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import com.kdn.ets.api_gateway.config.DataStoreConfig;
+import com.kdn.ets.api_gateway.converter.LocalDateTimeConverter;
+import com.kdn.ets.api_gateway.exception.QuotaExceededException;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository.QuotaRow;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * (사용자, API)별 / 사용자 전체 일·월 호출 한도(quota).
+ * - 한도는 api_permissions.quota_daily / quota_monthly 에서 읽습니다. api_id='*' 행은 사용자 전체 한도이고,
+ *   같은 (user_id, api_id) 에 메서드별 행이 여럿이면 가장 큰 한도를 씁니다. (NULL 이면 app.quota.default-*)
+ * - 호출 수는 (userId, apiId, 기간)별 원자 카운터로 메모리에서 세고, 한도를 넘는 요청은 세지 않고 429 로 거절합니다.
+ * - 늘어난 만큼만 flush-interval-ms 마다 api_quota_usage 에 한 트랜잭션으로 누적 upsert 하고 (종료 시에도 한 번 저장),
+ *   시작할 때와 매 저장 직후에 현재 일/월 기간의 저장된 합계(모든 인스턴스)를 다시 읽어 카운터를 맞춥니다.
+ *   다시 읽기는 읽기 전용 커넥션으로, 시작 시에만 전체를 읽고 이후에는 최근(sync-overlap-ms 여유 포함)에 바뀐 행만 읽습니다.
+ * 각 인스턴스는 다른 인스턴스의 호출을 최대 저장 주기 2번(상대의 저장 + 자기의 다시 읽기) 늦게 알게 되므로,
+ * 여러 대로 운영하면 그 사이 다른 인스턴스들이 받은 호출 수만큼 한도를 넘을 수 있습니다.
+ * (N 대로 운영하면 넘는 양은 최대 다른 N - 1 대가 각자 저장 주기 2번 동안 받은 호출 수)
+ */
+@Slf4j
+@Component
+public class QuotaTracker {
+
+    public static final String USAGE_TABLE = "api_quota_usage";
+
+    /** 사용자 전체 한도 행 / 사용자 전체 호출 수의 api_id */
+    public static final String ALL_APIS = "*";
+
+    static final String UPSERT_SQL = "INSERT INTO " + USAGE_TABLE + " (user_id, api_id, period, call_count, update_date) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (user_id, api_id, period) "
+            + "DO UPDATE SET call_count = call_count + excluded.call_count, update_date = excluded.update_date";
+
+    private static final long UNLIMITED = Long.MAX_VALUE;
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final LocalDateTimeConverter DATE_CONVERTER = new LocalDateTimeConverter();
+
+    private final ApiPermissionRepository permissionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readerJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long defaultUserDaily;
+    private final long defaultUserMonthly;
+    private final long defaultApiDaily;
+    private final long defaultApiMonthly;
+    private final ZoneId zone;
+    private final LongSupplier clock;
+    private final long syncOverlapMs;
+    // 마지막으로 다시 읽은 시각 - sync-overlap-ms (update_date 형식, 아직 읽지 않았으면 null → 전체 읽기)
+    private String syncedSince;
+
+    /** userId → (apiId → 설정된 한도) */
+    private volatile Map<String, Map<String, Quota>> configured = Collections.emptyMap();
+    /** userId → (apiId → 현재 기간 호출 수), 사용자 전체는 apiId "*" */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Usage>> users = new ConcurrentHashMap<>();
+    /** 기간이 바뀌어 교체된 카운터 (남은 증가분을 저장할 때까지 보관) */
+    private final ConcurrentLinkedQueue<Counter> retired = new ConcurrentLinkedQueue<>();
+    private volatile Periods periods;
+
+    @Autowired
+    public QuotaTracker(ApiPermissionRepository permissionRepository,
+                        @Qualifier(DataStoreConfig.WRITER_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                        @Qualifier(DataStoreConfig.READER_JDBC_TEMPLATE) JdbcTemplate readerJdbcTemplate,
+                        @Qualifier(DataStoreConfig.WRITER_TRANSACTION_MANAGER) PlatformTransactionManager transactionManager,
+                        @Value("${app.quota.enabled:true}") boolean enabled,
+                        @Value("${app.quota.default-user-daily:0}") long defaultUserDaily,
+                        @Value("${app.quota.default-user-monthly:0}") long defaultUserMonthly,
+                        @Value("${app.quota.default-api-daily:0}") long defaultApiDaily,
+                        @Value("${app.quota.default-api-monthly:0}") long defaultApiMonthly,
+                        @Value("${app.quota.zone:}") String zone,
+                        @Value("${app.quota.sync-overlap-ms:60000}") long syncOverlapMs) {
+        this(permissionRepository, jdbcTemplate, readerJdbcTemplate, transactionManager, enabled,
+             defaultUserDaily, defaultUserMonthly, defaultApiDaily, defaultApiMonthly,
+             StringUtils.hasText(zone) ? ZoneId.of(zone.trim()) : ZoneId.systemDefault(), syncOverlapMs, System::currentTimeMillis);
+    }
+
+    QuotaTracker(ApiPermissionRepository permissionRepository, JdbcTemplate jdbcTemplate, JdbcTemplate readerJdbcTemplate,
+                 PlatformTransactionManager transactionManager, boolean enabled,
+                 long defaultUserDaily, long defaultUserMonthly, long defaultApiDaily, long defaultApiMonthly,
+                 ZoneId zone, long syncOverlapMs, LongSupplier clock) {
+        this.permissionRepository = permissionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readerJdbcTemplate = readerJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.defaultUserDaily = limitOf(defaultUserDaily);
+        this.defaultUserMonthly = limitOf(defaultUserMonthly);
+        this.defaultApiDaily = limitOf(defaultApiDaily);
+        this.defaultApiMonthly = limitOf(defaultApiMonthly);
+        this.zone = zone;
+        this.clock = clock;
+        this.syncOverlapMs = Math.max(syncOverlapMs, 0);
+        this.periods = Periods.of(clock.getAsLong(), zone);
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) return;
+        reload();
+        syncUsage();
+    }
+
+    /**
+     * 요청 하나를 (사용자, API) / 사용자 전체의 일·월 호출 수에 더합니다. (DB 호출 없음)
+     * @return 허용이면 null, 한도를 넘으면 던질 예외 (이 경우 호출 수에 더하지 않음)
+     */
+    public QuotaExceededException tryAcquire(String userId, String apiId) {
+        if (!enabled || userId == null || apiId == null) return null;
+        Periods p = currentPeriods();
+
+        Map<String, Quota> limits = configured.get(userId);
+        Quota apiQuota = limits != null ? limits.get(apiId) : null;
+        Quota userQuota = limits != null ? limits.get(ALL_APIS) : null;
+
+        Usage api = usage(userId, apiId);
+        Usage all = usage(userId, ALL_APIS);
+        Counter apiDaily = api.daily(p), apiMonthly = api.monthly(p);
+        Counter userDaily = all.daily(p), userMonthly = all.monthly(p);
+
+        if (!apiDaily.tryIncrement(apiQuota != null ? apiQuota.daily(defaultApiDaily) : defaultApiDaily)) {
+            return apiDaily.rejection(clock);
+        }
+        if (!apiMonthly.tryIncrement(apiQuota != null ? apiQuota.monthly(defaultApiMonthly) : defaultApiMonthly)) {
+            apiDaily.undo();
+            return apiMonthly.rejection(clock);
+        }
+        if (!userDaily.tryIncrement(userQuota != null ? userQuota.daily(defaultUserDaily) : defaultUserDaily)) {
+            apiDaily.undo();
+            apiMonthly.undo();
+            return userDaily.rejection(clock);
+        }
+        if (!userMonthly.tryIncrement(userQuota != null ? userQuota.monthly(defaultUserMonthly) : defaultUserMonthly)) {
+            apiDaily.undo();
+            apiMonthly.undo();
+            userDaily.undo();
+            return userMonthly.rejection(clock);
+        }
+        apiDaily.commit();
+        apiMonthly.commit();
+        userDaily.commit();
+        userMonthly.commit();
+        return null;
+    }
+
+    /** 현재 기간의 호출 수 (저장 여부와 무관) */
+    public long used(String userId, String apiId, boolean monthly) {
+        ConcurrentHashMap<String, Usage> byApi = users.get(userId);
+        Usage usage = byApi != null ? byApi.get(apiId) : null;
+        if (usage == null) return 0;
+        Periods p = currentPeriods();
+        return monthly ? usage.monthly(p).count.get() : usage.daily(p).count.get();
+    }
+
+    @Scheduled(initialDelayString = "${app.quota.flush-interval-ms:5000}",
+               fixedDelayString = "${app.quota.flush-interval-ms:5000}")
+    void scheduledFlush() {
+        if (!enabled) return;
+        try {
+            flush();
+        } catch (Exception e) {
+            // 저장하지 못한 증가분은 카운터에 되돌려 두었으므로 다음 주기에 다시 저장
+            log.warn("quota usage flush failed", e);
+            return;
+        }
+        // 한도가 하나도 없으면 다른 인스턴스의 호출 수를 알 필요 없음
+        if (!hasLimits()) return;
+        try {
+            syncUsage();
+        } catch (Exception e) {
+            log.warn("quota usage sync failed, keeping local counts", e);
+        }
+    }
+
+    private boolean hasLimits() {
+        return !configured.isEmpty() || defaultUserDaily != UNLIMITED || defaultUserMonthly != UNLIMITED
+                || defaultApiDaily != UNLIMITED || defaultApiMonthly != UNLIMITED;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) return;
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("quota usage flush on shutdown failed", e);
+        }
+    }
+
+    /** 마지막 저장 이후 늘어난 호출 수를 한 트랜잭션으로 누적 upsert 합니다. 저장한 행 수를 반환합니다. */
+    public synchronized int flush() {
+        List<Counter> counters = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        String now = updateDate(clock.getAsLong());
+
+        for (ConcurrentHashMap<String, Usage> byApi : users.values()) {
+            for (Usage usage : byApi.values()) {
+                take(usage.daily, counters, rows, now);
+                take(usage.monthly, counters, rows, now);
+            }
+        }
+        // 교체된 카운터는 늦게 더해진 증가분까지 저장한 뒤(증가분이 없는 주기가 오면) 버림
+        for (Iterator<Counter> it = retired.iterator(); it.hasNext(); ) {
+            if (!take(it.next(), counters, rows, now)) it.remove();
+        }
+        if (rows.isEmpty()) return 0;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+        } catch (RuntimeException e) {
+            for (int i = 0; i < counters.size(); i++) {
+                counters.get(i).pending.addAndGet((Long) rows.get(i)[3]);
+            }
+            throw e;
+        }
+        return rows.size();
+    }
+
+    /** api_permissions 의 호출 한도 전체를 다시 읽어 교체합니다. */
+    @Scheduled(initialDelayString = "${app.auth.permission-refresh-interval-ms:60000}",
+               fixedDelayString = "${app.auth.permission-refresh-interval-ms:60000}")
+    void scheduledReload() {
+        if (!enabled) return;
+        try {
+            reload();
+        } catch (Exception e) {
+            // 갱신 실패 시 기존 한도를 그대로 사용
+            log.warn("quotas reload failed, keeping previous limits", e);
+        }
+    }
+
+    public synchronized void reload() {
+        this.configured = group(permissionRepository.findAllQuotas());
+        log.info("Quotas loaded: {} user(s) configured", configured.size());
+    }
+
+    /** 특정 사용자의 한도만 다시 읽습니다. (권한 변경 시 AuthService 가 호출) */
+    public synchronized void reloadUser(String userId) {
+        if (!enabled) return;
+        Map<String, Quota> limits = group(permissionRepository.findQuotasByUserId(userId)).get(userId);
+        Map<String, Map<String, Quota>> next = new HashMap<>(configured);
+        if (limits != null) next.put(userId, limits);
+        else next.remove(userId);
+        this.configured = next;
+    }
+
+    /**
+     * 현재 일/월 기간의 저장된 호출 수(모든 인스턴스 합계)를 읽어 카운터를 저장된 합계 + 아직 저장하지 않은 자기 증가분으로 맞춥니다.
+     * (시작 시, 그리고 매 저장 직후) 읽는 동안 들어온 요청 몇 건은 어긋날 수 있으나 다음 주기에 다시 맞춰집니다.
+     * 처음에만 전체를 읽고, 이후에는 지난번에 읽은 시각보다 sync-overlap-ms 앞선 시각 이후에 바뀐 행만 읽습니다.
+     * (인스턴스 간 시계 차이 / 늦게 커밋된 저장을 놓치지 않기 위한 여유, 겹쳐 읽은 행은 같은 값으로 다시 맞춰질 뿐)
+     */
+    synchronized int syncUsage() {
+        Periods p = currentPeriods();
+        String since = syncedSince;
+        String nextSince = updateDate(clock.getAsLong() - syncOverlapMs);
+        int[] rows = new int[1];
+        RowCallbackHandler apply = rs -> {
+            Usage usage = usage(rs.getString(1), rs.getString(2));
+            Counter counter = p.day.equals(rs.getString(3)) ? usage.daily(p) : usage.monthly(p);
+            long stored = rs.getLong(4);
+            counter.count.addAndGet(stored + counter.pending.get() - counter.count.get());
+            rows[0]++;
+        };
+
+        String sql = "SELECT user_id, api_id, period, call_count FROM " + USAGE_TABLE + " WHERE period IN (?, ?)";
+        if (since == null) {
+            readerJdbcTemplate.query(sql, apply, p.day, p.month);
+        } else {
+            readerJdbcTemplate.query(sql + " AND update_date >= ?", apply, p.day, p.month, since);
+        }
+        syncedSince = nextSince;
+        log.debug("Quota usage synced: {} row(s) for {} / {} since {}", rows[0], p.day, p.month, since);
+        return rows[0];
+    }
+
+    /** api_quota_usage.update_date 형식의 시각 */
+    private String updateDate(long epochMillis) {
+        return DATE_CONVERTER.convertToDatabaseColumn(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone));
+    }
+
+    private static boolean take(Counter counter, List<Counter> counters, List<Object[]> rows, String now) {
+        if (counter == null) return false;
+        long delta = counter.pending.getAndSet(0);
+        if (delta <= 0) return false;
+        counters.add(counter);
+        rows.add(new Object[] {counter.userId, counter.apiId, counter.period, delta, now});
+        return true;
+    }
+
+    private Usage usage(String userId, String apiId) {
+        ConcurrentHashMap<String, Usage> byApi = users.get(userId);
+        if (byApi == null) byApi = users.computeIfAbsent(userId, k -> new ConcurrentHashMap<>());
+        Usage usage = byApi.get(apiId);
+        return usage != null ? usage : byApi.computeIfAbsent(apiId, k -> new Usage(userId, k));
+    }
+
+    /** 현재 일/월 기간 (날짜가 바뀔 때만 새로 계산) */
+    private Periods currentPeriods() {
+        long now = clock.getAsLong();
+        Periods p = periods;
+        if (now >= p.dayEnd || now < p.dayStart) {
+            p = Periods.of(now, zone);
+            periods = p;
+        }
+        return p;
+    }
+
+    private static Map<String, Map<String, Quota>> group(List<QuotaRow> rows) {
+        Map<String, Map<String, Quota>> byUser = new HashMap<>();
+        for (QuotaRow row : rows) {
+            if (row.getUserId() == null || row.getApiId() == null) continue;
+            Quota quota = new Quota(row.getQuotaDaily(), row.getQuotaMonthly());
+            byUser.computeIfAbsent(row.getUserId(), k -> new HashMap<>())
+                  .merge(row.getApiId().trim(), quota, Quota::max);
+        }
+        return byUser;
+    }
+
+    /** 0 이하는 제한 없음 */
+    private static long limitOf(long value) {
+        return value > 0 ? value : UNLIMITED;
+    }
+
+    /** 설정된 한도 (NULL 이면 기본값, 0 이면 제한 없음) */
+    private static final class Quota {
+        final Integer daily;
+        final Integer monthly;
+
+        Quota(Integer daily, Integer monthly) {
+            this.daily = daily;
+            this.monthly = monthly;
+        }
+
+        long daily(long fallback) {
+            return daily != null ? limitOf(daily) : fallback;
+        }
+
+        long monthly(long fallback) {
+            return monthly != null ? limitOf(monthly) : fallback;
+        }
+
+        static Quota max(Quota a, Quota b) {
+            return new Quota(larger(a.daily, b.daily), larger(a.monthly, b.monthly));
+        }
+
+        private static Integer larger(Integer a, Integer b) {
+            if (a == null || b == null) return a == null ? b : a;
+            // 0(제한 없음)이 가장 큼
+            return a <= 0 || b <= 0 ? Integer.valueOf(0) : Integer.valueOf(Math.max(a, b));
+        }
+    }
+
+    /** 일/월 기간 이름과 경계 (epoch ms) */
+    private static final class Periods {
+        final String day;
+        final String month;
+        final long dayStart;
+        final long dayEnd;
+        final long monthEnd;
+
+        private Periods(String day, String month, long dayStart, long dayEnd, long monthEnd) {
+            this.day = day;
+            this.month = month;
+            this.dayStart = dayStart;
+            this.dayEnd = dayEnd;
+            this.monthEnd = monthEnd;
+        }
+
+        static Periods of(long nowMillis, ZoneId zone) {
+            LocalDate date = Instant.ofEpochMilli(nowMillis).atZone(zone).toLocalDate();
+            return new Periods(date.toString(), date.format(MONTH_FORMAT),
+                    date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.withDayOfMonth(1).plusMonths(1).atStartOfDay(zone).toInstant().toEpochMilli());
+        }
+    }
+
+    /** (사용자, API)의 현재 일/월 카운터. 기간이 바뀌면 새 카운터로 교체합니다. */
+    private final class Usage {
+        final String userId;
+        final String apiId;
+        volatile Counter daily;
+        volatile Counter monthly;
+
+        Usage(String userId, String apiId) {
+            this.userId = userId;
+            this.apiId = apiId;
+        }
+
+        Counter daily(Periods p) {
+            Counter c = daily;
+            if (c != null && c.period.equals(p.day)) return c;
+            synchronized (this) {
+                c = daily;
+                if (c == null || !c.period.equals(p.day)) {
+                    if (c != null) retired.add(c);
+                    daily = c = new Counter(userId, apiId, p.day, p.dayEnd);
+                }
+                return c;
+            }
+        }
+
+        Counter monthly(Periods p) {
+            Counter c = monthly;
+            if (c != null && c.period.equals(p.month)) return c;
+            synchronized (this) {
+                c = monthly;
+                if (c == null || !c.period.equals(p.month)) {
+                    if (c != null) retired.add(c);
+                    monthly = c = new Counter(userId, apiId, p.month, p.monthEnd);
+                }
+                return c;
+            }
+        }
+    }
+
+    /** (userId, apiId, 기간) 호출 수 */
+    private static final class Counter {
+        final String userId;
+        final String apiId;
+        final String period;
+        final long resetAtMillis;
+        // 기간 전체 호출 수 (저장된 합계를 다시 읽은 값 + 그 뒤 자기 증가분)
+        final AtomicLong count = new AtomicLong();
+        // 아직 저장하지 않은 증가분
+        final AtomicLong pending = new AtomicLong();
+        private volatile QuotaExceededException rejection;
+
+        Counter(String userId, String apiId, String period, long resetAtMillis) {
+            this.userId = userId;
+            this.apiId = apiId;
+            this.period = period;
+            this.resetAtMillis = resetAtMillis;
+        }
+
+        boolean tryIncrement(long limit) {
+            if (limit == UNLIMITED) {
+                count.incrementAndGet();
+                return true;
+            }
+            for (long current = count.get(); ; current = count.get()) {
+                if (current >= limit) return false;
+                if (count.compareAndSet(current, current + 1)) return true;
+            }
+        }
+
+        void undo() {
+            count.decrementAndGet();
+        }
+
+        void commit() {
+            pending.incrementAndGet();
+        }
+
+        QuotaExceededException rejection(LongSupplier clock) {
+            QuotaExceededException r = rejection;
+            if (r == null) rejection = r = new QuotaExceededException(apiId, period, resetAtMillis, clock);
+            return r;
+        }
+    }
+}
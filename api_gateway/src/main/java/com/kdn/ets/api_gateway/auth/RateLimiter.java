@@ -0,0 +1,217 @@
+package com.kdn.ets.api_gateway.auth;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kdn.ets.api_gateway.exception.RateLimitException;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository.RateLimitRow;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사용자별 / (사용자, API)별 요청 수 한도 (인스턴스 메모리 토큰 버킷, 외부 저장소 없음).
+ * - 한도는 api_permissions.rate_per_min / rate_burst 에서 읽습니다. api_id='*' 행은 사용자 전체 한도이고,
+ *   같은 (user_id, api_id) 에 메서드별 행이 여럿이면 가장 큰 한도를 씁니다. (0 = 제한 없음이 가장 큼, QuotaTracker 와 같음)
+ * - 설정 행이 없으면 app.rate-limit.default-user-per-min / default-api-per-min (0 이면 제한 없음)
+ * - 버킷은 사용자 / API 를 처음 볼 때 한 번만 만들고, 이후 요청은 Map 조회 + CAS 만 하므로 할당이 없습니다.
+ * - 다시 읽을 때 한도가 그대로인 버킷은 이어서 씁니다. (남은 토큰 유지)
+ * 인스턴스마다 따로 세므로 여러 대로 운영하면 대수만큼 나누어 설정해야 합니다.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    /** 사용자 전체 한도 행의 api_id */
+    public static final String ALL_APIS = "*";
+
+    private final ApiPermissionRepository permissionRepository;
+    private final boolean enabled;
+    private final int defaultUserPerMin;
+    private final int defaultApiPerMin;
+    private final LongSupplier clock;
+
+    private final LongAdder userRejected = new LongAdder();
+    private final LongAdder apiRejected = new LongAdder();
+
+    /** userId → (apiId → 설정된 한도) */
+    private volatile Map<String, Map<String, Limit>> configured = Collections.emptyMap();
+    private final ConcurrentHashMap<String, UserBuckets> users = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(ApiPermissionRepository permissionRepository, MeterRegistry meterRegistry,
+                       @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${app.rate-limit.default-user-per-min:0}") int defaultUserPerMin,
+                       @Value("${app.rate-limit.default-api-per-min:0}") int defaultApiPerMin) {
+        this(permissionRepository, enabled, defaultUserPerMin, defaultApiPerMin, System::nanoTime);
+        FunctionCounter.builder("gateway.rate_limit.rejected", userRejected, LongAdder::sum)
+                       .description("요청 수 한도 초과로 거절한 요청 수").tag("scope", "user").register(meterRegistry);
+        FunctionCounter.builder("gateway.rate_limit.rejected", apiRejected, LongAdder::sum)
+                       .description("요청 수 한도 초과로 거절한 요청 수").tag("scope", "api").register(meterRegistry);
+    }
+
+    RateLimiter(ApiPermissionRepository permissionRepository, boolean enabled,
+                int defaultUserPerMin, int defaultApiPerMin, LongSupplier clock) {
+        this.permissionRepository = permissionRepository;
+        this.enabled = enabled;
+        this.defaultUserPerMin = Math.max(defaultUserPerMin, 0);
+        this.defaultApiPerMin = Math.max(defaultApiPerMin, 0);
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabled) reload();
+    }
+
+    /**
+     * 요청 하나를 한도에서 차감합니다. (DB 호출 없음)
+     * @return 허용이면 null, 거절이면 던질 예외 (버킷마다 하나, Retry-After 포함)
+     */
+    public RateLimitException tryAcquire(String userId, String apiId) {
+        if (!enabled || userId == null || apiId == null) return null;
+
+        UserBuckets found = users.get(userId);
+        final UserBuckets user = found != null ? found
+                : users.computeIfAbsent(userId, k -> newUser(configured.get(k)));
+        TokenBucket api = user.apis.get(apiId);
+        if (api == null) {
+            api = user.apis.computeIfAbsent(apiId, k -> bucket(k, user.limits.get(k), defaultApiPerMin, null));
+        }
+
+        long now = clock.getAsLong();
+        if (!api.tryAcquire(now)) {
+            apiRejected.increment();
+            return api.rejection();
+        }
+        if (!user.all.tryAcquire(now)) {
+            api.refund();
+            userRejected.increment();
+            return user.all.rejection();
+        }
+        return null;
+    }
+
+    /**
+     * tryAcquire 로 허용했던 요청 하나를 되돌립니다. (뒤이은 호출 한도 등에서 거절되어 업스트림에 보내지 않은 경우)
+     */
+    public void refund(String userId, String apiId) {
+        if (!enabled || userId == null || apiId == null) return;
+        UserBuckets user = users.get(userId);
+        if (user == null) return;
+        TokenBucket api = user.apis.get(apiId);
+        if (api != null) api.refund();
+        user.all.refund();
+    }
+
+    @Scheduled(initialDelayString = "${app.auth.permission-refresh-interval-ms:60000}",
+               fixedDelayString = "${app.auth.permission-refresh-interval-ms:60000}")
+    void scheduledReload() {
+        if (!enabled) return;
+        try {
+            reload();
+        } catch (Exception e) {
+            // 갱신 실패 시 기존 한도를 그대로 사용
+            log.warn("rate limits reload failed, keeping previous limits", e);
+        }
+    }
+
+    /** api_permissions 의 한도 전체를 다시 읽어 교체합니다. */
+    public synchronized void reload() {
+        Map<String, Map<String, Limit>> next = group(permissionRepository.findAllRateLimits());
+        this.configured = next;
+        users.replaceAll((userId, previous) -> reconfigure(previous, next.get(userId)));
+        log.info("Rate limits loaded: {} user(s) configured", next.size());
+    }
+
+    /** 특정 사용자의 한도만 다시 읽습니다. (권한 변경 시 AuthService 가 호출) */
+    public synchronized void reloadUser(String userId) {
+        if (!enabled) return;
+        Map<String, Limit> limits = group(permissionRepository.findRateLimitsByUserId(userId)).get(userId);
+        Map<String, Map<String, Limit>> next = new HashMap<>(configured);
+        if (limits != null) next.put(userId, limits);
+        else next.remove(userId);
+        this.configured = next;
+        users.computeIfPresent(userId, (k, previous) -> reconfigure(previous, limits));
+    }
+
+    private UserBuckets newUser(Map<String, Limit> limits) {
+        Map<String, Limit> l = limits != null ? limits : Collections.emptyMap();
+        return new UserBuckets(l, bucket(ALL_APIS, l.get(ALL_APIS), defaultUserPerMin, null));
+    }
+
+    private UserBuckets reconfigure(UserBuckets previous, Map<String, Limit> limits) {
+        Map<String, Limit> l = limits != null ? limits : Collections.emptyMap();
+        UserBuckets next = new UserBuckets(l, bucket(ALL_APIS, l.get(ALL_APIS), defaultUserPerMin, previous.all));
+        previous.apis.forEach((apiId, bucket) ->
+                next.apis.put(apiId, bucket(apiId, l.get(apiId), defaultApiPerMin, bucket)));
+        return next;
+    }
+
+    /** 한도에 맞는 버킷 (한도가 같으면 이전 버킷을 이어서 사용) */
+    private TokenBucket bucket(String apiId, Limit limit, int defaultPerMin, TokenBucket previous) {
+        int ratePerMin = limit != null ? limit.ratePerMin : defaultPerMin;
+        int burst = limit != null ? limit.burst : ratePerMin;
+        if (ratePerMin <= 0) return TokenBucket.UNLIMITED;
+        if (previous != null && previous.sameLimit(ratePerMin, burst)) return previous;
+        return new TokenBucket(apiId, ratePerMin, burst, clock.getAsLong());
+    }
+
+    private static Map<String, Map<String, Limit>> group(List<RateLimitRow> rows) {
+        Map<String, Map<String, Limit>> byUser = new HashMap<>();
+        for (RateLimitRow row : rows) {
+            if (row.getUserId() == null || row.getApiId() == null || row.getRatePerMin() == null) continue;
+            int ratePerMin = Math.max(row.getRatePerMin(), 0);
+            int burst = row.getRateBurst() != null && row.getRateBurst() > 0 ? row.getRateBurst() : ratePerMin;
+            Limit limit = new Limit(ratePerMin, burst);
+            byUser.computeIfAbsent(row.getUserId(), k -> new HashMap<>())
+                  .merge(row.getApiId().trim(), limit, Limit::larger);
+        }
+        return byUser;
+    }
+
+    private static final class Limit {
+        final int ratePerMin;
+        final int burst;
+
+        Limit(int ratePerMin, int burst) {
+            this.ratePerMin = ratePerMin;
+            this.burst = burst;
+        }
+
+        /** 더 느슨한 한도 (0 = 제한 없음이 가장 큼, 분당 수가 같으면 버스트가 큰 쪽) */
+        static Limit larger(Limit a, Limit b) {
+            if (a.ratePerMin <= 0) return a;
+            if (b.ratePerMin <= 0) return b;
+            if (a.ratePerMin != b.ratePerMin) return a.ratePerMin > b.ratePerMin ? a : b;
+            return a.burst >= b.burst ? a : b;
+        }
+    }
+
+    private static final class UserBuckets {
+        final Map<String, Limit> limits;
+        // 사용자 전체 한도
+        final TokenBucket all;
+        // API 별 한도 (처음 호출할 때 생성)
+        final ConcurrentHashMap<String, TokenBucket> apis = new ConcurrentHashMap<>();
+
+        UserBuckets(Map<String, Limit> limits, TokenBucket all) {
+            this.limits = limits;
+            this.all = all;
+        }
+    }
+}
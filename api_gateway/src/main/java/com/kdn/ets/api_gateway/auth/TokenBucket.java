@@ -0,0 +1,61 @@
+package com.kdn.ets.api_gateway.auth;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kdn.ets.api_gateway.exception.RateLimitException;
+
+/**
+ * 분당 요청 수 한도 하나 (GCRA: 토큰 버킷과 같은 동작을 다음 허용 시각 하나로 계산).
+ * - 상태는 "버킷이 가득 차는 이론상 시각"(tat) AtomicLong 하나이며, CAS 로만 갱신하므로 잠금/할당이 없습니다.
+ * - 요청 하나가 tat 를 간격(1분 / rate_per_min)만큼 미루고, tat 가 지금보다 (burst - 1) 간격 넘게 앞서 있으면 거절합니다.
+ */
+final class TokenBucket {
+
+    private static final long MINUTE_NANOS = 60_000_000_000L;
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    /** 한도 없음 */
+    static final TokenBucket UNLIMITED = new TokenBucket("*", 0, 0, 0);
+
+    private final int ratePerMin;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong tat;
+    private final RateLimitException rejection;
+
+    TokenBucket(String apiId, int ratePerMin, int burst, long nowNanos) {
+        this.ratePerMin = Math.max(ratePerMin, 0);
+        this.burst = Math.max(burst, 1);
+        this.intervalNanos = this.ratePerMin == 0 ? 0 : MINUTE_NANOS / this.ratePerMin;
+        this.toleranceNanos = intervalNanos * (this.burst - 1);
+        this.tat = new AtomicLong(nowNanos);
+        // 거절된 요청이 기다려야 하는 시간은 최대 간격 하나
+        this.rejection = this.ratePerMin == 0 ? null
+                : new RateLimitException(apiId, Math.max(1, (intervalNanos + SECOND_NANOS - 1) / SECOND_NANOS));
+    }
+
+    /** 요청 하나를 허용하면 true */
+    boolean tryAcquire(long nowNanos) {
+        if (intervalNanos == 0) return true;
+        for (;;) {
+            long current = tat.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            if (base - nowNanos > toleranceNanos) return false;
+            if (tat.compareAndSet(current, base + intervalNanos)) return true;
+        }
+    }
+
+    /** 허용했던 요청 하나를 되돌림 (다른 한도에서 거절된 경우) */
+    void refund() {
+        if (intervalNanos != 0) tat.addAndGet(-intervalNanos);
+    }
+
+    boolean sameLimit(int ratePerMin, int burst) {
+        return this.ratePerMin == ratePerMin && this.burst == Math.max(burst, 1);
+    }
+
+    RateLimitException rejection() {
+        return rejection;
+    }
+}
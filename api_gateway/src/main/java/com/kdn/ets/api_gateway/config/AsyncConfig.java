@@ -1,10 +0,0 @@
-package com.kdn.ets.api_gateway.config;
-
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
-
-@Configuration
-@EnableAsync // @Async 어노테이션을 활성화합니다.
-public class AsyncConfig {
-}
@@ -0,0 +1,145 @@
+package com.kdn.ets.api_gateway.config;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.sqlite.SQLiteConfig;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SQLite 저장소 구성 (app.datastore.mode).
+ * - SINGLE: 기본 DataSource 하나 (spring.datasource.hikari.maximum-pool-size=1) 를 조회/기록이 함께 사용
+ * - WAL: WAL 저널 모드로 기록 전용 커넥션 1개(writerDataSource)와 읽기 전용 풀(dataSource, JPA 가 사용)을 분리.
+ *        라우트/키/권한 조회가 gateway_logs 배치 INSERT 를 기다리지 않습니다.
+ * 어느 모드든 DB 에 쓰는 코드는 writerJdbcTemplate / writerTransactionManager 를 사용하고,
+ * JdbcTemplate 으로 읽기만 하는 코드는 readerJdbcTemplate 을 사용합니다.
+ */
+@Slf4j
+@Configuration
+public class DataStoreConfig {
+
+    public static final String WRITER_JDBC_TEMPLATE = "writerJdbcTemplate";
+    public static final String WRITER_TRANSACTION_MANAGER = "writerTransactionManager";
+    public static final String READER_JDBC_TEMPLATE = "readerJdbcTemplate";
+
+    // writerTransactionManager 를 빈으로 등록하면 기본 JPA 트랜잭션 매니저가 만들어지지 않으므로 직접 등록
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /** 조회 전용: 기본 DataSource (WAL 이면 읽기 전용 풀, SINGLE 이면 기록과 같은 커넥션) */
+    @Bean(READER_JDBC_TEMPLATE)
+    public JdbcTemplate readerJdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.datastore.mode", havingValue = "SINGLE", matchIfMissing = true)
+    static class Single {
+
+        @Bean(WRITER_JDBC_TEMPLATE)
+        JdbcTemplate writerJdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean(WRITER_TRANSACTION_MANAGER)
+        DataSourceTransactionManager writerTransactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.datastore.mode", havingValue = "WAL")
+    static class Wal {
+
+        @Value("${app.datastore.reader-pool-size:4}")
+        private int readerPoolSize;
+
+        @Value("${app.datastore.synchronous:NORMAL}")
+        private SQLiteConfig.SynchronousMode synchronous;
+
+        @Value("${app.datastore.cache-size-kb:16384}")
+        private int cacheSizeKb;
+
+        @Value("${app.datastore.mmap-size:268435456}")
+        private long mmapSize;
+
+        @Value("${app.datastore.busy-timeout-ms:5000}")
+        private int busyTimeoutMs;
+
+        /** 기록 전용: 커넥션 1개 (SQLite 는 동시에 한 작성자만 허용) */
+        @Bean(destroyMethod = "close")
+        HikariDataSource writerDataSource(DataSourceProperties properties, Environment env) {
+            HikariDataSource ds = pool(properties, env, "gateway-writer", 1, false);
+            log.info("SQLite WAL datastore: writer=1, readers={}, synchronous={}, cache={}KB, mmap={}B",
+                    readerPoolSize, synchronous, cacheSizeKb, mmapSize);
+            return ds;
+        }
+
+        /** 읽기 전용 풀 (JPA/리포지토리). WAL 전환은 작성 커넥션이 하므로 작성 풀 다음에 생성 */
+        @Bean(destroyMethod = "close")
+        @Primary
+        HikariDataSource dataSource(DataSourceProperties properties, Environment env,
+                                    @Qualifier("writerDataSource") DataSource writerDataSource) {
+            return pool(properties, env, "gateway-reader", readerPoolSize, true);
+        }
+
+        @Bean(WRITER_JDBC_TEMPLATE)
+        JdbcTemplate writerJdbcTemplate(@Qualifier("writerDataSource") DataSource writerDataSource) {
+            return new JdbcTemplate(writerDataSource);
+        }
+
+        @Bean(WRITER_TRANSACTION_MANAGER)
+        DataSourceTransactionManager writerTransactionManager(@Qualifier("writerDataSource") DataSource writerDataSource) {
+            return new DataSourceTransactionManager(writerDataSource);
+        }
+
+        /** spring.datasource.hikari.* (타임아웃 등)를 적용한 뒤 풀 이름/크기/SQLite 설정만 덮어씀 */
+        HikariDataSource pool(DataSourceProperties properties, Environment env, String name, int size, boolean readOnly) {
+            HikariConfig config = new HikariConfig();
+            Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(config));
+            config.setJdbcUrl(properties.determineUrl());
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setPoolName(name);
+            config.setMaximumPoolSize(size);
+            config.setMinimumIdle(size);
+            config.setReadOnly(readOnly);
+            config.setDataSourceProperties(sqlite(readOnly).toProperties());
+            return new HikariDataSource(config);
+        }
+
+        SQLiteConfig sqlite(boolean readOnly) {
+            SQLiteConfig config = new SQLiteConfig();
+            if (readOnly) {
+                // 커넥션 자체를 읽기 전용으로 열어 실수로 쓰더라도 작성자와 락을 다투지 않게 함
+                config.setReadOnly(true);
+            } else {
+                config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+            }
+            config.setSynchronous(synchronous);
+            config.setCacheSize(-cacheSizeKb);   // 음수 = KiB 단위
+            config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+            config.setBusyTimeout(busyTimeoutMs);
+            return config;
+        }
+    }
+}
@@ -2,23 +2,81 @@ package com.kdn.ets.api_gateway.config;
 
 import java.time.Duration;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.kdn.ets.api_gateway.helper.RequestTimings;
+import com.kdn.ets.api_gateway.upstream.UpstreamDispatcher;
+
 import io.netty.channel.ChannelOption;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 public class NettyClientConfig {
 
+    /**
+     * 업스트림 커넥션 풀.
+     * HttpClient 빈을 직접 정의하면 게이트웨이 기본 HttpClient 가 만들어지지 않으므로
+     * spring.cloud.gateway.httpclient.pool.* 설정을 여기서 같은 의미로 적용합니다.
+     * pool.metrics=true 이면 reactor.netty.connection.provider.* (전체/활성/유휴/대기 커넥션, 획득 대기 시간) 지표를 등록합니다.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider proxyConnectionProvider(HttpClientProperties properties) {
+        HttpClientProperties.Pool pool = properties.getPool();
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName());
+
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.FIXED) {
+            builder.maxConnections(pool.getMaxConnections())
+                   .pendingAcquireMaxCount(-1)
+                   .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()));
+        } else {
+            // ELASTIC: 커넥션 수 제한 없음 (max-connections 는 FIXED 에서만 의미가 있음)
+            builder.maxConnections(Integer.MAX_VALUE)
+                   .pendingAcquireTimeout(Duration.ofMillis(0))
+                   .pendingAcquireMaxCount(-1);
+        }
+        if (pool.getMaxIdleTime() != null) builder.maxIdleTime(pool.getMaxIdleTime());
+        if (pool.getMaxLifeTime() != null) builder.maxLifeTime(pool.getMaxLifeTime());
+        builder.evictInBackground(pool.getEvictionInterval());
+
+        return builder.metrics(pool.isMetrics()).build();
+    }
+
+    /**
+     * 프록시용 HttpClient.
+     * 연결/읽기 유휴 타임아웃은 app.timeout.* 기본값이며, 라우트별 값(api_list.connect_timeout_ms / idle_timeout_ms)은
+     * UpstreamDispatcher 가 요청마다 덮어씁니다. 응답 헤더 대기 시간(response_timeout_ms)도 UpstreamDispatcher 가 적용합니다.
+     */
     @Bean
-    public HttpClient httpClient() {
-        return HttpClient.create()
-                // 연결 타임아웃 10초
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000)
-                // 응답 타임아웃 15초
-                .responseTimeout(Duration.ofSeconds(120))
+    public HttpClient httpClient(HttpClientProperties properties, ConnectionProvider proxyConnectionProvider,
+                                 @Value("${app.timeout.connect-ms:10000}") int connectTimeoutMs,
+                                 @Value("${app.timeout.idle-ms:120000}") long idleTimeoutMs) {
+        HttpClient client = properties.getPool().getType() == HttpClientProperties.Pool.PoolType.DISABLED
+                ? HttpClient.newConnection()
+                : HttpClient.create(proxyConnectionProvider);
+
+        return client
+                // 연결 타임아웃
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                // 읽기 유휴 타임아웃: 업스트림에서 이 시간 동안 아무것도 읽지 못하면 커넥션을 닫음
+                .responseTimeout(Duration.ofMillis(idleTimeoutMs))
                 // 시스템/환경 프록시 무시
-                .noProxy();
+                .noProxy()
+                // 단계별 소요 시간: 업스트림 요청 전송 시작(커넥션 획득 후) / 응답 헤더 수신
+                // RequestTimings 는 RequestTimingFilter 가 Reactor Context 에 넣어 둡니다.
+                .doOnRequest((request, connection) -> {
+                    RequestTimings timings = RequestTimings.of(request.currentContextView());
+                    if (timings != null) timings.markRequestSent();
+                    // 라우트별 읽기 유휴 타임아웃 (기본값과 다를 때만 Context 에 들어 있음)
+                    Duration idleTimeout = request.currentContextView().getOrDefault(UpstreamDispatcher.IDLE_TIMEOUT_KEY, null);
+                    if (idleTimeout != null) request.responseTimeout(idleTimeout);
+                })
+                .doOnResponse((response, connection) -> {
+                    RequestTimings timings = RequestTimings.of(response.currentContextView());
+                    if (timings != null) timings.markResponseHeaders();
+                });
     }
 }
@@ -0,0 +1,9 @@
+package com.kdn.ets.api_gateway.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling // @Scheduled 기반 주기 작업(라우트 테이블 갱신 등)을 활성화합니다.
+public class SchedulingConfig {
+}
@@ -0,0 +1,15 @@
+package com.kdn.ets.api_gateway.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SchemaMigrationConfig {
+
+    // JPA 스키마 검증(ddl-auto=validate) 전에 SchemaMigrator 가 먼저 실행되도록 의존 관계 추가
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor schemaMigratorDependsOnPostProcessor() {
+        return new EntityManagerFactoryDependsOnPostProcessor(SchemaMigrator.BEAN_NAME);
+    }
+}
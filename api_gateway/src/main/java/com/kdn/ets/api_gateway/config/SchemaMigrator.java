@@ -0,0 +1,117 @@
+package com.kdn.ets.api_gateway.config;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.kdn.ets.api_gateway.auth.QuotaTracker;
+import com.kdn.ets.api_gateway.logging.GatewayLogRollup;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 게이트웨이가 추가로 사용하는 컬럼을 기존 SQLite 스키마에 보강합니다.
+ * - ddl-auto=validate 이므로 JPA 가 엔티티를 검증하기 전에 실행되어야 합니다. (SchemaMigrationConfig 참고)
+ * - 추가 컬럼은 모두 NULL 허용이며, NULL 이면 application.properties 의 기본값을 사용합니다.
+ * - 테이블이 아직 없으면 건너뜁니다. (이 경우 JPA 검증 단계에서 기존과 동일하게 실패)
+ * - 게이트웨이 전용 테이블(JPA 엔티티 없음)은 없으면 새로 만듭니다.
+ */
+@Slf4j
+@Component(SchemaMigrator.BEAN_NAME)
+public class SchemaMigrator {
+
+    public static final String BEAN_NAME = "schemaMigrator";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaMigrator(@Qualifier(DataStoreConfig.WRITER_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        // api_list: 라우트별 설정
+        ensureColumn("api_list", "req_capture_bytes", "INTEGER");
+        ensureColumn("api_list", "res_capture_bytes", "INTEGER");
+        ensureColumn("api_list", "stream_idle_timeout_ms", "INTEGER");
+        ensureColumn("api_list", "lb_policy", "TEXT");
+        ensureColumn("api_list", "hedge_yn", "TEXT");
+        ensureColumn("api_list", "max_retries", "INTEGER");
+        ensureColumn("api_list", "connect_timeout_ms", "INTEGER");
+        ensureColumn("api_list", "response_timeout_ms", "INTEGER");
+        ensureColumn("api_list", "idle_timeout_ms", "INTEGER");
+
+        // api_permissions: 사용자별 / (사용자, API)별 요청 수 한도 (RateLimiter)
+        ensureColumn("api_permissions", "rate_per_min", "INTEGER");
+        ensureColumn("api_permissions", "rate_burst", "INTEGER");
+        // api_permissions: 일/월 호출 한도 (QuotaTracker)
+        ensureColumn("api_permissions", "quota_daily", "INTEGER");
+        ensureColumn("api_permissions", "quota_monthly", "INTEGER");
+
+        // api_targets: API 별 업스트림 대상 (UpstreamRegistry)
+        ensureTable("api_targets", "(target_id INTEGER PRIMARY KEY AUTOINCREMENT, api_id TEXT NOT NULL, "
+                + "base_url TEXT NOT NULL, weight INTEGER NOT NULL DEFAULT 1, use_yn TEXT NOT NULL DEFAULT 'Y', "
+                + "health_path TEXT)");
+
+        // (사용자, API, 기간)별 호출 수 (QuotaTracker 가 주기적으로 누적 upsert, period: yyyy-MM-dd / yyyy-MM)
+        ensureTable(QuotaTracker.USAGE_TABLE, "(user_id TEXT NOT NULL, api_id TEXT NOT NULL, period TEXT NOT NULL, "
+                + "call_count INTEGER NOT NULL, update_date TEXT, PRIMARY KEY (user_id, api_id, period))");
+        // 저장 직후 다시 읽을 때 최근에 바뀐 행만 찾음
+        ensureIndex("idx_api_quota_usage_update_date", QuotaTracker.USAGE_TABLE, "(update_date)");
+
+        // gateway_logs: 응답 시간 세분화
+        ensureColumn("gateway_logs", "ttfb_ms", "INTEGER");
+        ensureColumn("gateway_logs", "ttlb_ms", "INTEGER");
+        ensureColumn("gateway_logs", "stream_events", "INTEGER");
+        ensureColumn("gateway_logs", "route_us", "INTEGER");
+        ensureColumn("gateway_logs", "auth_us", "INTEGER");
+        ensureColumn("gateway_logs", "connect_us", "INTEGER");
+        ensureColumn("gateway_logs", "upstream_ttfb_us", "INTEGER");
+        ensureColumn("gateway_logs", "stream_us", "INTEGER");
+
+        // gateway_logs 분 단위 집계 (GatewayLogRollup)
+        StringBuilder buckets = new StringBuilder();
+        for (int le : GatewayLogRollup.LATENCY_BUCKETS_MS) {
+            buckets.append("le_").append(le).append(" INTEGER NOT NULL DEFAULT 0, ");
+        }
+        ensureTable(GatewayLogRollup.ROLLUP_TABLE, "("
+                + "bucket_at TEXT NOT NULL, api_id TEXT NOT NULL, user_id TEXT NOT NULL, status_code INTEGER NOT NULL, "
+                + "request_count INTEGER NOT NULL, error_count INTEGER NOT NULL, "
+                + "latency_sum_ms INTEGER NOT NULL, latency_max_ms INTEGER, " + buckets
+                + "PRIMARY KEY (bucket_at, api_id, user_id, status_code))");
+        ensureTable(GatewayLogRollup.STATE_TABLE, "(job TEXT PRIMARY KEY, last_log_id INTEGER NOT NULL)");
+    }
+
+    private void ensureTable(String table, String definition) {
+        Integer exists = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?", Integer.class, table);
+        if (exists != null && exists > 0) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE " + table + " " + definition);
+        log.info("Schema migrated: table {}", table);
+    }
+
+    private void ensureIndex(String index, String table, String columns) {
+        Integer exists = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = ?", Integer.class, index);
+        if (exists != null && exists > 0) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE INDEX " + index + " ON " + table + " " + columns);
+        log.info("Schema migrated: index {} on {}", index, table);
+    }
+
+    private void ensureColumn(String table, String column, String type) {
+        List<String> columns = jdbcTemplate.queryForList("SELECT name FROM pragma_table_info('" + table + "')", String.class);
+        if (columns.isEmpty() || columns.stream().anyMatch(column::equalsIgnoreCase)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+        log.info("Schema migrated: {}.{} {}", table, column, type);
+    }
+}
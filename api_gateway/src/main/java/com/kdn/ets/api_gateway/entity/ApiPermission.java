@@ -15,6 +15,22 @@ public class ApiPermission {
     @EmbeddedId
     private ApiPermissionId id;
 
+    /** 분당 요청 수 한도 (NULL 이면 app.rate-limit.default-*-per-min), api_id='*' 행은 사용자 전체 한도 */
+    @Column(name = "rate_per_min")
+    private Integer ratePerMin;
+
+    /** 한 번에 몰아 보낼 수 있는 요청 수 (NULL 이면 rate_per_min) */
+    @Column(name = "rate_burst")
+    private Integer rateBurst;
+
+    /** 일 호출 한도 (NULL 이면 app.quota.default-*-daily), api_id='*' 행은 사용자 전체 한도 */
+    @Column(name = "quota_daily")
+    private Integer quotaDaily;
+
+    /** 월 호출 한도 (NULL 이면 app.quota.default-*-monthly) */
+    @Column(name = "quota_monthly")
+    private Integer quotaMonthly;
+
     @Column(name = "create_id")
     private String createId;
 
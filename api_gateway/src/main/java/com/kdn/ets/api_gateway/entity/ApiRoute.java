@@ -48,4 +48,42 @@ public class ApiRoute {
 
     @Column(name = "update_date")
     private LocalDateTime updateDate;
+
+    // ---- 게이트웨이 라우트별 설정 (NULL 이면 기본값) ----
+
+    /** 로그에 남길 요청 바디 최대 바이트 (0 이면 캡처 안 함) */
+    @Column(name = "req_capture_bytes")
+    private Integer reqCaptureBytes;
+
+    /** 로그에 남길 응답 바디 최대 바이트 (0 이면 캡처 안 함) */
+    @Column(name = "res_capture_bytes")
+    private Integer resCaptureBytes;
+
+    /** 스트리밍 응답(SSE 등) 이벤트 사이 최대 대기 시간 ms (0 이면 제한 없음) */
+    @Column(name = "stream_idle_timeout_ms")
+    private Integer streamIdleTimeoutMs;
+
+    /** 업스트림 대상(api_targets) 선택 방식 ROUND_ROBIN | LEAST_OUTSTANDING | POWER_OF_TWO */
+    @Column(name = "lb_policy")
+    private String lbPolicy;
+
+    /** 'Y' 이면 응답이 p95 보다 늦을 때 다른 대상으로 헤징 요청 (GET/HEAD 만) */
+    @Column(name = "hedge_yn")
+    private String hedgeYn;
+
+    /** 연결 실패 시 재시도 횟수 (GET/HEAD 만, NULL 이면 app.retry.max-retries) */
+    @Column(name = "max_retries")
+    private Integer maxRetries;
+
+    /** 업스트림 연결 타임아웃 ms (NULL 이면 app.timeout.connect-ms) */
+    @Column(name = "connect_timeout_ms")
+    private Integer connectTimeoutMs;
+
+    /** 업스트림 응답 헤더까지 최대 대기 시간 ms (NULL 이면 app.timeout.response-ms, 0 이면 제한 없음) */
+    @Column(name = "response_timeout_ms")
+    private Integer responseTimeoutMs;
+
+    /** 업스트림 커넥션에서 읽을 데이터 없이 기다리는 최대 시간 ms (NULL 이면 app.timeout.idle-ms) */
+    @Column(name = "idle_timeout_ms")
+    private Integer idleTimeoutMs;
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.kdn.ets.api_gateway.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * API 별 업스트림 대상(인스턴스) 목록.
+ * 행이 있으면 api_list.path 로 만든 다운스트림 URI 의 scheme://host:port 를 선택된 대상의 base_url 로 바꿉니다.
+ * (테이블은 SchemaMigrator 가 생성)
+ */
+@Entity
+@Table(name = "api_targets")
+@Getter
+@ToString
+public class ApiTarget {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "target_id")
+    private Integer targetId;
+
+    @Column(name = "api_id", nullable = false)
+    private String apiId;
+
+    /** scheme://host:port (경로 없이) */
+    @Column(name = "base_url", nullable = false)
+    private String baseUrl;
+
+    /** 가중치 (1 이상) */
+    @Column(nullable = false)
+    private Integer weight;
+
+    @Column(name = "use_yn", nullable = false)
+    private String useYn;
+
+    /** 상태 확인 경로 (예: /health), NULL 이면 app.upstream.health.default-path */
+    @Column(name = "health_path")
+    private String healthPath;
+}
@@ -9,6 +9,7 @@ import javax.persistence.Id;
 import javax.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Entity
@@ -16,6 +17,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Getter
 public class GatewayLog {
 
     @Id
@@ -70,4 +72,30 @@ public class GatewayLog {
 
     @Column(name = "error_message", length = 500) // DB 컬럼명 매핑
     private String errorMessage;
+
+    @Column(name = "ttfb_ms") // 요청 수신 ~ 응답 첫 바이트 (ms)
+    private Integer ttfbMs;
+
+    @Column(name = "ttlb_ms") // 요청 수신 ~ 응답 마지막 바이트 (ms)
+    private Integer ttlbMs;
+
+    @Column(name = "stream_events") // 스트리밍 응답(SSE/NDJSON)의 이벤트 수, 일반 응답은 NULL
+    private Integer streamEvents;
+
+    // ---- 처리 단계별 소요 시간 (µs, RequestTimings 구간 정의 참고) ----
+
+    @Column(name = "route_us")
+    private Integer routeUs;
+
+    @Column(name = "auth_us")
+    private Integer authUs;
+
+    @Column(name = "connect_us")
+    private Integer connectUs;
+
+    @Column(name = "upstream_ttfb_us")
+    private Integer upstreamTtfbUs;
+
+    @Column(name = "stream_us")
+    private Integer streamUs;
 }
\ No newline at end of file
@@ -9,4 +9,13 @@ public class ApiException extends RuntimeException {
         super(message);
         this.statusCode = statusCode;
     }
+
+    /**
+     * 미리 만들어 재사용하는 예외용: suppressed 를 쌓지 않음 (Reactor checkpoint 등의 addSuppressed 무시)
+     * @param writableStackTrace false 면 스택 트레이스도 채우지 않음
+     */
+    protected ApiException(int statusCode, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.statusCode = statusCode;
+    }
 }
@@ -0,0 +1,26 @@
+package com.kdn.ets.api_gateway.exception;
+
+import java.util.function.LongSupplier;
+
+import lombok.Getter;
+
+/**
+ * 서킷 브레이커가 열려 업스트림 호출 없이 거절한 요청 (503).
+ * 브레이커마다 하나만 만들어 재사용합니다.
+ */
+public class CircuitOpenException extends RejectionException {
+
+    @Getter private final String circuit;
+    private final LongSupplier retryAfterSeconds;
+
+    public CircuitOpenException(String circuit, LongSupplier retryAfterSeconds) {
+        super(503, "업스트림 장애로 요청을 일시적으로 차단했습니다: " + circuit, "circuit", circuit);
+        this.circuit = circuit;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public long retryAfterSeconds() {
+        return retryAfterSeconds.getAsLong();
+    }
+}
@@ -0,0 +1,17 @@
+package com.kdn.ets.api_gateway.exception;
+
+/**
+ * 라우트의 동시 처리 한도(적응형)를 넘어 인증/업스트림 호출 없이 거절한 요청 (503).
+ * 라우트마다 하나만 만들어 재사용합니다.
+ */
+public class ConcurrencyLimitException extends RejectionException {
+
+    public ConcurrencyLimitException(String apiId) {
+        super(503, "요청이 몰려 처리할 수 없습니다. 잠시 후 다시 시도하세요: " + apiId, "api_id", apiId);
+    }
+
+    @Override
+    public long retryAfterSeconds() {
+        return 1;
+    }
+}
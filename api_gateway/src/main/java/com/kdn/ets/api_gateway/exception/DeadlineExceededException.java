@@ -0,0 +1,21 @@
+package com.kdn.ets.api_gateway.exception;
+
+/**
+ * 요청 기한 안에 업스트림 응답 헤더를 받지 못해 끝낸 요청 (504).
+ * routeTimeout 은 라우트 자신의 response_timeout_ms 가 업스트림 호출 중에 지난 경우만 true 이며,
+ * 클라이언트가 기한 헤더로 줄인 기한이나 업스트림 호출 전에 이미 지난 기한은 false 입니다.
+ * (false 인 경우는 업스트림 과부하 신호가 아니므로 동시 처리 한도 / 서킷 브레이커에 반영하지 않음)
+ */
+public class DeadlineExceededException extends ApiException {
+
+    private final boolean routeTimeout;
+
+    public DeadlineExceededException(String apiId, boolean routeTimeout) {
+        super(504, "업스트림 응답 기한을 초과했습니다: " + apiId);
+        this.routeTimeout = routeTimeout;
+    }
+
+    public boolean isRouteTimeout() {
+        return routeTimeout;
+    }
+}
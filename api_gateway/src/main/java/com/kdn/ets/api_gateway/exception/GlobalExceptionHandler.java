@@ -37,6 +37,15 @@ public class GlobalExceptionHandler implements ErrorWebExceptionHandler {
 
     @Override
     public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        // 응답 본문을 보내는 도중의 오류(업스트림 읽기 유휴 타임아웃 / 끊김 등)는 상태를 바꿀 수 없으므로
+        // 그대로 넘겨 커넥션을 닫게 함 (기록은 ResponseCaptureFilter 가 이미 남김)
+        if (exchange.getResponse().isCommitted()) {
+            return Mono.error(ex);
+        }
+        if (ex instanceof RejectionException) {
+            return writeRejection(exchange, (RejectionException) ex);
+        }
+
         // 최종 상태/메시지 확정 (final)
         final HttpStatus httpStatus;
         final String userMessage;
@@ -97,6 +106,22 @@ public class GlobalExceptionHandler implements ErrorWebExceptionHandler {
                 .doFinally(sig -> logHelper.asyncLogOnce(exchange, statusCode, jsonStr, ex));
     }
 
+    /** 즉시 거절 응답 (서킷 차단 / 동시 처리 한도): 미리 직렬화한 바디를 그대로 씀 (트레이스/직렬화 생략) */
+    private Mono<Void> writeRejection(ServerWebExchange exchange, RejectionException ex) {
+        final String traceId = ensureTraceId(exchange);
+        final int statusCode = ex.getStatusCode();
+        exchange.getResponse().setRawStatusCode(statusCode);
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Request-Id", traceId);
+        long retryAfter = ex.retryAfterSeconds();
+        if (retryAfter > 0) headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+
+        DataBuffer buffer = exchange.getResponse().bufferFactory().wrap(ex.getBodyBytes());
+        return exchange.getResponse().writeWith(Mono.just(buffer))
+                .doFinally(sig -> logHelper.asyncLogOnce(exchange, statusCode, ex.getBody(), ex));
+    }
+
     // ===== Helpers =====
 
     private String ensureTraceId(ServerWebExchange exchange) {
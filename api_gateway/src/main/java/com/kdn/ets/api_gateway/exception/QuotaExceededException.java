@@ -0,0 +1,30 @@
+package com.kdn.ets.api_gateway.exception;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 일/월 호출 한도(quota)를 모두 써서 거절한 요청 (429).
+ * (사용자, API, 기간)마다 하나만 만들어 재사용하며, Retry-After 는 기간이 끝날 때까지 남은 시간입니다.
+ */
+public class QuotaExceededException extends RejectionException {
+
+    private final long resetAtMillis;
+    private final LongSupplier clock;
+
+    /**
+     * @param apiId         한도 대상 API ("*" 이면 사용자 전체 한도)
+     * @param period        기간 (yyyy-MM-dd / yyyy-MM)
+     * @param resetAtMillis 다음 기간이 시작되는 시각 (epoch ms)
+     * @param clock         현재 시각 (epoch ms)
+     */
+    public QuotaExceededException(String apiId, String period, long resetAtMillis, LongSupplier clock) {
+        super(429, "호출 한도를 모두 사용했습니다 (" + period + "): " + apiId, "api_id", apiId);
+        this.resetAtMillis = resetAtMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public long retryAfterSeconds() {
+        return Math.max(1, (resetAtMillis - clock.getAsLong() + 999) / 1000);
+    }
+}
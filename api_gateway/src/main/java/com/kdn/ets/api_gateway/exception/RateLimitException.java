@@ -0,0 +1,23 @@
+package com.kdn.ets.api_gateway.exception;
+
+/**
+ * 사용자별 / (사용자, API)별 요청 수 한도를 넘어 거절한 요청 (429).
+ * 토큰 버킷마다 하나만 만들어 재사용하며, Retry-After 는 토큰 하나가 다시 차는 시간입니다.
+ */
+public class RateLimitException extends RejectionException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param apiId 한도 대상 API ("*" 이면 사용자 전체 한도)
+     */
+    public RateLimitException(String apiId, long retryAfterSeconds) {
+        super(429, "요청 한도를 초과했습니다. 잠시 후 다시 시도하세요: " + apiId, "api_id", apiId);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,46 @@
+package com.kdn.ets.api_gateway.exception;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * 업스트림을 호출하지 않고 즉시 거절한 요청 (서킷 차단, 동시 처리 한도 등).
+ * 거절 원인마다 하나만 만들어 재사용하며, 스택 트레이스를 채우지 않고 suppressed 도 쌓지 않습니다.
+ * (공유 인스턴스에 요청마다 checkpoint 가 addSuppressed 하면 끝없이 커지므로)
+ * 응답 바디도 미리 직렬화해 두어 GlobalExceptionHandler 가 그대로 씁니다.
+ */
+public abstract class RejectionException extends ApiException {
+
+    /** 미리 직렬화한 JSON 응답 바디 */
+    @Getter private final String body;
+    @Getter private final byte[] bodyBytes;
+
+    /**
+     * @param detailName  바디에 덧붙일 거절 대상 필드 이름 (예: circuit)
+     * @param detailValue 거절 대상 (예: 브레이커 이름)
+     */
+    protected RejectionException(int statusCode, String message, String detailName, String detailValue) {
+        super(statusCode, message, false);
+        this.body = "{\"status\":" + statusCode + ",\"error\":\"" + HttpStatus.valueOf(statusCode).getReasonPhrase()
+                + "\",\"message\":\"" + escape(message) + "\",\"exception\":\"" + getClass().getName()
+                + "\",\"" + detailName + "\":\"" + escape(detailValue) + "\"}";
+        this.bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** 다시 시도해 볼 수 있기까지 남은 시간 (초, Retry-After 헤더, 0 이면 보내지 않음) */
+    public abstract long retryAfterSeconds();
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -1,121 +1,166 @@
 package com.kdn.ets.api_gateway.filter;
 
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferFactory;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import com.kdn.ets.api_gateway.auth.QuotaTracker;
+import com.kdn.ets.api_gateway.auth.RateLimiter;
 import com.kdn.ets.api_gateway.exception.ApiException;
-import com.kdn.ets.api_gateway.repository.ApiRouteRepository;
+import com.kdn.ets.api_gateway.exception.QuotaExceededException;
+import com.kdn.ets.api_gateway.exception.RateLimitException;
+import com.kdn.ets.api_gateway.helper.BodyCapture;
+import com.kdn.ets.api_gateway.helper.GatewayLogHelper;
+import com.kdn.ets.api_gateway.helper.RequestTimings;
+import com.kdn.ets.api_gateway.route.CompiledRoute;
+import com.kdn.ets.api_gateway.route.RouteMatch;
+import com.kdn.ets.api_gateway.route.RouteTable;
 import com.kdn.ets.api_gateway.service.AuthService;
+import com.kdn.ets.api_gateway.upstream.CircuitBreaker;
+import com.kdn.ets.api_gateway.upstream.CircuitBreakerRegistry;
+import com.kdn.ets.api_gateway.upstream.ConcurrencyLimiter;
+import com.kdn.ets.api_gateway.upstream.ConcurrencyLimiterRegistry;
+import com.kdn.ets.api_gateway.upstream.TargetGroup;
+import com.kdn.ets.api_gateway.upstream.UpstreamDispatcher;
+import com.kdn.ets.api_gateway.upstream.UpstreamRegistry;
+import com.kdn.ets.api_gateway.upstream.UpstreamTarget;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class GlobalAuthRoutingFilter implements GlobalFilter, Ordered {
 
-    private final ApiRouteRepository apiRouteRepository;
+    private final RouteTable routeTable;
     private final AuthService authService;
-
-    // 공유 attribute 키
-    private static final String ATTR_REQ   = "captured_request_body";
-    private static final String ATTR_START = "logging_start_ms";
+    private final UpstreamRegistry upstreamRegistry;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final UpstreamDispatcher upstreamDispatcher;
+    private final ConcurrencyLimiterRegistry concurrencyLimiters;
+    private final RateLimiter rateLimiter;
+    private final QuotaTracker quotaTracker;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         // 요청 시작 시각(지연시간 계산용) 없으면 세팅
-        if (exchange.getAttribute(ATTR_START) == null) {
-            exchange.getAttributes().put(ATTR_START, System.currentTimeMillis());
+        if (exchange.getAttribute(GatewayLogHelper.ATTR_START) == null) {
+            exchange.getAttributes().put(GatewayLogHelper.ATTR_START, System.currentTimeMillis());
         }
 
         final String path = exchange.getRequest().getURI().getPath();
         final String apiId = path.startsWith("/") ? path.substring(1) : path;
-        final String requestMethod = exchange.getRequest().getMethod().name();
+        final String requestMethod = exchange.getRequest().getMethodValue();
 
         log.info("Request received for apiId: {}, Method: {}", apiId, requestMethod);
 
-        // 라우트 조회 (블로킹 가능성 → boundedElastic)
-        return Mono.fromCallable(() ->
-			        apiRouteRepository.findByApiIdAndMethod(apiId, requestMethod)
-							          .filter(route -> "Y".equalsIgnoreCase(route.getUseYn()))
-							          .orElseThrow(() -> new ApiException(404, "API를 찾을 수 없거나 비활성화되었거나, 메서드가 일치하지 않습니다: " + apiId + "[" + requestMethod + "]"))
-			    )
-               .subscribeOn(Schedulers.boundedElastic())
-               .flatMap(apiInfo -> {
-                   // 메서드 검증
-//                   if (!apiInfo.getMethod().equalsIgnoreCase(requestMethod)) {
-//                       return Mono.error(new ApiException(405, "허용되지 않은 메서드입니다: " + requestMethod));
-//                   }
-                   exchange.getAttributes().put("api_info", apiInfo);
-
-                   // 인증/인가
-                   return authService.verifyAndGetUserId(exchange.getRequest(), apiId)
-                       .flatMap(userId -> {
-                           exchange.getAttributes().put("user_id", userId);
-
-                           // 목적지 URI 재작성
-                           final URI downstreamUri = URI.create(apiInfo.getPath());
-                           ServerWebExchangeUtils.addOriginalRequestUrl(exchange, exchange.getRequest().getURI());
-                           final URI newRequestUri = UriComponentsBuilder.fromUri(downstreamUri).build(true).toUri();
-
-                           // 요청 바디 캡처 후 재주입
-                           final DataBufferFactory bf = exchange.getResponse().bufferFactory();
-                           return DataBufferUtils.join(exchange.getRequest().getBody())
-                                   .defaultIfEmpty(bf.wrap(new byte[0]))
-                                   .flatMap(joined -> {
-                                       byte[] reqBytes = new byte[joined.readableByteCount()];
-                                       joined.read(reqBytes);
-                                       DataBufferUtils.release(joined);
-
-                                       // 요청 바디(텍스트 기준) 저장 — 로깅 서비스가 참고
-                                       final String reqBodyStr = new String(reqBytes, StandardCharsets.UTF_8);
-                                       exchange.getAttributes().put(ATTR_REQ, reqBodyStr);
-
-                                       // 요청 데코레이터로 바디 재공급 + URI 교체
-                                       ServerHttpRequest base = exchange.getRequest().mutate().uri(newRequestUri).build();
-                                       ServerHttpRequest decoratedRequest = new ServerHttpRequestDecorator(base) {
-                                           @Override
-                                           public HttpHeaders getHeaders() {
-                                               HttpHeaders headers = new HttpHeaders();
-                                               headers.putAll(super.getHeaders());
-                                               headers.remove(HttpHeaders.TRANSFER_ENCODING);
-                                               headers.setContentLength(reqBytes.length);
-                                               return headers;
-                                           }
-                                           @Override
-                                           public Flux<DataBuffer> getBody() {
-                                               return Flux.defer(() -> Flux.just(bf.wrap(reqBytes)));
-                                           }
-                                       };
-
-                                       ServerWebExchange newExchange = exchange.mutate().request(decoratedRequest).build();
-                                       newExchange.getAttributes().put(
-                                               ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, newRequestUri);
-                                       log.info(">>> Rewriting path to: {}", newRequestUri);
-
-                                       // 응답 캡처/로깅은 ResponseCaptureFilter & GlobalExceptionHandler가 담당
-                                       return chain.filter(newExchange);
-                                   });
-                       });
+        // 라우트 조회 (메모리 스냅샷의 경로 패턴 트리 → DB 호출 없음)
+        final RouteMatch match = routeTable.match(path, exchange.getRequest().getMethod());
+        final CompiledRoute apiInfo = match != null ? match.getRoute() : null;
+        final RequestTimings timings = RequestTimings.of(exchange);
+        if (timings != null) timings.markRouted();
+        if (apiInfo == null || !apiInfo.isEnabled()) {
+            return Mono.error(new ApiException(404, "API를 찾을 수 없거나 비활성화되었거나, 메서드가 일치하지 않습니다: " + apiId + "[" + requestMethod + "]"));
+        }
+        exchange.getAttributes().put("api_info", apiInfo);
+
+        // 라우트별 적응형 동시 처리 한도: 넘으면 인증(DB 조회)/업스트림 호출 없이 즉시 503 (미리 만든 예외/응답 바디)
+        final ConcurrencyLimiter limiter = concurrencyLimiters.limiter(apiInfo.getApiId());
+        final ConcurrencyLimiter.Permit permit = limiter != null ? limiter.tryAcquire() : null;
+        if (limiter != null && permit == null) {
+            return Mono.error(limiter.rejection());
+        }
+
+        // 인증/인가 (권한은 일치한 라우트의 api_id(패턴) 기준, 캐시 미스일 때만 AuthService 내부에서 boundedElastic 으로 DB 조회)
+        Mono<Void> routed = authService.verifyAndGetUserId(exchange.getRequest(), apiInfo.getApiId())
+               .flatMap(userId -> {
+                   if (timings != null) timings.markAuthorized();
+                   exchange.getAttributes().put("user_id", userId);
+
+                   // 사용자별 / (사용자, API)별 요청 수 한도: 넘으면 업스트림 호출 없이 즉시 429 + Retry-After
+                   // 게이트웨이가 보내지 않고 끝낸 요청(기한 초과, 서킷 열림, 호출 한도)은 토큰을 되돌려 세지 않음
+                   final RateLimitException limited = rateLimiter.tryAcquire(userId, apiInfo.getApiId());
+                   if (limited != null) {
+                       return Mono.error(limited);
+                   }
+
+                   // 목적지 URI 재작성 (라우트 테이블 로딩 시 미리 파싱됨, {변수} 템플릿만 캡처 값으로 조립)
+                   ServerWebExchangeUtils.addOriginalRequestUrl(exchange, exchange.getRequest().getURI());
+                   // api_targets 가 있으면 정책(lb_policy)에 따라 고른 대상의 scheme://host:port 로 교체
+                   final TargetGroup group = upstreamRegistry.group(apiInfo.getApiId());
+                   final UpstreamTarget target = group != null ? group.choose() : null;
+                   final URI newRequestUri = target != null ? target.resolve(match.downstreamUri()) : match.downstreamUri();
+
+                   // 요청 기한 (라우트 response_timeout_ms 와 클라이언트가 보낸 남은 시간 중 짧은 쪽), 이미 지났으면 보내지 않음
+                   final long deadline = upstreamDispatcher.deadlineNanos(exchange.getRequest(), apiInfo, timings);
+                   if (UpstreamDispatcher.isExpired(deadline)) {
+                       rateLimiter.refund(userId, apiInfo.getApiId());
+                       return Mono.error(UpstreamDispatcher.deadlineExceeded(apiInfo));
+                   }
+
+                   // 요청 데코레이터: 바디는 들어오는 대로 업스트림에 흘려보내고(tee), 앞부분만 로그용으로 복사
+                   // Content-Length / Transfer-Encoding 헤더는 원본 그대로 유지 (청크 전송 보존)
+                   // 남은 기한은 업스트림이 먼저 포기할 수 있도록 시도마다 기한 헤더로 전달 (UpstreamDispatcher)
+                   ServerHttpRequest base = exchange.getRequest().mutate()
+                           .uri(newRequestUri)
+                           .build();
+                   ServerHttpRequest decoratedRequest = decorateBody(base, exchange, apiInfo.getRequestCaptureBytes());
+
+                   ServerWebExchange newExchange = exchange.mutate().request(decoratedRequest).build();
+                   newExchange.getAttributes().put(
+                           ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, newRequestUri);
+                   log.info(">>> Rewriting path to: {}", newRequestUri);
+
+                   // 서킷이 열려 있으면 업스트림 연결 없이 즉시 503 (미리 만든 예외/응답 바디)
+                   // 허가(HALF_OPEN 시험 호출 포함)는 dispatch 직전에 받아, 그 사이 예외로 허가가 새지 않게 함
+                   final CircuitBreaker breaker = circuitBreakers.breaker(apiInfo.getApiId(), target);
+                   final CircuitBreaker.Call call = breaker != null ? breaker.tryAcquire() : null;
+                   if (breaker != null && call == null) {
+                       rateLimiter.refund(userId, apiInfo.getApiId());
+                       return Mono.error(breaker.rejection());
+                   }
+
+                   // 일/월 호출 한도: 메모리 카운터로 확인 후 호출 수에 더함 (DB 저장은 QuotaTracker 가 주기적으로 일괄 처리)
+                   // 게이트웨이가 직접 끝내는 응답(기한 초과, 서킷 열림)은 세지 않도록 업스트림에 보내기 직전에 확인
+                   final QuotaExceededException exhausted = quotaTracker.tryAcquire(userId, apiInfo.getApiId());
+                   if (exhausted != null) {
+                       // 보내지 않은 요청은 서킷 시험 호출 / 요청 수 한도에서도 되돌림
+                       if (call != null) call.ignore();
+                       rateLimiter.refund(userId, apiInfo.getApiId());
+                       return Mono.error(exhausted);
+                   }
+
+                   // 업스트림 호출 (처리 중 요청 수 / 서킷 기록 / 연결 실패 재시도 / 헤징 / 타임아웃)
+                   // 응답 캡처/로깅은 ResponseCaptureFilter & GlobalExceptionHandler가 담당
+                   return upstreamDispatcher.dispatch(newExchange, chain, apiInfo, group, target, call, deadline);
                });
+        return permit != null ? permit.track(exchange, routed) : routed;
+    }
+
+    static ServerHttpRequest decorateBody(ServerHttpRequest base, ServerWebExchange exchange, int captureBytes) {
+        if (captureBytes <= 0 || !BodyCapture.isTextual(base.getHeaders().getContentType())) {
+            return base;
+        }
+        final BodyCapture capture = new BodyCapture(captureBytes);
+        exchange.getAttributes().put(GatewayLogHelper.ATTR_REQ_CAPTURE, capture);
+
+        return new ServerHttpRequestDecorator(base) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return super.getBody().doOnNext(capture::append);
+            }
+        };
     }
 
     @Override
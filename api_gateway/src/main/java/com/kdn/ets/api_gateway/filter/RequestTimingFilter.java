@@ -0,0 +1,36 @@
+package com.kdn.ets.api_gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.kdn.ets.api_gateway.helper.GatewayLogHelper;
+import com.kdn.ets.api_gateway.helper.RequestTimings;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 가장 먼저 실행되어 요청 단계별 시간 기록(RequestTimings)을 시작합니다.
+ * exchange 속성과 Reactor Context 에 함께 넣어, 업스트림 HttpClient 콜백에서도 같은 객체에 기록되게 합니다.
+ */
+@Component
+public class RequestTimingFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RequestTimings timings = RequestTimings.start();
+        exchange.getAttributes().put(RequestTimings.ATTR, timings);
+        // 요청 시각(requested_at) 기록용 벽시계 시각
+        exchange.getAttributes().putIfAbsent(GatewayLogHelper.ATTR_START, System.currentTimeMillis());
+
+        return chain.filter(exchange)
+                    .contextWrite(ctx -> ctx.put(RequestTimings.CONTEXT_KEY, timings));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
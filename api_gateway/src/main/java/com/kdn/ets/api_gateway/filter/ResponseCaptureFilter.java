@@ -1,19 +1,24 @@
 package com.kdn.ets.api_gateway.filter;
 
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
 
 import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.kdn.ets.api_gateway.helper.BodyCapture;
 import com.kdn.ets.api_gateway.helper.GatewayLogHelper;
+import com.kdn.ets.api_gateway.helper.RequestTimings;
+import com.kdn.ets.api_gateway.helper.StreamEventCounter;
+import com.kdn.ets.api_gateway.route.CompiledRoute;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,41 +32,92 @@ public class ResponseCaptureFilter implements GlobalFilter, Ordered {
 
     private final GatewayLogHelper logHelper;
 
+    // 라우트 정보(api_info)가 없는 응답(라우팅 전 오류 등)에 적용할 캡처 한도
+    @Value("${app.log.response-capture-bytes:4000}")
+    private int defaultCaptureBytes;
+
+    @Value("${app.stream.idle-timeout-ms:60000}")
+    private int defaultStreamIdleTimeoutMs;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, org.springframework.cloud.gateway.filter.GatewayFilterChain chain) {
 
         final ServerHttpResponse original = exchange.getResponse();
-        final StringBuilder respBody = new StringBuilder();
+        final RequestTimings timings = RequestTimings.of(exchange);
 
         ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(original) {
+            // 첫 writeWith 시점에 Content-Type 을 보고 생성 (바이너리/캡처 안 함이면 null)
+            private volatile BodyCapture capture;
+            // 스트리밍 응답(writeAndFlushWith)일 때만 생성
+            private volatile StreamEventCounter events;
+
             private void logOnce(Throwable error) {
                 int status = getStatusCode() != null ? getStatusCode().value() : 500;
-                logHelper.asyncLogOnce(exchange, status, respBody.toString(), error);
+                StreamEventCounter e = events;
+                if (e != null) {
+                    exchange.getAttributes().put(GatewayLogHelper.ATTR_STREAM_EVENTS, e.getEvents());
+                }
+                BodyCapture c = capture;
+                logHelper.asyncLogOnce(exchange, status, c != null ? c.asString() : null, error);
+            }
+
+            private void onBuffer(DataBuffer buffer) {
+                if (timings != null) timings.markBodyBytes();
+
+                BodyCapture c = capture;
+                if (c != null) c.append(buffer);
+                StreamEventCounter e = events;
+                if (e != null) e.append(buffer);
+            }
+
+            private BodyCapture startCapture() {
+                CompiledRoute route = exchange.getAttribute("api_info");
+                int limit = route != null ? route.getResponseCaptureBytes() : defaultCaptureBytes;
+                if (limit <= 0 || !BodyCapture.isTextual(getDelegate().getHeaders().getContentType())) {
+                    return null;
+                }
+                return new BodyCapture(limit);
             }
 
             @Override
             public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
-                // Content-Length 제거 → 청크 전송
-                getDelegate().getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
-
-                Flux<? extends DataBuffer> flux = Flux.from(body)
-                    .map(buf -> {
-                        byte[] bytes = new byte[buf.readableByteCount()];
-                        buf.read(bytes);
-                        DataBufferUtils.release(buf);
-                        // 텍스트 기반 로깅(필요시 마스킹/길이 제한은 GatewayLogHelper에 추가)
-                        respBody.append(new String(bytes, StandardCharsets.UTF_8));
-                        return original.bufferFactory().wrap(bytes);
-                    })
-                    .doFinally(sig -> logOnce(null));
-
-                return super.writeWith(flux);
+                // 원본 버퍼를 그대로 전달(tee)하고 앞부분만 로그용으로 복사
+                // 바디 바이트를 바꾸지 않으므로 Content-Length 는 유지됩니다.
+                capture = startCapture();
+
+                Flux<? extends DataBuffer> flux = Flux.from(body).doOnNext(this::onBuffer);
+                return super.writeWith(flux
+                        .doOnError(this::logOnce)
+                        .doFinally(sig -> logOnce(null)));
             }
 
+            /**
+             * 스트리밍 응답(SSE / NDJSON 등, spring.cloud.gateway.streaming-media-types)은
+             * NettyWriteResponseFilter 가 청크마다 flush 하도록 이 메서드로 보냅니다.
+             * 평탄화해서 writeWith 로 넘기면 flush 단위가 사라지므로, 청크 단위를 유지한 채 tee 만 겁니다.
+             * 이벤트 사이 대기 시간이 stream idle timeout 을 넘으면 스트림을 끊고 오류로 기록합니다.
+             */
             @Override
             public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
-                getDelegate().getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
-                return writeWith(Flux.from(body).flatMap(p -> p));
+                capture = startCapture();
+                events = newEventCounter(getDelegate().getHeaders().getContentType());
+
+                Flux<Publisher<? extends DataBuffer>> chunks = Flux.from(body)
+                        .map(chunk -> Flux.from(chunk).doOnNext(this::onBuffer));
+
+                final int idleTimeoutMs = streamIdleTimeoutMs();
+                if (idleTimeoutMs > 0) {
+                    chunks = chunks.timeout(Duration.ofMillis(idleTimeoutMs),
+                            Flux.error(() -> new TimeoutException("stream idle timeout (" + idleTimeoutMs + "ms)")));
+                }
+                return super.writeAndFlushWith(chunks
+                        .doOnError(this::logOnce)
+                        .doFinally(sig -> logOnce(null)));
+            }
+
+            private int streamIdleTimeoutMs() {
+                CompiledRoute route = exchange.getAttribute("api_info");
+                return route != null ? route.getStreamIdleTimeoutMs() : defaultStreamIdleTimeoutMs;
             }
 
             @Override
@@ -73,6 +129,13 @@ public class ResponseCaptureFilter implements GlobalFilter, Ordered {
         return chain.filter(exchange.mutate().response(decorated).build());
     }
 
+    private static StreamEventCounter newEventCounter(MediaType contentType) {
+        if (contentType != null && MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+            return StreamEventCounter.serverSentEvents();
+        }
+        return StreamEventCounter.lineDelimited();
+    }
+
     @Override
     public int getOrder() {
         // NettyWriteResponseFilter(-1) 이전에 데코레이터 설치 필요
@@ -0,0 +1,74 @@
+package com.kdn.ets.api_gateway.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+
+/**
+ * 스트리밍되는 바디에서 앞부분 limit 바이트만 복사해 두는 로깅용 캡처 버퍼.
+ * - 원본 DataBuffer 의 읽기 위치를 건드리지 않으므로 버퍼는 그대로 전달(tee)됩니다.
+ * - 메모리는 바디 크기와 무관하게 최대 limit 바이트입니다. (첫 데이터가 올 때 할당)
+ */
+public final class BodyCapture {
+
+    private final int limit;
+    private byte[] bytes;
+    private int length;
+    private long totalBytes;
+
+    public BodyCapture(int limit) {
+        this.limit = Math.max(0, limit);
+    }
+
+    /** 로깅 대상 텍스트 타입인지 (Content-Type 이 없으면 텍스트로 간주) */
+    public static boolean isTextual(MediaType contentType) {
+        if (contentType == null) return true;
+        if ("text".equalsIgnoreCase(contentType.getType())) return true;
+        String subtype = contentType.getSubtype().toLowerCase(Locale.ROOT);
+        return subtype.equals("json") || subtype.endsWith("+json")
+            || subtype.equals("xml") || subtype.endsWith("+xml")
+            || subtype.equals("x-www-form-urlencoded")
+            || subtype.equals("x-ndjson") || subtype.equals("javascript");
+    }
+
+    public synchronized void append(DataBuffer buffer) {
+        int readable = buffer.readableByteCount();
+        totalBytes += readable;
+
+        int n = Math.min(limit - length, readable);
+        if (n <= 0) return;
+        if (bytes == null) bytes = new byte[limit];
+        buffer.asByteBuffer(buffer.readPosition(), n).get(bytes, length, n);
+        length += n;
+    }
+
+    /** limit 을 넘어 잘렸는지 */
+    public synchronized boolean isTruncated() {
+        return totalBytes > length;
+    }
+
+    /** 지금까지 흘러간 전체 바이트 수 */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /** 캡처된 바이트를 UTF-8 로 디코딩 (잘린 경우 끝의 불완전한 멀티바이트 문자는 제외) */
+    public synchronized String asString() {
+        if (length == 0) return "";
+        int end = isTruncated() ? completeUtf8Length(bytes, length) : length;
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    private static int completeUtf8Length(byte[] b, int len) {
+        // 끝에서 최대 3바이트 안에서 마지막 문자 시작 바이트를 찾음
+        for (int i = len - 1; i >= 0 && i >= len - 4; i--) {
+            int c = b[i] & 0xff;
+            if ((c & 0xc0) == 0x80) continue; // continuation byte
+            int need = c < 0x80 ? 1 : (c & 0xe0) == 0xc0 ? 2 : (c & 0xf0) == 0xe0 ? 3 : 4;
+            return i + need <= len ? len : i;
+        }
+        return len;
+    }
+}
@@ -0,0 +1,145 @@
+package com.kdn.ets.api_gateway.helper;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * 로그에 남길 요청 바디의 민감 값 마스킹.
+ * - JSON: 트리로 읽지 않고 JsonParser → JsonGenerator 로 토큰을 흘려 쓰면서 민감 키의 값(하위 객체/배열 포함)을 가립니다.
+ * - x-www-form-urlencoded: 문자열을 split 하지 않고 '&' / '=' 위치만 훑어 민감 키의 값을 가립니다.
+ * 출력이 maxChars 에 도달하면 그 자리에서 멈추므로, 비용은 바디 전체가 아니라 저장되는 앞부분에 비례합니다.
+ * 요청마다 상태를 새로 만들므로 여러 스레드에서 공유해도 안전합니다.
+ */
+public final class BodyMasker {
+
+    public static final String MASK = "**********";
+
+    private final JsonFactory jsonFactory;
+    private final CaseInsensitiveKeys keys;
+    private final int maxChars;
+
+    public BodyMasker(JsonFactory jsonFactory, CaseInsensitiveKeys keys, int maxChars) {
+        this.jsonFactory = jsonFactory;
+        this.keys = keys;
+        this.maxChars = maxChars;
+    }
+
+    /** 마스킹할 수 없는 Content-Type 이면 앞부분만 잘라 그대로 반환 */
+    public String mask(String body, String contentType) {
+        if (body == null || body.isEmpty()) return body;
+        if (contentType != null) {
+            if (contentType.contains(MediaType.APPLICATION_JSON_VALUE)) {
+                return maskJson(body);
+            }
+            if (contentType.contains(MediaType.APPLICATION_FORM_URLENCODED_VALUE)) {
+                return maskForm(body);
+            }
+        }
+        return truncate(body);
+    }
+
+    String maskJson(String body) {
+        BoundedWriter out = new BoundedWriter(maxChars, Math.min(maxChars, body.length() + 16));
+        // Reader 로 넘겨 한도까지 필요한 만큼만 읽게 함
+        try (JsonParser parser = jsonFactory.createParser(new StringReader(body));
+             JsonGenerator gen = jsonFactory.createGenerator(out)) {
+            // 중간에 멈춰도 닫는 괄호를 덧붙이지 않음 (저장되는 값은 앞부분 그대로)
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && keys.contains(parser.getCurrentName())) {
+                    gen.writeFieldName(parser.getCurrentName());
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                    }
+                    gen.writeString(MASK);
+                } else {
+                    gen.copyCurrentEvent(parser);
+                }
+                // 생성기 내부 버퍼까지 포함해 한도에 도달하면 나머지는 읽지 않음
+                if (out.length() + gen.getOutputBuffered() >= maxChars) break;
+            }
+            gen.flush();
+        } catch (IOException e) {
+            // 캡처 한도에서 잘린 바디이거나 JSON 이 아닌 경우: 그때까지 마스킹된 앞부분만 사용
+            // (한 토큰도 읽지 못했으면 기존처럼 원문 앞부분을 저장)
+            if (out.length() == 0) return truncate(body);
+        }
+        return out.toString();
+    }
+
+    String maskForm(String body) {
+        StringBuilder sb = new StringBuilder(Math.min(maxChars, body.length()));
+        int len = body.length();
+        int start = 0;
+        while (start <= len && sb.length() < maxChars) {
+            int end = start;
+            int eq = -1;
+            for (; end < len; end++) {
+                char c = body.charAt(end);
+                if (c == '&') break;
+                if (c == '=' && eq < 0) eq = end;
+            }
+
+            if (start > 0) sb.append('&');
+            if (eq >= 0 && keys.contains(body, start, eq)) {
+                sb.append(body, start, eq + 1).append(MASK);
+            } else {
+                sb.append(body, start, end);
+            }
+            start = end + 1;
+        }
+        return sb.length() > maxChars ? sb.substring(0, maxChars) : sb.toString();
+    }
+
+    private String truncate(String body) {
+        return body.length() <= maxChars ? body : body.substring(0, maxChars);
+    }
+
+    /** limit 까지만 담고 나머지는 버리는 Writer */
+    private static final class BoundedWriter extends Writer {
+        private final StringBuilder sb;
+        private final int limit;
+
+        BoundedWriter(int limit, int initialCapacity) {
+            this.sb = new StringBuilder(initialCapacity);
+            this.limit = limit;
+        }
+
+        int length() {
+            return sb.length();
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, Math.min(len, limit - sb.length()));
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            sb.append(str, off, off + Math.min(len, limit - sb.length()));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
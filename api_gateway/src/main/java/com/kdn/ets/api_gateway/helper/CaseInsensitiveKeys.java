@@ -0,0 +1,78 @@
+package com.kdn.ets.api_gateway.helper;
+
+import java.util.Locale;
+
+/**
+ * 대소문자를 구분하지 않는 키 집합 (로그 마스킹 민감 키, 로그 헤더 허용/제외 목록).
+ * 조회 시 toLowerCase 로 새 문자열을 만들지 않도록, 대소문자를 접어 해시/비교하는 오픈 어드레싱 테이블을 씁니다.
+ * 문자열의 일부 구간(start~end)도 그대로 조회할 수 있어 form 바디/헤더를 자르지 않고 검사할 수 있습니다.
+ * 생성 후 변경되지 않으므로 여러 스레드에서 공유해도 안전합니다.
+ */
+public final class CaseInsensitiveKeys {
+
+    private final String[] table;
+    private final int mask;
+    private final int size;
+
+    private CaseInsensitiveKeys(String[] table, int size) {
+        this.table = table;
+        this.mask = table.length - 1;
+        this.size = size;
+    }
+
+    public static CaseInsensitiveKeys of(String... keys) {
+        int capacity = Integer.highestOneBit(Math.max(2, keys.length) * 4 - 1) << 1;
+        String[] table = new String[capacity];
+        int size = 0;
+        for (String key : keys) {
+            String k = key.toLowerCase(Locale.ROOT);
+            int i = hash(k, 0, k.length()) & (capacity - 1);
+            while (table[i] != null && !table[i].equals(k)) {
+                i = (i + 1) & (capacity - 1);
+            }
+            if (table[i] == null) size++;
+            table[i] = k;
+        }
+        return new CaseInsensitiveKeys(table, size);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(CharSequence key) {
+        return key != null && contains(key, 0, key.length());
+    }
+
+    /** key 의 [start, end) 구간이 집합에 있는지 */
+    public boolean contains(CharSequence key, int start, int end) {
+        int i = hash(key, start, end) & mask;
+        String candidate;
+        while ((candidate = table[i]) != null) {
+            if (equalsIgnoreCase(candidate, key, start, end)) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    private static int hash(CharSequence s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + fold(s.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equalsIgnoreCase(String lower, CharSequence s, int start, int end) {
+        if (lower.length() != end - start) return false;
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) != fold(s.charAt(start + i))) return false;
+        }
+        return true;
+    }
+
+    private static char fold(char c) {
+        if (c >= 'A' && c <= 'Z') return (char) (c + ('a' - 'A'));
+        return c < 0x80 ? c : Character.toLowerCase(c);
+    }
+}
@@ -1,16 +1,23 @@
 package com.kdn.ets.api_gateway.helper;
 
+import java.net.URI;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
-import com.kdn.ets.api_gateway.service.LoggingService;
+import com.kdn.ets.api_gateway.helper.RequestTimings.Phase;
+import com.kdn.ets.api_gateway.logging.GatewayLogWriter;
+import com.kdn.ets.api_gateway.logging.LogEvent;
+import com.kdn.ets.api_gateway.metrics.GatewayMetrics;
+import com.kdn.ets.api_gateway.metrics.LiveStats;
+import com.kdn.ets.api_gateway.route.CompiledRoute;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 @Component
@@ -18,27 +25,33 @@ import reactor.core.scheduler.Schedulers;
 public class GatewayLogHelper {
 
     // 모든 필터/핸들러에서 같은 키를 사용해야 공용 컨텍스트로 공유됩니다.
-    public static final String ATTR_REQ    = "captured_request_body";
-    public static final String ATTR_RES    = "captured_response_body";
-    public static final String ATTR_LOGGED = "logging_done_once";
-    public static final String ATTR_START  = "logging_start_ms";
+    public static final String ATTR_REQ_CAPTURE = "captured_request_body";   // BodyCapture
+    public static final String ATTR_RES         = "captured_response_body";
+    public static final String ATTR_LOGGED      = "logging_done_once";
+    public static final String ATTR_START       = "logging_start_ms";
+    // 스트리밍 이벤트 수 (ResponseCaptureFilter 가 기록)
+    public static final String ATTR_STREAM_EVENTS = "logging_stream_events";
 
-    private final LoggingService loggingService;
+    private final GatewayLogWriter logWriter;
+    private final GatewayMetrics metrics;
+    private final LiveStats liveStats;
 
     /**
      * 이 메서드만 호출하면 됨.
      * - 한번만 실행(dedupe)
-     * - 지연시간 자동 계산(ATTR_START 없으면 지금 시각으로 초기화)
-     * - 비동기(boundElastic)로 DB 로깅
+     * - 지연시간 자동 계산(RequestTimings 의 단조 시계 기준, 없으면 ATTR_START 벽시계 기준)
+     * - exchange 에서 로그 값만 복사(LogEvent)해 로그 작성 큐에 넣음 (DB 저장은 GatewayLogWriter 전용 스레드)
      */
     public void asyncLogOnce(ServerWebExchange exchange, int statusCode, String responseBody, Throwable error) {
         // 시작시각 보장 + 지연시간 계산
+        final long now = System.currentTimeMillis();
         Long start = exchange.getAttribute(ATTR_START);
         if (start == null) {
-            start = System.currentTimeMillis();
+            start = now;
             exchange.getAttributes().put(ATTR_START, start);
         }
-        final int latencyMs = (int) (System.currentTimeMillis() - start);
+        final RequestTimings timings = RequestTimings.of(exchange);
+        final int latencyMs = timings != null ? (int) (timings.elapsedNanos() / 1_000_000) : (int) (now - start);
 
         // dedupe 플래그 보장
         AtomicBoolean once = exchange.getAttribute(ATTR_LOGGED);
@@ -50,14 +63,83 @@ public class GatewayLogHelper {
             return; // 이미 다른 곳에서 기록함
         }
 
-        final String resBody = responseBody;
-        Mono.fromRunnable(() -> {
-            try {
-                exchange.getAttributes().put(ATTR_RES, resBody);
-                loggingService.logRequest(exchange, latencyMs, statusCode, resBody, error);
-            } catch (Throwable t) {
-                log.warn("loggingService.logRequest failed (async)", t);
+        try {
+            exchange.getAttributes().put(ATTR_RES, responseBody);
+            logWriter.submit(capture(exchange, timings, latencyMs, now, statusCode, responseBody, error));
+            CompiledRoute route = exchange.getAttribute("api_info");
+            String apiId = route != null ? route.getApiId() : null;
+            if (timings != null) {
+                // 라우트가 매칭되었으면 라우트의 메서드, 아니면 요청 메서드 (비표준 메서드는 GatewayMetrics 에서 OTHER 로 묶음)
+                String method = route != null ? route.getMethod() : exchange.getRequest().getMethodValue();
+                metrics.record(apiId, method, statusCode, timings);
             }
-        }).subscribeOn(Schedulers.boundedElastic()).subscribe();
+            liveStats.record(apiId, exchange.getAttribute("user_id"), statusCode,
+                             timings != null ? timings.elapsedNanos() : latencyMs * 1_000_000L, error != null);
+        } catch (Throwable t) {
+            log.warn("gateway log capture failed", t);
+        }
+    }
+
+    /** 요청 필터가 tee 로 캡처한 요청 바디 앞부분 (아직 다 수신되지 않았으면 지금까지 받은 만큼) */
+    private static String requestBody(ServerWebExchange exchange) {
+        BodyCapture capture = exchange.getAttribute(ATTR_REQ_CAPTURE);
+        return capture != null ? capture.asString() : null;
+    }
+
+    private LogEvent capture(ServerWebExchange exchange, RequestTimings timings, int latencyMs, long respondedAt,
+                             int statusCode, String responseBody, Throwable error) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders headers = request.getHeaders();
+        CompiledRoute apiInfo = exchange.getAttribute("api_info");
+
+        // 라우트가 정해졌으면 api_id 패턴(api_list 와 조인 가능), 아니면 요청 경로
+        final String path = request.getURI().getPath();
+        final String apiId = apiInfo != null ? apiInfo.getApiId() : path.startsWith("/") ? path.substring(1) : path;
+        final Long streamEvents = exchange.getAttribute(ATTR_STREAM_EVENTS);
+
+        return LogEvent.builder()
+                .userId(exchange.getAttribute("user_id"))
+                .apiId(apiId)
+                .method(request.getMethodValue())
+                .path(downstreamPath(exchange, apiInfo))
+                .queryParam(request.getQueryParams().toString())
+                .requestHeaders(headers)
+                .contentType(headers.getFirst(HttpHeaders.CONTENT_TYPE))
+                .requestBody(requestBody(exchange))
+                .statusCode(statusCode)
+                .responseBody(responseBody)
+                .latencyMs(latencyMs)
+                .requestedAtMillis(respondedAt - latencyMs)
+                .respondedAtMillis(respondedAt)
+                .clientIp(ClientIpHelper.resolve(exchange))
+                .userAgent(headers.getFirst(HttpHeaders.USER_AGENT))
+                .errorMessage(error == null ? null : error.getClass().getName() + ": " + error.getMessage())
+                .streamEvents(streamEvents != null ? (int) Math.min(streamEvents, Integer.MAX_VALUE) : null)
+                .ttfbMs(timings != null ? millis(timings.ttfbNanos()) : null)
+                .ttlbMs(timings != null ? millis(timings.ttlbNanos()) : null)
+                .routeUs(timings != null ? micros(timings.phaseNanos(Phase.ROUTE)) : null)
+                .authUs(timings != null ? micros(timings.phaseNanos(Phase.AUTH)) : null)
+                .connectUs(timings != null ? micros(timings.phaseNanos(Phase.CONNECT)) : null)
+                .upstreamTtfbUs(timings != null ? micros(timings.phaseNanos(Phase.UPSTREAM_TTFB)) : null)
+                .streamUs(timings != null ? micros(timings.phaseNanos(Phase.STREAM)) : null)
+                .build();
+    }
+
+    /** api_list.path 원문, {변수} 템플릿 라우트는 실제로 호출한 다운스트림 URI */
+    private static String downstreamPath(ServerWebExchange exchange, CompiledRoute apiInfo) {
+        if (apiInfo == null) return null;
+        if (apiInfo.getDownstreamUri() != null) return apiInfo.getPath();
+        URI target = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        return target != null ? target.toString() : apiInfo.getPath();
+    }
+
+    /** ns → ms (기록되지 않은 구간(-1)은 null) */
+    private static Integer millis(long nanos) {
+        return nanos < 0 ? null : (int) Math.min(nanos / 1_000_000, Integer.MAX_VALUE);
+    }
+
+    /** ns → µs (기록되지 않은 구간(-1)은 null) */
+    private static Integer micros(long nanos) {
+        return nanos < 0 ? null : (int) Math.min(nanos / 1_000, Integer.MAX_VALUE);
     }
 }
@@ -0,0 +1,83 @@
+package com.kdn.ets.api_gateway.helper;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 로그에 남길 요청 헤더를 JSON 객체 문자열({"이름":"첫 번째 값", ...})로 직접 씁니다.
+ * 헤더를 한 번만 훑으면서 민감 헤더 값은 가리고, maxChars 에 도달하면 나머지 헤더는 쓰지 않습니다.
+ * - include 가 비어 있지 않으면 include 에 있는 헤더만, exclude 에 있는 헤더는 항상 제외
+ * - 같은 이름이 여러 번 오면 첫 번째 값만 기록 (기존 toSingleValueMap 과 동일)
+ * 출력 버퍼(StringBuilder)는 스레드별로 재사용합니다.
+ */
+public final class HeaderJsonWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final CaseInsensitiveKeys sensitive;
+    private final CaseInsensitiveKeys include;
+    private final CaseInsensitiveKeys exclude;
+    private final int maxChars;
+    private final ThreadLocal<StringBuilder> buffers;
+
+    public HeaderJsonWriter(CaseInsensitiveKeys sensitive, CaseInsensitiveKeys include, CaseInsensitiveKeys exclude, int maxChars) {
+        this.sensitive = sensitive;
+        this.include = include;
+        this.exclude = exclude;
+        this.maxChars = maxChars;
+        this.buffers = ThreadLocal.withInitial(() -> new StringBuilder(maxChars + 64));
+    }
+
+    public String write(HttpHeaders headers) {
+        StringBuilder sb = buffers.get();
+        sb.setLength(0);
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, List<String>> e : headers.entrySet()) {
+            if (sb.length() >= maxChars) break;
+            String name = e.getKey();
+            if (!include.isEmpty() && !include.contains(name)) continue;
+            if (exclude.contains(name)) continue;
+            List<String> values = e.getValue();
+            if (values == null || values.isEmpty()) continue;
+
+            if (!first) sb.append(',');
+            first = false;
+            appendString(sb, name);
+            sb.append(':');
+            if (sensitive.contains(name)) {
+                sb.append('"').append(BodyMasker.MASK).append('"');
+            } else {
+                appendString(sb, values.get(0));
+            }
+        }
+        if (sb.length() < maxChars) sb.append('}');
+        return sb.length() > maxChars ? sb.substring(0, maxChars) : sb.toString();
+    }
+
+    /** JSON 문자열로 이스케이프해서 추가 (maxChars 를 넘는 부분은 쓰지 않음) */
+    private void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        if (s != null) {
+            for (int i = 0, n = s.length(); i < n && sb.length() < maxChars; i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"':  sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
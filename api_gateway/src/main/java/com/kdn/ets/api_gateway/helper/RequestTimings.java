@@ -0,0 +1,116 @@
+package com.kdn.ets.api_gateway.helper;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.util.context.ContextView;
+
+/**
+ * 요청 한 건의 처리 단계별 시각(System.nanoTime) 기록.
+ * - 단조 시계를 쓰므로 시스템 시각 조정(NTP 등)의 영향을 받지 않습니다.
+ * - exchange 속성(ATTR)과 Reactor Context(CONTEXT_KEY) 양쪽에 같은 인스턴스를 넣어
+ *   필터와 업스트림 HttpClient 콜백(NettyClientConfig)에서 함께 기록합니다.
+ * - 각 표식은 서로 다른 스레드에서 한 번씩 쓰이므로 volatile 로 충분합니다. (0 = 기록 안 됨)
+ *
+ * 구간 정의:
+ *   route          시작 ~ 라우트 조회 완료
+ *   auth           라우트 조회 완료 ~ 인증/인가 완료
+ *   connect        인증/인가 완료 ~ 업스트림 요청 전송 시작 (커넥션 풀 획득/연결 포함)
+ *   upstream_ttfb  업스트림 요청 전송 ~ 응답 헤더 수신
+ *   stream         응답 바디 첫 바이트 ~ 마지막 바이트 (클라이언트로 쓰기 포함)
+ */
+public final class RequestTimings {
+
+    public static final String ATTR = "request_timings";
+    public static final Class<RequestTimings> CONTEXT_KEY = RequestTimings.class;
+
+    public enum Phase {
+        ROUTE("route"), AUTH("auth"), CONNECT("connect"), UPSTREAM_TTFB("upstream_ttfb"), STREAM("stream"), TOTAL("total");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final long startNanos;
+    private volatile long routedAt;
+    private volatile long authorizedAt;
+    private volatile long requestSentAt;
+    private volatile long responseHeadersAt;
+    private volatile long firstByteAt;
+    private volatile long lastByteAt;
+
+    private RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public static RequestTimings start() {
+        return new RequestTimings(System.nanoTime());
+    }
+
+    public static RequestTimings of(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTR);
+    }
+
+    public static RequestTimings of(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    // ===== 표식 =====
+
+    public void markRouted() { routedAt = System.nanoTime(); }
+
+    public void markAuthorized() { authorizedAt = System.nanoTime(); }
+
+    public void markRequestSent() { requestSentAt = System.nanoTime(); }
+
+    public void markResponseHeaders() { responseHeadersAt = System.nanoTime(); }
+
+    /** 응답 바디 버퍼가 지나갈 때마다 호출 */
+    public void markBodyBytes() {
+        long now = System.nanoTime();
+        if (firstByteAt == 0) firstByteAt = now;
+        lastByteAt = now;
+    }
+
+    /** 요청 도착 시각 (System.nanoTime) */
+    public long startNanos() {
+        return startNanos;
+    }
+
+    // ===== 구간 (ns, 기록되지 않은 구간은 -1) =====
+
+    public long phaseNanos(Phase phase) {
+        switch (phase) {
+            case ROUTE:         return between(startNanos, routedAt);
+            case AUTH:          return between(routedAt, authorizedAt);
+            case CONNECT:       return between(authorizedAt, requestSentAt);
+            case UPSTREAM_TTFB: return between(requestSentAt, responseHeadersAt);
+            case STREAM:        return between(firstByteAt, lastByteAt);
+            default:            return System.nanoTime() - startNanos;
+        }
+    }
+
+    /** 시작 ~ 응답 첫 바이트 (ns, 바디가 없으면 -1) */
+    public long ttfbNanos() {
+        return between(startNanos, firstByteAt);
+    }
+
+    /** 시작 ~ 응답 마지막 바이트 (ns, 바디가 없으면 -1) */
+    public long ttlbNanos() {
+        return between(startNanos, lastByteAt);
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    private static long between(long from, long to) {
+        return from == 0 || to == 0 ? -1 : to - from;
+    }
+}
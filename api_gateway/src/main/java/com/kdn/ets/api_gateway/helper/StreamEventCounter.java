@@ -0,0 +1,59 @@
+package com.kdn.ets.api_gateway.helper;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * 스트리밍 응답(SSE / NDJSON)의 이벤트 수를 세는 카운터.
+ * - SSE: 빈 줄("\n\n", "\r\n\r\n")로 끝나는 블록 하나를 이벤트 하나로 셉니다. (주석/heartbeat 포함)
+ * - NDJSON: 줄바꿈 하나를 이벤트 하나로 셉니다.
+ * 원본 DataBuffer 의 읽기 위치를 건드리지 않고 바이트만 훑으며, 청크 경계에 걸친 구분자도 처리합니다.
+ */
+public final class StreamEventCounter {
+
+    private final boolean lineDelimited;
+    // 직전 바이트가 줄 끝이었는지 ('\r' 은 무시)
+    private boolean atLineStart = true;
+    // 아직 이벤트로 세지 않은 내용이 있는지
+    private boolean pending;
+    private long events;
+
+    private StreamEventCounter(boolean lineDelimited) {
+        this.lineDelimited = lineDelimited;
+    }
+
+    /** text/event-stream 용 (빈 줄 구분) */
+    public static StreamEventCounter serverSentEvents() {
+        return new StreamEventCounter(false);
+    }
+
+    /** application/x-ndjson, application/stream+json 용 (줄 구분) */
+    public static StreamEventCounter lineDelimited() {
+        return new StreamEventCounter(true);
+    }
+
+    public synchronized void append(DataBuffer buffer) {
+        int end = buffer.writePosition();
+        for (int i = buffer.readPosition(); i < end; i++) {
+            byte b = buffer.getByte(i);
+            if (b == '\r') continue;
+            if (b == '\n') {
+                if (lineDelimited) {
+                    if (pending) events++;
+                } else if (atLineStart && pending) {
+                    // 빈 줄 → 직전까지의 블록이 하나의 이벤트
+                    events++;
+                    pending = false;
+                }
+                atLineStart = true;
+                if (lineDelimited) pending = false;
+            } else {
+                atLineStart = false;
+                pending = true;
+            }
+        }
+    }
+
+    public synchronized long getEvents() {
+        return events;
+    }
+}
@@ -0,0 +1,120 @@
+package com.kdn.ets.api_gateway.logging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.kdn.ets.api_gateway.converter.LocalDateTimeConverter;
+import com.kdn.ets.api_gateway.entity.GatewayLog;
+
+/**
+ * 스풀 파일에 쓰는 GatewayLog 이진 직렬화.
+ * 문자열은 [int 길이(-1=null)][UTF-8], 정수는 [byte null 여부][int] 로 기록합니다.
+ * 맨 앞 1바이트는 포맷 버전이며, 컬럼이 추가되면 버전을 올리고 이전 버전도 읽을 수 있게 유지합니다.
+ */
+final class GatewayLogCodec {
+
+    // 1: 최초 포맷, 2: ttfb_ms / ttlb_ms / stream_events 추가, 3: 단계별 소요 시간(*_us) 추가
+    static final byte VERSION = 3;
+
+    private static final LocalDateTimeConverter DATE_CONVERTER = new LocalDateTimeConverter();
+
+    private GatewayLogCodec() {}
+
+    static byte[] encode(GatewayLog row) {
+        byte[][] strings = {
+                utf8(row.getUserId()), utf8(row.getApiId()), utf8(row.getMethod()), utf8(row.getPath()),
+                utf8(row.getQueryParam()), utf8(row.getHeaders()), utf8(row.getBody()), utf8(row.getResponse()),
+                utf8(DATE_CONVERTER.convertToDatabaseColumn(row.getRequestedAt())),
+                utf8(DATE_CONVERTER.convertToDatabaseColumn(row.getRespondedAt())),
+                utf8(row.getClientIp()), utf8(row.getUserAgent()), utf8(row.getIsSuccess()), utf8(row.getErrorMessage())
+        };
+        int size = 1 + 10 * 5; // version + 정수 10개(status, latency, ttfb, ttlb, events, 단계 5개)
+        for (byte[] s : strings) size += 4 + (s == null ? 0 : s.length);
+
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.put(VERSION);
+        for (int i = 0; i < 8; i++) putString(buf, strings[i]);
+        putInt(buf, row.getStatusCode());
+        for (int i = 8; i < 10; i++) putString(buf, strings[i]);
+        putInt(buf, row.getLatencyMs());
+        for (int i = 10; i < strings.length; i++) putString(buf, strings[i]);
+        putInt(buf, row.getTtfbMs());
+        putInt(buf, row.getTtlbMs());
+        putInt(buf, row.getStreamEvents());
+        putInt(buf, row.getRouteUs());
+        putInt(buf, row.getAuthUs());
+        putInt(buf, row.getConnectUs());
+        putInt(buf, row.getUpstreamTtfbUs());
+        putInt(buf, row.getStreamUs());
+        return buf.array();
+    }
+
+    static GatewayLog decode(ByteBuffer buf) {
+        byte version = buf.get();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalStateException("unsupported spool record version: " + version);
+        }
+        GatewayLog.GatewayLogBuilder builder = GatewayLog.builder()
+                .userId(getString(buf))
+                .apiId(getString(buf))
+                .method(getString(buf))
+                .path(getString(buf))
+                .queryParam(getString(buf))
+                .headers(getString(buf))
+                .body(getString(buf))
+                .response(getString(buf))
+                .statusCode(getInt(buf))
+                .requestedAt(DATE_CONVERTER.convertToEntityAttribute(getString(buf)))
+                .respondedAt(DATE_CONVERTER.convertToEntityAttribute(getString(buf)))
+                .latencyMs(getInt(buf))
+                .clientIp(getString(buf))
+                .userAgent(getString(buf))
+                .isSuccess(getString(buf))
+                .errorMessage(getString(buf));
+        if (version >= 2) {
+            builder.ttfbMs(getInt(buf))
+                   .ttlbMs(getInt(buf))
+                   .streamEvents(getInt(buf));
+        }
+        if (version >= 3) {
+            builder.routeUs(getInt(buf))
+                   .authUs(getInt(buf))
+                   .connectUs(getInt(buf))
+                   .upstreamTtfbUs(getInt(buf))
+                   .streamUs(getInt(buf));
+        }
+        return builder.build();
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buf, byte[] s) {
+        if (s == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(s.length);
+            buf.put(s);
+        }
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) return null;
+        String s = new String(buf.array(), buf.arrayOffset() + buf.position(), len, StandardCharsets.UTF_8);
+        buf.position(buf.position() + len);
+        return s;
+    }
+
+    private static void putInt(ByteBuffer buf, Integer v) {
+        buf.put(v == null ? (byte) 0 : (byte) 1);
+        buf.putInt(v == null ? 0 : v);
+    }
+
+    private static Integer getInt(ByteBuffer buf) {
+        boolean present = buf.get() != 0;
+        int v = buf.getInt();
+        return present ? v : null;
+    }
+}
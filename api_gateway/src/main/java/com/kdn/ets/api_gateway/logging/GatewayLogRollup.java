@@ -0,0 +1,196 @@
+package com.kdn.ets.api_gateway.logging;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kdn.ets.api_gateway.config.DataStoreConfig;
+import com.kdn.ets.api_gateway.converter.LocalDateTimeConverter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * gateway_logs 분 단위 집계(rollup) 및 보관 기간 정리.
+ * - 원본 행을 gateway_log_rollup (분, api_id, user_id, status_code) 단위로 합산합니다.
+ *   건수/오류 건수/지연 합계·최대/지연 히스토그램(le_N: latency_ms <= N ms 누적 건수)
+ * - 진행 위치는 gateway_log_rollup_state 의 마지막 log_id 로 관리하므로, 늦게 저장된 행(스풀 재적재,
+ *   긴 스트리밍 요청)도 요청 시각의 분에 그대로 더해집니다. 집계와 위치 갱신은 같은 트랜잭션입니다.
+ * - 보관 기간이 지난 원본 행은 이미 집계된 범위 안에서만, batch-size 건씩 나누어 삭제합니다.
+ *   삭제는 app.log.retention.days 를 명시적으로 켰을 때만 합니다. (기본값 0 = 삭제 안 함)
+ * - 작성 커넥션(GatewayLogWriter 와 공유)을 짧게만 잡도록 배치 사이에 pause-ms 만큼 쉬고,
+ *   한 번의 실행은 max-run-ms 안에서 끝냅니다. (남은 작업은 다음 주기에 이어서 처리)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.log.rollup.enabled", havingValue = "true", matchIfMissing = true)
+public class GatewayLogRollup {
+
+    public static final String ROLLUP_TABLE = "gateway_log_rollup";
+    public static final String STATE_TABLE = "gateway_log_rollup_state";
+
+    /** 지연 히스토그램 경계 (ms). 컬럼 le_10, le_25 ... (NULL latency 는 request_count 에만 포함) */
+    public static final int[] LATENCY_BUCKETS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private static final String JOB = "rollup";
+    private static final LocalDateTimeConverter DATE_CONVERTER = new LocalDateTimeConverter();
+
+    static final String ROLLUP_SQL = rollupSql();
+
+    static final String PURGE_SQL =
+            "DELETE FROM gateway_logs WHERE log_id IN "
+          + "(SELECT log_id FROM gateway_logs WHERE log_id <= ? ORDER BY log_id LIMIT ?) AND requested_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int retentionDays;
+    private final int retentionBatchSize;
+    private final long pauseMs;
+    private final long maxRunMs;
+
+    // ── 지표
+    private final AtomicLong rolledUp = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+    private volatile long pendingRows;
+    private volatile long lastRunNanos;
+
+    public GatewayLogRollup(@Qualifier(DataStoreConfig.WRITER_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                            @Qualifier(DataStoreConfig.WRITER_TRANSACTION_MANAGER) PlatformTransactionManager transactionManager,
+                            @Value("${app.log.rollup.batch-size:5000}") int batchSize,
+                            @Value("${app.log.retention.days:0}") int retentionDays,
+                            @Value("${app.log.retention.batch-size:1000}") int retentionBatchSize,
+                            @Value("${app.log.rollup.pause-ms:20}") long pauseMs,
+                            @Value("${app.log.rollup.max-run-ms:5000}") long maxRunMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retentionDays = retentionDays;
+        this.retentionBatchSize = retentionBatchSize;
+        this.pauseMs = pauseMs;
+        this.maxRunMs = maxRunMs;
+    }
+
+    @Scheduled(initialDelayString = "${app.log.rollup.interval-ms:60000}",
+               fixedDelayString = "${app.log.rollup.interval-ms:60000}")
+    void scheduledRun() {
+        try {
+            run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // 실패한 배치는 위치가 갱신되지 않으므로 다음 주기에 다시 집계
+            log.warn("gateway log rollup failed", e);
+        }
+    }
+
+    /** 집계 후 보관 기간 정리. 둘 다 max-run-ms 안에서만 진행합니다. */
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxRunMs);
+
+        long rolled = rollup(deadline);
+        long deleted = retentionDays > 0 ? purge(deadline) : 0;
+
+        lastRunNanos = System.nanoTime() - start;
+        if (rolled > 0 || deleted > 0) {
+            log.info("gateway log rollup: {} row(s) aggregated, {} row(s) purged, {} pending ({} ms)",
+                    rolled, deleted, pendingRows, TimeUnit.NANOSECONDS.toMillis(lastRunNanos));
+        }
+    }
+
+    /** 마지막 위치 이후의 원본 행을 batch-size 개 log_id 범위씩 집계 */
+    private long rollup(long deadline) throws InterruptedException {
+        long last = lastRolledUpId();
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(log_id) FROM gateway_logs", Long.class);
+        long maxId = max != null ? max : 0;
+        long rows = 0;
+
+        while (last < maxId && System.nanoTime() < deadline) {
+            final long from = last;
+            final long to = Math.min(last + batchSize, maxId);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(ROLLUP_SQL, from, to);
+                jdbcTemplate.update("INSERT INTO " + STATE_TABLE + " (job, last_log_id) VALUES (?, ?) "
+                        + "ON CONFLICT (job) DO UPDATE SET last_log_id = excluded.last_log_id", JOB, to);
+            });
+            rows += to - from;
+            last = to;
+            pendingRows = maxId - last;
+            if (last < maxId) pause();
+        }
+        rolledUp.addAndGet(rows);
+        pendingRows = maxId - last;
+        return rows;
+    }
+
+    /**
+     * 보관 기간이 지난 원본 행 삭제. log_id 순서(≒ 요청 시각 순서)로 앞에서부터 batch 단위로 지우며,
+     * 한 배치에 기간 내 행이 섞여 있으면(덜 지워지면) 멈춥니다. 집계되지 않은 행은 지우지 않습니다.
+     */
+    private long purge(long deadline) throws InterruptedException {
+        long upTo = lastRolledUpId();
+        String cutoff = DATE_CONVERTER.convertToDatabaseColumn(LocalDateTime.now().minusDays(retentionDays));
+        long deleted = 0;
+
+        while (System.nanoTime() < deadline) {
+            int n = jdbcTemplate.update(PURGE_SQL, upTo, retentionBatchSize, cutoff);
+            deleted += n;
+            if (n < retentionBatchSize) break;
+            pause();
+        }
+        purged.addAndGet(deleted);
+        return deleted;
+    }
+
+    private long lastRolledUpId() {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT last_log_id FROM " + STATE_TABLE + " WHERE job = ?", Long.class, JOB);
+        return ids.isEmpty() || ids.get(0) == null ? 0 : ids.get(0);
+    }
+
+    private void pause() throws InterruptedException {
+        // 다음 배치 전에 작성 커넥션을 GatewayLogWriter 에 양보
+        if (pauseMs > 0) Thread.sleep(pauseMs);
+    }
+
+    private static String rollupSql() {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder select = new StringBuilder();
+        StringBuilder update = new StringBuilder();
+        for (int le : LATENCY_BUCKETS_MS) {
+            columns.append(", le_").append(le);
+            select.append(", SUM(CASE WHEN latency_ms <= ").append(le).append(" THEN 1 ELSE 0 END)");
+            update.append(", le_").append(le).append(" = le_").append(le).append(" + excluded.le_").append(le);
+        }
+        return "INSERT INTO " + ROLLUP_TABLE + " (bucket_at, api_id, user_id, status_code, "
+             + "request_count, error_count, latency_sum_ms, latency_max_ms" + columns + ") "
+             + "SELECT substr(requested_at, 1, 16) || ':00', COALESCE(api_id, ''), COALESCE(user_id, ''), COALESCE(status_code, 0), "
+             + "COUNT(*), SUM(CASE WHEN is_success = 'N' OR status_code >= 500 THEN 1 ELSE 0 END), "
+             + "COALESCE(SUM(latency_ms), 0), MAX(latency_ms)" + select + " "
+             + "FROM gateway_logs WHERE log_id > ? AND log_id <= ? "
+             + "GROUP BY 1, 2, 3, 4 "
+             + "ON CONFLICT (bucket_at, api_id, user_id, status_code) DO UPDATE SET "
+             + "request_count = request_count + excluded.request_count, "
+             + "error_count = error_count + excluded.error_count, "
+             + "latency_sum_ms = latency_sum_ms + excluded.latency_sum_ms, "
+             + "latency_max_ms = CASE WHEN latency_max_ms IS NULL OR excluded.latency_max_ms > latency_max_ms "
+             + "THEN excluded.latency_max_ms ELSE latency_max_ms END" + update;
+    }
+
+    // ===== 지표 =====
+
+    public long getRolledUpCount() { return rolledUp.get(); }
+    public long getPurgedCount() { return purged.get(); }
+    public long getPendingRows() { return pendingRows; }
+    public long getLastRunNanos() { return lastRunNanos; }
+}
@@ -0,0 +1,320 @@
+package com.kdn.ets.api_gateway.logging;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.kdn.ets.api_gateway.config.DataStoreConfig;
+import com.kdn.ets.api_gateway.converter.LocalDateTimeConverter;
+import com.kdn.ets.api_gateway.entity.GatewayLog;
+import com.kdn.ets.api_gateway.service.LoggingService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * gateway_logs 단일 작성자(single-writer) 파이프라인.
+ * - 요청 스레드는 submit() 으로 제한된 크기의 큐에 넣기만 합니다. (블로킹/DB/디스크 접근 없음)
+ * - 전용 스레드 하나가 큐를 비우며 batch-size 개 또는 flush-interval 경과 시
+ *   하나의 트랜잭션 안에서 JDBC batch insert 로 저장합니다.
+ * - IDENTITY 키 때문에 Hibernate 는 insert 를 묶지 못하므로 JPA 대신 JdbcTemplate 을 사용합니다.
+ * - 큐가 가득 차면 넘친 로그를 별도의 제한된 큐(overflow)에 넣고, 전용 스필 스레드가 변환(마스킹)해 LogSpool(디스크)에 기록합니다.
+ *   (작성 스레드가 DB insert 에서 막혀 있어도 overflow 는 계속 비워집니다)
+ *   DB 저장이 실패한 배치도 스풀로 넘기며, 큐가 한가할 때 작성 스레드가 스풀을 다시 DB 로 재적재합니다.
+ */
+@Slf4j
+@Component
+public class GatewayLogWriter {
+
+    static final String INSERT_SQL =
+            "INSERT INTO gateway_logs (user_id, api_id, method, path, query_param, headers, body, status_code, response, "
+          + "requested_at, responded_at, latency_ms, client_ip, user_agent, is_success, error_message, "
+          + "ttfb_ms, ttlb_ms, stream_events, route_us, auth_us, connect_us, upstream_ttfb_us, stream_us) "
+          + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final LocalDateTimeConverter DATE_CONVERTER = new LocalDateTimeConverter();
+
+    private final LoggingService loggingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<LogEvent> queue;
+    // 큐가 가득 찼을 때 스풀로 보낼 로그 (스필 스레드가 변환/기록)
+    private final BlockingQueue<LogEvent> overflow;
+    private final LogSpool spool;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long retryBackoffMs;
+
+    private volatile boolean running;
+    private Thread writerThread;
+    private Thread spillThread;
+    // 마지막 DB 저장 실패 시각 (이후 retry-backoff 동안 스풀 재적재 보류)
+    private long lastFailureMillis;
+
+    // ── 지표
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spooled = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private volatile long lastFlushLatencyNanos;
+    private volatile long maxFlushLatencyNanos;
+
+    public GatewayLogWriter(LoggingService loggingService,
+                            @Qualifier(DataStoreConfig.WRITER_JDBC_TEMPLATE) JdbcTemplate jdbcTemplate,
+                            @Qualifier(DataStoreConfig.WRITER_TRANSACTION_MANAGER) PlatformTransactionManager transactionManager,
+                            @Nullable LogSpool spool,
+                            @Value("${app.log.queue-capacity:50000}") int queueCapacity,
+                            @Value("${app.log.overflow-capacity:10000}") int overflowCapacity,
+                            @Value("${app.log.batch-size:500}") int batchSize,
+                            @Value("${app.log.flush-interval-ms:200}") long flushIntervalMs,
+                            @Value("${app.log.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.loggingService = loggingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.spool = spool;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflow = new ArrayBlockingQueue<>(Math.max(overflowCapacity, 1));
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::runLoop, "gateway-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        if (spool != null) {
+            spillThread = new Thread(this::spillLoop, "gateway-log-spill");
+            spillThread.setDaemon(true);
+            spillThread.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // 남은 큐를 모두 기록한 뒤 종료
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        if (spillThread != null) {
+            spillThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * 요청 스레드에서 호출. 큐가 가득 차면 기다리지 않고 overflow 큐에 넣어 스필 스레드가 스풀에 기록하게 하며,
+     * 스풀이 없거나 overflow 큐도 가득 차면 버립니다. (마스킹/디스크 기록은 요청 스레드에서 하지 않음)
+     * @return 큐 적재 성공 여부
+     */
+    public boolean submit(LogEvent event) {
+        submitted.incrementAndGet();
+        if (queue.offer(event)) {
+            return true;
+        }
+        if (spool != null && overflow.offer(event)) {
+            return true;
+        }
+        countDropped();
+        return false;
+    }
+
+    private void countDropped() {
+        long n = dropped.incrementAndGet();
+        if ((n & (n - 1)) == 0) { // 1, 2, 4, 8 ... 번째에만 경고 (로그 폭주 방지)
+            log.warn("gateway log queue full, dropped {} record(s) so far", n);
+        }
+    }
+
+    private void runLoop() {
+        List<LogEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+                boolean saturated = batch.size() >= batchSize;
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+                // 큐가 밀리지 않을 때만 스풀 재적재
+                if (!saturated) {
+                    replaySpool();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                log.warn("gateway log writer loop error", t);
+                batch.clear();
+            }
+        }
+    }
+
+    /** batch-size 에 도달하거나 첫 건 이후 flush-interval 이 지날 때까지 모읍니다. */
+    private void collect(List<LogEvent> batch) throws InterruptedException {
+        LogEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) return;
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.size() >= batchSize || !running) break;
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            LogEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+        }
+    }
+
+    /** 큐가 넘쳐 overflow 에 들어온 로그를 스풀에 기록 (스풀에는 마스킹된 값만 기록) */
+    private void spillLoop() {
+        while (running || !overflow.isEmpty()) {
+            LogEvent event;
+            try {
+                event = overflow.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (event == null) continue;
+            try {
+                if (spool.append(loggingService.toGatewayLog(event))) {
+                    spooled.incrementAndGet();
+                    continue;
+                }
+            } catch (Exception e) {
+                log.warn("gateway log spool append failed", e);
+            }
+            countDropped();
+        }
+    }
+
+    private void flush(List<LogEvent> batch) {
+        long start = System.nanoTime();
+
+        List<GatewayLog> rows = new ArrayList<>(batch.size());
+        for (LogEvent event : batch) {
+            try {
+                rows.add(loggingService.toGatewayLog(event));
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.warn("gateway log conversion failed: apiId={}", event.getApiId(), e);
+            }
+        }
+
+        if (rows.isEmpty()) return;
+        if (insert(rows, start)) return;
+
+        // DB 저장 실패 → 스풀로 보존
+        for (GatewayLog row : rows) {
+            if (spool != null && spool.append(row)) {
+                spooled.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    /** 스풀에 남은 레코드를 한 배치씩 DB 로 재적재 */
+    private void replaySpool() {
+        if (spool == null || !spool.hasPending()) return;
+        if (System.currentTimeMillis() - lastFailureMillis < retryBackoffMs) return;
+
+        long start = System.nanoTime();
+        List<GatewayLog> rows = spool.peek(batchSize);
+        try {
+            if (rows.isEmpty() || insert(rows, start)) {
+                spool.commit();
+            }
+        } catch (Exception e) {
+            log.warn("gateway log spool commit failed", e);
+        }
+    }
+
+    private boolean insert(List<GatewayLog> rows, long startNanos) {
+        boolean ok;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), GatewayLogWriter::bind));
+            written.addAndGet(rows.size());
+            ok = true;
+        } catch (Exception e) {
+            lastFailureMillis = System.currentTimeMillis();
+            log.warn("gateway log batch insert failed: {} row(s)", rows.size(), e);
+            ok = false;
+        }
+
+        long elapsed = System.nanoTime() - startNanos;
+        lastFlushLatencyNanos = elapsed;
+        if (elapsed > maxFlushLatencyNanos) maxFlushLatencyNanos = elapsed;
+        flushes.incrementAndGet();
+        return ok;
+    }
+
+    static void bind(PreparedStatement ps, GatewayLog row) throws SQLException {
+        ps.setString(1, row.getUserId());
+        ps.setString(2, row.getApiId());
+        ps.setString(3, row.getMethod());
+        ps.setString(4, row.getPath());
+        ps.setString(5, row.getQueryParam());
+        ps.setString(6, row.getHeaders());
+        ps.setString(7, row.getBody());
+        setInt(ps, 8, row.getStatusCode());
+        ps.setString(9, row.getResponse());
+        ps.setString(10, DATE_CONVERTER.convertToDatabaseColumn(row.getRequestedAt()));
+        ps.setString(11, DATE_CONVERTER.convertToDatabaseColumn(row.getRespondedAt()));
+        setInt(ps, 12, row.getLatencyMs());
+        ps.setString(13, row.getClientIp());
+        ps.setString(14, row.getUserAgent());
+        ps.setString(15, row.getIsSuccess());
+        ps.setString(16, row.getErrorMessage());
+        setInt(ps, 17, row.getTtfbMs());
+        setInt(ps, 18, row.getTtlbMs());
+        setInt(ps, 19, row.getStreamEvents());
+        setInt(ps, 20, row.getRouteUs());
+        setInt(ps, 21, row.getAuthUs());
+        setInt(ps, 22, row.getConnectUs());
+        setInt(ps, 23, row.getUpstreamTtfbUs());
+        setInt(ps, 24, row.getStreamUs());
+    }
+
+    private static void setInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.INTEGER);
+        else ps.setInt(index, value);
+    }
+
+    // ===== 지표 =====
+
+    public int getQueueDepth() { return queue.size(); }
+    public int getQueueCapacity() { return queue.size() + queue.remainingCapacity(); }
+    public long getSubmittedCount() { return submitted.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getSpooledCount() { return spooled.get(); }
+    public long getWrittenCount() { return written.get(); }
+    public long getFailedCount() { return failed.get(); }
+    public long getFlushCount() { return flushes.get(); }
+    public long getLastFlushLatencyNanos() { return lastFlushLatencyNanos; }
+    public long getMaxFlushLatencyNanos() { return maxFlushLatencyNanos; }
+}
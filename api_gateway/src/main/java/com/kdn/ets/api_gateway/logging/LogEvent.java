@@ -0,0 +1,47 @@
+package com.kdn.ets.api_gateway.logging;
+
+import org.springframework.http.HttpHeaders;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 요청 스레드에서 ServerWebExchange 로부터 뽑아낸 로그 원본 값.
+ * exchange 자체를 붙잡지 않도록 필요한 값만 복사해 두고,
+ * 마스킹/직렬화/DB 저장은 로그 작성 스레드(GatewayLogWriter)에서 수행합니다.
+ */
+@Getter
+@Builder
+public class LogEvent {
+
+    private final String userId;
+    private final String apiId;
+    private final String method;
+    /** 라우트의 다운스트림 경로 (api_list.path) */
+    private final String path;
+    private final String queryParam;
+    /** 요청 헤더 (읽기 전용) */
+    private final HttpHeaders requestHeaders;
+    private final String contentType;
+    private final String requestBody;
+    private final int statusCode;
+    private final String responseBody;
+    private final int latencyMs;
+    private final long requestedAtMillis;
+    private final long respondedAtMillis;
+    private final String clientIp;
+    private final String userAgent;
+    /** 오류 시 "예외클래스: 메시지", 정상이면 null */
+    private final String errorMessage;
+    /** 응답 첫/마지막 바이트까지 걸린 시간 (ms, 바디가 없으면 null) */
+    private final Integer ttfbMs;
+    private final Integer ttlbMs;
+    /** 스트리밍 응답의 이벤트 수 (일반 응답은 null) */
+    private final Integer streamEvents;
+    /** 처리 단계별 소요 시간 (µs, 기록되지 않은 단계는 null) */
+    private final Integer routeUs;
+    private final Integer authUs;
+    private final Integer connectUs;
+    private final Integer upstreamTtfbUs;
+    private final Integer streamUs;
+}
@@ -0,0 +1,444 @@
+package com.kdn.ets.api_gateway.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kdn.ets.api_gateway.entity.GatewayLog;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * gateway_logs 저장이 밀릴 때(파일 락, vacuum, 느린 디스크) 로그를 받아 두는 디스크 스풀.
+ * - 고정 크기 세그먼트 파일(spool-000000000001.seg ...)을 메모리 매핑해 순서대로 append 합니다.
+ * - 레코드: [int 길이][int CRC32][payload(GatewayLogCodec)] / 길이 0 은 세그먼트의 끝
+ * - 기록과 재적재(replay)는 모두 GatewayLogWriter 작성 스레드가 수행하며, 재적재는 peek() → DB 저장 → commit() 순서이고
+ *   읽은 위치는 spool.ckpt 파일에 남깁니다. (commit 직전 장애 시 중복 저장될 수 있음: at-least-once)
+ * - append 가 반환된 레코드는 프로세스가 죽어도 페이지 캐시에 남아 있으므로 유실되지 않으며,
+ *   OS 장애까지 대비하려면 fsync-interval-ms 주기로 디스크에 강제 기록합니다.
+ *   강제 기록(msync)은 스풀 잠금 밖에서 하므로 그동안에도 append 는 막히지 않습니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.log.spool.enabled", havingValue = "true", matchIfMissing = true)
+public class LogSpool {
+
+    public enum DropPolicy {
+        /** 스풀이 가득 차면 새 레코드를 버림 */
+        DROP_NEWEST,
+        /** 스풀이 가득 차면 가장 오래된 세그먼트를 버리고 새 레코드를 받음 */
+        DROP_OLDEST
+    }
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "spool-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "spool.ckpt";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final DropPolicy dropPolicy;
+
+    // 오래된 순서의 세그먼트 목록 (첫 번째가 읽기 세그먼트, 마지막이 쓰기 세그먼트)
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    // 쓰기가 끝났지만 아직 디스크에 강제 기록하지 않은 세그먼트 (rotate 시 추가, force() 가 비움)
+    private final List<Segment> unforced = new ArrayList<>();
+    private int readOffset;
+    // peek() 후 commit() 이 반영할 읽기 위치
+    private long peekedSeq = -1;
+    private int peekedOffset;
+    private int peekedCount;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final AtomicLong droppedSegments = new AtomicLong();
+    private final AtomicLong pendingRecords = new AtomicLong();
+
+    public LogSpool(@Value("${app.log.spool.dir:./log-spool}") String dir,
+                    @Value("${app.log.spool.segment-bytes:16777216}") int segmentBytes,
+                    @Value("${app.log.spool.max-segments:64}") int maxSegments,
+                    @Value("${app.log.spool.drop-policy:DROP_NEWEST}") DropPolicy dropPolicy) {
+        this.dir = Paths.get(dir);
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.dropPolicy = dropPolicy;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(dir);
+
+        long ckptSeq = 0;
+        int ckptOffset = 0;
+        Path ckpt = dir.resolve(CHECKPOINT_FILE);
+        if (Files.exists(ckpt)) {
+            ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(ckpt));
+            if (b.remaining() >= 12) {
+                ckptSeq = b.getLong();
+                ckptOffset = b.getInt();
+            }
+        }
+
+        List<Long> seqs = new ArrayList<>();
+        File[] files = dir.toFile().listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File f : files) {
+                String name = f.getName();
+                seqs.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        seqs.sort(null);
+
+        for (long seq : seqs) {
+            if (seq < ckptSeq) {
+                // 이미 모두 재적재된 세그먼트
+                Files.deleteIfExists(segmentPath(seq));
+                continue;
+            }
+            Segment seg = Segment.open(segmentPath(seq), seq, segmentBytes);
+            seg.writeOffset = seg.scanEnd();
+            segments.addLast(seg);
+        }
+
+        Segment head = segments.peekFirst();
+        readOffset = (head != null && head.seq == ckptSeq) ? Math.min(ckptOffset, head.writeOffset) : 0;
+        pendingRecords.set(countPending());
+
+        if (pendingRecords.get() > 0) {
+            log.info("Log spool opened: {} pending record(s) in {} segment(s) at {}", pendingRecords.get(), segments.size(), dir.toAbsolutePath());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment seg : segments) seg.close();
+        segments.clear();
+        unforced.clear();
+    }
+
+    /**
+     * 레코드 한 건을 스풀에 추가합니다.
+     * @return false 면 스풀이 가득 차 drop-policy(DROP_NEWEST)에 따라 버려진 것
+     */
+    public synchronized boolean append(GatewayLog row) {
+        byte[] payload = GatewayLogCodec.encode(row);
+        int need = HEADER_BYTES + payload.length;
+        if (need + 4 > segmentBytes) {
+            droppedRecords.incrementAndGet();
+            log.warn("spool record too large ({} bytes), dropped", need);
+            return false;
+        }
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.writeOffset + need + 4 > segmentBytes) {
+            tail = rotate();
+            if (tail == null) {
+                droppedRecords.incrementAndGet();
+                return false;
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        MappedByteBuffer buf = tail.buffer;
+        int pos = tail.writeOffset;
+        // payload/CRC 를 먼저 쓰고 길이를 마지막에 써서, 쓰다 죽어도 반쯤 쓴 레코드가 읽히지 않게 함
+        buf.putInt(pos + 4, (int) crc.getValue());
+        ByteBuffer body = buf.duplicate();
+        body.position(pos + HEADER_BYTES);
+        body.put(payload);
+        buf.putInt(pos, payload.length);
+        tail.writeOffset = pos + need;
+
+        appended.incrementAndGet();
+        pendingRecords.incrementAndGet();
+        return true;
+    }
+
+    /** 재적재할 레코드가 남아 있는지 */
+    public synchronized boolean hasPending() {
+        Segment head = segments.peekFirst();
+        if (head == null) return false;
+        return segments.size() > 1 || readOffset < head.writeOffset;
+    }
+
+    /**
+     * 읽기 위치부터 최대 max 건을 읽습니다. (읽기 위치는 commit() 호출 시에만 이동)
+     * 손상된 레코드를 만나면 해당 세그먼트의 나머지는 건너뜁니다.
+     */
+    public synchronized List<GatewayLog> peek(int max) {
+        List<GatewayLog> rows = new ArrayList<>(Math.min(max, 1024));
+        Segment head = segments.peekFirst();
+        if (head == null) return rows;
+
+        long seq = head.seq;
+        int offset = readOffset;
+        for (Segment seg : segments) {
+            if (seg.seq < seq) continue;
+            if (seg.seq > seq) {
+                seq = seg.seq;
+                offset = 0;
+            }
+            while (rows.size() < max && offset < seg.writeOffset) {
+                int len = seg.buffer.getInt(offset);
+                int storedCrc = seg.buffer.getInt(offset + 4);
+                byte[] payload = new byte[len];
+                ByteBuffer body = seg.buffer.duplicate();
+                body.position(offset + HEADER_BYTES);
+                body.get(payload);
+
+                CRC32 crc = new CRC32();
+                crc.update(payload, 0, len);
+                int next = offset + HEADER_BYTES + len;
+                if ((int) crc.getValue() != storedCrc) {
+                    log.warn("corrupt spool record in segment {} at {}, skipping rest of segment", seg.seq, offset);
+                    offset = seg.writeOffset;
+                    break;
+                }
+                try {
+                    rows.add(GatewayLogCodec.decode(ByteBuffer.wrap(payload)));
+                } catch (RuntimeException e) {
+                    log.warn("undecodable spool record in segment {} at {}, skipped", seg.seq, offset, e);
+                }
+                offset = next;
+            }
+            if (rows.size() >= max) break;
+        }
+
+        peekedSeq = seq;
+        peekedOffset = offset;
+        peekedCount = rows.size();
+        return rows;
+    }
+
+    /** 직전 peek() 로 읽은 레코드가 DB 에 저장되었음을 기록하고, 다 읽은 세그먼트를 삭제합니다. */
+    public synchronized void commit() throws IOException {
+        if (peekedSeq < 0) return;
+
+        while (segments.size() > 1 && segments.peekFirst().seq < peekedSeq) {
+            deleteSegment(segments.pollFirst());
+        }
+        Segment head = segments.peekFirst();
+        readOffset = (head != null && head.seq == peekedSeq) ? peekedOffset : 0;
+
+        // 마지막(쓰기) 세그먼트가 아니고 끝까지 읽었으면 바로 정리
+        if (head != null && segments.size() > 1 && readOffset >= head.writeOffset) {
+            deleteSegment(segments.pollFirst());
+            readOffset = 0;
+        }
+
+        Segment current = segments.peekFirst();
+        writeCheckpoint(current == null ? peekedSeq : current.seq, readOffset);
+
+        replayed.addAndGet(peekedCount);
+        pendingRecords.addAndGet(-peekedCount);
+        if (!hasPending()) pendingRecords.set(0); // 손상되어 건너뛴 레코드 보정
+        peekedSeq = -1;
+        peekedCount = 0;
+    }
+
+    /**
+     * 주기적으로 매핑된 페이지를 디스크에 강제 기록 (OS 장애 대비).
+     * 대상 세그먼트만 잠금 안에서 고르고, msync 는 잠금 밖에서 하여 append 를 막지 않습니다.
+     */
+    @Scheduled(fixedDelayString = "${app.log.spool.fsync-interval-ms:1000}")
+    public void force() {
+        List<Segment> targets;
+        synchronized (this) {
+            targets = new ArrayList<>(unforced);
+            unforced.clear();
+            Segment tail = segments.peekLast();
+            if (tail != null) targets.add(tail);
+        }
+        for (Segment seg : targets) seg.force();
+    }
+
+    private Segment rotate() {
+        if (segments.size() >= maxSegments) {
+            if (dropPolicy == DropPolicy.DROP_NEWEST || segments.size() <= 1) {
+                return null;
+            }
+            // DROP_OLDEST: 가장 오래된(읽기) 세그먼트를 통째로 버림
+            Segment oldest = segments.pollFirst();
+            long lost = countRecords(oldest, readOffset);
+            deleteSegment(oldest);
+            readOffset = 0;
+            droppedSegments.incrementAndGet();
+            droppedRecords.addAndGet(lost);
+            pendingRecords.addAndGet(-lost);
+            // 진행 중인 peek 무효화 (버린 세그먼트의 레코드가 commit 에서 한 번 더 빠지지 않게, 다음 peek 에서 다시 읽음)
+            peekedSeq = -1;
+            peekedCount = 0;
+            log.warn("log spool full, dropped oldest segment {} ({} record(s))", oldest.seq, lost);
+        }
+
+        Segment tail = segments.peekLast();
+        long seq = tail == null ? 1 : tail.seq + 1;
+        try {
+            // 다 쓴 세그먼트는 다음 force() 에서 잠금 밖에서 강제 기록
+            if (tail != null) unforced.add(tail);
+            Segment seg = Segment.open(segmentPath(seq), seq, segmentBytes);
+            segments.addLast(seg);
+            return seg;
+        } catch (IOException e) {
+            log.warn("cannot create spool segment {}", seq, e);
+            return null;
+        }
+    }
+
+    private void deleteSegment(Segment seg) {
+        seg.close();
+        try {
+            Files.deleteIfExists(seg.path);
+        } catch (IOException e) {
+            log.warn("cannot delete spool segment {}", seg.path, e);
+        }
+    }
+
+    private void writeCheckpoint(long seq, int offset) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(12);
+        b.putLong(seq).putInt(offset);
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(tmp, b.array());
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private long countPending() {
+        long n = 0;
+        boolean first = true;
+        for (Segment seg : segments) {
+            n += countRecords(seg, first ? readOffset : 0);
+            first = false;
+        }
+        return n;
+    }
+
+    private static long countRecords(Segment seg, int from) {
+        long n = 0;
+        int offset = from;
+        while (offset < seg.writeOffset) {
+            offset += HEADER_BYTES + seg.buffer.getInt(offset);
+            n++;
+        }
+        return n;
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+    }
+
+    // ===== 지표 =====
+
+    public long getPendingRecords() { return pendingRecords.get(); }
+    public int getSegmentCount() { synchronized (this) { return segments.size(); } }
+    public long getAppendedCount() { return appended.get(); }
+    public long getReplayedCount() { return replayed.get(); }
+    public long getDroppedRecordCount() { return droppedRecords.get(); }
+    public long getDroppedSegmentCount() { return droppedSegments.get(); }
+
+    // ===== 세그먼트 =====
+
+    private static final class Segment {
+        final Path path;
+        final long seq;
+        final MappedByteBuffer buffer;
+        int writeOffset;
+
+        private Segment(Path path, long seq, MappedByteBuffer buffer) {
+            this.path = path;
+            this.seq = seq;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long seq, int size) throws IOException {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // 매핑은 채널을 닫아도 유지됨
+                return new Segment(path, seq, ch.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        /** 유효한 마지막 레코드 다음 위치 (길이 0, 범위 초과, CRC 불일치에서 멈춤) */
+        int scanEnd() {
+            int offset = 0;
+            int limit = buffer.capacity();
+            while (offset + HEADER_BYTES <= limit) {
+                int len = buffer.getInt(offset);
+                if (len <= 0 || offset + HEADER_BYTES + len > limit) break;
+                CRC32 crc = new CRC32();
+                ByteBuffer body = buffer.duplicate();
+                body.position(offset + HEADER_BYTES).limit(offset + HEADER_BYTES + len);
+                crc.update(body);
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) break;
+                offset += HEADER_BYTES + len;
+            }
+            return offset;
+        }
+
+        private boolean closed;
+
+        /** 매핑된 페이지를 디스크에 강제 기록 (이미 닫힌 세그먼트는 건너뜀) */
+        synchronized void force() {
+            if (!closed) buffer.force();
+        }
+
+        /** 강제 기록 중이면 끝날 때까지 기다린 뒤 매핑 해제 */
+        synchronized void close() {
+            if (closed) return;
+            closed = true;
+            unmap(buffer);
+        }
+    }
+
+    /**
+     * 매핑 해제 (Windows 에서는 매핑이 남아 있으면 파일이 삭제되지 않음).
+     * 공개 API 가 없으므로 JDK 버전에 맞는 내부 API 를 리플렉션으로 호출하고, 실패하면 GC 에 맡깁니다.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // JDK 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException e) {
+            try {
+                // JDK 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) cleaner.getClass().getMethod("clean").invoke(cleaner);
+            } catch (Exception ignore) {
+                // GC 시 해제됨
+            }
+        } catch (Exception ignore) {
+            // GC 시 해제됨
+        }
+    }
+}
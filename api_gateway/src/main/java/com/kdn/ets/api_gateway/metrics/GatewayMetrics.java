@@ -0,0 +1,88 @@
+package com.kdn.ets.api_gateway.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import com.kdn.ets.api_gateway.helper.RequestTimings;
+import com.kdn.ets.api_gateway.helper.RequestTimings.Phase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 게이트웨이 요청 지표 (Micrometer).
+ * - gateway.requests{api_id, method, status}: 요청 전체 소요 시간
+ * - gateway.request.phase{api_id, phase}: 요청 단계별 소요 시간 (RequestTimings 구간)
+ * 히스토그램/백분위/집계 창(expiry)은 application.properties 의 management.metrics.distribution.* 로 설정합니다.
+ * 모든 값은 메모리에서만 집계되므로 스크랩 시 DB 를 조회하지 않습니다.
+ * api_id 태그는 라우트 테이블에 있는 apiId 만 사용하고, 매칭되지 않은 요청은 "unmatched" 로 묶습니다. (태그 폭증 방지)
+ * method 태그도 표준 HTTP 메서드만 사용하고, 그 외 메서드는 "OTHER" 로 묶습니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class GatewayMetrics {
+
+    public static final String UNMATCHED = "unmatched";
+    public static final String OTHER_METHOD = "OTHER";
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final MeterRegistry registry;
+
+    // 요청마다 태그 조회/객체 생성을 피하기 위해 apiId 별로 Timer 를 캐시
+    private final ConcurrentMap<String, RouteMeters> routes = new ConcurrentHashMap<>();
+
+    /** 요청 1건 기록: 전체 소요 시간(method/status 별) + 기록된 단계별 소요 시간 */
+    public void record(String apiId, String method, int status, RequestTimings timings) {
+        RouteMeters meters = routes.computeIfAbsent(apiId != null ? apiId : UNMATCHED, RouteMeters::new);
+
+        meters.request(methodTag(method), status).record(timings.elapsedNanos(), TimeUnit.NANOSECONDS);
+        for (Phase phase : PHASES) {
+            long nanos = timings.phaseNanos(phase);
+            if (nanos >= 0) {
+                meters.phases[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /** 표준 HTTP 메서드는 그대로, 그 외(클라이언트가 임의로 보낸 메서드)는 "OTHER" */
+    static String methodTag(String method) {
+        HttpMethod resolved = method != null ? HttpMethod.resolve(method) : null;
+        return resolved != null ? resolved.name() : OTHER_METHOD;
+    }
+
+    private final class RouteMeters {
+        final String apiId;
+        final Timer[] phases = new Timer[PHASES.length];
+        // "METHOD status" → Timer
+        final ConcurrentMap<String, Timer> requests = new ConcurrentHashMap<>();
+
+        RouteMeters(String apiId) {
+            this.apiId = apiId;
+            for (Phase phase : PHASES) {
+                phases[phase.ordinal()] = Timer.builder("gateway.request.phase")
+                        .description("요청 처리 단계별 소요 시간")
+                        .tag("api_id", apiId)
+                        .tag("phase", phase.tag())
+                        .register(registry);
+            }
+        }
+
+        Timer request(String method, int status) {
+            String key = method + ' ' + status;
+            Timer timer = requests.get(key);
+            if (timer != null) return timer;
+            return requests.computeIfAbsent(key, k -> Timer.builder("gateway.requests")
+                    .description("게이트웨이 요청 전체 소요 시간")
+                    .tag("api_id", apiId)
+                    .tag("method", method)
+                    .tag("status", String.valueOf(status))
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.kdn.ets.api_gateway.metrics;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 실시간 트래픽 통계 (최근 1 / 5 / 60분, 메모리 전용).
+ * 운영 대시보드가 gateway_logs 를 직접 조회하지 않도록 요청 경로에서 바로 집계합니다.
+ * - 전체 / api_id 별: 건수, 오류율, 처리량, 평균·최대 지연, p50/p95/p99 (히스토그램)
+ * - user_id 별 / 상태 코드별: 건수, 오류율, 처리량, 평균·최대 지연
+ * 오류는 5xx 응답 또는 처리 중 예외입니다. api_id / user_id 는 각각 max-keys 개까지만 따로 모으고
+ * 나머지는 "_other" 로 묶습니다. 조회는 LiveStatsEndpoint (관리 포트의 /actuator/livestats) 를 사용합니다.
+ */
+@Component
+public class LiveStats {
+
+    public static final String OTHER = "_other";
+    public static final String ANONYMOUS = "_anonymous";
+    public static final int[] WINDOWS_MINUTES = {1, 5, 60};
+
+    private static final int STATUS_CODES = 600;
+
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final long startNanos;
+
+    private final SlidingWindow total = new SlidingWindow(true);
+    private final ConcurrentMap<String, SlidingWindow> byApi = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SlidingWindow> byUser = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlidingWindow> byStatus = new AtomicReferenceArray<>(STATUS_CODES);
+
+    @Autowired
+    public LiveStats(@Value("${app.stats.max-keys:1000}") int maxKeys) {
+        this(maxKeys, System::nanoTime);
+    }
+
+    LiveStats(int maxKeys, LongSupplier clock) {
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+    }
+
+    /** 요청 1건 기록 (요청 스레드에서 호출, 처음 보는 키가 아니면 할당 없음) */
+    public void record(String apiId, String userId, int status, long latencyNanos, boolean error) {
+        long now = clock.getAsLong() - startNanos;
+        long micros = latencyNanos / 1_000;
+        boolean failed = error || status >= 500;
+
+        total.record(now, micros, failed);
+        window(byApi, apiId != null ? apiId : GatewayMetrics.UNMATCHED, true).record(now, micros, failed);
+        window(byUser, userId != null ? userId : ANONYMOUS, false).record(now, micros, failed);
+        statusWindow(status).record(now, micros, failed);
+    }
+
+    /**
+     * api_id 의 최근 minutes 분 지연 백분위 (µs). 요청이 minSamples 건 미만이면 -1.
+     * 헤징 지연 계산용이므로 호출 측에서 결과를 잠시 캐시해 쓰는 것을 전제로 합니다.
+     */
+    public long percentileMicros(String apiId, int minutes, double q, long minSamples) {
+        SlidingWindow w = byApi.get(apiId);
+        if (w == null) return -1;
+        SlidingWindow.Totals t = w.totals(clock.getAsLong() - startNanos, minutes);
+        return t.count >= minSamples ? t.percentileMicros(q) : -1;
+    }
+
+    /** 최근 minutes 분 요약 (전체 / api_id / user_id / 상태 코드별, 요청이 없던 키는 제외) */
+    public Map<String, Object> snapshot(int minutes) {
+        long now = clock.getAsLong() - startNanos;
+        // 기동 직후에는 실제 경과 시간으로 처리량을 계산
+        long span = Math.min(SlidingWindow.spanNanos(now, minutes), Math.max(now, 1));
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("window_seconds", span / 1_000_000_000L);
+        m.put("total", total.totals(now, minutes).toMap(span));
+        m.put("apis", breakdown(byApi, now, minutes, span));
+        m.put("users", breakdown(byUser, now, minutes, span));
+
+        Map<String, Object> statuses = new LinkedHashMap<>();
+        for (int code = 0; code < STATUS_CODES; code++) {
+            SlidingWindow w = byStatus.get(code);
+            if (w == null) continue;
+            SlidingWindow.Totals t = w.totals(now, minutes);
+            if (t.count > 0) statuses.put(String.valueOf(code), t.toMap(span));
+        }
+        m.put("statuses", statuses);
+        return m;
+    }
+
+    private Map<String, Object> breakdown(Map<String, SlidingWindow> windows, long now, int minutes, long span) {
+        List<Map.Entry<String, SlidingWindow.Totals>> rows = new ArrayList<>();
+        for (Map.Entry<String, SlidingWindow> e : windows.entrySet()) {
+            SlidingWindow.Totals t = e.getValue().totals(now, minutes);
+            if (t.count > 0) rows.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), t));
+        }
+        // 요청 수가 많은 순서
+        rows.sort((a, b) -> Long.compare(b.getValue().count, a.getValue().count));
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (Map.Entry<String, SlidingWindow.Totals> row : rows) {
+            m.put(row.getKey(), row.getValue().toMap(span));
+        }
+        return m;
+    }
+
+    private SlidingWindow window(ConcurrentMap<String, SlidingWindow> windows, String key, boolean histogram) {
+        SlidingWindow w = windows.get(key);
+        if (w != null) return w;
+        if (windows.size() >= maxKeys) key = OTHER;
+        return windows.computeIfAbsent(key, k -> new SlidingWindow(histogram));
+    }
+
+    private SlidingWindow statusWindow(int status) {
+        int code = status >= 0 && status < STATUS_CODES ? status : 0;
+        SlidingWindow w = byStatus.get(code);
+        if (w != null) return w;
+        byStatus.compareAndSet(code, null, new SlidingWindow(false));
+        return byStatus.get(code);
+    }
+}
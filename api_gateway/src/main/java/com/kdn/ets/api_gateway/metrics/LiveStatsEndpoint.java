@@ -0,0 +1,41 @@
+package com.kdn.ets.api_gateway.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 실시간 트래픽 통계 조회: GET /actuator/livestats[?window=1m|5m|60m] (관리 포트)
+ * window 를 생략하면 세 구간을 모두 반환합니다. DB 를 조회하지 않습니다.
+ * (예외를 던지면 GlobalExceptionHandler 가 500 으로 바꾸므로 잘못된 window 는 400 응답을 직접 반환)
+ */
+@Component
+@Endpoint(id = "livestats")
+@RequiredArgsConstructor
+public class LiveStatsEndpoint {
+
+    private final LiveStats liveStats;
+
+    @ReadOperation
+    public WebEndpointResponse<Map<String, Object>> stats(@Nullable String window) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int minutes : LiveStats.WINDOWS_MINUTES) {
+            String name = minutes + "m";
+            if (window == null || window.equals(name)) {
+                m.put(name, liveStats.snapshot(minutes));
+            }
+        }
+        if (m.isEmpty()) {
+            m.put("message", "window must be one of 1m, 5m, 60m");
+            return new WebEndpointResponse<>(m, WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        return new WebEndpointResponse<>(m);
+    }
+}
@@ -0,0 +1,82 @@
+package com.kdn.ets.api_gateway.metrics;
+
+import java.util.function.ToLongFunction;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.kdn.ets.api_gateway.logging.GatewayLogRollup;
+import com.kdn.ets.api_gateway.logging.GatewayLogWriter;
+import com.kdn.ets.api_gateway.logging.LogSpool;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * gateway_logs 저장 파이프라인(GatewayLogWriter 큐 → 배치 INSERT, LogSpool, GatewayLogRollup) 지표.
+ * 작성기/스풀이 이미 들고 있는 카운터를 읽기만 하므로 스크랩 시 DB 를 건드리지 않습니다.
+ * (MeterBinder 빈으로 두면 레지스트리 생성 시 JPA 계층과 순환 참조가 생기므로 생성 후 직접 등록)
+ */
+@Component
+public class LogPipelineMetrics {
+
+    private final MeterRegistry registry;
+    private final GatewayLogWriter writer;
+    private final LogSpool spool;
+    private final GatewayLogRollup rollup;
+
+    public LogPipelineMetrics(MeterRegistry registry, GatewayLogWriter writer,
+                              @Nullable LogSpool spool, @Nullable GatewayLogRollup rollup) {
+        this.registry = registry;
+        this.writer = writer;
+        this.spool = spool;
+        this.rollup = rollup;
+    }
+
+    @PostConstruct
+    void bind() {
+        Gauge.builder("gateway.log.queue.depth", writer, GatewayLogWriter::getQueueDepth)
+             .description("저장 대기 중인 로그 건수").register(registry);
+        Gauge.builder("gateway.log.queue.capacity", writer, GatewayLogWriter::getQueueCapacity)
+             .register(registry);
+        Gauge.builder("gateway.log.flush.last", writer, w -> w.getLastFlushLatencyNanos() / 1e9)
+             .description("마지막 배치 INSERT 소요 시간").baseUnit("seconds").register(registry);
+        Gauge.builder("gateway.log.flush.max", writer, w -> w.getMaxFlushLatencyNanos() / 1e9)
+             .description("기동 이후 최대 배치 INSERT 소요 시간").baseUnit("seconds").register(registry);
+
+        counter("submitted", GatewayLogWriter::getSubmittedCount);
+        counter("written", GatewayLogWriter::getWrittenCount);
+        counter("failed", GatewayLogWriter::getFailedCount);
+        counter("spooled", GatewayLogWriter::getSpooledCount);
+        counter("dropped", GatewayLogWriter::getDroppedCount);
+        FunctionCounter.builder("gateway.log.flushes", writer, GatewayLogWriter::getFlushCount).register(registry);
+
+        if (spool != null) {
+            Gauge.builder("gateway.log.spool.pending", spool, LogSpool::getPendingRecords)
+                 .description("스풀 파일에 남아 있는 재적재 대기 건수").register(registry);
+            Gauge.builder("gateway.log.spool.segments", spool, LogSpool::getSegmentCount).register(registry);
+            FunctionCounter.builder("gateway.log.spool.replayed", spool, LogSpool::getReplayedCount).register(registry);
+            FunctionCounter.builder("gateway.log.spool.dropped", spool, LogSpool::getDroppedRecordCount).register(registry);
+        }
+
+        if (rollup != null) {
+            FunctionCounter.builder("gateway.log.rollup.rows", rollup, GatewayLogRollup::getRolledUpCount)
+                           .description("분 단위 집계에 반영된 원본 로그 건수").register(registry);
+            FunctionCounter.builder("gateway.log.retention.purged", rollup, GatewayLogRollup::getPurgedCount)
+                           .description("보관 기간이 지나 삭제된 원본 로그 건수").register(registry);
+            Gauge.builder("gateway.log.rollup.pending", rollup, GatewayLogRollup::getPendingRows)
+                 .description("마지막 실행 기준 아직 집계되지 않은 건수").register(registry);
+            Gauge.builder("gateway.log.rollup.last", rollup, r -> r.getLastRunNanos() / 1e9)
+                 .description("마지막 집계/정리 실행 소요 시간").baseUnit("seconds").register(registry);
+        }
+    }
+
+    private void counter(String result, ToLongFunction<GatewayLogWriter> f) {
+        FunctionCounter.builder("gateway.log.events", writer, f::applyAsLong)
+                       .tag("result", result)
+                       .register(registry);
+    }
+}
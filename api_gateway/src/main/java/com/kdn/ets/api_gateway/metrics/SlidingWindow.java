@@ -0,0 +1,194 @@
+package com.kdn.ets.api_gateway.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 최근 60분 요청 통계를 메모리에 담는 슬라이딩 창 (LiveStats 전용).
+ * - 최근 1분: 5초 슬롯 12개 / 최근 5·60분: 1분 슬롯 60개 (현재 진행 중인 분 포함)
+ * - 슬롯은 [건수, 오류, 지연 합계(µs), 최대(µs), 히스토그램...] 을 AtomicLongArray 하나에 담아
+ *   요청 스레드는 락 없이 더하기만 합니다. 슬롯이 가리키는 시각이 바뀔 때만 잠깐 잠그고 비웁니다.
+ * - 히스토그램(선택)은 32µs 단위의 로그-선형 버킷(2배 구간마다 4개, 상대 오차 약 12%)이며 134초 이상은 마지막 버킷에 모입니다.
+ */
+final class SlidingWindow {
+
+    static final long FINE_SLOT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    static final int FINE_SLOTS = 12;
+    static final long COARSE_SLOT_NANOS = TimeUnit.MINUTES.toNanos(1);
+    static final int COARSE_SLOTS = 60;
+
+    private static final int COUNT = 0;
+    private static final int ERRORS = 1;
+    private static final int SUM_US = 2;
+    private static final int MAX_US = 3;
+    private static final int HIST = 4;
+
+    private static final int UNIT_SHIFT = 5;           // 32µs 단위
+    private static final int BUCKETS = 84;             // 2^22 단위(약 134초)까지
+
+    private final Slot[] fine;
+    private final Slot[] coarse;
+
+    SlidingWindow(boolean histogram) {
+        int cells = HIST + (histogram ? BUCKETS : 0);
+        fine = slots(FINE_SLOTS, cells);
+        coarse = slots(COARSE_SLOTS, cells);
+    }
+
+    void record(long nowNanos, long latencyMicros, boolean error) {
+        long us = Math.max(latencyMicros, 0);
+        slot(fine, nowNanos / FINE_SLOT_NANOS).add(us, error);
+        slot(coarse, nowNanos / COARSE_SLOT_NANOS).add(us, error);
+    }
+
+    /**
+     * 최근 minutes 분 합계. 1 이면 5초 슬롯(정확히 최근 60초),
+     * 그 밖에는 1분 슬롯으로 (minutes - 1)분 + 현재 분의 경과 시간을 합산합니다.
+     */
+    Totals totals(long nowNanos, int minutes) {
+        Totals t = new Totals(fine[0].cells.length() - HIST);
+        if (minutes <= 1) {
+            long now = nowNanos / FINE_SLOT_NANOS;
+            for (Slot s : fine) {
+                if (s.epoch > now - FINE_SLOTS && s.epoch <= now) s.addTo(t);
+            }
+        } else {
+            long now = nowNanos / COARSE_SLOT_NANOS;
+            for (Slot s : coarse) {
+                if (s.epoch > now - minutes && s.epoch <= now) s.addTo(t);
+            }
+        }
+        return t;
+    }
+
+    /** 최근 minutes 분이 실제로 덮는 시간 (ns) */
+    static long spanNanos(long nowNanos, int minutes) {
+        if (minutes <= 1) return FINE_SLOTS * FINE_SLOT_NANOS;
+        return (minutes - 1) * COARSE_SLOT_NANOS + nowNanos % COARSE_SLOT_NANOS;
+    }
+
+    private static Slot slot(Slot[] ring, long epoch) {
+        Slot s = ring[(int) (epoch % ring.length)];
+        if (s.epoch != epoch) s.rotate(epoch);
+        return s;
+    }
+
+    private static Slot[] slots(int n, int cells) {
+        Slot[] ring = new Slot[n];
+        for (int i = 0; i < n; i++) ring[i] = new Slot(cells);
+        return ring;
+    }
+
+    /** 지연(µs) → 버킷 번호 */
+    static int bucket(long micros) {
+        long v = micros >> UNIT_SHIFT;
+        if (v < 4) return (int) v;
+        int b = 63 - Long.numberOfLeadingZeros(v);
+        int index = 4 * (b - 1) + (int) ((v >> (b - 2)) & 3);
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    /** 버킷의 [하한, 상한) (µs) */
+    static long lowerMicros(int bucket) {
+        if (bucket < 4) return (long) bucket << UNIT_SHIFT;
+        int b = bucket / 4 + 1;
+        return ((4L + bucket % 4) << (b - 2)) << UNIT_SHIFT;
+    }
+
+    static long upperMicros(int bucket) {
+        if (bucket < 4) return (long) (bucket + 1) << UNIT_SHIFT;
+        int b = bucket / 4 + 1;
+        return lowerMicros(bucket) + ((1L << (b - 2)) << UNIT_SHIFT);
+    }
+
+    private static final class Slot {
+        volatile long epoch = -1;
+        final AtomicLongArray cells;
+
+        Slot(int cells) {
+            this.cells = new AtomicLongArray(cells);
+        }
+
+        void add(long us, boolean error) {
+            cells.incrementAndGet(COUNT);
+            if (error) cells.incrementAndGet(ERRORS);
+            cells.addAndGet(SUM_US, us);
+            long max;
+            while (us > (max = cells.get(MAX_US)) && !cells.compareAndSet(MAX_US, max, us)) {
+                // 다른 스레드가 먼저 갱신하면 다시 비교
+            }
+            if (cells.length() > HIST) cells.incrementAndGet(HIST + bucket(us));
+        }
+
+        /** 슬롯이 새 구간으로 넘어갈 때 한 스레드만 비움 (비우는 동안 들어온 몇 건은 유실될 수 있음) */
+        synchronized void rotate(long next) {
+            if (epoch >= next) return;
+            for (int i = 0; i < cells.length(); i++) cells.set(i, 0);
+            epoch = next;
+        }
+
+        void addTo(Totals t) {
+            t.count += cells.get(COUNT);
+            t.errors += cells.get(ERRORS);
+            t.sumMicros += cells.get(SUM_US);
+            t.maxMicros = Math.max(t.maxMicros, cells.get(MAX_US));
+            for (int i = 0; i < t.histogram.length; i++) t.histogram[i] += cells.get(HIST + i);
+        }
+    }
+
+    /** 창 합계 (조회 시에만 생성) */
+    static final class Totals {
+        long count;
+        long errors;
+        long sumMicros;
+        long maxMicros;
+        final long[] histogram;
+
+        Totals(int buckets) {
+            histogram = new long[buckets];
+        }
+
+        /** 히스토그램 백분위 (µs, 버킷 안에서 선형 보간), 히스토그램이 없거나 비어 있으면 -1 */
+        long percentileMicros(double q) {
+            long total = 0;
+            for (long c : histogram) total += c;
+            if (total == 0) return -1;
+
+            double rank = q * total;
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                long c = histogram[i];
+                if (c == 0) continue;
+                if (seen + c >= rank) {
+                    long lo = lowerMicros(i);
+                    long hi = Math.min(upperMicros(i), Math.max(maxMicros, lo));
+                    return lo + (long) ((hi - lo) * ((rank - seen) / c));
+                }
+                seen += c;
+            }
+            return maxMicros;
+        }
+
+        Map<String, Object> toMap(long spanNanos) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", count);
+            m.put("errors", errors);
+            m.put("error_rate", count == 0 ? 0.0 : round((double) errors / count));
+            m.put("rps", spanNanos <= 0 ? 0.0 : round(count * 1e9 / spanNanos));
+            m.put("avg_ms", count == 0 ? 0.0 : round(sumMicros / 1000.0 / count));
+            m.put("max_ms", round(maxMicros / 1000.0));
+            if (histogram.length > 0 && count > 0) {
+                m.put("p50_ms", round(percentileMicros(0.50) / 1000.0));
+                m.put("p95_ms", round(percentileMicros(0.95) / 1000.0));
+                m.put("p99_ms", round(percentileMicros(0.99) / 1000.0));
+            }
+            return m;
+        }
+
+        private static double round(double v) {
+            return Math.round(v * 1000) / 1000.0;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.kdn.ets.api_gateway.repository;
 
 import com.kdn.ets.api_gateway.entity.ApiKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 
 public interface ApiKeyRepository extends JpaRepository<ApiKey, String> {
@@ -12,4 +14,17 @@ public interface ApiKeyRepository extends JpaRepository<ApiKey, String> {
      * @return Optional<ApiKey> 조회 결과
      */
     Optional<ApiKey> findByApiKey(String apiKey);
-}
\ No newline at end of file
+
+    /**
+     * 인증에 필요한 값(사용자 ID, 사용 여부)만 한 번의 쿼리로 조회합니다.
+     * 연결된 사용자가 없으면 userId 가 null 인 결과가 반환됩니다.
+     * @param apiKey 조회할 해싱된 API 키
+     */
+    @Query("select u.userId as userId, u.useYn as useYn from ApiKey k left join k.user u where k.apiKey = :apiKey")
+    Optional<ApiKeyOwner> findOwnerByApiKey(@Param("apiKey") String apiKey);
+
+    interface ApiKeyOwner {
+        String getUserId();
+        String getUseYn();
+    }
+}
@@ -3,6 +3,9 @@ package com.kdn.ets.api_gateway.repository;
 import com.kdn.ets.api_gateway.entity.ApiPermission;
 import com.kdn.ets.api_gateway.entity.ApiPermissionId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
 
 public interface ApiPermissionRepository extends JpaRepository<ApiPermission, ApiPermissionId> {
 
@@ -10,4 +13,64 @@ public interface ApiPermissionRepository extends JpaRepository<ApiPermission, Ap
      * userId와 apiId를 기준으로 권한이 존재하는지 확인합니다.
      */
     boolean existsById_UserIdAndId_ApiId(String userId, String apiId);
-}
\ No newline at end of file
+
+    /**
+     * 권한 매트릭스 적재용: 전체 권한을 (userId, apiId, method) 값만 조회합니다.
+     */
+    @Query("select p.id.userId as userId, p.id.apiId as apiId, p.id.method as method from ApiPermission p")
+    List<PermissionGrant> findAllGrants();
+
+    /**
+     * 권한 매트릭스 부분 갱신용: 특정 사용자의 권한만 조회합니다.
+     */
+    @Query("select p.id.userId as userId, p.id.apiId as apiId, p.id.method as method from ApiPermission p where p.id.userId = :userId")
+    List<PermissionGrant> findGrantsByUserId(@Param("userId") String userId);
+
+    /**
+     * 요청 수 한도 적재용: 한도가 설정된 권한 행만 조회합니다.
+     */
+    @Query("select p.id.userId as userId, p.id.apiId as apiId, p.ratePerMin as ratePerMin, p.rateBurst as rateBurst "
+            + "from ApiPermission p where p.ratePerMin is not null")
+    List<RateLimitRow> findAllRateLimits();
+
+    /**
+     * 요청 수 한도 부분 갱신용: 특정 사용자의 한도만 조회합니다.
+     */
+    @Query("select p.id.userId as userId, p.id.apiId as apiId, p.ratePerMin as ratePerMin, p.rateBurst as rateBurst "
+            + "from ApiPermission p where p.ratePerMin is not null and p.id.userId = :userId")
+    List<RateLimitRow> findRateLimitsByUserId(@Param("userId") String userId);
+
+    /**
+     * 호출 한도(quota) 적재용: 일/월 한도가 설정된 권한 행만 조회합니다.
+     */
+    @Query("select p.id.userId as userId, p.id.apiId as apiId, p.quotaDaily as quotaDaily, p.quotaMonthly as quotaMonthly "
+            + "from ApiPermission p where p.quotaDaily is not null or p.quotaMonthly is not null")
+    List<QuotaRow> findAllQuotas();
+
+    /**
+     * 호출 한도 부분 갱신용: 특정 사용자의 한도만 조회합니다.
+     */
+    @Query("select p.id.userId as userId, p.id.apiId as apiId, p.quotaDaily as quotaDaily, p.quotaMonthly as quotaMonthly "
+            + "from ApiPermission p where (p.quotaDaily is not null or p.quotaMonthly is not null) and p.id.userId = :userId")
+    List<QuotaRow> findQuotasByUserId(@Param("userId") String userId);
+
+    interface PermissionGrant {
+        String getUserId();
+        String getApiId();
+        String getMethod();
+    }
+
+    interface RateLimitRow {
+        String getUserId();
+        String getApiId();
+        Integer getRatePerMin();
+        Integer getRateBurst();
+    }
+
+    interface QuotaRow {
+        String getUserId();
+        String getApiId();
+        Integer getQuotaDaily();
+        Integer getQuotaMonthly();
+    }
+}
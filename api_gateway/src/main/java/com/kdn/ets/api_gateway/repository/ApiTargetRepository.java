@@ -0,0 +1,13 @@
+package com.kdn.ets.api_gateway.repository;
+
+import com.kdn.ets.api_gateway.entity.ApiTarget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface ApiTargetRepository extends JpaRepository<ApiTarget, Integer> {
+
+    /**
+     * 사용 중(use_yn)인 업스트림 대상을 조회합니다.
+     */
+    List<ApiTarget> findByUseYn(String useYn);
+}
@@ -0,0 +1,113 @@
+package com.kdn.ets.api_gateway.route;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.web.util.UriUtils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * api_list 한 행을 요청 처리에 바로 쓸 수 있도록 미리 파싱해 둔 불변 객체.
+ * 요청마다 URI.create / UriComponentsBuilder 를 호출하지 않기 위함입니다.
+ * (다운스트림 URI 에 {변수} 가 있는 라우트만 요청마다 URI 를 조립합니다)
+ */
+@Getter
+@ToString
+public final class CompiledRoute {
+
+    private static final String[] NO_VARIABLES = new String[0];
+
+    /** 요청 경로 패턴 (RoutePattern 참고) */
+    private final String apiId;
+    private final String method;
+    /** api_list.path 원문 (로그 기록용) */
+    private final String path;
+    /** 미리 파싱된 다운스트림 URI ({변수} 가 있는 템플릿이면 null, RouteMatch.downstreamUri() 사용) */
+    private final URI downstreamUri;
+    /** use_yn = 'Y' 여부 */
+    private final boolean enabled;
+    /** 로그용 요청 바디 캡처 한도 (byte) */
+    private final int requestCaptureBytes;
+    /** 로그용 응답 바디 캡처 한도 (byte) */
+    private final int responseCaptureBytes;
+    /** 스트리밍 응답(SSE 등)에서 이벤트 사이 최대 대기 시간 (ms, 0 이면 제한 없음) */
+    private final int streamIdleTimeoutMs;
+    /** api_id 패턴의 캡처 변수 이름 (캡처 순서, 이름 없는 '*' / '**' 는 null) */
+    private final String[] variables;
+    /** 느린 응답에 헤징 요청을 보낼지 여부 (GET/HEAD 라우트만) */
+    private final boolean hedge;
+    /** 연결 실패 시 재시도 횟수 (GET/HEAD 라우트만, 0 이면 재시도 안 함) */
+    private final int maxRetries;
+    /** 업스트림 연결 타임아웃 (ms, 0 이면 HttpClient 기본값) */
+    private final int connectTimeoutMs;
+    /** 업스트림 응답 헤더까지 최대 대기 시간 (ms, 0 이면 제한 없음), 요청 기한(deadline)의 기준 */
+    private final int responseTimeoutMs;
+    /** 업스트림 커넥션 읽기 유휴 시간 한도 (ms, 0 이면 HttpClient 기본값) */
+    private final int idleTimeoutMs;
+
+    // 다운스트림 URI 템플릿: parts[0] + 값(vars[0]) + parts[1] + ... + parts[n]
+    @Getter(AccessLevel.NONE) @ToString.Exclude
+    private final String[] templateParts;
+    @Getter(AccessLevel.NONE) @ToString.Exclude
+    private final int[] templateVariables;
+    // catch-all 변수 번호 (값에 '/' 가 남도록 경로로 인코딩), 없으면 -1
+    @Getter(AccessLevel.NONE) @ToString.Exclude
+    private final int catchAllVariable;
+    @Getter(AccessLevel.NONE) @ToString.Exclude
+    private final RouteMatch exactMatch;
+
+    public CompiledRoute(String apiId, String method, String path, URI downstreamUri, boolean enabled,
+                         int requestCaptureBytes, int responseCaptureBytes, int streamIdleTimeoutMs) {
+        this(apiId, method, path, downstreamUri, enabled, requestCaptureBytes, responseCaptureBytes, streamIdleTimeoutMs,
+             NO_VARIABLES, -1, null, null, false, 0, 0, 0, 0);
+    }
+
+    CompiledRoute(String apiId, String method, String path, URI downstreamUri, boolean enabled,
+                  int requestCaptureBytes, int responseCaptureBytes, int streamIdleTimeoutMs,
+                  String[] variables, int catchAllVariable, String[] templateParts, int[] templateVariables,
+                  boolean hedge, int maxRetries, int connectTimeoutMs, int responseTimeoutMs, int idleTimeoutMs) {
+        this.apiId = apiId;
+        this.method = method;
+        this.path = path;
+        this.downstreamUri = downstreamUri;
+        this.enabled = enabled;
+        this.requestCaptureBytes = requestCaptureBytes;
+        this.responseCaptureBytes = responseCaptureBytes;
+        this.streamIdleTimeoutMs = streamIdleTimeoutMs;
+        this.variables = variables;
+        this.catchAllVariable = catchAllVariable;
+        this.templateParts = templateParts;
+        this.templateVariables = templateVariables;
+        this.hedge = hedge;
+        this.maxRetries = maxRetries;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.responseTimeoutMs = responseTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.exactMatch = new RouteMatch(this, null, null);
+    }
+
+    /** 변수가 없는 라우트의 일치 결과 (공유 인스턴스) */
+    RouteMatch exactMatch() {
+        return exactMatch;
+    }
+
+    URI downstreamUri(RouteMatch match) {
+        if (templateParts == null) return downstreamUri;
+
+        StringBuilder sb = new StringBuilder(path.length() + 32);
+        for (int i = 0; i < templateVariables.length; i++) {
+            sb.append(templateParts[i]);
+            int v = templateVariables[i];
+            String value = match.variable(v);
+            // 요청 경로는 디코딩된 값이므로 다시 인코딩 (이미 인코딩된 템플릿 나머지 부분과 맞춤)
+            sb.append(v == catchAllVariable
+                    ? UriUtils.encodePath(value, StandardCharsets.UTF_8)
+                    : UriUtils.encodePathSegment(value, StandardCharsets.UTF_8));
+        }
+        sb.append(templateParts[templateVariables.length]);
+        return URI.create(sb.toString());
+    }
+}
@@ -0,0 +1,43 @@
+package com.kdn.ets.api_gateway.route;
+
+import java.net.URI;
+
+/**
+ * 요청 경로와 라우트 패턴의 일치 결과.
+ * 변수가 없는 라우트는 라우트마다 미리 만들어 둔 인스턴스를 그대로 돌려주므로 요청마다 할당하지 않습니다.
+ */
+public final class RouteMatch {
+
+    private final CompiledRoute route;
+    private final String path;
+    /** 변수 i 의 값 = path[captures[2i], captures[2i + 1]) */
+    private final int[] captures;
+
+    RouteMatch(CompiledRoute route, String path, int[] captures) {
+        this.route = route;
+        this.path = path;
+        this.captures = captures;
+    }
+
+    public CompiledRoute getRoute() {
+        return route;
+    }
+
+    /** 캡처한 변수를 채운 다운스트림 URI */
+    public URI downstreamUri() {
+        return route.downstreamUri(this);
+    }
+
+    /** 이름으로 캡처 값 조회 (디코딩된 경로 기준), 없으면 null */
+    public String variable(String name) {
+        String[] names = route.getVariables();
+        for (int i = 0; i < names.length; i++) {
+            if (name.equals(names[i])) return variable(i);
+        }
+        return null;
+    }
+
+    String variable(int index) {
+        return path.substring(captures[index * 2], captures[index * 2 + 1]);
+    }
+}
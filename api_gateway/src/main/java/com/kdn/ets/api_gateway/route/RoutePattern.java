@@ -0,0 +1,99 @@
+package com.kdn.ets.api_gateway.route;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * api_list.api_id 를 요청 경로 패턴으로 해석한 결과. ('/' 로 구분한 세그먼트 단위)
+ * - 일반 문자열    : 그대로 일치 (예: ECHO, orders/search) → 기존 api_id 는 모두 이 경우
+ * - {name}         : 세그먼트 하나를 캡처 (예: orders/{id})
+ * - *              : 세그먼트 하나와 일치 (캡처 이름 없음)
+ * - {*name} / **   : 마지막 세그먼트에만 사용, 나머지 경로 전체(0개 이상 세그먼트)와 일치 (예: files/{*rest})
+ * 캡처한 값은 api_list.path(다운스트림 URI)의 {name} 자리에 넣을 수 있습니다.
+ * '{' 도 없고 '*' / '**' 세그먼트도 없는 api_id 는 패턴이 아니므로 기존과 같이 문자열 그대로 일치합니다.
+ * (앞/뒤의 '/', 연속된 '//' 도 그대로 비교, 예: foo/ 는 /foo/ 요청과만 일치)
+ */
+final class RoutePattern {
+
+    enum Kind { LITERAL, PARAM, CATCH_ALL }
+
+    final Kind[] kinds;
+    /** LITERAL 세그먼트 문자열 (그 외 null) */
+    final String[] literals;
+    /** 캡처 순서대로의 변수 이름 (이름 없는 '*' / '**' 는 null) */
+    final String[] variables;
+
+    private RoutePattern(Kind[] kinds, String[] literals, String[] variables) {
+        this.kinds = kinds;
+        this.literals = literals;
+        this.variables = variables;
+    }
+
+    /** @throws IllegalArgumentException 형식이 잘못된 경우 (중괄호 짝, 중간의 catch-all, 중복 변수 등) */
+    static RoutePattern parse(String apiId) {
+        if (!isPattern(apiId)) return literal(apiId);
+
+        String pattern = apiId.startsWith("/") ? apiId.substring(1) : apiId;
+        if (pattern.isEmpty()) throw new IllegalArgumentException("empty route pattern");
+
+        String[] segments = pattern.split("/", -1);
+        Kind[] kinds = new Kind[segments.length];
+        String[] literals = new String[segments.length];
+        List<String> variables = new ArrayList<>();
+
+        for (int i = 0; i < segments.length; i++) {
+            String s = segments[i];
+            boolean last = i == segments.length - 1;
+            if (s.equals("**") || (s.startsWith("{*") && s.endsWith("}"))) {
+                if (!last) throw new IllegalArgumentException("catch-all must be the last segment: " + apiId);
+                kinds[i] = Kind.CATCH_ALL;
+                variables.add(s.equals("**") ? null : name(s.substring(2, s.length() - 1), variables, apiId));
+            } else if (s.equals("*")) {
+                kinds[i] = Kind.PARAM;
+                variables.add(null);
+            } else if (s.startsWith("{") && s.endsWith("}")) {
+                kinds[i] = Kind.PARAM;
+                variables.add(name(s.substring(1, s.length() - 1), variables, apiId));
+            } else if (s.indexOf('{') >= 0 || s.indexOf('}') >= 0) {
+                // 세그먼트 일부만 변수인 형태(file-{id}.json)는 지원하지 않음
+                throw new IllegalArgumentException("variable must be a whole segment: " + apiId);
+            } else if (s.isEmpty()) {
+                throw new IllegalArgumentException("empty segment: " + apiId);
+            } else {
+                kinds[i] = Kind.LITERAL;
+                literals[i] = s;
+            }
+        }
+        return new RoutePattern(kinds, literals, variables.toArray(new String[0]));
+    }
+
+    /** '{' 가 있거나 '*' / '**' 세그먼트가 있는지 */
+    static boolean isPattern(String apiId) {
+        if (apiId.indexOf('{') >= 0) return true;
+        for (String s : apiId.split("/", -1)) {
+            if (s.equals("*") || s.equals("**")) return true;
+        }
+        return false;
+    }
+
+    /** 패턴이 아닌 api_id: 빈 세그먼트를 포함해 '/' 로만 나눔 (요청 경로도 앞의 '/' 하나만 떼고 같은 방식으로 비교) */
+    private static RoutePattern literal(String apiId) {
+        String[] segments = apiId.split("/", -1);
+        Kind[] kinds = new Kind[segments.length];
+        Arrays.fill(kinds, Kind.LITERAL);
+        return new RoutePattern(kinds, segments, new String[0]);
+    }
+
+    boolean isLiteral() {
+        return variables.length == 0;
+    }
+
+    private static String name(String name, List<String> seen, String apiId) {
+        if (name.isEmpty() || name.indexOf('{') >= 0 || name.indexOf('}') >= 0) {
+            throw new IllegalArgumentException("invalid variable name: " + apiId);
+        }
+        if (seen.contains(name)) throw new IllegalArgumentException("duplicate variable '" + name + "': " + apiId);
+        return name;
+    }
+}
@@ -0,0 +1,202 @@
+package com.kdn.ets.api_gateway.route;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.kdn.ets.api_gateway.entity.ApiRoute;
+import com.kdn.ets.api_gateway.repository.ApiRouteRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * api_list 전체를 메모리에 올려 둔 라우트 테이블.
+ * - 요청 경로에서는 DB 조회 없이 스냅샷(불변 RouteTree)만 읽습니다.
+ * - 주기적으로(app.route.refresh-interval-ms) 또는 refresh() 호출 시 새 스냅샷을 만들어 통째로 교체합니다.
+ * - api_id 는 요청 경로 패턴입니다. (일반 문자열 / {name} / * / {*name} / **, RoutePattern 참고)
+ *   패턴 문법이 없는 api_id / path 는 기존과 같이 문자열 그대로 사용합니다.
+ *   api_list.path 에는 캡처한 변수를 {name} 으로 넣을 수 있습니다. 예) orders/{id} → http://order-svc/v1/orders/{id}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RouteTable {
+
+    private final ApiRouteRepository apiRouteRepository;
+
+    @Value("${app.log.request-capture-bytes:8192}")
+    private int defaultRequestCaptureBytes;
+
+    @Value("${app.log.response-capture-bytes:4000}")
+    private int defaultResponseCaptureBytes;
+
+    @Value("${app.stream.idle-timeout-ms:60000}")
+    private int defaultStreamIdleTimeoutMs;
+
+    @Value("${app.retry.max-retries:1}")
+    private int defaultMaxRetries;
+
+    @Value("${app.timeout.connect-ms:10000}")
+    private int defaultConnectTimeoutMs;
+
+    @Value("${app.timeout.response-ms:120000}")
+    private int defaultResponseTimeoutMs;
+
+    @Value("${app.timeout.idle-ms:120000}")
+    private int defaultIdleTimeoutMs;
+
+    private volatile RouteTree routes = RouteTree.EMPTY;
+    private volatile int size;
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    /**
+     * 라우트 조회 (DB 호출 없음)
+     * @param path 요청 경로 (디코딩된 값, 예: /orders/42)
+     * @return 일치하는 패턴/메서드가 없으면 null (use_yn 검사는 호출 측에서 수행)
+     */
+    public RouteMatch match(String path, HttpMethod method) {
+        if (path == null || method == null) return null;
+        return routes.match(path, method);
+    }
+
+    /** 등록된 라우트(api_id, method) 수 */
+    public int size() {
+        return size;
+    }
+
+    @Scheduled(initialDelayString = "${app.route.refresh-interval-ms:30000}",
+               fixedDelayString = "${app.route.refresh-interval-ms:30000}")
+    void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // 갱신 실패 시 기존 스냅샷을 그대로 사용
+            log.warn("route table refresh failed, keeping previous snapshot", e);
+        }
+    }
+
+    /**
+     * api_list 를 다시 읽어 스냅샷을 원자적으로 교체합니다.
+     * 라우트 변경 직후 즉시 반영이 필요할 때 직접 호출할 수 있습니다.
+     */
+    public synchronized void refresh() {
+        List<ApiRoute> rows = new ArrayList<>(apiRouteRepository.findAll());
+        // 같은 패턴이 겹치면 api_id 순서로 먼저 오는 라우트를 사용 (갱신할 때마다 결과가 같도록)
+        rows.sort(Comparator.comparing(ApiRoute::getApiId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        RouteTree.Builder next = new RouteTree.Builder();
+        int count = 0;
+        for (ApiRoute row : rows) {
+            RoutePattern pattern;
+            CompiledRoute compiled;
+            try {
+                pattern = RoutePattern.parse(row.getApiId());
+                compiled = compile(row, pattern);
+            } catch (Exception e) {
+                log.warn("Skip route {} : invalid pattern or path '{}' ({})", row.getApiId(), row.getPath(), e.getMessage());
+                continue;
+            }
+
+            HttpMethod method = HttpMethod.resolve(compiled.getMethod());
+            if (method == null) {
+                log.warn("Skip route {} : unsupported method {}", row.getApiId(), row.getMethod());
+                continue;
+            }
+            if (!next.add(pattern, method, compiled)) {
+                log.warn("Skip route {} [{}] : same pattern as another route", row.getApiId(), compiled.getMethod());
+                continue;
+            }
+            count++;
+        }
+
+        this.routes = next.build();
+        this.size = count;
+        log.info("Route table loaded: {} route(s)", count);
+    }
+
+    private static int orDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private CompiledRoute compile(ApiRoute row, RoutePattern pattern) {
+        String path = row.getPath();
+        String method = row.getMethod().trim().toUpperCase(Locale.ROOT);
+        int requestCaptureBytes = orDefault(row.getReqCaptureBytes(), defaultRequestCaptureBytes);
+        int responseCaptureBytes = orDefault(row.getResCaptureBytes(), defaultResponseCaptureBytes);
+        int streamIdleTimeoutMs = orDefault(row.getStreamIdleTimeoutMs(), defaultStreamIdleTimeoutMs);
+        // 헤징/재시도는 멱등 메서드(GET/HEAD)만, 요청 바디를 다시 보낼 수 없기 때문
+        boolean idempotent = method.equals("GET") || method.equals("HEAD");
+        boolean hedge = idempotent && "Y".equalsIgnoreCase(row.getHedgeYn());
+        int maxRetries = idempotent ? Math.max(orDefault(row.getMaxRetries(), defaultMaxRetries), 0) : 0;
+        int connectTimeoutMs = Math.max(orDefault(row.getConnectTimeoutMs(), defaultConnectTimeoutMs), 0);
+        int responseTimeoutMs = Math.max(orDefault(row.getResponseTimeoutMs(), defaultResponseTimeoutMs), 0);
+        int idleTimeoutMs = Math.max(orDefault(row.getIdleTimeoutMs(), defaultIdleTimeoutMs), 0);
+        int catchAll = pattern.kinds[pattern.kinds.length - 1] == RoutePattern.Kind.CATCH_ALL ? pattern.variables.length - 1 : -1;
+
+        if (path.indexOf('{') < 0) {
+            return new CompiledRoute(row.getApiId(), method, path, downstream(path), "Y".equalsIgnoreCase(row.getUseYn()),
+                    requestCaptureBytes, responseCaptureBytes, streamIdleTimeoutMs, pattern.variables, catchAll, null, null,
+                    hedge, maxRetries, connectTimeoutMs, responseTimeoutMs, idleTimeoutMs);
+        }
+
+        if (pattern.isLiteral()) {
+            // 변수가 없는 api_id 의 path 에 있는 '{' 는 템플릿이 아닌 문자 그대로 (기존과 같이 요청 시점에 URI 로 해석)
+            return new CompiledRoute(row.getApiId(), method, path, null, "Y".equalsIgnoreCase(row.getUseYn()),
+                    requestCaptureBytes, responseCaptureBytes, streamIdleTimeoutMs, pattern.variables, catchAll,
+                    new String[] { path }, new int[0], hedge, maxRetries, connectTimeoutMs, responseTimeoutMs, idleTimeoutMs);
+        }
+
+        // 다운스트림 템플릿: {name} 을 api_id 패턴의 변수 번호로 바꿔 둠
+        List<String> parts = new ArrayList<>();
+        List<Integer> vars = new ArrayList<>();
+        StringBuilder sample = new StringBuilder();
+        int from = 0;
+        for (int open = path.indexOf('{'); open >= 0; open = path.indexOf('{', from)) {
+            int close = path.indexOf('}', open);
+            if (close < 0) throw new IllegalArgumentException("unclosed '{'");
+            String name = path.substring(open + 1, close);
+            int index = indexOf(pattern.variables, name);
+            if (index < 0) throw new IllegalArgumentException("unknown variable {" + name + "}");
+
+            parts.add(path.substring(from, open));
+            vars.add(index);
+            sample.append(path, from, open).append('x');
+            from = close + 1;
+        }
+        parts.add(path.substring(from));
+        sample.append(path, from, path.length());
+        downstream(sample.toString()); // 변수 자리를 채웠을 때 올바른 URI 인지 미리 확인
+
+        return new CompiledRoute(row.getApiId(), method, path, null, "Y".equalsIgnoreCase(row.getUseYn()),
+                requestCaptureBytes, responseCaptureBytes, streamIdleTimeoutMs, pattern.variables, catchAll,
+                parts.toArray(new String[0]), vars.stream().mapToInt(Integer::intValue).toArray(), hedge, maxRetries,
+                connectTimeoutMs, responseTimeoutMs, idleTimeoutMs);
+    }
+
+    private static URI downstream(String path) {
+        // 기존 필터와 동일하게 build(true): 이미 인코딩된 URI로 취급
+        return UriComponentsBuilder.fromUri(URI.create(path)).build(true).toUri();
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (name.equals(names[i])) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,210 @@
+package com.kdn.ets.api_gateway.route;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * 경로 세그먼트 단위 트라이(trie)로 컴파일한 라우트 매처. (RouteTable 스냅샷 하나당 하나, 불변)
+ * - 노드마다 일반 문자열 자식(해시 테이블) / 변수 자식({name}, *) / catch-all({*name}, **) / 메서드별 라우트를 가집니다.
+ * - 우선순위: 일반 문자열 > 변수 > catch-all. 뒤쪽 세그먼트나 메서드가 맞지 않으면 다음 후보로 되돌아가 찾습니다.
+ * - 세그먼트 비교는 요청 경로 문자열 위에서 직접 해시/비교하므로 정규식과 부분 문자열 할당이 없고,
+ *   일반 문자열 경로는 경로 길이에 비례하는 시간에 끝납니다.
+ * - 변수/catch-all 로 캡처할 값에 "." 또는 ".." 세그먼트가 있으면 일치하지 않은 것으로 봅니다.
+ *   (캡처 값이 downstream 경로에 그대로 들어가 상위 경로로 빠져나가는 것 방지)
+ */
+final class RouteTree {
+
+    private static final int METHOD_COUNT = HttpMethod.values().length;
+
+    static final RouteTree EMPTY = new Builder().build();
+
+    private final Node root;
+    private final int maxVariables;
+
+    private RouteTree(Node root, int maxVariables) {
+        this.root = root;
+        this.maxVariables = maxVariables;
+    }
+
+    /**
+     * 요청 경로(디코딩된 path, 앞의 '/' 포함 가능)와 메서드로 라우트 검색
+     * @return 일치하는 라우트가 없으면 null
+     */
+    RouteMatch match(String path, HttpMethod method) {
+        int start = path.startsWith("/") ? 1 : 0;
+        // 일반 문자열이 항상 우선이므로, 일반 문자열만으로 끝까지 일치하면 그 결과가 곧 답 (캡처 배열 할당 없음)
+        CompiledRoute literal = matchLiteral(path, start, method.ordinal());
+        if (literal != null) return literal.exactMatch();
+        if (maxVariables == 0) return null;
+
+        int[] captures = new int[maxVariables * 2];
+        CompiledRoute route = match(root, path, start, method.ordinal(), captures, 0);
+        if (route == null) return null;
+        return route.getVariables().length == 0 ? route.exactMatch() : new RouteMatch(route, path, captures);
+    }
+
+    private CompiledRoute matchLiteral(String path, int pos, int method) {
+        Node node = root;
+        int len = path.length();
+        while (node != null) {
+            int end = path.indexOf('/', pos);
+            if (end < 0) return at(node.literal(path, pos, len), method);
+            node = node.literal(path, pos, end);
+            pos = end + 1;
+        }
+        return null;
+    }
+
+    /** pos 가 path.length() 보다 크면 경로를 모두 소비한 상태 (마지막 세그먼트 뒤에 '/' 가 없었음) */
+    private static CompiledRoute match(Node node, String path, int pos, int method, int[] captures, int var) {
+        int len = path.length();
+        if (pos > len) {
+            CompiledRoute route = at(node.routes, method);
+            if (route != null) return route;
+            route = at(node.catchAll, method);
+            if (route != null) {
+                captures[var * 2] = len;
+                captures[var * 2 + 1] = len;
+            }
+            return route;
+        }
+
+        int end = path.indexOf('/', pos);
+        if (end < 0) end = len;
+        int next = end == len ? len + 1 : end + 1;
+
+        Node literal = node.literal(path, pos, end);
+        if (literal != null) {
+            CompiledRoute route = match(literal, path, next, method, captures, var);
+            if (route != null) return route;
+        }
+        if (node.param != null && end > pos && !isDotSegment(path, pos, end)) {
+            captures[var * 2] = pos;
+            captures[var * 2 + 1] = end;
+            CompiledRoute route = match(node.param, path, next, method, captures, var + 1);
+            if (route != null) return route;
+        }
+        CompiledRoute route = at(node.catchAll, method);
+        if (route != null) {
+            if (hasDotSegment(path, pos, len)) return null;
+            captures[var * 2] = pos;
+            captures[var * 2 + 1] = len;
+        }
+        return route;
+    }
+
+    /** path[start, end) 가 "." 또는 ".." 인지 */
+    private static boolean isDotSegment(String path, int start, int end) {
+        int length = end - start;
+        return (length == 1 || length == 2) && path.charAt(start) == '.' && path.charAt(end - 1) == '.';
+    }
+
+    /** path[start, end) 의 '/' 로 나눈 세그먼트 중 "." 또는 ".." 이 있는지 */
+    private static boolean hasDotSegment(String path, int start, int end) {
+        int pos = start;
+        while (pos < end) {
+            int slash = path.indexOf('/', pos);
+            int segEnd = slash < 0 || slash > end ? end : slash;
+            if (isDotSegment(path, pos, segEnd)) return true;
+            pos = segEnd + 1;
+        }
+        return false;
+    }
+
+    private static CompiledRoute at(CompiledRoute[] byMethod, int method) {
+        return byMethod == null ? null : byMethod[method];
+    }
+
+    private static CompiledRoute at(Node node, int method) {
+        return node == null ? null : at(node.routes, method);
+    }
+
+    static final class Builder {
+        private final Node root = new Node();
+        private int maxVariables;
+
+        /** @return 같은 패턴/메서드가 이미 등록되어 있으면 false (먼저 등록된 라우트 유지) */
+        boolean add(RoutePattern pattern, HttpMethod method, CompiledRoute route) {
+            Node node = root;
+            CompiledRoute[] slots = null;
+            for (int i = 0; i < pattern.kinds.length; i++) {
+                switch (pattern.kinds[i]) {
+                    case LITERAL:
+                        node = node.literalChildren.computeIfAbsent(pattern.literals[i], k -> new Node());
+                        break;
+                    case PARAM:
+                        if (node.param == null) node.param = new Node();
+                        node = node.param;
+                        break;
+                    case CATCH_ALL:
+                        if (node.catchAll == null) node.catchAll = new CompiledRoute[METHOD_COUNT];
+                        slots = node.catchAll;
+                        break;
+                }
+            }
+            if (slots == null) {
+                if (node.routes == null) node.routes = new CompiledRoute[METHOD_COUNT];
+                slots = node.routes;
+            }
+            if (slots[method.ordinal()] != null) return false;
+
+            slots[method.ordinal()] = route;
+            maxVariables = Math.max(maxVariables, pattern.variables.length);
+            return true;
+        }
+
+        RouteTree build() {
+            root.freeze();
+            return new RouteTree(root, maxVariables);
+        }
+    }
+
+    private static final class Node {
+        // 빌드 중에만 사용, freeze() 후에는 keys/children 사용
+        Map<String, Node> literalChildren = new HashMap<>();
+        String[] keys;
+        Node[] children;
+        int mask;
+
+        Node param;
+        CompiledRoute[] routes;
+        CompiledRoute[] catchAll;
+
+        /** path[start, end) 와 같은 일반 문자열 자식 (부분 문자열을 만들지 않음) */
+        Node literal(String path, int start, int end) {
+            if (keys == null) return null;
+            int h = 0;
+            for (int i = start; i < end; i++) h = 31 * h + path.charAt(i);
+            int length = end - start;
+            for (int i = spread(h) & mask; ; i = (i + 1) & mask) {
+                String key = keys[i];
+                if (key == null) return null;
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) return children[i];
+            }
+        }
+
+        void freeze() {
+            if (!literalChildren.isEmpty()) {
+                int capacity = Integer.highestOneBit(Math.max(literalChildren.size() * 2 - 1, 1)) << 1;
+                keys = new String[capacity];
+                children = new Node[capacity];
+                mask = capacity - 1;
+                for (Map.Entry<String, Node> e : literalChildren.entrySet()) {
+                    int i = spread(e.getKey().hashCode()) & mask;
+                    while (keys[i] != null) i = (i + 1) & mask;
+                    keys[i] = e.getKey();
+                    children[i] = e.getValue();
+                    e.getValue().freeze();
+                }
+            }
+            literalChildren = null;
+            if (param != null) param.freeze();
+        }
+
+        private static int spread(int h) {
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -1,32 +1,96 @@
 package com.kdn.ets.api_gateway.service;
 
-import com.kdn.ets.api_gateway.entity.ApiKey;
-import com.kdn.ets.api_gateway.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.kdn.ets.api_gateway.auth.PermissionMatrix;
+import com.kdn.ets.api_gateway.auth.QuotaTracker;
+import com.kdn.ets.api_gateway.auth.RateLimiter;
 import com.kdn.ets.api_gateway.exception.ApiException;
 import com.kdn.ets.api_gateway.repository.ApiKeyRepository;
-import com.kdn.ets.api_gateway.repository.ApiPermissionRepository; // 수정
+import com.kdn.ets.api_gateway.repository.ApiKeyRepository.ApiKeyOwner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import javax.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 
 @Service
 public class AuthService {
 
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // MessageDigest 는 스레드 안전하지 않으므로 스레드별로 재사용
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 Hashing Error", e);
+        }
+    });
+
     @Value("${app.api.salt}")
     private String apiSalt;
 
+    @Value("${app.auth.cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    @Value("${app.auth.cache.ttl:5m}")
+    private Duration cacheTtl;
+
+    // 존재하지 않는 키는 짧게만 캐시 (신규 발급 키가 오래 거부되지 않도록)
+    @Value("${app.auth.cache.negative-ttl:10s}")
+    private Duration negativeTtl;
+
     @Autowired
     private ApiKeyRepository apiKeyRepository;
 
     @Autowired
-    private ApiPermissionRepository permissionRepository; // 수정
+    private PermissionMatrix permissionMatrix;
+
+    @Autowired(required = false)
+    private RateLimiter rateLimiter;
+
+    @Autowired(required = false)
+    private QuotaTracker quotaTracker;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private byte[] saltBytes;
+
+    /** 해싱된 API 키 → 키 소유자 정보 */
+    private Cache<String, KeyEntry> keyCache;
 
+    @PostConstruct
+    void init() {
+        saltBytes = apiSalt.getBytes(StandardCharsets.UTF_8);
+        keyCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new KeyEntryExpiry(cacheTtl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+
+        // 키 캐시 적중률/크기/제거 건수 지표 (cache.gets{cache="auth.api-key", result=hit|miss} 등)
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, keyCache, "auth.api-key");
+        }
+    }
+
+    /**
+     * API 키 인증 + API 접근 권한 확인.
+     * 키가 캐시에 있으면 호출 스레드에서 바로 완료되고(권한은 메모리 매트릭스에서 확인),
+     * 키 캐시 미스일 때만 boundedElastic 에서 DB 를 조회합니다.
+     */
     public Mono<String> verifyAndGetUserId(ServerHttpRequest request, String apiId) {
         String authHeader = request.getHeaders().getFirst("Authorization");
 
@@ -34,45 +98,126 @@ public class AuthService {
             return Mono.error(new ApiException(401, "API Key 인증이 필요합니다. (Authorization 헤더 누락)"));
         }
 
-        String hashedKey = hashWithSalt(authHeader);
+        final String hashedKey = hashWithSalt(authHeader);
 
-        ApiKey apiKey = apiKeyRepository.findByApiKey(hashedKey)
-                .orElseThrow(() -> new ApiException(401, "유효하지 않은 API 키입니다."));
-        
-        User user = apiKey.getUser();
-        if (user == null) {
-            throw new ApiException(403, "API 키에 연결된 사용자가 없습니다.");
+        KeyEntry cachedKey = keyCache.getIfPresent(hashedKey);
+        if (cachedKey != null) {
+            try {
+                return Mono.just(authorize(cachedKey, apiId));
+            } catch (ApiException e) {
+                return Mono.error(e);
+            }
         }
 
-        if (!"Y".equalsIgnoreCase(user.getUseYn())) {
-            throw new ApiException(403, "비활성화된 사용자 계정입니다.");
+        // 키 캐시 미스 → 블로킹 조회
+        return Mono.fromCallable(() -> authorize(keyCache.get(hashedKey, this::loadKey), apiId))
+                   .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private String authorize(KeyEntry keyEntry, String apiId) {
+        if (!keyEntry.isActiveUser()) {
+            throw keyEntry.toError();
         }
 
         // --- 권한 확인 로직 변경 ---
-        String userId = user.getUserId();
-        
-        if (!permissionRepository.existsById_UserIdAndId_ApiId(userId, apiId)) {
+        String userId = keyEntry.userId;
+        if (!permissionMatrix.isAllowed(userId, apiId)) {
             throw new ApiException(403, "해당 API에 접근 권한이 없습니다.");
         }
+        return userId;
+    }
 
-        return Mono.just(userId);
+    private KeyEntry loadKey(String hashedKey) {
+        ApiKeyOwner owner = apiKeyRepository.findOwnerByApiKey(hashedKey).orElse(null);
+        if (owner == null) {
+            return KeyEntry.NOT_FOUND;
+        }
+        return new KeyEntry(owner.getUserId(), "Y".equalsIgnoreCase(owner.getUseYn()), true);
     }
 
-    private String hashWithSalt(String key) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest((apiSalt + key).getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder(2 * hash.length);
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 Hashing Error", e);
+    // ===== 캐시 무효화 =====
+
+    /** 키 재발급/폐기 시 호출: 원문 API 키 기준으로 캐시 제거 */
+    public void invalidateApiKey(String rawApiKey) {
+        keyCache.invalidate(hashWithSalt(rawApiKey));
+    }
+
+    /** 사용자 상태 또는 권한 변경 시 호출 (블로킹: 해당 사용자의 권한 행을 DB에서 다시 읽음) */
+    public void invalidateUser(String userId) {
+        keyCache.asMap().values().removeIf(e -> userId.equals(e.userId));
+        permissionMatrix.reloadUser(userId);
+        if (rateLimiter != null) rateLimiter.reloadUser(userId);
+        if (quotaTracker != null) quotaTracker.reloadUser(userId);
+    }
+
+    public void invalidateAll() {
+        keyCache.invalidateAll();
+    }
+
+    /** SHA-256(salt + key) 를 소문자 hex 로 반환 */
+    String hashWithSalt(String key) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(saltBytes);
+        byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            int v = hash[i] & 0xff;
+            hex[i * 2] = HEX[v >>> 4];
+            hex[i * 2 + 1] = HEX[v & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    // ===== 캐시 값 =====
+
+    private static final class KeyEntry {
+        static final KeyEntry NOT_FOUND = new KeyEntry(null, false, false);
+
+        final String userId;
+        final boolean active;
+        final boolean found;
+
+        KeyEntry(String userId, boolean active, boolean found) {
+            this.userId = userId;
+            this.active = active;
+            this.found = found;
+        }
+
+        boolean isActiveUser() {
+            return found && userId != null && active;
+        }
+
+        ApiException toError() {
+            if (!found) return new ApiException(401, "유효하지 않은 API 키입니다.");
+            if (userId == null) return new ApiException(403, "API 키에 연결된 사용자가 없습니다.");
+            return new ApiException(403, "비활성화된 사용자 계정입니다.");
+        }
+    }
+
+    private static final class KeyEntryExpiry implements Expiry<String, KeyEntry> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        KeyEntryExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, KeyEntry value, long currentTime) {
+            return value.found ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, KeyEntry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, KeyEntry value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-}
\ No newline at end of file
+}
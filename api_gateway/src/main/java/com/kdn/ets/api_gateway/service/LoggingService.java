@@ -1,28 +1,23 @@
 package com.kdn.ets.api_gateway.service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ServerWebExchange;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.kdn.ets.api_gateway.entity.ApiRoute;
 import com.kdn.ets.api_gateway.entity.GatewayLog;
-import com.kdn.ets.api_gateway.helper.ClientIpHelper;
-import com.kdn.ets.api_gateway.helper.GatewayLogHelper;
-import com.kdn.ets.api_gateway.repository.GatewayLogRepository;
+import com.kdn.ets.api_gateway.helper.BodyMasker;
+import com.kdn.ets.api_gateway.helper.CaseInsensitiveKeys;
+import com.kdn.ets.api_gateway.helper.HeaderJsonWriter;
+import com.kdn.ets.api_gateway.logging.LogEvent;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,128 +25,98 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class LoggingService {
 
-    @Autowired
-    private GatewayLogRepository logRepository;
-
     @Autowired
     private ObjectMapper objectMapper;
 
-    private static final List<String> SENSITIVE_KEYS = Collections.unmodifiableList(
-        Arrays.asList(
+    // gateway_logs.body 컬럼 길이 (마스킹 결과가 이 길이에 도달하면 나머지 바디는 읽지 않음)
+    @Value("${app.log.body-max-chars:2000}")
+    private int bodyMaxChars = 2000;
+
+    // 대소문자 무시 (조회 시 문자열 생성 없음)
+    private static final CaseInsensitiveKeys SENSITIVE_KEYS = CaseInsensitiveKeys.of(
             "authorization", "cookie", "x-api-key", "set-cookie",
             "password", "passwd", "new_password", "confirm_password",
             "access_token", "refresh_token", "token", "secret", "client_secret"
-        )
     );
 
+    // 로그에 남길 헤더 (include 가 비어 있으면 전체, exclude 는 항상 제외) / 헤더 JSON 최대 글자 수 (gateway_logs.headers 컬럼 길이)
+    @Value("${app.log.headers.include:}")
+    private String[] headerInclude = new String[0];
+
+    @Value("${app.log.headers.exclude:}")
+    private String[] headerExclude = new String[0];
+
+    @Value("${app.log.headers.max-chars:1500}")
+    private int headerMaxChars = 1500;
+
+    private BodyMasker bodyMasker;
+    private HeaderJsonWriter headerWriter;
+
+    @PostConstruct
+    public void init() {
+        bodyMasker = new BodyMasker(objectMapper.getFactory(), SENSITIVE_KEYS, bodyMaxChars);
+        headerWriter = new HeaderJsonWriter(SENSITIVE_KEYS, headerNames(headerInclude), headerNames(headerExclude), headerMaxChars);
+    }
+
+    private static CaseInsensitiveKeys headerNames(String[] names) {
+        return CaseInsensitiveKeys.of(Arrays.stream(names).map(String::trim).filter(n -> !n.isEmpty()).toArray(String[]::new));
+    }
+
     /**
-     * @param responseBody 필터에서 캡처한 "응답 바디"
-     * 요청 바디는 exchange attribute("captured_request_body")에서 읽어옵니다.
+     * 요청 스레드에서 캡처한 LogEvent 를 마스킹/길이 제한을 적용한 GatewayLog 로 변환합니다.
+     * 로그 작성 스레드(GatewayLogWriter)에서 호출됩니다.
      */
-    @Async
-    public void logRequest(ServerWebExchange exchange, int latency, Integer statusCode, String responseBody, Throwable ex) {
-
-        ApiRoute apiInfo = exchange.getAttribute("api_info");
-        String userId = exchange.getAttribute("user_id");
+    public GatewayLog toGatewayLog(LogEvent event) {
 
-        // ── 요청 바디 꺼내기 (필터에서 저장됨)
-        String rawRequestBody = exchange.getAttribute("captured_request_body");
-        String contentType = exchange.getRequest().getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
-        String safeRequestBody = maskBodyIfPossible(rawRequestBody, contentType);
-        
-        final String path = exchange.getRequest().getURI().getPath();
-        final String apiId = path.startsWith("/") ? path.substring(1) : path;
+        // ── 요청 바디 마스킹 (필터에서 캡처됨)
+        String safeRequestBody = maskBodyIfPossible(event.getRequestBody(), event.getContentType());
 
         GatewayLog.GatewayLogBuilder logBuilder = GatewayLog.builder()
-											                .userId(userId)
-											                .apiId(apiId != null ? apiId : "unknown")
-											                .method(exchange.getRequest().getMethod().name())
-											                .path(apiInfo != null ? apiInfo.getPath() : "unknown")
-											                .queryParam(exchange.getRequest().getQueryParams().toString())
-											                .headers(maskSensitiveHeaders(exchange.getRequest().getHeaders()))
-											                .requestedAt(LocalDateTime.now().minusNanos(latency * 1_000_000L))
-											                .respondedAt(LocalDateTime.now())
-											                .latencyMs(latency)
-											                .clientIp(ClientIpHelper.resolve(exchange))
-											                .userAgent(exchange.getRequest().getHeaders().getFirst(HttpHeaders.USER_AGENT))
-											                .statusCode(statusCode)
-											                .body(safeRequestBody);
+											                .userId(event.getUserId())
+											                .apiId(event.getApiId() != null ? event.getApiId() : "unknown")
+											                .method(event.getMethod())
+											                .path(event.getPath() != null ? event.getPath() : "unknown")
+											                .queryParam(event.getQueryParam())
+											                .headers(maskSensitiveHeaders(event.getRequestHeaders()))
+											                .requestedAt(toLocalDateTime(event.getRequestedAtMillis()))
+											                .respondedAt(toLocalDateTime(event.getRespondedAtMillis()))
+											                .latencyMs(event.getLatencyMs())
+											                .clientIp(event.getClientIp())
+											                .userAgent(event.getUserAgent())
+											                .statusCode(event.getStatusCode())
+											                .body(safeRequestBody)
+											                .response(truncate(event.getResponseBody(), 4000))
+											                .ttfbMs(event.getTtfbMs())
+											                .ttlbMs(event.getTtlbMs())
+											                .streamEvents(event.getStreamEvents())
+											                .routeUs(event.getRouteUs())
+											                .authUs(event.getAuthUs())
+											                .connectUs(event.getConnectUs())
+											                .upstreamTtfbUs(event.getUpstreamTtfbUs())
+											                .streamUs(event.getStreamUs());
         
-        if (ex == null) {
-            logBuilder.isSuccess("Y")
-                      .response(truncate(responseBody, 4000));
+        if (event.getErrorMessage() == null) {
+            logBuilder.isSuccess("Y");
         } else {
             logBuilder.isSuccess("N")
-                      .errorMessage(ex.getClass().getName() + ": " + ex.getMessage())
-                      .response(truncate(responseBody, 4000));
+                      .errorMessage(truncate(event.getErrorMessage(), 500));
         }
 
-        logRepository.save(logBuilder.build());
+        return logBuilder.build();
     }
 
-    /** 헤더 값 마스킹 */
-    private String maskSensitiveHeaders(HttpHeaders headers) {
-        Map<String, String> masked = headers.toSingleValueMap()
-        									.entrySet()
-        									.stream()
-							                .collect(Collectors.toMap(
-							                        Map.Entry::getKey,
-							                        e -> SENSITIVE_KEYS.contains(e.getKey().toLowerCase()) ? "**********" : e.getValue()
-							                ));
-        try {
-            return truncate(objectMapper.writeValueAsString(masked), 1500);
-        } catch (JsonProcessingException e) {
-            return "{\"error\":\"Header parsing failed\"}";
-        }
+    /** 헤더 값 마스킹 (허용/제외 목록 적용, 결과는 headers.max-chars 이내) */
+    String maskSensitiveHeaders(HttpHeaders headers) {
+        return headers != null ? headerWriter.write(headers) : null;
     }
 
-    /** 요청 바디 마스킹 (가능할 때만) */
-    private String maskBodyIfPossible(String body, String contentType) {
-        if (body == null || body.isEmpty()) return body;
-        if (contentType == null) return body;
-
-        try {
-            // JSON이면 키 기반 마스킹
-            if (contentType.contains(MediaType.APPLICATION_JSON_VALUE)) {
-                JsonNode node = objectMapper.readTree(body);
-                maskJsonNode(node);
-                return objectMapper.writeValueAsString(node);
-            }
-
-            // x-www-form-urlencoded의 경우 키=값&... 단순 마스킹
-            if (contentType.contains(MediaType.APPLICATION_FORM_URLENCODED_VALUE)) {
-                String[] pairs = body.split("&");
-                for (int i = 0; i < pairs.length; i++) {
-                    String[] kv = pairs[i].split("=", 2);
-                    if (kv.length == 2 && SENSITIVE_KEYS.contains(kv[0].toLowerCase())) {
-                        pairs[i] = kv[0] + "=**********";
-                    }
-                }
-                return String.join("&", pairs);
-            }
-        } catch (Exception ignore) {
-            // 파싱 실패 시 원문 그대로 저장
-        	log.warn("loggingService.logRequest failed (async)", ignore);
-        }
-        return body;
+    /** 요청 바디 마스킹 (JSON / form 일 때만, 결과는 body-max-chars 이내) */
+    String maskBodyIfPossible(String body, String contentType) {
+        return bodyMasker.mask(body, contentType);
     }
 
-    /** JSON 트리에서 민감키 재귀 마스킹 */
-    private void maskJsonNode(JsonNode node) {
-        if (node == null) return;
-        if (node.isObject()) {
-            ObjectNode obj = (ObjectNode) node;
-            obj.fieldNames().forEachRemaining(field -> {
-                JsonNode child = obj.get(field);
-                if (SENSITIVE_KEYS.contains(field.toLowerCase())) {
-                    obj.put(field, "**********");
-                } else {
-                    maskJsonNode(child);
-                }
-            });
-        } else if (node.isArray()) {
-            for (JsonNode child : node) maskJsonNode(child);
-        }
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
     }
 
     private String truncate(String value, int length) {
@@ -0,0 +1,231 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import com.kdn.ets.api_gateway.exception.CircuitOpenException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 업스트림(라우트 또는 대상 호스트) 하나의 서킷 브레이커.
+ * - CLOSED: 최근 window 동안의 호출 중 실패(5xx/연결 오류/타임아웃) 비율 또는 느린 호출 비율이 임계값을 넘으면 OPEN
+ * - OPEN: open-ms 동안 업스트림을 호출하지 않고 즉시 503 (미리 만든 CircuitOpenException)
+ * - HALF_OPEN: open-ms 가 지나면 half-open-calls 건만 시험 호출, 모두 성공하면 CLOSED / 하나라도 실패하면 다시 OPEN
+ * 호출 결과 기록은 락 없이 시간 구간별 원자 카운터(링 버퍼)에 더합니다.
+ */
+@Slf4j
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** 판정 기준 (CircuitBreakerRegistry 가 설정값으로 생성) */
+    static final class Config {
+        final int minCalls;
+        final int failureRatePercent;
+        final long slowCallNanos;
+        final int slowCallRatePercent;
+        final long openNanos;
+        final int halfOpenCalls;
+        final long bucketNanos;
+        final int buckets;
+
+        Config(int minCalls, int failureRatePercent, long slowCallMs, int slowCallRatePercent,
+               long openMs, int halfOpenCalls, long windowMs, int buckets) {
+            this.minCalls = Math.max(minCalls, 1);
+            // 0 이하이면 해당 기준으로는 열지 않음
+            this.failureRatePercent = failureRatePercent > 0 ? failureRatePercent : Integer.MAX_VALUE;
+            this.slowCallNanos = slowCallMs > 0 ? slowCallMs * 1_000_000L : Long.MAX_VALUE;
+            this.slowCallRatePercent = slowCallRatePercent > 0 ? slowCallRatePercent : Integer.MAX_VALUE;
+            this.openNanos = openMs * 1_000_000L;
+            this.halfOpenCalls = Math.max(halfOpenCalls, 1);
+            this.buckets = Math.max(buckets, 1);
+            this.bucketNanos = Math.max(windowMs * 1_000_000L / this.buckets, 1);
+        }
+    }
+
+    // 링 버퍼 한 칸: [구간 번호, 호출 수, 실패 수, 느린 호출 수]
+    private static final int EPOCH = 0, CALLS = 1, FAILURES = 2, SLOW = 3, SLOT = 4;
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final String name;
+    private final Config config;
+    private final LongSupplier clock;
+    private final CircuitOpenException rejection;
+
+    private final AtomicLongArray ring;
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+    private volatile long openUntil;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    CircuitBreaker(String name, Config config, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.clock = clock;
+        this.rejection = new CircuitOpenException(name, this::retryAfterSeconds);
+        this.ring = new AtomicLongArray(config.buckets * SLOT);
+        for (int i = 0; i < config.buckets; i++) ring.set(i * SLOT + EPOCH, UNUSED);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return State.values()[state.get()];
+    }
+
+    /** 거절 시 던질 예외 (브레이커마다 하나) */
+    public CircuitOpenException rejection() {
+        return rejection;
+    }
+
+    /** OPEN 상태에서 다시 시험 호출이 가능해지기까지 남은 시간 (초, 올림) */
+    public long retryAfterSeconds() {
+        if (state.get() != State.OPEN.ordinal()) return 0;
+        long remaining = openUntil - clock.getAsLong();
+        return remaining <= 0 ? 0 : (remaining + 999_999_999L) / 1_000_000_000L;
+    }
+
+    /**
+     * 상태를 바꾸지 않고 호출 가능 여부만 확인 (부하 분산에서 열린 대상을 건너뛸 때 사용)
+     */
+    public boolean isCallPermitted() {
+        switch (getState()) {
+            case OPEN: return clock.getAsLong() >= openUntil;
+            case HALF_OPEN: return halfOpenPermits.get() < config.halfOpenCalls;
+            default: return true;
+        }
+    }
+
+    /**
+     * 호출 시작. 허용되면 결과를 한 번만 기록하는 Call, 거절되면 null.
+     */
+    public Call tryAcquire() {
+        int s = state.get();
+        if (s == State.OPEN.ordinal()) {
+            if (clock.getAsLong() < openUntil) return null;
+            if (state.compareAndSet(s, State.HALF_OPEN.ordinal())) {
+                halfOpenPermits.set(0);
+                halfOpenSuccesses.set(0);
+                log.info("Circuit {} half-open, allowing {} trial call(s)", name, config.halfOpenCalls);
+            }
+            s = state.get();
+        }
+        if (s == State.HALF_OPEN.ordinal()) {
+            for (int used = halfOpenPermits.get(); used < config.halfOpenCalls; used = halfOpenPermits.get()) {
+                if (halfOpenPermits.compareAndSet(used, used + 1)) return new Call(true);
+            }
+            return null;
+        }
+        if (s == State.OPEN.ordinal()) return null;
+        return new Call(false);
+    }
+
+    private void onResult(boolean halfOpen, boolean failure, long elapsedNanos) {
+        boolean slow = elapsedNanos >= config.slowCallNanos;
+        if (halfOpen) {
+            if (state.get() != State.HALF_OPEN.ordinal()) return;
+            if (failure || slow) {
+                open(State.HALF_OPEN, failure ? "trial call failed" : "trial call slow");
+            } else if (halfOpenSuccesses.incrementAndGet() >= config.halfOpenCalls
+                    && state.compareAndSet(State.HALF_OPEN.ordinal(), State.CLOSED.ordinal())) {
+                resetWindow();
+                log.info("Circuit {} closed", name);
+            }
+            return;
+        }
+
+        int base = slot(clock.getAsLong());
+        ring.incrementAndGet(base + CALLS);
+        if (failure) ring.incrementAndGet(base + FAILURES);
+        if (slow) ring.incrementAndGet(base + SLOW);
+        // 비율은 실패/느린 호출이 기록될 때만 올라가므로 그때만 판정
+        if ((failure || slow) && state.get() == State.CLOSED.ordinal()) evaluate();
+    }
+
+    private void onIgnored(boolean halfOpen) {
+        // 취소된 시험 호출은 허용 건수를 돌려줌
+        if (halfOpen && state.get() == State.HALF_OPEN.ordinal()) halfOpenPermits.decrementAndGet();
+    }
+
+    private void evaluate() {
+        long now = clock.getAsLong();
+        long current = Math.floorDiv(now, config.bucketNanos);
+        long calls = 0, failures = 0, slow = 0;
+        for (int i = 0; i < config.buckets; i++) {
+            int base = i * SLOT;
+            long epoch = ring.get(base + EPOCH);
+            if (epoch == UNUSED || current - epoch >= config.buckets) continue;
+            calls += ring.get(base + CALLS);
+            failures += ring.get(base + FAILURES);
+            slow += ring.get(base + SLOW);
+        }
+        if (calls < config.minCalls) return;
+        if (failures * 100 >= calls * config.failureRatePercent) {
+            open(State.CLOSED, "failure rate " + (failures * 100 / calls) + "% of " + calls + " call(s)");
+        } else if (slow * 100 >= calls * config.slowCallRatePercent) {
+            open(State.CLOSED, "slow call rate " + (slow * 100 / calls) + "% of " + calls + " call(s)");
+        }
+    }
+
+    private void open(State from, String reason) {
+        openUntil = clock.getAsLong() + config.openNanos;
+        if (state.compareAndSet(from.ordinal(), State.OPEN.ordinal())) {
+            log.warn("Circuit {} opened for {} ms: {}", name, config.openNanos / 1_000_000, reason);
+        }
+    }
+
+    /** 현재 시각 구간의 칸 (지난 구간이면 비우고 재사용) */
+    private int slot(long now) {
+        long epoch = Math.floorDiv(now, config.bucketNanos);
+        int base = (int) Math.floorMod(epoch, (long) config.buckets) * SLOT;
+        long seen = ring.get(base + EPOCH);
+        if (seen != epoch && ring.compareAndSet(base + EPOCH, seen, epoch)) {
+            ring.set(base + CALLS, 0);
+            ring.set(base + FAILURES, 0);
+            ring.set(base + SLOW, 0);
+        }
+        return base;
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < config.buckets; i++) ring.set(i * SLOT + EPOCH, UNUSED);
+    }
+
+    /** 허용된 호출 하나. 성공/실패/취소 중 처음 한 번만 반영됩니다. */
+    public final class Call {
+        private final boolean halfOpen;
+        private final long startNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Call(boolean halfOpen) {
+            this.halfOpen = halfOpen;
+            this.startNanos = clock.getAsLong();
+        }
+
+        /** 업스트림 응답 상태 코드로 기록 (5xx 는 실패) */
+        public void complete(int statusCode) {
+            if (done.compareAndSet(false, true)) {
+                onResult(halfOpen, statusCode >= 500, clock.getAsLong() - startNanos);
+            }
+        }
+
+        /** 연결 오류 / 타임아웃 등 */
+        public void fail() {
+            if (done.compareAndSet(false, true)) {
+                onResult(halfOpen, true, clock.getAsLong() - startNanos);
+            }
+        }
+
+        /** 클라이언트 취소 등 결과를 알 수 없는 경우 */
+        public void ignore() {
+            if (done.compareAndSet(false, true)) {
+                onIgnored(halfOpen);
+            }
+        }
+    }
+}
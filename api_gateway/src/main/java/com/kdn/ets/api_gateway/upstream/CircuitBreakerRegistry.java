@@ -0,0 +1,53 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 서킷 브레이커 보관소.
+ * - api_targets 가 있는 API 는 대상(호스트)마다, 없는 API 는 라우트(api_id)마다 브레이커를 둡니다.
+ * - 대상의 브레이커는 UpstreamTarget 에 붙여 두므로 대상 목록을 다시 적재해도 상태가 유지됩니다.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    private final boolean enabled;
+    private final CircuitBreaker.Config config;
+    private final ConcurrentHashMap<String, CircuitBreaker> routeBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry(@Value("${app.circuit-breaker.enabled:true}") boolean enabled,
+                                  @Value("${app.circuit-breaker.min-calls:20}") int minCalls,
+                                  @Value("${app.circuit-breaker.failure-rate-percent:50}") int failureRatePercent,
+                                  @Value("${app.circuit-breaker.slow-call-ms:10000}") long slowCallMs,
+                                  @Value("${app.circuit-breaker.slow-call-rate-percent:80}") int slowCallRatePercent,
+                                  @Value("${app.circuit-breaker.open-ms:30000}") long openMs,
+                                  @Value("${app.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+                                  @Value("${app.circuit-breaker.window-ms:10000}") long windowMs) {
+        this.enabled = enabled;
+        this.config = new CircuitBreaker.Config(minCalls, failureRatePercent, slowCallMs, slowCallRatePercent,
+                                                openMs, halfOpenCalls, windowMs, 10);
+    }
+
+    /** 요청이 향하는 업스트림의 브레이커 (꺼져 있으면 null) */
+    public CircuitBreaker breaker(String apiId, UpstreamTarget target) {
+        if (!enabled) return null;
+        if (target != null) {
+            CircuitBreaker b = target.circuitBreaker;
+            if (b == null) {
+                synchronized (target) {
+                    b = target.circuitBreaker;
+                    if (b == null) target.circuitBreaker = b = newBreaker(target.toString());
+                }
+            }
+            return b;
+        }
+        CircuitBreaker b = routeBreakers.get(apiId);
+        return b != null ? b : routeBreakers.computeIfAbsent(apiId, this::newBreaker);
+    }
+
+    private CircuitBreaker newBreaker(String name) {
+        return new CircuitBreaker(name, config, System::nanoTime);
+    }
+}
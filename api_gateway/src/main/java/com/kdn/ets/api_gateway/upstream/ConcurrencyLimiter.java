@@ -0,0 +1,232 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.kdn.ets.api_gateway.exception.ApiException;
+import com.kdn.ets.api_gateway.exception.ConcurrencyLimitException;
+import com.kdn.ets.api_gateway.exception.DeadlineExceededException;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+/**
+ * 라우트(api_id) 하나의 적응형 동시 처리 한도 (gradient 방식).
+ * - 처리 중 요청이 한도에 닿으면 인증/업스트림 호출 없이 즉시 503 (미리 만든 ConcurrencyLimitException)
+ * - 창(window)마다 평균 지연(요청 도착 ~ 응답 헤더)을 장기 평균과 비교해
+ *   지연이 tolerance 배 이상 늘면 한도를 줄이고, 그렇지 않으면 sqrt(한도) 만큼씩 늘립니다.
+ *   limit' = limit x min(1, max(0.5, tolerance x 장기 지연 / 최근 지연)) + sqrt(limit)  (smoothing 으로 완만하게 반영)
+ * - 창 안에 업스트림 타임아웃 / 과부하 응답(429, 503, 504)이 있으면 한도를 backoff 배로 줄입니다.
+ *   (클라이언트가 기한 헤더로 줄인 기한 초과는 표본에도, 타임아웃에도 넣지 않음)
+ * - 한도의 절반도 쓰지 않는 동안에는 늘리지 않습니다. (한가할 때 한도가 끝없이 커지지 않도록)
+ * 기록은 원자 카운터에 더하고, 창을 닫는 계산만 한 스레드가 맡습니다.
+ */
+public final class ConcurrencyLimiter {
+
+    /** 한도 계산 기준 (ConcurrencyLimiterRegistry 가 설정값으로 생성) */
+    static final class Config {
+        final int initialLimit;
+        final int minLimit;
+        final int maxLimit;
+        final double tolerance;
+        final double smoothing;
+        final double backoff;
+        final long windowNanos;
+        final int minWindowSamples;
+        // 장기 평균 지연의 지수 이동 평균 계수 (창 long-window 개 기준)
+        final double longDecay;
+
+        Config(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing, double backoff,
+               long windowMs, int minWindowSamples, int longWindow) {
+            this.minLimit = Math.max(minLimit, 1);
+            this.maxLimit = Math.max(maxLimit, this.minLimit);
+            this.initialLimit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+            this.tolerance = Math.max(tolerance, 1.0);
+            this.smoothing = Math.min(Math.max(smoothing, 0.01), 1.0);
+            this.backoff = Math.min(Math.max(backoff, 0.1), 1.0);
+            this.windowNanos = Math.max(windowMs, 1) * 1_000_000L;
+            this.minWindowSamples = Math.max(minWindowSamples, 1);
+            this.longDecay = 2.0 / (Math.max(longWindow, 1) + 1);
+        }
+    }
+
+    private final String apiId;
+    private final Config config;
+    private final LongSupplier clock;
+    private final ConcurrencyLimitException rejection;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    private volatile double estimatedLimit;
+    private final AtomicLong rejected = new AtomicLong();
+
+    // 현재 창: 지연 합계 / 표본 수 / 과부하 신호 수 / 최대 동시 처리 수
+    private final AtomicLong windowRttSum = new AtomicLong();
+    private final AtomicInteger windowSamples = new AtomicInteger();
+    private final AtomicInteger windowDrops = new AtomicInteger();
+    private final AtomicInteger windowPeak = new AtomicInteger();
+    private volatile long windowStart;
+    private final AtomicBoolean updating = new AtomicBoolean();
+    // 장기 평균 지연 (ns, 창을 닫는 스레드만 갱신)
+    private volatile double longRtt;
+
+    ConcurrencyLimiter(String apiId, Config config, LongSupplier clock) {
+        this.apiId = apiId;
+        this.config = config;
+        this.clock = clock;
+        this.rejection = new ConcurrencyLimitException(apiId);
+        this.estimatedLimit = config.initialLimit;
+        this.limit = config.initialLimit;
+        this.windowStart = clock.getAsLong();
+    }
+
+    public String getApiId() {
+        return apiId;
+    }
+
+    /** 현재 동시 처리 한도 */
+    public int getLimit() {
+        return limit;
+    }
+
+    /** 처리 중 요청 수 */
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /** 한도 초과로 거절한 누적 건수 */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /** 거절 시 던질 예외 (라우트마다 하나) */
+    public ConcurrencyLimitException rejection() {
+        return rejection;
+    }
+
+    /** 요청 하나 시작. 한도 안이면 Permit, 넘으면 null */
+    public Permit tryAcquire() {
+        for (int current = inflight.get(); ; current = inflight.get()) {
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                windowPeak.accumulateAndGet(current + 1, Math::max);
+                return new Permit();
+            }
+        }
+    }
+
+    private void onSample(long rttNanos, boolean drop) {
+        if (drop) {
+            windowDrops.incrementAndGet();
+        } else {
+            windowRttSum.addAndGet(rttNanos);
+            windowSamples.incrementAndGet();
+        }
+        long now = clock.getAsLong();
+        if (now - windowStart >= config.windowNanos
+                && windowSamples.get() + windowDrops.get() >= config.minWindowSamples
+                && updating.compareAndSet(false, true)) {
+            try {
+                closeWindow(now);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void closeWindow(long now) {
+        windowStart = now;
+        int samples = windowSamples.getAndSet(0);
+        long rttSum = windowRttSum.getAndSet(0);
+        int drops = windowDrops.getAndSet(0);
+        int peak = windowPeak.getAndSet(inflight.get());
+
+        double current = estimatedLimit;
+        double next;
+        if (drops > 0) {
+            next = current * config.backoff;
+        } else if (samples == 0) {
+            return;
+        } else {
+            double shortRtt = Math.max((double) rttSum / samples, 1);
+            double longRtt = this.longRtt;
+            longRtt = longRtt == 0 ? shortRtt : longRtt * (1 - config.longDecay) + shortRtt * config.longDecay;
+            // 부하가 빠진 뒤에는 장기 평균이 최근 지연을 빨리 따라 내려오게 함
+            if (longRtt > shortRtt * 2) longRtt *= 0.95;
+            this.longRtt = longRtt;
+
+            if (peak < current / 2) return;
+            double gradient = Math.max(0.5, Math.min(1.0, config.tolerance * longRtt / shortRtt));
+            next = current * gradient + Math.sqrt(current);
+            next = current * (1 - config.smoothing) + next * config.smoothing;
+        }
+        next = Math.max(config.minLimit, Math.min(config.maxLimit, next));
+        estimatedLimit = next;
+        limit = (int) next;
+    }
+
+    /** 허용된 요청 하나. 지연 기록과 반환은 각각 처음 한 번만 반영됩니다. */
+    public final class Permit {
+        private final long startNanos = clock.getAsLong();
+        private final AtomicBoolean sampled = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        /**
+         * 요청 처리(인증 + 업스트림 호출)를 감싸 결과를 기록합니다.
+         * 응답 헤더를 받으면 지연을 기록하고, 처리 중 요청 수는 업스트림 응답 본문이 끝날 때 반환합니다.
+         */
+        public Mono<Void> track(ServerWebExchange exchange, Mono<Void> request) {
+            return request
+                    .doOnSuccess(v -> {
+                        Integer status = exchange.getResponse().getRawStatusCode();
+                        record(status != null && isOverloadStatus(status));
+                        Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+                        if (connection == null) {
+                            release();
+                        } else {
+                            connection.onTerminate().subscribe(null, e -> release(), this::release);
+                        }
+                    })
+                    .doOnError(e -> {
+                        // 인증 실패, 클라이언트가 줄인 기한 초과 등 업스트림 지연과 무관한 오류는 표본으로 쓰지 않음
+                        if (isTimeout(e)) record(true);
+                        release();
+                    })
+                    .doOnCancel(this::release);
+        }
+
+        void record(boolean drop) {
+            if (sampled.compareAndSet(false, true)) {
+                onSample(clock.getAsLong() - startNanos, drop);
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) inflight.decrementAndGet();
+        }
+    }
+
+    /** 업스트림이 과부하를 알리는 응답 */
+    static boolean isOverloadStatus(int status) {
+        return status == 429 || status == 503 || status == 504;
+    }
+
+    /** 라우트 응답 기한(response_timeout_ms) 초과 / 업스트림 읽기 타임아웃 */
+    static boolean isTimeout(Throwable e) {
+        if (e instanceof DeadlineExceededException) return ((DeadlineExceededException) e).isRouteTimeout();
+        if (e instanceof ApiException) return false;
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof io.netty.handler.timeout.TimeoutException) return true;
+        }
+        return false;
+    }
+}
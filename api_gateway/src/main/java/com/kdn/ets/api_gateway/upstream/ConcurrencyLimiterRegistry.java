@@ -0,0 +1,61 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 라우트(api_id)별 적응형 동시 처리 한도 보관소.
+ * 한도를 처음 만들 때 지표를 함께 등록합니다.
+ * - gateway.concurrency.limit{api_id}: 현재 동시 처리 한도
+ * - gateway.concurrency.inflight{api_id}: 처리 중 요청 수
+ * - gateway.concurrency.rejected{api_id}: 한도 초과로 거절한 누적 건수
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final boolean enabled;
+    private final ConcurrencyLimiter.Config config;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(MeterRegistry meterRegistry,
+                                      @Value("${app.concurrency.enabled:true}") boolean enabled,
+                                      @Value("${app.concurrency.initial-limit:100}") int initialLimit,
+                                      @Value("${app.concurrency.min-limit:10}") int minLimit,
+                                      @Value("${app.concurrency.max-limit:2000}") int maxLimit,
+                                      @Value("${app.concurrency.tolerance:1.5}") double tolerance,
+                                      @Value("${app.concurrency.smoothing:0.2}") double smoothing,
+                                      @Value("${app.concurrency.backoff:0.9}") double backoff,
+                                      @Value("${app.concurrency.window-ms:1000}") long windowMs,
+                                      @Value("${app.concurrency.min-window-samples:10}") int minWindowSamples,
+                                      @Value("${app.concurrency.long-window:60}") int longWindow) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.config = new ConcurrencyLimiter.Config(initialLimit, minLimit, maxLimit, tolerance, smoothing, backoff,
+                                                    windowMs, minWindowSamples, longWindow);
+    }
+
+    /** 라우트의 동시 처리 한도 (꺼져 있으면 null) */
+    public ConcurrencyLimiter limiter(String apiId) {
+        if (!enabled) return null;
+        ConcurrencyLimiter l = limiters.get(apiId);
+        return l != null ? l : limiters.computeIfAbsent(apiId, this::newLimiter);
+    }
+
+    private ConcurrencyLimiter newLimiter(String apiId) {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(apiId, config, System::nanoTime);
+        Gauge.builder("gateway.concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+             .description("라우트별 적응형 동시 처리 한도").tag("api_id", apiId).register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, ConcurrencyLimiter::getInflight)
+             .description("라우트별 처리 중 요청 수").tag("api_id", apiId).register(meterRegistry);
+        FunctionCounter.builder("gateway.concurrency.rejected", limiter, ConcurrencyLimiter::getRejectedCount)
+                       .description("동시 처리 한도 초과로 거절한 요청 수").tag("api_id", apiId).register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,26 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.util.Locale;
+
+/**
+ * 업스트림 대상 선택 방식 (api_list.lb_policy, NULL 이면 app.upstream.default-policy)
+ */
+public enum LbPolicy {
+    /** 가중치 비율대로 돌아가며 선택 (smooth weighted round-robin) */
+    ROUND_ROBIN,
+    /** 처리 중인 요청 수 / 가중치가 가장 작은 대상 */
+    LEAST_OUTSTANDING,
+    /** 가중치 비율로 무작위 두 대상을 뽑아 처리 중인 요청이 적은 쪽 (power of two choices) */
+    POWER_OF_TWO;
+
+    /** 대소문자/하이픈 무시, 알 수 없는 값이면 defaultPolicy */
+    public static LbPolicy parse(String value, LbPolicy defaultPolicy) {
+        if (value == null || value.trim().isEmpty()) return defaultPolicy;
+        String name = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        if (name.equals("P2C")) return POWER_OF_TWO;
+        for (LbPolicy p : values()) {
+            if (p.name().equals(name)) return p;
+        }
+        return defaultPolicy;
+    }
+}
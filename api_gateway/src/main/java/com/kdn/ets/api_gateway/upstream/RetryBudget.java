@@ -0,0 +1,75 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 게이트웨이 전체 재시도/헤징 예산.
+ * 최근 10초 동안의 추가 요청(재시도 + 헤징) 수를 "요청 수 x percent% + min-per-second x 10" 이하로 묶어
+ * 업스트림 장애 시 재시도가 부하를 키우지 못하게 합니다. 기록은 1초 단위 원자 카운터 링 버퍼입니다.
+ */
+@Component
+public class RetryBudget {
+
+    private static final int BUCKETS = 10;
+    private static final long BUCKET_NANOS = 1_000_000_000L;
+    // 링 버퍼 한 칸: [구간 번호, 요청 수, 추가 요청 수]
+    private static final int EPOCH = 0, REQUESTS = 1, RETRIES = 2, SLOT = 3;
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final int percent;
+    private final int minPerSecond;
+    private final LongSupplier clock;
+    private final AtomicLongArray ring = new AtomicLongArray(BUCKETS * SLOT);
+
+    @Autowired
+    public RetryBudget(@Value("${app.retry.budget-percent:20}") int percent,
+                       @Value("${app.retry.min-per-second:5}") int minPerSecond) {
+        this(percent, minPerSecond, System::nanoTime);
+    }
+
+    RetryBudget(int percent, int minPerSecond, LongSupplier clock) {
+        this.percent = Math.max(percent, 0);
+        this.minPerSecond = Math.max(minPerSecond, 0);
+        this.clock = clock;
+        for (int i = 0; i < BUCKETS; i++) ring.set(i * SLOT + EPOCH, UNUSED);
+    }
+
+    /** 원 요청 1건 (예산 적립) */
+    public void onRequest() {
+        ring.incrementAndGet(slot(clock.getAsLong()) + REQUESTS);
+    }
+
+    /** 재시도/헤징 1건을 보내도 되면 예산에서 차감하고 true */
+    public boolean tryWithdraw() {
+        long now = clock.getAsLong();
+        long current = Math.floorDiv(now, BUCKET_NANOS);
+        long requests = 0, retries = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            int base = i * SLOT;
+            long epoch = ring.get(base + EPOCH);
+            if (epoch == UNUSED || current - epoch >= BUCKETS) continue;
+            requests += ring.get(base + REQUESTS);
+            retries += ring.get(base + RETRIES);
+        }
+        long allowed = requests * percent / 100 + (long) minPerSecond * BUCKETS;
+        if (retries >= allowed) return false;
+        ring.incrementAndGet(slot(now) + RETRIES);
+        return true;
+    }
+
+    private int slot(long now) {
+        long epoch = Math.floorDiv(now, BUCKET_NANOS);
+        int base = (int) Math.floorMod(epoch, (long) BUCKETS) * SLOT;
+        long seen = ring.get(base + EPOCH);
+        if (seen != epoch && ring.compareAndSet(base + EPOCH, seen, epoch)) {
+            ring.set(base + REQUESTS, 0);
+            ring.set(base + RETRIES, 0);
+        }
+        return base;
+    }
+}
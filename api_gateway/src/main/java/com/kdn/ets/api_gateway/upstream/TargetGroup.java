@@ -0,0 +1,164 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API 하나의 업스트림 대상 묶음 (불변, 목록 갱신 시 통째로 교체).
+ * - 상태 확인에서 제외되었거나 서킷이 열린 대상은 건너뜁니다. 모두 제외되었으면 전체 대상 중에서 고릅니다. (fail-open)
+ * - 선택은 락/할당 없이 원자 카운터와 배열 읽기로 끝납니다.
+ */
+public final class TargetGroup {
+
+    private final LbPolicy policy;
+    private final UpstreamTarget[] targets;
+    /** 가중치 누적 합 (가중 무작위 선택용) */
+    private final int[] cumulativeWeights;
+    /** smooth weighted round-robin 순서를 미리 펼쳐 둔 대상 번호 (길이 = 가중치 합 / 최대공약수) */
+    private final int[] schedule;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    TargetGroup(LbPolicy policy, List<UpstreamTarget> targets) {
+        if (targets.isEmpty()) throw new IllegalArgumentException("no targets");
+        this.policy = policy;
+        this.targets = targets.toArray(new UpstreamTarget[0]);
+
+        int n = this.targets.length;
+        int[] weights = new int[n];
+        this.cumulativeWeights = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            weights[i] = this.targets[i].getWeight();
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        // 순서표 길이를 줄이기 위해 가중치를 최대공약수로 나눔 (100,200 → 1,2)
+        int gcd = weights[0];
+        for (int w : weights) gcd = gcd(gcd, w);
+        for (int i = 0; i < n; i++) weights[i] /= gcd;
+        this.schedule = smoothSchedule(weights, total / gcd);
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    public LbPolicy getPolicy() {
+        return policy;
+    }
+
+    public UpstreamTarget[] getTargets() {
+        return targets.clone();
+    }
+
+    /** 정책에 따라 대상 하나를 고릅니다 (null 을 돌려주지 않음) */
+    public UpstreamTarget choose() {
+        if (targets.length == 1) return targets[0];
+        switch (policy) {
+            case LEAST_OUTSTANDING: return leastOutstanding();
+            case POWER_OF_TWO: return powerOfTwo();
+            default: return roundRobin();
+        }
+    }
+
+    /**
+     * 재시도/헤징용: previous 가 아닌 대상 하나 (라운드로빈 순서는 건드리지 않음).
+     * 다른 대상이 없으면 previous.
+     */
+    public UpstreamTarget chooseOther(UpstreamTarget previous) {
+        int n = targets.length;
+        int start = ThreadLocalRandom.current().nextInt(n);
+        UpstreamTarget fallback = null;
+        for (int i = 0; i < n; i++) {
+            UpstreamTarget t = targets[(start + i) % n];
+            if (t == previous) continue;
+            if (t.isAvailable()) return t;
+            if (fallback == null) fallback = t;
+        }
+        return fallback != null ? fallback : previous;
+    }
+
+    private UpstreamTarget roundRobin() {
+        int start = cursor.getAndIncrement();
+        for (int i = 0; i < schedule.length; i++) {
+            UpstreamTarget t = targets[schedule[Math.floorMod(start + i, schedule.length)]];
+            if (t.isAvailable()) return t;
+        }
+        return targets[schedule[Math.floorMod(start, schedule.length)]];
+    }
+
+    private UpstreamTarget leastOutstanding() {
+        // 동률일 때 항상 첫 대상으로 몰리지 않도록 시작 위치를 돌림
+        int start = cursor.getAndIncrement();
+        UpstreamTarget best = null;
+        UpstreamTarget bestAny = null;
+        for (int i = 0; i < targets.length; i++) {
+            UpstreamTarget t = targets[Math.floorMod(start + i, targets.length)];
+            if (bestAny == null || lessLoaded(t, bestAny)) bestAny = t;
+            if (t.isAvailable() && (best == null || lessLoaded(t, best))) best = t;
+        }
+        return best != null ? best : bestAny;
+    }
+
+    private UpstreamTarget powerOfTwo() {
+        UpstreamTarget a = pickWeighted(true);
+        UpstreamTarget b = pickWeighted(true);
+        if (a == null) {
+            a = pickWeighted(false);
+            b = pickWeighted(false);
+        } else if (b == null) {
+            return a;
+        }
+        return lessLoaded(b, a) ? b : a;
+    }
+
+    /** 가중치 비율로 무작위 선택, availableOnly 이면 몇 번 다시 뽑고 그래도 없으면 null */
+    private UpstreamTarget pickWeighted(boolean availableOnly) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int total = cumulativeWeights[cumulativeWeights.length - 1];
+        for (int attempt = 0; attempt < targets.length; attempt++) {
+            UpstreamTarget t = targets[indexOfWeight(random.nextInt(total))];
+            if (!availableOnly || t.isAvailable()) return t;
+        }
+        if (!availableOnly) return null;
+        // 뽑기에 실패했어도 정상 대상이 있으면 그중 하나
+        int start = random.nextInt(targets.length);
+        for (int i = 0; i < targets.length; i++) {
+            UpstreamTarget t = targets[(start + i) % targets.length];
+            if (t.isAvailable()) return t;
+        }
+        return null;
+    }
+
+    private int indexOfWeight(int value) {
+        int lo = 0, hi = cumulativeWeights.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulativeWeights[mid] > value) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /** outstanding / weight 비교 (나눗셈 없이 교차 곱) */
+    private static boolean lessLoaded(UpstreamTarget a, UpstreamTarget b) {
+        return (long) a.getOutstanding() * b.getWeight() < (long) b.getOutstanding() * a.getWeight();
+    }
+
+    /** nginx 방식 smooth weighted round-robin: 가중치 5,1,1 → a a b a c a a 처럼 고르게 섞음 */
+    static int[] smoothSchedule(int[] weights, int total) {
+        int[] current = new int[weights.length];
+        int[] schedule = new int[total];
+        for (int s = 0; s < total; s++) {
+            int best = 0;
+            for (int i = 0; i < weights.length; i++) {
+                current[i] += weights[i];
+                if (current[i] > current[best]) best = i;
+            }
+            current[best] -= total;
+            schedule[s] = best;
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,549 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+
+import com.kdn.ets.api_gateway.exception.DeadlineExceededException;
+import com.kdn.ets.api_gateway.helper.RequestTimings;
+import com.kdn.ets.api_gateway.metrics.LiveStats;
+import com.kdn.ets.api_gateway.route.CompiledRoute;
+
+import io.netty.channel.ConnectTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.util.context.Context;
+
+/**
+ * URI 재작성 이후 업스트림 호출(체인의 NettyRoutingFilter)을 감싸는 단계.
+ * - 처리 중 요청 수: 업스트림 응답 본문이 끝날 때(커넥션 작업 종료)까지 유지합니다.
+ * - 서킷 브레이커: 응답 헤더를 받은 시점의 상태 코드 / 소요 시간으로 기록합니다.
+ * - 재시도 (라우트 max_retries): 연결 실패(요청이 전송되지 않은 경우)만 다른 대상으로 다시 보냅니다.
+ * - 헤징 (라우트 hedge_yn): 최근 1분 p95 만큼 기다려도 응답 헤더가 없으면 다른 대상으로 한 번 더 보내고,
+ *   먼저 응답 헤더가 온 쪽을 쓰고 나머지는 취소합니다.
+ * 재시도/헤징은 GET/HEAD 라우트만 대상이며, 모두 RetryBudget 안에서만 보냅니다.
+ * 요청 바디는 한 번만 읽을 수 있으므로 바디가 있는 요청(Content-Length > 0 또는 Transfer-Encoding)은 재시도/헤징하지 않습니다.
+ * - 타임아웃: 라우트별 연결(connect_timeout_ms) / 읽기 유휴(idle_timeout_ms) 시간을 HttpClient 에 넘기고,
+ *   요청 기한(deadline)까지 응답 헤더가 없으면 업스트림 호출을 취소하고 504 로 끝냅니다.
+ *   기한 헤더의 남은 시간은 시도(재시도/헤징)마다 보내는 시점에 다시 계산합니다.
+ *
+ * 시도마다 exchange 속성 / 응답 상태·헤더를 따로 두었다가(AttemptExchange) 이긴 시도의 것만 실제 exchange 로 옮기므로
+ * NettyWriteResponseFilter 는 이긴 시도의 커넥션에서만 본문을 읽습니다.
+ */
+@Slf4j
+@Component
+public class UpstreamDispatcher {
+
+    private static final long HEDGE_DELAY_REFRESH_NANOS = 1_000_000_000L;
+
+    /** 요청 기한 없음 */
+    public static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    /** 클라이언트 기한 헤더 상한 (ms, 약 146년). 넘는 값은 기한 없음으로 봄 (ns 환산 시 오버플로 방지) */
+    static final long MAX_CLIENT_BUDGET_MS = Long.MAX_VALUE / 1_000_000L / 2;
+
+    /** 라우트별 읽기 유휴 타임아웃을 HttpClient(NettyClientConfig)로 넘기는 Reactor Context 키 (Duration) */
+    public static final String IDLE_TIMEOUT_KEY = UpstreamDispatcher.class.getName() + ".idleTimeout";
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final RetryBudget retryBudget;
+    private final LiveStats liveStats;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayNanos;
+    private final long hedgeMaxDelayNanos;
+    private final long hedgeMinSamples;
+    private final ConcurrentHashMap<String, HedgeDelay> hedgeDelays = new ConcurrentHashMap<>();
+    private final int defaultConnectTimeoutMs;
+    private final int defaultIdleTimeoutMs;
+    private final String deadlineHeader;
+    // 연결 타임아웃 값별로 connect-timeout 메타데이터를 붙인 게이트웨이 Route
+    private final ConcurrentHashMap<Integer, TimeoutRoute> connectTimeoutRoutes = new ConcurrentHashMap<>();
+
+    public UpstreamDispatcher(CircuitBreakerRegistry circuitBreakers, RetryBudget retryBudget, LiveStats liveStats,
+                              @Value("${app.hedge.percentile:0.95}") double hedgePercentile,
+                              @Value("${app.hedge.min-delay-ms:20}") long hedgeMinDelayMs,
+                              @Value("${app.hedge.max-delay-ms:2000}") long hedgeMaxDelayMs,
+                              @Value("${app.hedge.min-samples:50}") long hedgeMinSamples,
+                              @Value("${app.timeout.connect-ms:10000}") int defaultConnectTimeoutMs,
+                              @Value("${app.timeout.idle-ms:120000}") int defaultIdleTimeoutMs,
+                              @Value("${app.deadline.header:X-Request-Timeout-Ms}") String deadlineHeader) {
+        this.circuitBreakers = circuitBreakers;
+        this.retryBudget = retryBudget;
+        this.liveStats = liveStats;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelayNanos = hedgeMinDelayMs * 1_000_000L;
+        this.hedgeMaxDelayNanos = Math.max(hedgeMaxDelayMs, hedgeMinDelayMs) * 1_000_000L;
+        this.hedgeMinSamples = hedgeMinSamples;
+        this.defaultConnectTimeoutMs = defaultConnectTimeoutMs;
+        this.defaultIdleTimeoutMs = defaultIdleTimeoutMs;
+        this.deadlineHeader = StringUtils.hasText(deadlineHeader) ? deadlineHeader.trim() : null;
+    }
+
+    /**
+     * 요청 기한 (System.nanoTime 기준, 없으면 NO_DEADLINE).
+     * 요청 도착 시각 + min(라우트 response_timeout_ms, 클라이언트가 기한 헤더로 보낸 남은 시간 ms)
+     */
+    public long deadlineNanos(ServerHttpRequest request, CompiledRoute route, RequestTimings timings) {
+        long budgetMs = route.getResponseTimeoutMs() > 0 ? route.getResponseTimeoutMs() : Long.MAX_VALUE;
+        long clientMs = clientBudgetMs(request);
+        if (clientMs >= 0) budgetMs = Math.min(budgetMs, clientMs);
+        if (budgetMs == Long.MAX_VALUE) return NO_DEADLINE;
+
+        long start = timings != null ? timings.startNanos() : System.nanoTime();
+        return start + budgetMs * 1_000_000L;
+    }
+
+    /** 클라이언트가 기한 헤더로 보낸 남은 시간 (ms, 없거나 형식이 틀리거나 상한을 넘으면 -1) */
+    private long clientBudgetMs(ServerHttpRequest request) {
+        long clientMs = deadlineHeader != null ? parseMillis(request.getHeaders().getFirst(deadlineHeader)) : -1;
+        return clientMs <= MAX_CLIENT_BUDGET_MS ? clientMs : -1;
+    }
+
+    /** 요청 기한을 라우트 response_timeout_ms 가 아니라 클라이언트가 보낸 (더 짧은) 시간이 정했는지 */
+    boolean isClientDeadline(ServerHttpRequest request, CompiledRoute route) {
+        long clientMs = clientBudgetMs(request);
+        return clientMs >= 0 && (route.getResponseTimeoutMs() <= 0 || clientMs < route.getResponseTimeoutMs());
+    }
+
+    /** 업스트림 요청에 지금 기준 남은 시간(ms)을 기한 헤더로 실음 (클라이언트가 보낸 값은 덮어씀) */
+    public void propagateDeadline(HttpHeaders headers, long deadlineNanos) {
+        if (deadlineHeader == null || deadlineNanos == NO_DEADLINE) return;
+        long remainingMs = Math.max((deadlineNanos - System.nanoTime()) / 1_000_000L, 0);
+        headers.set(deadlineHeader, Long.toString(remainingMs));
+    }
+
+    public static boolean isExpired(long deadlineNanos) {
+        return deadlineNanos != NO_DEADLINE && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /** 업스트림에 보내기 전에 이미 지난 기한 (업스트림 과부하 신호 아님) */
+    public static DeadlineExceededException deadlineExceeded(CompiledRoute route) {
+        return new DeadlineExceededException(route.getApiId(), false);
+    }
+
+    /**
+     * 이번 시도의 요청: 기한 헤더를 보내는 시점의 남은 시간으로 다시 씀 (기한이 없으면 그대로).
+     * request.mutate() 는 원래 요청의 헤더 맵을 그대로 고치므로, 시도마다 헤더를 복사해 원래 요청(클라이언트 값)은 두고 씁니다.
+     */
+    private ServerHttpRequest stampDeadline(ServerHttpRequest request, long deadlineNanos) {
+        if (deadlineHeader == null || deadlineNanos == NO_DEADLINE) return request;
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        propagateDeadline(headers, deadlineNanos);
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    /** 음이 아닌 정수 ms, 형식이 맞지 않으면 -1 (무시) */
+    static long parseMillis(String value) {
+        if (value == null || value.isEmpty() || value.length() > 18) return -1;
+        long ms = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            ms = ms * 10 + (c - '0');
+        }
+        return ms;
+    }
+
+    /**
+     * @param exchange GATEWAY_REQUEST_URL_ATTR 가 채워진 exchange
+     * @param target   고른 업스트림 대상 (api_targets 가 없으면 null)
+     * @param call     target(또는 라우트)의 서킷 브레이커 호출 (브레이커를 쓰지 않으면 null)
+     */
+    public Mono<Void> dispatch(ServerWebExchange exchange, GatewayFilterChain chain, CompiledRoute route,
+                               TargetGroup group, UpstreamTarget target, CircuitBreaker.Call call, long deadlineNanos) {
+        retryBudget.onRequest();
+        applyConnectTimeout(exchange, route);
+
+        // 바디가 있으면 다시 보낼 수 없으므로 한 번만 보냄
+        boolean replayable = !hasBody(exchange.getRequest());
+        int retries = replayable ? route.getMaxRetries() : 0;
+
+        Mono<Void> result;
+        if (route.isHedge() && replayable) {
+            result = new Race(exchange, chain, route, group, deadlineNanos).run(target, call);
+        } else if (target == null && call == null && retries <= 0 && deadlineNanos == NO_DEADLINE) {
+            result = chain.filter(exchange);
+        } else {
+            result = direct(exchange, chain, route, group, target, call, retries, deadlineNanos);
+        }
+
+        int idleMs = route.getIdleTimeoutMs();
+        if (idleMs <= 0 || idleMs == defaultIdleTimeoutMs) return result;
+        return result.contextWrite(Context.of(IDLE_TIMEOUT_KEY, Duration.ofMillis(idleMs)));
+    }
+
+    /** 헤징 없는 호출: 연결 실패면 라우팅 완료 표시를 지우고 같은 exchange 로 다시 보냄 */
+    private Mono<Void> direct(ServerWebExchange exchange, GatewayFilterChain chain, CompiledRoute route,
+                              TargetGroup group, UpstreamTarget target, CircuitBreaker.Call call, int retriesLeft,
+                              long deadlineNanos) {
+        Lease lease = new Lease(target, call);
+        Mono<Void> send = Mono.defer(() -> chain.filter(
+                exchange.mutate().request(stampDeadline(exchange.getRequest(), deadlineNanos)).build()));
+        return withDeadline(send, exchange, route, deadlineNanos)
+                .doOnSuccess(v -> lease.complete(statusOf(exchange.getResponse()), exchange))
+                .doOnError(lease::fail)
+                .doOnCancel(lease::cancel)
+                .onErrorResume(e -> retriesLeft > 0 && isConnectFailure(e) && retryBudget.tryWithdraw(), e -> {
+                    URI failedUri = exchange.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+                    UpstreamTarget next = pickOther(group, target);
+                    CircuitBreaker breaker = circuitBreakers.breaker(route.getApiId(), next);
+                    CircuitBreaker.Call nextCall = breaker != null ? breaker.tryAcquire() : null;
+                    if (breaker != null && nextCall == null) return Mono.error(e);
+
+                    URI uri = next != null ? next.resolve(failedUri) : failedUri;
+                    log.info("Retry {} on {} after connect failure: {}", route.getApiId(), uri, e.toString());
+                    exchange.getAttributes().remove(ServerWebExchangeUtils.GATEWAY_ALREADY_ROUTED_ATTR);
+                    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, uri);
+                    return direct(exchange, chain, route, group, next, nextCall, retriesLeft - 1, deadlineNanos);
+                });
+    }
+
+    /**
+     * 기한까지 응답 헤더가 없으면 업스트림 호출을 취소(커넥션 정리)하고 504.
+     * 라우트 자신의 타임아웃이 지난 경우만 업스트림 타임아웃으로 표시 (클라이언트가 줄인 기한은 표시 안 함)
+     * @param exchange 기한 헤더를 다시 쓰기 전의 원래 요청을 가진 exchange
+     */
+    private Mono<Void> withDeadline(Mono<Void> call, ServerWebExchange exchange, CompiledRoute route, long deadlineNanos) {
+        if (deadlineNanos == NO_DEADLINE) return call;
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining <= 0) return Mono.error(deadlineExceeded(route));
+        return call.timeout(Duration.ofNanos(remaining), Mono.error(() ->
+                new DeadlineExceededException(route.getApiId(), !isClientDeadline(exchange.getRequest(), route))));
+    }
+
+    /**
+     * 라우트별 연결 타임아웃: NettyRoutingFilter 는 exchange 의 Route 메타데이터(connect-timeout)를 읽으므로
+     * 값마다 메타데이터만 다른 Route 를 만들어 두고 바꿔 끼웁니다. (기본값과 같으면 그대로)
+     */
+    private void applyConnectTimeout(ServerWebExchange exchange, CompiledRoute route) {
+        int ms = route.getConnectTimeoutMs();
+        if (ms <= 0 || ms == defaultConnectTimeoutMs) return;
+        Route base = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (base == null) return;
+
+        TimeoutRoute cached = connectTimeoutRoutes.get(ms);
+        if (cached == null || cached.base != base) {
+            cached = new TimeoutRoute(base, ms);
+            connectTimeoutRoutes.put(ms, cached);
+        }
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, cached.route);
+    }
+
+    private static final class TimeoutRoute {
+        final Route base;
+        final Route route;
+
+        TimeoutRoute(Route base, int connectTimeoutMs) {
+            Map<String, Object> metadata = new HashMap<>(base.getMetadata());
+            metadata.put(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR, connectTimeoutMs);
+            this.base = base;
+            this.route = Route.async()
+                    .id(base.getId())
+                    .uri(base.getUri())
+                    .order(base.getOrder())
+                    .asyncPredicate(base.getPredicate())
+                    .replaceFilters(base.getFilters())
+                    .replaceMetadata(metadata)
+                    .build();
+        }
+    }
+
+    /** 방금 쓴 대상과 다른 대상 (대상이 하나뿐이면 같은 대상, api_targets 가 없으면 null → 같은 URI) */
+    private static UpstreamTarget pickOther(TargetGroup group, UpstreamTarget previous) {
+        return group != null ? group.chooseOther(previous) : null;
+    }
+
+    /** 헤징 지연 (ns, 표본이 부족하면 -1 → 헤징 안 함). 라우트마다 1초에 한 번만 다시 계산 */
+    long hedgeDelayNanos(String apiId, long now) {
+        HedgeDelay d = hedgeDelays.get(apiId);
+        if (d == null) d = hedgeDelays.computeIfAbsent(apiId, k -> new HedgeDelay());
+        if (now >= d.nextRefresh) {
+            d.nextRefresh = now + HEDGE_DELAY_REFRESH_NANOS;
+            long micros = liveStats.percentileMicros(apiId, 1, hedgePercentile, hedgeMinSamples);
+            d.delayNanos = micros < 0 ? -1 : Math.min(Math.max(micros * 1_000L, hedgeMinDelayNanos), hedgeMaxDelayNanos);
+        }
+        return d.delayNanos;
+    }
+
+    private static final class HedgeDelay {
+        volatile long nextRefresh = Long.MIN_VALUE;
+        volatile long delayNanos = -1;
+    }
+
+    /** 요청 바디가 있는지 (Content-Length > 0 또는 청크 전송) */
+    static boolean hasBody(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    /** 요청이 업스트림에 전송되지 않은 실패인지 (재시도해도 안전) */
+    static boolean isConnectFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ConnectException || t instanceof ConnectTimeoutException) return true;
+        }
+        return false;
+    }
+
+    private static int statusOf(ServerHttpResponse response) {
+        Integer status = response.getRawStatusCode();
+        return status != null ? status : 200;
+    }
+
+    /** 시도 하나가 잡고 있는 대상(처리 중 요청 수)과 서킷 브레이커 호출 */
+    private static final class Lease {
+        private final UpstreamTarget target;
+        private final CircuitBreaker.Call call;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(UpstreamTarget target, CircuitBreaker.Call call) {
+            this.target = target;
+            this.call = call;
+            if (target != null) target.acquire();
+        }
+
+        /** 응답 헤더 수신: 브레이커 기록, 처리 중 요청 수는 본문이 끝날 때 반환 */
+        void complete(int status, ServerWebExchange exchange) {
+            if (call != null) call.complete(status);
+            if (target == null) return;
+            Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+            if (connection == null) {
+                release();
+            } else {
+                connection.onTerminate().subscribe(null, e -> release(), this::release);
+            }
+        }
+
+        /** 호출 실패: 클라이언트가 줄인 기한 초과는 업스트림 탓이 아니므로 브레이커에 기록하지 않음 */
+        void fail(Throwable e) {
+            if (call != null) {
+                if (e instanceof DeadlineExceededException && !((DeadlineExceededException) e).isRouteTimeout()) {
+                    call.ignore();
+                } else {
+                    call.fail();
+                }
+            }
+            release();
+        }
+
+        void cancel() {
+            if (call != null) call.ignore();
+            release();
+        }
+
+        void release() {
+            if (target != null && released.compareAndSet(false, true)) target.release();
+        }
+    }
+
+    /** 요청 1건의 시도들 (원 요청 + 재시도 + 헤징) */
+    private final class Race {
+        private final ServerWebExchange exchange;
+        private final GatewayFilterChain chain;
+        private final CompiledRoute route;
+        private final TargetGroup group;
+        private final URI baseUri;
+        private final long deadlineNanos;
+        private final List<Attempt> attempts = new ArrayList<>(2);
+        private volatile Throwable primaryError;
+
+        Race(ServerWebExchange exchange, GatewayFilterChain chain, CompiledRoute route, TargetGroup group,
+             long deadlineNanos) {
+            this.exchange = exchange;
+            this.chain = chain;
+            this.route = route;
+            this.group = group;
+            this.deadlineNanos = deadlineNanos;
+            this.baseUri = exchange.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        }
+
+        Mono<Void> run(UpstreamTarget target, CircuitBreaker.Call call) {
+            Mono<Attempt> result = attempt(target, call, route.getMaxRetries())
+                    .doOnError(e -> primaryError = e);
+
+            long now = System.nanoTime();
+            long delay = route.isHedge() ? hedgeDelayNanos(route.getApiId(), now) : -1;
+            // 헤징 시점에 이미 기한이 지났다면 보내지 않음
+            if (delay > 0 && (deadlineNanos == NO_DEADLINE || deadlineNanos - now > delay)) {
+                Mono<Attempt> hedge = Mono.delay(Duration.ofNanos(delay)).then(Mono.defer(() -> hedge(target)));
+                // 먼저 응답 헤더를 받은 시도가 이김 (나머지는 취소). 둘 다 실패하면 원 요청의 오류
+                result = Mono.firstWithValue(result, hedge)
+                        .onErrorMap(e -> primaryError != null && e != primaryError ? primaryError : e);
+            }
+            return result.doOnNext(this::promote).then();
+        }
+
+        private Mono<Attempt> attempt(UpstreamTarget target, CircuitBreaker.Call call, int retriesLeft) {
+            return Mono.defer(() -> {
+                Attempt a = new Attempt(exchange, stampDeadline(exchange.getRequest(), deadlineNanos),
+                                        target != null ? target.resolve(baseUri) : baseUri, new Lease(target, call));
+                synchronized (this) {
+                    attempts.add(a);
+                }
+                return withDeadline(chain.filter(a.exchange), exchange, route, deadlineNanos)
+                        .then(Mono.just(a))
+                        .doOnSuccess(x -> a.lease.complete(statusOf(a.exchange.getResponse()), a.exchange))
+                        .doOnError(a.lease::fail)
+                        .doOnCancel(a::discard);
+            }).onErrorResume(e -> retriesLeft > 0 && isConnectFailure(e) && retryBudget.tryWithdraw(),
+                             e -> retry(target, e, retriesLeft));
+        }
+
+        private Mono<Attempt> retry(UpstreamTarget failed, Throwable error, int retriesLeft) {
+            UpstreamTarget next = pickOther(group, failed);
+            CircuitBreaker breaker = circuitBreakers.breaker(route.getApiId(), next);
+            CircuitBreaker.Call call = breaker != null ? breaker.tryAcquire() : null;
+            if (breaker != null && call == null) return Mono.error(error);
+
+            log.info("Retry {} on {} after connect failure: {}", route.getApiId(), next != null ? next : baseUri, error.toString());
+            return attempt(next, call, retriesLeft - 1);
+        }
+
+        private Mono<Attempt> hedge(UpstreamTarget primary) {
+            if (!retryBudget.tryWithdraw()) return Mono.empty();
+            UpstreamTarget next = pickOther(group, primary);
+            CircuitBreaker breaker = circuitBreakers.breaker(route.getApiId(), next);
+            CircuitBreaker.Call call = breaker != null ? breaker.tryAcquire() : null;
+            if (breaker != null && call == null) return Mono.empty();
+
+            log.debug("Hedge {} to {}", route.getApiId(), next != null ? next : baseUri);
+            return attempt(next, call, 0);
+        }
+
+        /** 이긴 시도의 속성 / 응답 상태·헤더를 실제 exchange 로 옮기고 나머지 시도는 정리 */
+        private void promote(Attempt a) {
+            List<Attempt> losers;
+            synchronized (this) {
+                losers = new ArrayList<>(attempts);
+            }
+            for (Attempt other : losers) {
+                if (other != a) other.discard();
+            }
+
+            exchange.getAttributes().putAll(a.exchange.getAttributes());
+            ServerHttpResponse response = exchange.getResponse();
+            AttemptResponse buffered = a.exchange.response;
+            if (buffered.getRawStatusCode() != null) response.setRawStatusCode(buffered.getRawStatusCode());
+            if (buffered.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH)
+                    && !buffered.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING)) {
+                response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+            }
+            response.getHeaders().addAll(buffered.getHeaders());
+        }
+    }
+
+    /** 시도 하나: 자기만의 exchange 속성과 응답 상태/헤더 */
+    private static final class Attempt {
+        final AttemptExchange exchange;
+        final Lease lease;
+        private final AtomicBoolean discarded = new AtomicBoolean();
+
+        Attempt(ServerWebExchange delegate, ServerHttpRequest request, URI uri, Lease lease) {
+            this.exchange = new AttemptExchange(delegate, request, uri);
+            this.lease = lease;
+        }
+
+        /** 진 시도 / 취소: 받은 응답이 있으면 커넥션을 닫음 */
+        void discard() {
+            if (!discarded.compareAndSet(false, true)) return;
+            lease.cancel();
+            Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+            if (connection != null) connection.dispose();
+        }
+    }
+
+    private static final class AttemptExchange extends ServerWebExchangeDecorator {
+        private final ServerHttpRequest request;
+        private final Map<String, Object> attributes;
+        private final AttemptResponse response;
+
+        AttemptExchange(ServerWebExchange delegate, ServerHttpRequest request, URI uri) {
+            super(delegate);
+            this.request = request;
+            this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+            this.attributes.put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, uri);
+            this.response = new AttemptResponse(delegate.getResponse());
+        }
+
+        @Override
+        public ServerHttpRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+    }
+
+    /** 상태 코드 / 헤더만 따로 받아 두는 응답 (본문은 이긴 시도만 실제 응답으로 씀) */
+    private static final class AttemptResponse extends ServerHttpResponseDecorator {
+        private final HttpHeaders headers = new HttpHeaders();
+        private volatile Integer status;
+
+        AttemptResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatus status) {
+            this.status = status != null ? status.value() : null;
+            return true;
+        }
+
+        @Override
+        public boolean setRawStatusCode(Integer status) {
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            Integer s = status;
+            return s != null ? HttpStatus.resolve(s) : null;
+        }
+
+        @Override
+        public Integer getRawStatusCode() {
+            return status;
+        }
+    }
+}
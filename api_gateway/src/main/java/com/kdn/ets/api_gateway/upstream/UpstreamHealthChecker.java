@@ -0,0 +1,82 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * 업스트림 대상 능동 상태 확인.
+ * - app.upstream.health.interval-ms 마다 상태 확인 경로가 있는 대상에 GET 을 보냅니다. (논블로킹, 스케줄러 스레드를 잡지 않음)
+ * - 2xx/3xx 면 성공, 그 밖의 상태 코드 / 연결 실패 / 타임아웃은 실패입니다.
+ * - 연속 unhealthy-threshold 회 실패하면 선택에서 제외하고, 제외된 대상이 연속 healthy-threshold 회 성공하면 다시 넣습니다.
+ * - 프록시용 커넥션 풀과 섞이지 않도록 요청마다 새 연결을 씁니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.upstream.health.enabled", havingValue = "true", matchIfMissing = true)
+public class UpstreamHealthChecker {
+
+    private final UpstreamRegistry registry;
+    private final HttpClient client;
+    private final int unhealthyThreshold;
+    private final int healthyThreshold;
+
+    public UpstreamHealthChecker(UpstreamRegistry registry,
+                                 @Value("${app.upstream.health.timeout-ms:2000}") int timeoutMs,
+                                 @Value("${app.upstream.health.unhealthy-threshold:2}") int unhealthyThreshold,
+                                 @Value("${app.upstream.health.healthy-threshold:2}") int healthyThreshold) {
+        this.registry = registry;
+        this.unhealthyThreshold = Math.max(unhealthyThreshold, 1);
+        this.healthyThreshold = Math.max(healthyThreshold, 1);
+        this.client = HttpClient.newConnection()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMs)
+                .responseTimeout(Duration.ofMillis(timeoutMs))
+                .noProxy();
+    }
+
+    @Scheduled(initialDelayString = "${app.upstream.health.interval-ms:5000}",
+               fixedDelayString = "${app.upstream.health.interval-ms:5000}")
+    void checkAll() {
+        for (TargetGroup group : registry.groups()) {
+            for (UpstreamTarget target : group.getTargets()) {
+                if (target.getHealthUri() != null && target.probing.compareAndSet(false, true)) {
+                    probe(target).subscribe();
+                }
+            }
+        }
+    }
+
+    Mono<Boolean> probe(UpstreamTarget target) {
+        return client.get()
+                .uri(target.getHealthUri())
+                .responseSingle((response, body) -> body.then(Mono.just(isHealthy(response.status().code()))))
+                .onErrorResume(e -> {
+                    log.debug("health check {} failed: {}", target, e.toString());
+                    return Mono.just(false);
+                })
+                .doOnNext(ok -> record(target, ok))
+                .doFinally(s -> target.probing.set(false));
+    }
+
+    private static boolean isHealthy(int status) {
+        return status >= 200 && status < 400;
+    }
+
+    void record(UpstreamTarget target, boolean ok) {
+        if (ok) {
+            if (target.markSuccess(healthyThreshold)) {
+                log.info("Upstream target {} is healthy again, back in rotation", target);
+            }
+        } else if (target.markFailure(unhealthyThreshold)) {
+            log.warn("Upstream target {} failed {} health check(s), ejected", target, unhealthyThreshold);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.kdn.ets.api_gateway.entity.ApiRoute;
+import com.kdn.ets.api_gateway.entity.ApiTarget;
+import com.kdn.ets.api_gateway.repository.ApiRouteRepository;
+import com.kdn.ets.api_gateway.repository.ApiTargetRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * api_targets 를 메모리에 올려 둔 API 별 업스트림 대상 묶음.
+ * - 대상이 없는 API 는 api_list.path 의 호스트로 그대로 보냅니다.
+ * - 주기적으로(app.upstream.refresh-interval-ms) 다시 읽어 통째로 교체하되,
+ *   같은 대상(target_id, base_url, health_path)은 객체를 이어서 써서 처리 중 요청 수 / 상태 확인 결과를 유지합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpstreamRegistry {
+
+    private final ApiTargetRepository targetRepository;
+    private final ApiRouteRepository apiRouteRepository;
+
+    /** api_list.lb_policy 가 NULL 인 API 의 선택 방식 */
+    @Value("${app.upstream.default-policy:ROUND_ROBIN}")
+    private String defaultPolicy = "ROUND_ROBIN";
+
+    /** health_path 가 NULL 인 대상의 상태 확인 경로 (비어 있으면 상태 확인 안 함) */
+    @Value("${app.upstream.health.default-path:}")
+    private String defaultHealthPath = "";
+
+    private volatile Map<String, TargetGroup> groups = Collections.emptyMap();
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    /** API 의 대상 묶음 (DB 호출 없음), 대상이 없으면 null */
+    public TargetGroup group(String apiId) {
+        return groups.get(apiId);
+    }
+
+    /** 상태 확인 대상 전체 */
+    Collection<TargetGroup> groups() {
+        return groups.values();
+    }
+
+    @Scheduled(initialDelayString = "${app.upstream.refresh-interval-ms:30000}",
+               fixedDelayString = "${app.upstream.refresh-interval-ms:30000}")
+    void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // 갱신 실패 시 기존 대상 목록을 그대로 사용
+            log.warn("upstream targets refresh failed, keeping previous snapshot", e);
+        }
+    }
+
+    /** api_targets / api_list.lb_policy 를 다시 읽어 교체합니다. */
+    public synchronized void refresh() {
+        List<ApiTarget> rows = new ArrayList<>(targetRepository.findByUseYn("Y"));
+        rows.sort(Comparator.comparing(ApiTarget::getTargetId));
+
+        Map<String, String> policies = new HashMap<>();
+        for (ApiRoute route : apiRouteRepository.findAll()) {
+            if (route.getLbPolicy() != null) policies.put(route.getApiId(), route.getLbPolicy());
+        }
+
+        Map<Integer, UpstreamTarget> previous = new HashMap<>();
+        for (TargetGroup group : groups.values()) {
+            for (UpstreamTarget t : group.getTargets()) previous.put(t.getTargetId(), t);
+        }
+
+        LbPolicy fallback = LbPolicy.parse(defaultPolicy, LbPolicy.ROUND_ROBIN);
+        Map<String, List<UpstreamTarget>> byApi = new LinkedHashMap<>();
+        for (ApiTarget row : rows) {
+            UpstreamTarget target;
+            try {
+                target = toTarget(row, previous.get(row.getTargetId()));
+            } catch (Exception e) {
+                log.warn("Skip upstream target {} of {} : invalid base_url '{}' ({})",
+                        row.getTargetId(), row.getApiId(), row.getBaseUrl(), e.getMessage());
+                continue;
+            }
+            byApi.computeIfAbsent(row.getApiId(), k -> new ArrayList<>()).add(target);
+        }
+
+        Map<String, TargetGroup> next = new HashMap<>();
+        byApi.forEach((apiId, targets) ->
+                next.put(apiId, new TargetGroup(LbPolicy.parse(policies.get(apiId), fallback), targets)));
+
+        this.groups = next;
+        log.info("Upstream targets loaded: {} target(s) for {} api(s)", rows.size(), next.size());
+    }
+
+    private UpstreamTarget toTarget(ApiTarget row, UpstreamTarget previous) {
+        String baseUrl = baseUrl(row.getBaseUrl());
+        String healthPath = StringUtils.hasText(row.getHealthPath()) ? row.getHealthPath().trim() : defaultHealthPath;
+        URI healthUri = StringUtils.hasText(healthPath)
+                ? URI.create(baseUrl + (healthPath.startsWith("/") ? healthPath : "/" + healthPath))
+                : null;
+        int weight = row.getWeight() != null ? row.getWeight() : 1;
+
+        if (previous != null && previous.getBaseUrl().equals(baseUrl)
+                && (healthUri == null ? previous.getHealthUri() == null : healthUri.equals(previous.getHealthUri()))) {
+            previous.setWeight(weight);
+            return previous;
+        }
+        return new UpstreamTarget(row.getTargetId(), row.getApiId(), baseUrl, healthUri, weight);
+    }
+
+    /** scheme://host[:port] 만 남김 (경로는 api_list.path 를 따름) */
+    static String baseUrl(String value) {
+        URI uri = URI.create(value.trim());
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            throw new IllegalArgumentException("scheme://host[:port] required");
+        }
+        if (uri.getRawPath() != null && !uri.getRawPath().isEmpty() && !uri.getRawPath().equals("/")) {
+            throw new IllegalArgumentException("path is not allowed");
+        }
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+}
@@ -0,0 +1,103 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Getter;
+
+/**
+ * 업스트림 대상 하나의 실행 상태 (처리 중인 요청 수, 상태 확인 결과).
+ * 대상 목록을 다시 적재해도 target_id / base_url / health_path 가 같으면 같은 객체를 이어서 사용합니다.
+ */
+public final class UpstreamTarget {
+
+    @Getter private final int targetId;
+    @Getter private final String apiId;
+    /** scheme://host[:port] */
+    @Getter private final String baseUrl;
+    /** 상태 확인 URL (없으면 null → 항상 정상) */
+    @Getter private final URI healthUri;
+    @Getter private volatile int weight;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean healthy = true;
+    /** 상태 확인 요청이 진행 중이면 true (이전 확인이 끝나기 전에는 다시 보내지 않음) */
+    final AtomicBoolean probing = new AtomicBoolean();
+    /** 이 대상의 서킷 브레이커 (첫 요청 때 CircuitBreakerRegistry 가 붙임) */
+    volatile CircuitBreaker circuitBreaker;
+    // 상태 확인 결과 처리에서만 갱신 (probing 으로 한 번에 하나만)
+    private int consecutiveFailures;
+    private int consecutiveSuccesses;
+
+    UpstreamTarget(int targetId, String apiId, String baseUrl, URI healthUri, int weight) {
+        this.targetId = targetId;
+        this.apiId = apiId;
+        this.baseUrl = baseUrl;
+        this.healthUri = healthUri;
+        this.weight = Math.max(weight, 1);
+    }
+
+    /** 다운스트림 URI 의 scheme://host:port 를 이 대상으로 교체 (경로/쿼리는 그대로) */
+    public URI resolve(URI downstream) {
+        String path = downstream.getRawPath();
+        String query = downstream.getRawQuery();
+        StringBuilder sb = new StringBuilder(baseUrl.length() + (path != null ? path.length() : 0) + (query != null ? query.length() + 1 : 0));
+        sb.append(baseUrl);
+        if (path != null) sb.append(path);
+        if (query != null) sb.append('?').append(query);
+        return URI.create(sb.toString());
+    }
+
+    /** 요청 시작 (응답이 끝나면 반드시 release) */
+    public void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    public void release() {
+        outstanding.decrementAndGet();
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /** 상태 확인 정상이고 서킷이 호출을 허용하면 true (부하 분산 대상) */
+    public boolean isAvailable() {
+        CircuitBreaker b = circuitBreaker;
+        return healthy && (b == null || b.isCallPermitted());
+    }
+
+    void setWeight(int weight) {
+        this.weight = Math.max(weight, 1);
+    }
+
+    /** 상태 확인 성공. 제외된 상태에서 연속 threshold 회 성공하면 다시 투입 */
+    boolean markSuccess(int threshold) {
+        consecutiveFailures = 0;
+        if (healthy) return false;
+        if (++consecutiveSuccesses < threshold) return false;
+        consecutiveSuccesses = 0;
+        healthy = true;
+        return true;
+    }
+
+    /** 상태 확인 실패. 연속 threshold 회 실패하면 제외 */
+    boolean markFailure(int threshold) {
+        consecutiveSuccesses = 0;
+        if (!healthy) return false;
+        if (++consecutiveFailures < threshold) return false;
+        consecutiveFailures = 0;
+        healthy = false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return apiId + "#" + targetId + "(" + baseUrl + ")";
+    }
+}
@@ -0,0 +1,113 @@
+package com.kdn.ets.api_gateway.auth;
+
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository.PermissionGrant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PermissionMatrixTest {
+
+    private ApiPermissionRepository repository;
+    private PermissionMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ApiPermissionRepository.class);
+        matrix = new PermissionMatrix(repository);
+    }
+
+    @Test
+    void 부여된_권한만_허용() {
+        when(repository.findAllGrants()).thenReturn(Arrays.asList(
+                grant("user1", "LLM_RAG", "POST"),
+                grant("user1", "ORDERS", "get"),
+                grant("user2", "ORDERS", "GET")));
+        matrix.reload();
+
+        assertTrue(matrix.isAllowed("user1", "LLM_RAG"));
+        assertTrue(matrix.isAllowed("user1", "ORDERS"));
+        assertTrue(matrix.isAllowed("user2", "ORDERS"));
+
+        assertFalse(matrix.isAllowed("user2", "LLM_RAG"));
+        assertFalse(matrix.isAllowed("user3", "ORDERS"));
+        assertFalse(matrix.isAllowed("user1", "UNKNOWN"));
+    }
+
+    @Test
+    void 권한_행의_메서드와_무관하게_API_단위로_허용() {
+        when(repository.findAllGrants()).thenReturn(Arrays.asList(
+                grant("user1", "LLM_RAG", "POST"),
+                grant("user2", "ORDERS", "*"),
+                grant("user3", "ORDERS", null)));
+        matrix.reload();
+
+        assertTrue(matrix.isAllowed("user1", "LLM_RAG"));
+        assertTrue(matrix.isAllowed("user2", "ORDERS"));
+        assertTrue(matrix.isAllowed("user3", "ORDERS"));
+    }
+
+    @Test
+    void 라우트가_64개를_넘어도_정상_동작() {
+        List<PermissionGrant> grants = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            grants.add(grant(i % 2 == 0 ? "even" : "odd", "API_" + i, "GET"));
+        }
+        when(repository.findAllGrants()).thenReturn(grants);
+        matrix.reload();
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(matrix.isAllowed(i % 2 == 0 ? "even" : "odd", "API_" + i));
+            assertFalse(matrix.isAllowed(i % 2 == 0 ? "odd" : "even", "API_" + i));
+        }
+    }
+
+    @Test
+    void 기존_사용자는_행만_교체() {
+        when(repository.findAllGrants()).thenReturn(Arrays.asList(
+                grant("user1", "LLM_RAG", "POST"),
+                grant("user2", "ORDERS", "GET")));
+        matrix.reload();
+
+        when(repository.findGrantsByUserId("user1")).thenReturn(Collections.singletonList(grant("user1", "ORDERS", "GET")));
+        matrix.reloadUser("user1");
+
+        assertFalse(matrix.isAllowed("user1", "LLM_RAG"));
+        assertTrue(matrix.isAllowed("user1", "ORDERS"));
+        verify(repository, times(1)).findAllGrants();
+    }
+
+    @Test
+    void 새_사용자는_전체_재적재() {
+        when(repository.findAllGrants()).thenReturn(Collections.singletonList(grant("user1", "LLM_RAG", "POST")));
+        matrix.reload();
+
+        when(repository.findGrantsByUserId("user2")).thenReturn(Collections.singletonList(grant("user2", "LLM_RAG", "POST")));
+        when(repository.findAllGrants()).thenReturn(Arrays.asList(
+                grant("user1", "LLM_RAG", "POST"),
+                grant("user2", "LLM_RAG", "POST")));
+        matrix.reloadUser("user2");
+
+        assertTrue(matrix.isAllowed("user2", "LLM_RAG"));
+        verify(repository, times(2)).findAllGrants();
+    }
+
+    private static PermissionGrant grant(String userId, String apiId, String method) {
+        return new PermissionGrant() {
+            @Override public String getUserId() { return userId; }
+            @Override public String getApiId() { return apiId; }
+            @Override public String getMethod() { return method; }
+        };
+    }
+}
@@ -0,0 +1,197 @@
+package com.kdn.ets.api_gateway.auth;
+
+import com.kdn.ets.api_gateway.config.SchemaMigrator;
+import com.kdn.ets.api_gateway.exception.QuotaExceededException;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository.QuotaRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuotaTrackerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong now = new AtomicLong(ZonedDateTime.of(2026, 10, 31, 23, 0, 0, 0, ZONE).toInstant().toEpochMilli());
+    private SingleConnectionDataSource dataSource;
+    private SingleConnectionDataSource readerDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ApiPermissionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("quota.db"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        new SchemaMigrator(jdbcTemplate).migrate();
+        readerDataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("quota.db"), true);
+        repository = mock(ApiPermissionRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readerDataSource.destroy();
+        dataSource.destroy();
+    }
+
+    @Test
+    void 한도를_넘으면_세지_않고_기간_끝까지_Retry_After() {
+        when(repository.findAllQuotas()).thenReturn(Arrays.asList(
+                row("user1", "A", 2, null),
+                row("user1", QuotaTracker.ALL_APIS, null, 3)));
+        QuotaTracker tracker = tracker(0);
+
+        assertNull(tracker.tryAcquire("user1", "A"));
+        assertNull(tracker.tryAcquire("user1", "A"));
+        QuotaExceededException daily = tracker.tryAcquire("user1", "A");
+        assertNotNull(daily);
+        assertEquals(429, daily.getStatusCode());
+        assertEquals(3600, daily.retryAfterSeconds());
+        assertEquals(2, tracker.used("user1", "A", false));
+
+        // 사용자 전체 월 한도(3): B 는 1번만, 거절된 호출은 B 호출 수에서도 빠짐
+        assertNull(tracker.tryAcquire("user1", "B"));
+        assertNotNull(tracker.tryAcquire("user1", "B"));
+        assertEquals(1, tracker.used("user1", "B", true));
+        assertEquals(3, tracker.used("user1", QuotaTracker.ALL_APIS, true));
+
+        // 설정 없는 사용자는 기본값(0 = 제한 없음)
+        for (int i = 0; i < 10; i++) assertNull(tracker.tryAcquire("user2", "A"));
+    }
+
+    @Test
+    void 늘어난_만큼만_누적_저장하고_재시작하면_이어서_셈() {
+        when(repository.findAllQuotas()).thenReturn(Collections.emptyList());
+        QuotaTracker tracker = tracker(3);
+        tracker.tryAcquire("user1", "A");
+        tracker.tryAcquire("user1", "A");
+
+        assertEquals(4, tracker.flush());   // (A, *) x (일, 월)
+        assertEquals(0, tracker.flush());
+        tracker.tryAcquire("user1", "A");
+        assertEquals(4, tracker.flush());
+        assertEquals(3, stored("user1", "A", "2026-10-31"));
+        assertEquals(3, stored("user1", "*", "2026-10"));
+
+        // 재시작: 저장된 호출 수를 읽어 기본 API 일 한도(3)를 이미 다 쓴 상태
+        QuotaTracker restarted = tracker(3);
+        assertNotNull(restarted.tryAcquire("user1", "A"));
+
+        // 날짜/월이 바뀌면 새 기간으로 세고, 이전 기간 카운터의 남은 증가분도 저장
+        tracker.tryAcquire("user2", "A");
+        now.addAndGet(3_600_000L);
+        assertNull(restarted.tryAcquire("user1", "A"));
+        tracker.tryAcquire("user2", "A");
+        assertEquals(8, tracker.flush());
+        assertEquals(1, stored("user2", "A", "2026-10-31"));
+        assertEquals(1, stored("user2", "A", "2026-11-01"));
+        assertEquals(1, stored("user2", "*", "2026-11"));
+        assertEquals(0, tracker.flush());
+    }
+
+    @Test
+    void 저장할_때마다_다른_인스턴스의_호출_수를_다시_읽음() {
+        when(repository.findAllQuotas()).thenReturn(Collections.emptyList());
+        QuotaTracker first = tracker(10);
+        QuotaTracker second = tracker(10);
+
+        for (int i = 0; i < 6; i++) assertNull(first.tryAcquire("user1", "A"));
+        first.scheduledFlush();
+        assertNull(second.tryAcquire("user1", "A"));   // 아직 저장하지 않은 자기 호출 1건
+        second.scheduledFlush();                        // 저장 후 합계(7)를 다시 읽음
+        assertEquals(7, second.used("user1", "A", false));
+
+        for (int i = 0; i < 3; i++) assertNull(second.tryAcquire("user1", "A"));
+        assertNotNull(second.tryAcquire("user1", "A"));
+        first.scheduledFlush();
+        assertEquals(7, first.used("user1", "A", false));   // second 가 아직 저장하지 않은 3건은 모름
+        second.scheduledFlush();
+        first.scheduledFlush();
+        assertEquals(10, first.used("user1", "A", false));
+        assertNotNull(first.tryAcquire("user1", "A"));
+    }
+
+    @Test
+    void 처음에만_전체를_읽고_이후에는_최근에_바뀐_행만_읽음() {
+        when(repository.findAllQuotas()).thenReturn(Collections.emptyList());
+        jdbcTemplate.update("INSERT INTO api_quota_usage (user_id, api_id, period, call_count, update_date) "
+                + "VALUES ('user1', 'A', '2026-10-31', 5, '2026-10-31 10:00:00')");
+        QuotaTracker tracker = tracker(10);
+        assertEquals(5, tracker.used("user1", "A", false));
+
+        // 지난번 읽은 시각(23:00:00)보다 여유(60초) 이전에 바뀐 행은 다시 읽지 않음
+        setUsage(8, "2026-10-31 22:58:59");
+        assertEquals(0, tracker.syncUsage());
+        assertEquals(5, tracker.used("user1", "A", false));
+
+        // 시계가 늦은 다른 인스턴스가 여유 안쪽 시각으로 저장한 행은 읽음
+        setUsage(9, "2026-10-31 22:59:30");
+        assertEquals(1, tracker.syncUsage());
+        assertEquals(9, tracker.used("user1", "A", false));
+    }
+
+    @Test
+    void 공유_거절_예외에는_suppressed_가_쌓이지_않음() {
+        when(repository.findAllQuotas()).thenReturn(Collections.emptyList());
+        QuotaTracker tracker = tracker(1);
+        assertNull(tracker.tryAcquire("user1", "A"));
+
+        QuotaExceededException rejected = tracker.tryAcquire("user1", "A");
+        for (int i = 0; i < 2; i++) {
+            // 요청마다 같은 인스턴스를 checkpoint 가 지나감
+            RuntimeException thrown = assertThrows(RuntimeException.class,
+                    () -> Mono.error(tracker.tryAcquire("user1", "A")).checkpoint("A").block());
+            assertSame(rejected, thrown);
+        }
+        assertEquals(0, rejected.getSuppressed().length);
+    }
+
+    private QuotaTracker tracker(long defaultApiDaily) {
+        QuotaTracker tracker = new QuotaTracker(repository, jdbcTemplate, new JdbcTemplate(readerDataSource),
+                new DataSourceTransactionManager(dataSource), true, 0, 0, defaultApiDaily, 0, ZONE, 60_000, now::get);
+        tracker.reload();
+        tracker.syncUsage();
+        return tracker;
+    }
+
+    private void setUsage(long callCount, String updateDate) {
+        jdbcTemplate.update("UPDATE api_quota_usage SET call_count = ?, update_date = ? WHERE user_id = 'user1' AND api_id = 'A'",
+                callCount, updateDate);
+    }
+
+    private long stored(String userId, String apiId, String period) {
+        return jdbcTemplate.queryForObject("SELECT call_count FROM api_quota_usage WHERE user_id = ? AND api_id = ? AND period = ?",
+                Long.class, userId, apiId, period);
+    }
+
+    private static QuotaRow row(String userId, String apiId, Integer daily, Integer monthly) {
+        return new QuotaRow() {
+            @Override public String getUserId() { return userId; }
+            @Override public String getApiId() { return apiId; }
+            @Override public Integer getQuotaDaily() { return daily; }
+            @Override public Integer getQuotaMonthly() { return monthly; }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package com.kdn.ets.api_gateway.auth;
+
+import com.kdn.ets.api_gateway.exception.RateLimitException;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository;
+import com.kdn.ets.api_gateway.repository.ApiPermissionRepository.RateLimitRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(-123 * SECOND);
+    private ApiPermissionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ApiPermissionRepository.class);
+    }
+
+    @Test
+    void 버스트만큼_허용하고_간격마다_하나씩_다시_허용() {
+        when(repository.findAllRateLimits()).thenReturn(Arrays.asList(
+                row("user1", "ORDERS", 60, 3),
+                row("user1", "ORDERS", 30, null)));   // 메서드별 행이 여럿이면 큰 한도
+        RateLimiter limiter = limiter(0, 0);
+
+        for (int i = 0; i < 3; i++) assertNull(limiter.tryAcquire("user1", "ORDERS"));
+        RateLimitException rejected = limiter.tryAcquire("user1", "ORDERS");
+        assertNotNull(rejected);
+        assertEquals(429, rejected.getStatusCode());
+        assertEquals(1, rejected.retryAfterSeconds());
+        assertSame(rejected, limiter.tryAcquire("user1", "ORDERS"));
+
+        now.addAndGet(SECOND);
+        assertNull(limiter.tryAcquire("user1", "ORDERS"));
+        assertNotNull(limiter.tryAcquire("user1", "ORDERS"));
+
+        // 설정 없는 API / 사용자는 기본값(0 = 제한 없음)
+        for (int i = 0; i < 100; i++) {
+            assertNull(limiter.tryAcquire("user1", "LLM_RAG"));
+            assertNull(limiter.tryAcquire("user2", "ORDERS"));
+        }
+    }
+
+    @Test
+    void 사용자_전체_한도는_API_를_합산하고_거절되면_API_토큰을_되돌림() {
+        when(repository.findAllRateLimits()).thenReturn(Collections.singletonList(
+                row("user1", RateLimiter.ALL_APIS, 6, 2)));
+        RateLimiter limiter = limiter(0, 3);
+
+        assertNull(limiter.tryAcquire("user1", "A"));
+        assertNull(limiter.tryAcquire("user1", "B"));
+        RateLimitException rejected = limiter.tryAcquire("user1", "A");
+        assertNotNull(rejected);
+        assertEquals(10, rejected.retryAfterSeconds());
+
+        // 사용자 한도가 다시 차는 동안 A 는 되돌려 받은 토큰 덕분에 두 번 더 허용, 그다음은 A 한도(3/분)에서 거절
+        now.addAndGet(20 * SECOND);
+        assertNull(limiter.tryAcquire("user1", "A"));
+        assertNull(limiter.tryAcquire("user1", "A"));
+        now.addAndGet(20 * SECOND);
+        assertNull(limiter.tryAcquire("user1", "A"));
+        assertNull(limiter.tryAcquire("user1", "A"));
+        RateLimitException apiRejected = limiter.tryAcquire("user1", "A");
+        assertNotNull(apiRejected);
+        assertNotSame(rejected, apiRejected);
+        assertEquals(20, apiRejected.retryAfterSeconds());
+    }
+
+    @Test
+    void 다시_읽으면_바뀐_한도만_새로_적용() {
+        when(repository.findAllRateLimits()).thenReturn(Arrays.asList(
+                row("user1", "A", 60, 1), row("user1", "B", 60, 1)));
+        RateLimiter limiter = limiter(0, 0);
+        assertNull(limiter.tryAcquire("user1", "A"));
+        assertNull(limiter.tryAcquire("user1", "B"));
+
+        when(repository.findAllRateLimits()).thenReturn(Arrays.asList(
+                row("user1", "A", 60, 1), row("user1", "B", 120, 2)));
+        limiter.reload();
+        assertNotNull(limiter.tryAcquire("user1", "A"));   // 같은 한도: 남은 토큰 유지
+        assertNull(limiter.tryAcquire("user1", "B"));      // 바뀐 한도: 새 버킷
+
+        when(repository.findRateLimitsByUserId("user1")).thenReturn(Collections.singletonList(row("user1", "A", 0, null)));
+        limiter.reloadUser("user1");
+        for (int i = 0; i < 10; i++) {
+            assertNull(limiter.tryAcquire("user1", "A"));   // 0 = 제한 없음
+            assertNull(limiter.tryAcquire("user1", "B"));   // 행 삭제 → 기본값
+        }
+    }
+
+    @Test
+    void 메서드별_행_중_0_이_있으면_제한_없음() {
+        when(repository.findAllRateLimits()).thenReturn(Arrays.asList(
+                row("user1", "A", 60, 1), row("user1", "A", 0, null),
+                row("user1", "B", 0, null), row("user1", "B", 60, 1)));
+        RateLimiter limiter = limiter(0, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertNull(limiter.tryAcquire("user1", "A"));
+            assertNull(limiter.tryAcquire("user1", "B"));
+        }
+    }
+
+    @Test
+    void 되돌린_요청은_API_와_사용자_한도_모두에_반영() {
+        when(repository.findAllRateLimits()).thenReturn(Arrays.asList(
+                row("user1", "A", 60, 1), row("user1", RateLimiter.ALL_APIS, 60, 1)));
+        RateLimiter limiter = limiter(0, 0);
+
+        assertNull(limiter.tryAcquire("user1", "A"));
+        limiter.refund("user1", "A");   // 호출 한도 등에서 거절되어 보내지 않음
+        assertNull(limiter.tryAcquire("user1", "A"));
+        assertNotNull(limiter.tryAcquire("user1", "A"));
+
+        limiter.refund("user2", "A");   // 처음 보는 사용자는 무시
+    }
+
+    @Test
+    void 공유_거절_예외에는_suppressed_가_쌓이지_않음() {
+        when(repository.findAllRateLimits()).thenReturn(Collections.singletonList(row("user1", "A", 60, 1)));
+        RateLimiter limiter = limiter(0, 0);
+        assertNull(limiter.tryAcquire("user1", "A"));
+
+        RateLimitException rejected = limiter.tryAcquire("user1", "A");
+        for (int i = 0; i < 2; i++) {
+            // 요청마다 같은 인스턴스를 checkpoint 가 지나감
+            RuntimeException thrown = assertThrows(RuntimeException.class,
+                    () -> Mono.error(limiter.tryAcquire("user1", "A")).checkpoint("A").block());
+            assertSame(rejected, thrown);
+        }
+        assertEquals(0, rejected.getSuppressed().length);
+    }
+
+    private RateLimiter limiter(int defaultUserPerMin, int defaultApiPerMin) {
+        RateLimiter limiter = new RateLimiter(repository, true, defaultUserPerMin, defaultApiPerMin, now::get);
+        limiter.reload();
+        return limiter;
+    }
+
+    private static RateLimitRow row(String userId, String apiId, Integer ratePerMin, Integer rateBurst) {
+        return new RateLimitRow() {
+            @Override public String getUserId() { return userId; }
+            @Override public String getApiId() { return apiId; }
+            @Override public Integer getRatePerMin() { return ratePerMin; }
+            @Override public Integer getRateBurst() { return rateBurst; }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.kdn.ets.api_gateway.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.sqlite.SQLiteConfig;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataStoreConfigTest {
+
+    @TempDir
+    Path dir;
+
+    private HikariDataSource writer;
+    private HikariDataSource reader;
+
+    @BeforeEach
+    void setUp() {
+        DataStoreConfig.Wal wal = new DataStoreConfig.Wal();
+        ReflectionTestUtils.setField(wal, "readerPoolSize", 2);
+        ReflectionTestUtils.setField(wal, "synchronous", SQLiteConfig.SynchronousMode.NORMAL);
+        ReflectionTestUtils.setField(wal, "cacheSizeKb", 1024);
+        ReflectionTestUtils.setField(wal, "mmapSize", 0L);
+        ReflectionTestUtils.setField(wal, "busyTimeoutMs", 1000);
+
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:sqlite:" + dir.resolve("test.db"));
+        properties.setDriverClassName("org.sqlite.JDBC");
+        MockEnvironment env = new MockEnvironment().withProperty("spring.datasource.hikari.connection-timeout", "2000");
+
+        writer = wal.writerDataSource(properties, env);
+        new JdbcTemplate(writer).execute("CREATE TABLE gateway_logs (log_id INTEGER PRIMARY KEY, path TEXT)");
+        reader = wal.dataSource(properties, env, writer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reader.close();
+        writer.close();
+    }
+
+    @Test
+    void 작성_커넥션은_WAL_읽기_풀은_쓰기_불가() {
+        assertEquals("wal", new JdbcTemplate(writer).queryForObject("PRAGMA journal_mode", String.class));
+        assertEquals(1, writer.getMaximumPoolSize());
+        assertEquals(2, reader.getMaximumPoolSize());
+
+        assertThrows(Exception.class, () -> new JdbcTemplate(reader).update("INSERT INTO gateway_logs (path) VALUES ('x')"));
+    }
+
+    @Test
+    void 쓰기_트랜잭션이_열려_있어도_읽기는_기다리지_않음() throws Exception {
+        JdbcTemplate read = new JdbcTemplate(reader);
+        try (Connection c = writer.getConnection(); Statement st = c.createStatement()) {
+            c.setAutoCommit(false);
+            st.executeUpdate("INSERT INTO gateway_logs (path) VALUES ('/a')");
+
+            // 커밋 전: 이전 스냅샷을 바로 읽음
+            long start = System.nanoTime();
+            assertEquals(0, read.queryForObject("SELECT COUNT(*) FROM gateway_logs", Integer.class));
+            assertEquals(true, System.nanoTime() - start < 500_000_000L);
+
+            c.commit();
+        }
+        assertEquals(1, read.queryForObject("SELECT COUNT(*) FROM gateway_logs", Integer.class));
+    }
+}
@@ -0,0 +1,84 @@
+package com.kdn.ets.api_gateway.filter;
+
+import com.kdn.ets.api_gateway.auth.QuotaTracker;
+import com.kdn.ets.api_gateway.auth.RateLimiter;
+import com.kdn.ets.api_gateway.entity.ApiRoute;
+import com.kdn.ets.api_gateway.exception.CircuitOpenException;
+import com.kdn.ets.api_gateway.exception.DeadlineExceededException;
+import com.kdn.ets.api_gateway.repository.ApiRouteRepository;
+import com.kdn.ets.api_gateway.route.RouteTable;
+import com.kdn.ets.api_gateway.service.AuthService;
+import com.kdn.ets.api_gateway.upstream.CircuitBreakerRegistry;
+import com.kdn.ets.api_gateway.upstream.ConcurrencyLimiterRegistry;
+import com.kdn.ets.api_gateway.upstream.UpstreamDispatcher;
+import com.kdn.ets.api_gateway.upstream.UpstreamRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GlobalAuthRoutingFilterTest {
+
+    private final UpstreamDispatcher upstreamDispatcher = mock(UpstreamDispatcher.class);
+    private final RateLimiter rateLimiter = mock(RateLimiter.class);
+    private final QuotaTracker quotaTracker = mock(QuotaTracker.class);
+    // 최소 1건, 실패 50% 이면 30초 열림
+    private final CircuitBreakerRegistry circuitBreakers = new CircuitBreakerRegistry(true, 1, 50, 10_000, 80, 30_000, 1, 10_000);
+    private GlobalAuthRoutingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ApiRouteRepository routes = mock(ApiRouteRepository.class);
+        ApiRoute row = new ApiRoute();
+        ReflectionTestUtils.setField(row, "apiId", "ECHO");
+        ReflectionTestUtils.setField(row, "method", "GET");
+        ReflectionTestUtils.setField(row, "path", "http://up/echo");
+        ReflectionTestUtils.setField(row, "useYn", "Y");
+        when(routes.findAll()).thenReturn(Collections.singletonList(row));
+        RouteTable routeTable = new RouteTable(routes);
+        routeTable.refresh();
+
+        AuthService authService = mock(AuthService.class);
+        when(authService.verifyAndGetUserId(any(), anyString())).thenReturn(Mono.just("user1"));
+
+        filter = new GlobalAuthRoutingFilter(routeTable, authService, mock(UpstreamRegistry.class), circuitBreakers,
+                upstreamDispatcher, mock(ConcurrencyLimiterRegistry.class), rateLimiter, quotaTracker);
+    }
+
+    @Test
+    void 기한이_이미_지나_보내지_않으면_요청_수_토큰을_되돌림() {
+        when(upstreamDispatcher.deadlineNanos(any(), any(), any())).thenReturn(System.nanoTime() - 1);
+
+        assertThrows(DeadlineExceededException.class, () -> filter.filter(exchange(), mock(GatewayFilterChain.class)).block());
+        verify(rateLimiter).refund("user1", "ECHO");
+        verify(quotaTracker, never()).tryAcquire(anyString(), anyString());
+    }
+
+    @Test
+    void 서킷이_열려_보내지_않으면_요청_수_토큰을_되돌림() {
+        when(upstreamDispatcher.deadlineNanos(any(), any(), any())).thenReturn(System.nanoTime() + TimeUnit.MINUTES.toNanos(1));
+        circuitBreakers.breaker("ECHO", null).tryAcquire().fail();
+
+        assertThrows(CircuitOpenException.class, () -> filter.filter(exchange(), mock(GatewayFilterChain.class)).block());
+        verify(rateLimiter).refund("user1", "ECHO");
+        verify(quotaTracker, never()).tryAcquire(anyString(), anyString());
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("http://gw/ECHO").build());
+    }
+}
@@ -0,0 +1,117 @@
+package com.kdn.ets.api_gateway.filter;
+
+import com.kdn.ets.api_gateway.helper.GatewayLogHelper;
+import com.kdn.ets.api_gateway.helper.RequestTimings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ResponseCaptureFilterTest {
+
+    private final DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+
+    private GatewayLogHelper logHelper;
+    private ResponseCaptureFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        logHelper = mock(GatewayLogHelper.class);
+        filter = new ResponseCaptureFilter(logHelper);
+        ReflectionTestUtils.setField(filter, "defaultCaptureBytes", 4);
+        ReflectionTestUtils.setField(filter, "defaultStreamIdleTimeoutMs", 200);
+    }
+
+    @Test
+    void 응답은_그대로_전달하고_앞부분만_로그에_남긴다() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/API").build());
+
+        GatewayFilterChain chain = ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.OK);
+            ex.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            ex.getResponse().getHeaders().setContentLength(10);
+            return ex.getResponse().writeWith(Flux.just(buffer("01234"), buffer("56789")));
+        };
+        filter.filter(exchange, chain).block();
+
+        assertEquals("0123456789", exchange.getResponse().getBodyAsString().block());
+        assertEquals(10, exchange.getResponse().getHeaders().getContentLength());
+        verify(logHelper).asyncLogOnce(any(), eq(200), eq("0123"), isNull());
+    }
+
+    @Test
+    void 바이너리_응답은_캡처하지_않는다() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/API").build());
+
+        GatewayFilterChain chain = ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.OK);
+            ex.getResponse().getHeaders().setContentType(MediaType.IMAGE_PNG);
+            return ex.getResponse().writeWith(Flux.just(buffer("binary")));
+        };
+        filter.filter(exchange, chain).block();
+
+        assertEquals("binary", exchange.getResponse().getBodyAsString().block());
+        verify(logHelper).asyncLogOnce(any(), eq(200), isNull(), isNull());
+    }
+
+    @Test
+    void 스트리밍_응답은_청크_단위를_유지하고_이벤트를_센다() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/API").build());
+        RequestTimings timings = RequestTimings.start();
+        exchange.getAttributes().put(RequestTimings.ATTR, timings);
+
+        GatewayFilterChain chain = ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.OK);
+            ex.getResponse().getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+            return ex.getResponse().writeAndFlushWith(
+                    Flux.just(buffer("data: a\n\n"), buffer("data: b\n\n")).map(Flux::just));
+        };
+        filter.filter(exchange, chain).block();
+
+        assertEquals("data: a\n\ndata: b\n\n", exchange.getResponse().getBodyAsString().block());
+        assertEquals(2L, (Long) exchange.getAttribute(GatewayLogHelper.ATTR_STREAM_EVENTS));
+        assertTrue(timings.ttfbNanos() >= 0);
+        assertTrue(timings.phaseNanos(RequestTimings.Phase.STREAM) >= 0);
+        verify(logHelper).asyncLogOnce(any(), eq(200), eq("data"), isNull());
+    }
+
+    @Test
+    void 이벤트_사이_대기가_길면_스트림을_끊는다() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/API").build());
+
+        GatewayFilterChain chain = ex -> {
+            ex.getResponse().getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+            return ex.getResponse().writeAndFlushWith(
+                    Flux.concat(Flux.just(buffer("data: a\n\n")), Flux.<DataBuffer>never()).map(Flux::just));
+        };
+
+        assertThrows(Exception.class, () -> filter.filter(exchange, chain).block(Duration.ofSeconds(5)));
+        verify(logHelper).asyncLogOnce(any(), anyInt(), any(), isA(TimeoutException.class));
+    }
+
+    private DataBuffer buffer(String s) {
+        return factory.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+package com.kdn.ets.api_gateway.helper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BodyCaptureTest {
+
+    private final DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+
+    @Test
+    void 앞부분만_복사하고_원본_버퍼는_그대로() {
+        BodyCapture capture = new BodyCapture(5);
+        DataBuffer first = buffer("abc");
+        DataBuffer second = buffer("defgh");
+
+        capture.append(first);
+        capture.append(second);
+
+        assertEquals("abcde", capture.asString());
+        assertTrue(capture.isTruncated());
+        assertEquals(8, capture.getTotalBytes());
+        assertEquals(3, first.readableByteCount());
+        assertEquals("defgh", second.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void 잘린_멀티바이트_문자는_제외() {
+        BodyCapture capture = new BodyCapture(4); // "가"(3byte) + "나"의 첫 1byte
+        capture.append(buffer("가나다"));
+        assertEquals("가", capture.asString());
+    }
+
+    @Test
+    void 한도_이내면_전체() {
+        BodyCapture capture = new BodyCapture(100);
+        capture.append(buffer("{\"q\":\"가나다\"}"));
+        assertEquals("{\"q\":\"가나다\"}", capture.asString());
+        assertFalse(capture.isTruncated());
+    }
+
+    @Test
+    void 텍스트_타입_판별() {
+        assertTrue(BodyCapture.isTextual(null));
+        assertTrue(BodyCapture.isTextual(MediaType.APPLICATION_JSON));
+        assertTrue(BodyCapture.isTextual(MediaType.valueOf("application/problem+json")));
+        assertTrue(BodyCapture.isTextual(MediaType.TEXT_EVENT_STREAM));
+        assertTrue(BodyCapture.isTextual(MediaType.APPLICATION_FORM_URLENCODED));
+        assertFalse(BodyCapture.isTextual(MediaType.APPLICATION_OCTET_STREAM));
+        assertFalse(BodyCapture.isTextual(MediaType.MULTIPART_FORM_DATA));
+        assertFalse(BodyCapture.isTextual(MediaType.IMAGE_PNG));
+    }
+
+    private DataBuffer buffer(String s) {
+        return factory.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,51 @@
+package com.kdn.ets.api_gateway.helper;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BodyMaskerTest {
+
+    private static final CaseInsensitiveKeys KEYS = CaseInsensitiveKeys.of("password", "access_token", "secret");
+
+    private final BodyMasker masker = new BodyMasker(new JsonFactory(), KEYS, 2000);
+
+    @Test
+    void JSON_민감키는_하위_구조까지_가림() {
+        String body = "{\"user\":{\"id\":\"u1\",\"Password\":\"p\"},\"secret\":{\"a\":[1,2]},\"items\":[{\"access_token\":\"t\",\"n\":1.5}]}";
+
+        assertEquals("{\"user\":{\"id\":\"u1\",\"Password\":\"**********\"},\"secret\":\"**********\",\"items\":[{\"access_token\":\"**********\",\"n\":1.5}]}",
+                masker.mask(body, "application/json;charset=UTF-8"));
+    }
+
+    @Test
+    void JSON_출력이_한도에_닿으면_중단() {
+        BodyMasker small = new BodyMasker(new JsonFactory(), KEYS, 40);
+        StringBuilder body = new StringBuilder("{\"password\":\"p\",\"items\":[");
+        for (int i = 0; i < 1000; i++) body.append(i).append(',');
+        body.append("0]}");
+
+        String masked = small.mask(body.toString(), "application/json");
+
+        assertEquals(40, masked.length());
+        assertTrue(masked.startsWith("{\"password\":\"**********\",\"items\":[0,1,"));
+    }
+
+    @Test
+    void 잘린_JSON은_마스킹된_앞부분만_남김() {
+        String truncated = "{\"id\":\"u1\",\"password\":\"p\",\"memo\":\"잘린 값";
+
+        assertEquals("{\"id\":\"u1\",\"password\":\"**********\",\"memo\"", masker.mask(truncated, "application/json"));
+        assertEquals("not json", masker.mask("not json", "application/json"));
+    }
+
+    @Test
+    void form_민감키_값만_가림() {
+        assertEquals("grant_type=password&PASSWORD=**********&scope=&secret=**********&flag&",
+                masker.mask("grant_type=password&PASSWORD=p%40ss&scope=&secret=x=y&flag&", "application/x-www-form-urlencoded"));
+        assertEquals("plain text", masker.mask("plain text", "text/plain"));
+    }
+}
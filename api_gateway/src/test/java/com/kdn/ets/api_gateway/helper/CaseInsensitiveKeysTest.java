@@ -0,0 +1,30 @@
+package com.kdn.ets.api_gateway.helper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaseInsensitiveKeysTest {
+
+    private final CaseInsensitiveKeys keys = CaseInsensitiveKeys.of("authorization", "X-Api-Key", "password", "token");
+
+    @Test
+    void 대소문자를_무시하고_조회() {
+        assertTrue(keys.contains("Authorization"));
+        assertTrue(keys.contains("x-api-key"));
+        assertTrue(keys.contains("PASSWORD"));
+        assertFalse(keys.contains("passwords"));
+        assertFalse(keys.contains("tok"));
+        assertFalse(keys.contains(""));
+        assertFalse(keys.contains(null));
+    }
+
+    @Test
+    void 문자열_구간으로_조회() {
+        String form = "user=a&Password=b&token2=c";
+        assertFalse(keys.contains(form, 0, 4));
+        assertTrue(keys.contains(form, 7, 15));
+        assertFalse(keys.contains(form, 18, 24));
+    }
+}
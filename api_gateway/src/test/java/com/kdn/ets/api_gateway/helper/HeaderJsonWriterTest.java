@@ -0,0 +1,46 @@
+package com.kdn.ets.api_gateway.helper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeaderJsonWriterTest {
+
+    private static final CaseInsensitiveKeys SENSITIVE = CaseInsensitiveKeys.of("authorization", "cookie");
+    private static final CaseInsensitiveKeys NONE = CaseInsensitiveKeys.of();
+
+    @Test
+    void 민감_헤더는_가리고_첫_번째_값만_이스케이프해서_기록() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Authorization", "secret-key");
+        headers.add("X-Note", "say \"hi\"\\\n");
+        headers.add("Accept", "a");
+        headers.add("Accept", "b");
+
+        String json = new HeaderJsonWriter(SENSITIVE, NONE, NONE, 1500).write(headers);
+
+        assertEquals("{\"Authorization\":\"**********\",\"X-Note\":\"say \\\"hi\\\"\\\\\\n\",\"Accept\":\"a\"}", json);
+        JsonNode node = new ObjectMapper().readTree(json);
+        assertEquals("say \"hi\"\\\n", node.get("X-Note").asText());
+    }
+
+    @Test
+    void 허용_제외_목록과_길이_한도() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Host", "gw");
+        headers.add("Cookie", "s=1");
+        headers.add("Accept-Language", "ko");
+        headers.add("User-Agent", "curl");
+
+        HeaderJsonWriter allowlist = new HeaderJsonWriter(SENSITIVE, CaseInsensitiveKeys.of("host", "cookie", "accept-language"),
+                CaseInsensitiveKeys.of("ACCEPT-LANGUAGE"), 1500);
+        assertEquals("{\"Host\":\"gw\",\"Cookie\":\"**********\"}", allowlist.write(headers));
+
+        HeaderJsonWriter bounded = new HeaderJsonWriter(SENSITIVE, NONE, NONE, 20);
+        assertEquals("{\"Host\":\"gw\",\"Cookie", bounded.write(headers));
+    }
+}
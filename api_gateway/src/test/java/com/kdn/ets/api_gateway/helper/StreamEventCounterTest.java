@@ -0,0 +1,56 @@
+package com.kdn.ets.api_gateway.helper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamEventCounterTest {
+
+    private final DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+
+    @Test
+    void SSE_는_빈_줄_단위로_센다() {
+        StreamEventCounter counter = StreamEventCounter.serverSentEvents();
+        counter.append(buffer("data: a\n\n"));
+        counter.append(buffer("event: token\ndata: b\n\n: ping\n\n"));
+        counter.append(buffer("data: c\r\n\r\n"));
+
+        assertEquals(4, counter.getEvents());
+    }
+
+    @Test
+    void 청크_경계에_걸친_구분자도_센다() {
+        StreamEventCounter counter = StreamEventCounter.serverSentEvents();
+        counter.append(buffer("data: a\n"));
+        counter.append(buffer("\ndata: b"));
+        assertEquals(1, counter.getEvents());
+
+        counter.append(buffer("\n"));
+        counter.append(buffer("\n"));
+        assertEquals(2, counter.getEvents());
+    }
+
+    @Test
+    void NDJSON_은_줄_단위로_센다() {
+        StreamEventCounter counter = StreamEventCounter.lineDelimited();
+        counter.append(buffer("{\"a\":1}\n{\"b\""));
+        counter.append(buffer(":2}\n\n"));
+
+        assertEquals(2, counter.getEvents());
+    }
+
+    @Test
+    void 읽기_위치를_바꾸지_않는다() {
+        DataBuffer buf = buffer("data: a\n\n");
+        StreamEventCounter.serverSentEvents().append(buf);
+        assertEquals(9, buf.readableByteCount());
+    }
+
+    private DataBuffer buffer(String s) {
+        return factory.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package com.kdn.ets.api_gateway.logging;
+
+import com.kdn.ets.api_gateway.entity.GatewayLog;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GatewayLogCodecTest {
+
+    @Test
+    void 인코딩한_값을_그대로_디코딩() {
+        GatewayLog decoded = GatewayLogCodec.decode(ByteBuffer.wrap(GatewayLogCodec.encode(row())));
+
+        assertEquals("user1", decoded.getUserId());
+        assertEquals("응답", decoded.getResponse());
+        assertEquals(200, decoded.getStatusCode());
+        assertEquals(LocalDateTime.of(2026, 1, 2, 3, 4, 5), decoded.getRequestedAt());
+        assertNull(decoded.getErrorMessage());
+        assertEquals(30, decoded.getTtfbMs());
+        assertEquals(900, decoded.getTtlbMs());
+        assertEquals(42, decoded.getStreamEvents());
+        assertEquals(150, decoded.getConnectUs());
+        assertNull(decoded.getStreamUs());
+    }
+
+    @Test
+    void 버전1_레코드도_읽음() {
+        // 버전 1 은 현재 포맷에서 끝의 정수 8개(각 5바이트)가 없는 형태
+        byte[] current = GatewayLogCodec.encode(row());
+        byte[] v1 = Arrays.copyOf(current, current.length - 8 * 5);
+        v1[0] = 1;
+
+        GatewayLog decoded = GatewayLogCodec.decode(ByteBuffer.wrap(v1));
+
+        assertEquals("user1", decoded.getUserId());
+        assertEquals(12, decoded.getLatencyMs());
+        assertNull(decoded.getTtfbMs());
+        assertNull(decoded.getStreamEvents());
+    }
+
+    private static GatewayLog row() {
+        return GatewayLog.builder()
+                .userId("user1").apiId("LLM_RAG").method("POST").path("http://upstream/rag")
+                .statusCode(200).response("응답")
+                .requestedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5))
+                .respondedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 6))
+                .latencyMs(12).isSuccess("Y")
+                .ttfbMs(30).ttlbMs(900).streamEvents(42)
+                .routeUs(3).authUs(20).connectUs(150).upstreamTtfbUs(25_000)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.kdn.ets.api_gateway.logging;
+
+import com.kdn.ets.api_gateway.config.SchemaMigrator;
+import com.kdn.ets.api_gateway.converter.LocalDateTimeConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GatewayLogRollupTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private GatewayLogRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("logs.db"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE gateway_logs (log_id INTEGER PRIMARY KEY AUTOINCREMENT, user_id TEXT, api_id TEXT, "
+                + "method TEXT NOT NULL, path TEXT NOT NULL, query_param TEXT, headers TEXT, body TEXT, status_code INTEGER, "
+                + "response TEXT, requested_at TEXT NOT NULL, responded_at TEXT NOT NULL, latency_ms INTEGER, client_ip TEXT, "
+                + "user_agent TEXT, is_success TEXT NOT NULL, error_message TEXT)");
+        new SchemaMigrator(jdbcTemplate).migrate();
+
+        // batch-size 3 → 여러 트랜잭션으로 나누어 집계
+        rollup = new GatewayLogRollup(jdbcTemplate, new DataSourceTransactionManager(dataSource), 3, 30, 2, 0, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void 분_api_사용자_상태별로_합산하고_이어서_집계() throws Exception {
+        insert("2026-10-17 10:00:05", "A", "u1", 200, 8, "Y");
+        insert("2026-10-17 10:00:40", "A", "u1", 200, 120, "Y");
+        insert("2026-10-17 10:00:59", "A", "u1", 502, 30, "N");
+        insert("2026-10-17 10:01:00", "A", "u1", 200, 40, "Y");
+        insert("2026-10-17 10:00:10", null, null, 401, null, "N");
+        rollup.run();
+
+        Map<String, Object> ok = row("2026-10-17 10:00:00", "A", "u1", 200);
+        assertEquals(2, ((Number) ok.get("request_count")).intValue());
+        assertEquals(0, ((Number) ok.get("error_count")).intValue());
+        assertEquals(128, ((Number) ok.get("latency_sum_ms")).intValue());
+        assertEquals(120, ((Number) ok.get("latency_max_ms")).intValue());
+        assertEquals(1, ((Number) ok.get("le_10")).intValue());
+        assertEquals(2, ((Number) ok.get("le_250")).intValue());
+
+        assertEquals(1, ((Number) row("2026-10-17 10:00:00", "A", "u1", 502).get("error_count")).intValue());
+        assertEquals(1, ((Number) row("2026-10-17 10:00:00", "", "", 401).get("request_count")).intValue());
+
+        // 늦게 저장된 같은 분의 행은 기존 집계에 더해짐
+        insert("2026-10-17 10:00:30", "A", "u1", 200, 300, "Y");
+        rollup.run();
+
+        ok = row("2026-10-17 10:00:00", "A", "u1", 200);
+        assertEquals(3, ((Number) ok.get("request_count")).intValue());
+        assertEquals(300, ((Number) ok.get("latency_max_ms")).intValue());
+        assertEquals(2, ((Number) ok.get("le_250")).intValue());
+        assertEquals(6, rollup.getRolledUpCount());
+        assertEquals(0, rollup.getPendingRows());
+    }
+
+    @Test
+    void 보관_기간이_지난_행은_집계된_범위만_나누어_삭제() throws Exception {
+        String old = new LocalDateTimeConverter().convertToDatabaseColumn(LocalDateTime.now().minusDays(40));
+        String recent = new LocalDateTimeConverter().convertToDatabaseColumn(LocalDateTime.now());
+        for (int i = 0; i < 5; i++) {
+            insert(old, "A", "u1", 200, 10, "Y");
+        }
+        insert(recent, "A", "u1", 200, 10, "Y");
+        rollup.run();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM gateway_logs", Integer.class));
+        assertEquals(5, rollup.getPurgedCount());
+        // 원본은 지워져도 집계는 남음
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT SUM(request_count) FROM gateway_log_rollup", Integer.class));
+    }
+
+    private void insert(String requestedAt, String apiId, String userId, int status, Integer latencyMs, String success) {
+        jdbcTemplate.update("INSERT INTO gateway_logs (user_id, api_id, method, path, status_code, requested_at, responded_at, "
+                + "latency_ms, is_success) VALUES (?, ?, 'POST', '/A', ?, ?, ?, ?, ?)",
+                userId, apiId, status, requestedAt, requestedAt, latencyMs, success);
+    }
+
+    private Map<String, Object> row(String bucketAt, String apiId, String userId, int status) {
+        return jdbcTemplate.queryForMap("SELECT * FROM gateway_log_rollup WHERE bucket_at = ? AND api_id = ? AND user_id = ? "
+                + "AND status_code = ?", bucketAt, apiId, userId, status);
+    }
+}
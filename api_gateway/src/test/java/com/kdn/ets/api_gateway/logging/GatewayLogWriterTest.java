@@ -0,0 +1,178 @@
+package com.kdn.ets.api_gateway.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kdn.ets.api_gateway.service.LoggingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GatewayLogWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private GatewayLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + tempDir.resolve("logs.db"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE gateway_logs (log_id INTEGER PRIMARY KEY AUTOINCREMENT, user_id TEXT, api_id TEXT, "
+                + "method TEXT NOT NULL, path TEXT NOT NULL, query_param TEXT, headers TEXT, body TEXT, status_code INTEGER, "
+                + "response TEXT, requested_at TEXT NOT NULL, responded_at TEXT NOT NULL, latency_ms INTEGER, client_ip TEXT, "
+                + "user_agent TEXT, is_success TEXT NOT NULL, error_message TEXT, ttfb_ms INTEGER, ttlb_ms INTEGER, stream_events INTEGER, "
+                + "route_us INTEGER, auth_us INTEGER, connect_us INTEGER, upstream_ttfb_us INTEGER, stream_us INTEGER)");
+
+        LoggingService loggingService = new LoggingService();
+        ReflectionTestUtils.setField(loggingService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(loggingService, "bodyMaxChars", 2000);
+        loggingService.init();
+
+        writer = new GatewayLogWriter(loggingService, jdbcTemplate, new DataSourceTransactionManager(dataSource), null, 10_000, 1_000, 100, 50, 1_000);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void 큐에_넣은_로그가_배치로_모두_저장됨() throws Exception {
+        for (int i = 0; i < 1_000; i++) {
+            writer.submit(event(i % 10 == 0 ? "IllegalStateException: boom" : null));
+        }
+        writer.stop();
+
+        assertEquals(1_000, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM gateway_logs", Integer.class));
+        assertEquals(100, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM gateway_logs WHERE is_success = 'N'", Integer.class));
+        assertEquals(1_000, writer.getWrittenCount());
+        assertEquals(0, writer.getQueueDepth());
+    }
+
+    @Test
+    void 민감_헤더는_마스킹되어_저장됨() throws Exception {
+        writer.submit(event(null));
+        writer.stop();
+
+        String headers = jdbcTemplate.queryForObject("SELECT headers FROM gateway_logs", String.class);
+        assertFalse(headers.contains("secret-key"));
+    }
+
+    @Test
+    void DB_저장_실패분은_스풀에_보관했다가_재적재() throws Exception {
+        writer.stop();
+        LogSpool spool = new LogSpool(tempDir.resolve("spool").toString(), 64 * 1024, 8, LogSpool.DropPolicy.DROP_NEWEST);
+        spool.open();
+        LoggingService loggingService = new LoggingService();
+        ReflectionTestUtils.setField(loggingService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(loggingService, "bodyMaxChars", 2000);
+        loggingService.init();
+        writer = new GatewayLogWriter(loggingService, jdbcTemplate, new DataSourceTransactionManager(dataSource), spool, 10_000, 1_000, 100, 20, 50);
+
+        jdbcTemplate.execute("ALTER TABLE gateway_logs RENAME TO gateway_logs_moved");
+        writer.start();
+        for (int i = 0; i < 10; i++) writer.submit(event(null));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (spool.getAppendedCount() < 10 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(10, spool.getAppendedCount());
+
+        jdbcTemplate.execute("ALTER TABLE gateway_logs_moved RENAME TO gateway_logs");
+        while (spool.hasPending() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        writer.stop();
+        spool.close();
+
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM gateway_logs", Integer.class));
+        assertEquals(10, spool.getReplayedCount());
+    }
+
+    @Test
+    void DB_insert_가_막혀도_넘친_로그는_스풀에_기록() throws Exception {
+        writer.stop();
+        LogSpool spool = new LogSpool(tempDir.resolve("spool").toString(), 64 * 1024, 8, LogSpool.DropPolicy.DROP_NEWEST);
+        spool.open();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JdbcTemplate blocking = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.batchUpdate(sql, batchArgs, batchSize, pss);
+            }
+        };
+        writer = new GatewayLogWriter(newLoggingService(), blocking, new DataSourceTransactionManager(dataSource), spool, 1, 1_000, 1, 20, 50);
+        writer.start();
+
+        writer.submit(event(null));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 6; i++) writer.submit(event(null)); // 1건은 큐, 나머지 5건은 overflow
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (spool.getAppendedCount() < 5 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(5, spool.getAppendedCount());
+        assertEquals(1, release.getCount()); // insert 는 아직 막혀 있음
+
+        release.countDown();
+        writer.stop();
+        spool.close();
+        assertEquals(0, writer.getDroppedCount());
+    }
+
+    private static LoggingService newLoggingService() {
+        LoggingService loggingService = new LoggingService();
+        ReflectionTestUtils.setField(loggingService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(loggingService, "bodyMaxChars", 2000);
+        loggingService.init();
+        return loggingService;
+    }
+
+    private static LogEvent event(String error) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Authorization", "secret-key");
+        headers.add("Content-Type", "application/json");
+        long now = System.currentTimeMillis();
+        return LogEvent.builder()
+                .userId("user1")
+                .apiId("LLM_RAG")
+                .method("POST")
+                .path("http://upstream/rag")
+                .queryParam("{}")
+                .requestHeaders(headers)
+                .contentType("application/json")
+                .requestBody("{\"password\":\"p\",\"q\":\"hello\"}")
+                .statusCode(error == null ? 200 : 500)
+                .responseBody("{\"answer\":\"hi\"}")
+                .latencyMs(12)
+                .requestedAtMillis(now - 12)
+                .respondedAtMillis(now)
+                .clientIp("127.0.0.1")
+                .userAgent("junit")
+                .errorMessage(error)
+                .build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.kdn.ets.api_gateway.logging;
+
+import com.kdn.ets.api_gateway.entity.GatewayLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSpoolTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void 기록한_레코드를_그대로_읽음() throws Exception {
+        LogSpool spool = open(64 * 1024, 4, LogSpool.DropPolicy.DROP_NEWEST);
+        assertTrue(spool.append(row(1)));
+        assertTrue(spool.append(row(2)));
+
+        List<GatewayLog> rows = spool.peek(10);
+        assertEquals(2, rows.size());
+        assertEquals("user-1", rows.get(0).getUserId());
+        assertEquals(2, rows.get(1).getStatusCode());
+        assertNull(rows.get(0).getErrorMessage());
+        assertEquals(LocalDateTime.of(2026, 1, 2, 3, 4, 5), rows.get(0).getRequestedAt());
+
+        spool.commit();
+        assertFalse(spool.hasPending());
+        spool.close();
+    }
+
+    @Test
+    void 재시작_후_커밋되지_않은_레코드부터_다시_읽음() throws Exception {
+        LogSpool spool = open(64 * 1024, 4, LogSpool.DropPolicy.DROP_NEWEST);
+        for (int i = 0; i < 5; i++) spool.append(row(i));
+        assertEquals(2, spool.peek(2).size());
+        spool.commit();
+        spool.close(); // 프로세스 종료 흉내
+
+        LogSpool reopened = open(64 * 1024, 4, LogSpool.DropPolicy.DROP_NEWEST);
+        assertEquals(3, reopened.getPendingRecords());
+        List<GatewayLog> rows = reopened.peek(10);
+        assertEquals(3, rows.size());
+        assertEquals("user-2", rows.get(0).getUserId());
+        reopened.close();
+    }
+
+    @Test
+    void 세그먼트를_넘어가며_기록하고_다_읽은_세그먼트는_삭제() throws Exception {
+        LogSpool spool = open(4 * 1024, 100, LogSpool.DropPolicy.DROP_NEWEST);
+        for (int i = 0; i < 200; i++) assertTrue(spool.append(row(i)));
+        assertTrue(spool.getSegmentCount() > 1);
+
+        int total = 0;
+        while (spool.hasPending()) {
+            List<GatewayLog> rows = spool.peek(37);
+            for (GatewayLog r : rows) assertEquals("user-" + (total++), r.getUserId());
+            spool.commit();
+        }
+        assertEquals(200, total);
+        assertEquals(1, spool.getSegmentCount());
+        spool.close();
+    }
+
+    @Test
+    void 가득_차면_정책에_따라_버림() throws Exception {
+        LogSpool newest = open(4 * 1024, 2, LogSpool.DropPolicy.DROP_NEWEST);
+        int accepted = 0;
+        for (int i = 0; i < 200; i++) if (newest.append(row(i))) accepted++;
+        assertTrue(accepted < 200);
+        assertEquals("user-0", newest.peek(1).get(0).getUserId());
+        newest.close();
+
+        LogSpool oldest = new LogSpool(dir.resolve("oldest").toString(), 4 * 1024, 2, LogSpool.DropPolicy.DROP_OLDEST);
+        oldest.open();
+        for (int i = 0; i < 200; i++) assertTrue(oldest.append(row(i)));
+        assertTrue(oldest.getDroppedSegmentCount() > 0);
+        List<GatewayLog> rows = oldest.peek(1000);
+        assertEquals("user-199", rows.get(rows.size() - 1).getUserId());
+        oldest.close();
+    }
+
+    @Test
+    void 읽는_중에_오래된_세그먼트를_버려도_남은_건수가_맞음() throws Exception {
+        LogSpool spool = new LogSpool(dir.resolve("peek").toString(), 4 * 1024, 3, LogSpool.DropPolicy.DROP_OLDEST);
+        spool.open();
+        int i = 0;
+        while (spool.getSegmentCount() < 2) spool.append(row(i++));
+        // 첫 세그먼트를 넘어 두 번째 세그먼트까지 읽어 둔 상태에서
+        assertEquals(i, spool.peek(1000).size());
+        // 가득 차서 가장 오래된 세그먼트를 버리면 진행 중인 peek 은 무효가 되고
+        while (spool.getDroppedSegmentCount() == 0) spool.append(row(i++));
+        spool.commit();
+
+        // 남은 건수는 실제로 다시 읽히는 건수와 같아야 함 (버린 레코드를 두 번 빼지 않음)
+        long pending = spool.getPendingRecords();
+        int replayed = 0;
+        while (spool.hasPending()) {
+            replayed += spool.peek(1000).size();
+            spool.commit();
+        }
+        assertEquals(pending, replayed);
+        assertEquals(0, spool.getPendingRecords());
+        spool.close();
+    }
+
+    @Test
+    void 강제_기록은_닫힌_세그먼트를_건너뜀() throws Exception {
+        LogSpool spool = open(4 * 1024, 100, LogSpool.DropPolicy.DROP_NEWEST);
+        for (int i = 0; i < 200; i++) spool.append(row(i));
+        while (spool.hasPending()) {
+            spool.peek(1000);
+            spool.commit(); // 다 쓴 세그먼트가 삭제(매핑 해제)된 뒤에도
+        }
+        spool.force();  // 강제 기록 대상에서 안전하게 빠져야 함
+        spool.close();
+        spool.force();
+    }
+
+    private LogSpool open(int segmentBytes, int maxSegments, LogSpool.DropPolicy policy) throws Exception {
+        LogSpool spool = new LogSpool(dir.toString(), segmentBytes, maxSegments, policy);
+        spool.open();
+        return spool;
+    }
+
+    private static GatewayLog row(int i) {
+        return GatewayLog.builder()
+                .userId("user-" + i)
+                .apiId("LLM_RAG")
+                .method("POST")
+                .path("http://upstream/rag")
+                .headers("{\"Authorization\":\"**********\"}")
+                .body("{\"q\":\"안녕하세요\"}")
+                .statusCode(i)
+                .response("{\"answer\":\"hi\"}")
+                .requestedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5))
+                .respondedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 6))
+                .latencyMs(10)
+                .clientIp("127.0.0.1")
+                .isSuccess("Y")
+                .build();
+    }
+}
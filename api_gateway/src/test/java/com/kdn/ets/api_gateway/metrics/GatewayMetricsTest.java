@@ -0,0 +1,57 @@
+package com.kdn.ets.api_gateway.metrics;
+
+import com.kdn.ets.api_gateway.helper.RequestTimings;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GatewayMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GatewayMetrics metrics = new GatewayMetrics(registry);
+
+    @Test
+    void 상태별_요청과_기록된_단계만_라우트별로_집계() {
+        RequestTimings timings = RequestTimings.start();
+        timings.markRouted();
+        timings.markAuthorized();
+
+        metrics.record("LLM_RAG", "POST", 200, timings);
+        metrics.record("LLM_RAG", "POST", 502, timings);
+
+        assertEquals(2, phase("LLM_RAG", "route").count());
+        assertEquals(2, phase("LLM_RAG", "auth").count());
+        assertEquals(2, phase("LLM_RAG", "total").count());
+        assertEquals(0, phase("LLM_RAG", "connect").count());
+        assertEquals(1, request("LLM_RAG", "POST", "200").count());
+        assertEquals(1, request("LLM_RAG", "POST", "502").count());
+    }
+
+    @Test
+    void 라우트가_없으면_unmatched_로_묶음() {
+        metrics.record(null, "GET", 404, RequestTimings.start());
+
+        assertEquals(1, phase(GatewayMetrics.UNMATCHED, "total").count());
+        assertNull(registry.find("gateway.request.phase").tag("api_id", "null").timer());
+    }
+
+    @Test
+    void 비표준_메서드는_OTHER_로_묶음() {
+        metrics.record(null, "FOO", 405, RequestTimings.start());
+        metrics.record(null, "BAR", 405, RequestTimings.start());
+
+        assertEquals(2, request(GatewayMetrics.UNMATCHED, GatewayMetrics.OTHER_METHOD, "405").count());
+        assertNull(registry.find("gateway.requests").tag("method", "FOO").timer());
+    }
+
+    private Timer request(String apiId, String method, String status) {
+        return registry.get("gateway.requests").tag("api_id", apiId).tag("method", method).tag("status", status).timer();
+    }
+
+    private Timer phase(String apiId, String phase) {
+        return registry.get("gateway.request.phase").tag("api_id", apiId).tag("phase", phase).timer();
+    }
+}
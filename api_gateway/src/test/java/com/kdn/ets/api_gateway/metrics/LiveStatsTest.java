@@ -0,0 +1,79 @@
+package com.kdn.ets.api_gateway.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveStatsTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final LiveStats stats = new LiveStats(2, clock::get);
+
+    @Test
+    void api_사용자_상태별로_집계하고_백분위_계산() {
+        advance(30);
+        for (int i = 1; i <= 100; i++) {
+            stats.record("LLM_RAG", "u1", 200, TimeUnit.MILLISECONDS.toNanos(i), false);
+        }
+        stats.record("LLM_RAG", "u2", 502, TimeUnit.MILLISECONDS.toNanos(5), false);
+        stats.record(null, null, 401, TimeUnit.MILLISECONDS.toNanos(1), true);
+
+        Map<String, Object> m = stats.snapshot(1);
+        Map<String, Object> api = section(m, "apis", "LLM_RAG");
+        assertEquals(101L, api.get("count"));
+        assertEquals(1L, api.get("errors"));
+        double p50 = (Double) api.get("p50_ms");
+        double p99 = (Double) api.get("p99_ms");
+        assertTrue(p50 > 44 && p50 < 56, "p50=" + p50);
+        assertTrue(p99 > 88 && p99 <= 100, "p99=" + p99);
+        assertEquals(100.0, api.get("max_ms"));
+
+        assertEquals(1L, section(m, "apis", GatewayMetrics.UNMATCHED).get("count"));
+        assertEquals(100L, section(m, "users", "u1").get("count"));
+        // max-keys=2 → 세 번째 사용자(익명)는 _other 로 묶임
+        assertEquals(1L, section(m, "users", LiveStats.OTHER).get("count"));
+        assertEquals(1L, section(m, "statuses", "502").get("errors"));
+        assertEquals(102L, section(m, "total", null).get("count"));
+        assertFalse(section(m, "users", "u1").containsKey("p50_ms"));
+    }
+
+    @Test
+    void 지난_구간은_창에서_빠짐() {
+        stats.record("A", "u1", 200, 1_000_000, false);
+        advance(90);
+        stats.record("A", "u1", 200, 1_000_000, false);
+
+        assertEquals(1L, section(stats.snapshot(1), "total", null).get("count"));
+        assertEquals(2L, section(stats.snapshot(5), "total", null).get("count"));
+
+        advance(TimeUnit.MINUTES.toSeconds(61));
+        assertEquals(0L, section(stats.snapshot(60), "total", null).get("count"));
+        assertTrue(section(stats.snapshot(60), "apis", null).isEmpty());
+    }
+
+    @Test
+    void 히스토그램_버킷_경계가_값을_포함() {
+        for (long us = 0; us < 200_000_000L; us = us * 3 / 2 + 7) {
+            int b = SlidingWindow.bucket(us);
+            if (b == 83) break; // 마지막 버킷은 상한 없음
+            assertTrue(SlidingWindow.lowerMicros(b) <= us && us < SlidingWindow.upperMicros(b), "us=" + us);
+            assertEquals(SlidingWindow.upperMicros(b), SlidingWindow.lowerMicros(b + 1));
+        }
+    }
+
+    private void advance(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> snapshot, String name, String key) {
+        Map<String, Object> section = (Map<String, Object>) snapshot.get(name);
+        return key == null ? section : (Map<String, Object>) section.get(key);
+    }
+}
@@ -0,0 +1,164 @@
+package com.kdn.ets.api_gateway.route;
+
+import com.kdn.ets.api_gateway.entity.ApiRoute;
+import com.kdn.ets.api_gateway.repository.ApiRouteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RouteTableTest {
+
+    private final ApiRouteRepository repository = mock(ApiRouteRepository.class);
+    private final RouteTable table = new RouteTable(repository);
+
+    @Test
+    void 기존_api_id_는_그대로_일치하고_결과를_재사용() {
+        load(route("ECHO", "POST", "http://up/echo"), route("HELLO", "GET", "http://up/hello"));
+
+        RouteMatch match = table.match("/ECHO", HttpMethod.POST);
+        assertEquals("ECHO", match.getRoute().getApiId());
+        assertEquals(URI.create("http://up/echo"), match.downstreamUri());
+        assertSame(match, table.match("/ECHO", HttpMethod.POST));
+
+        assertNull(table.match("/ECHO", HttpMethod.GET));
+        assertNull(table.match("/ECHO/", HttpMethod.POST));
+        assertNull(table.match("/ECH", HttpMethod.POST));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void 패턴이_아닌_api_id_와_path_는_문자열_그대로_사용() {
+        load(route("TRAIL/", "GET", "http://up/trail"),
+             route("a//b", "GET", "http://up/ab"),
+             route("/LEAD", "GET", "http://up/lead"),
+             route("RAW", "GET", "http://up/raw?q={x}"));
+
+        assertEquals(4, table.size());
+        assertEquals("TRAIL/", table.match("/TRAIL/", HttpMethod.GET).getRoute().getApiId());
+        assertNull(table.match("/TRAIL", HttpMethod.GET));
+        assertEquals("a//b", table.match("/a//b", HttpMethod.GET).getRoute().getApiId());
+        assertNull(table.match("/a/b", HttpMethod.GET));
+        assertEquals("/LEAD", table.match("//LEAD", HttpMethod.GET).getRoute().getApiId());
+        assertNull(table.match("/LEAD", HttpMethod.GET));
+        // 변수가 없는 api_id 의 path 는 템플릿으로 해석하지 않음
+        assertEquals("http://up/raw?q={x}", table.match("/RAW", HttpMethod.GET).getRoute().getPath());
+    }
+
+    @Test
+    void 변수를_캡처해_다운스트림_경로에_넣음() {
+        load(route("orders/{id}", "GET", "http://order/v1/orders/{id}?src=gw"),
+             route("orders/{id}/items/{item}", "GET", "http://order/v1/items/{item}?order={id}"),
+             route("orders/new", "GET", "http://order/v1/new"),
+             route("orders/{oid}", "POST", "http://order/v1/orders/{oid}/update"));
+
+        RouteMatch match = table.match("/orders/42", HttpMethod.GET);
+        assertEquals("orders/{id}", match.getRoute().getApiId());
+        assertEquals("42", match.variable("id"));
+        assertEquals(URI.create("http://order/v1/orders/42?src=gw"), match.downstreamUri());
+
+        assertEquals(URI.create("http://order/v1/items/7?order=42"),
+                     table.match("/orders/42/items/7", HttpMethod.GET).downstreamUri());
+        // 디코딩된 경로 값은 다시 인코딩
+        assertEquals(URI.create("http://order/v1/orders/a%20b?src=gw"),
+                     table.match("/orders/a b", HttpMethod.GET).downstreamUri());
+
+        // 일반 문자열 우선, 메서드가 없으면 변수 라우트로
+        assertEquals("orders/new", table.match("/orders/new", HttpMethod.GET).getRoute().getApiId());
+        assertEquals(URI.create("http://order/v1/orders/new/update"),
+                     table.match("/orders/new", HttpMethod.POST).downstreamUri());
+        assertNull(table.match("/orders", HttpMethod.GET));
+    }
+
+    @Test
+    void catch_all_은_나머지_경로_전체와_일치() {
+        load(route("files/{*rest}", "GET", "http://files/store/{rest}"),
+             route("files/meta/*", "GET", "http://files/meta"),
+             route("legacy/**", "GET", "http://legacy/"));
+
+        assertEquals(URI.create("http://files/store/a/b/c.txt"), table.match("/files/a/b/c.txt", HttpMethod.GET).downstreamUri());
+        assertEquals(URI.create("http://files/store/"), table.match("/files", HttpMethod.GET).downstreamUri());
+        assertEquals(URI.create("http://files/meta"), table.match("/files/meta/x", HttpMethod.GET).downstreamUri());
+        // files/meta/* 가 맞지 않으면 catch-all 로 되돌아감
+        assertEquals(URI.create("http://files/store/meta/x/y"), table.match("/files/meta/x/y", HttpMethod.GET).downstreamUri());
+        assertEquals("legacy/**", table.match("/legacy/any/thing", HttpMethod.GET).getRoute().getApiId());
+    }
+
+    @Test
+    void 점_세그먼트는_캡처하지_않음() {
+        load(route("orders/{id}", "GET", "http://order/v1/orders/{id}"),
+             route("files/{*rest}", "GET", "http://files/store/{rest}"));
+
+        // 변수 하나로 상위 경로를 가리키면 일치하지 않음 (404)
+        assertNull(table.match("/orders/..", HttpMethod.GET));
+        assertNull(table.match("/orders/.", HttpMethod.GET));
+        assertEquals("...", table.match("/orders/...", HttpMethod.GET).variable("id"));
+        assertEquals(".env", table.match("/orders/.env", HttpMethod.GET).variable("id"));
+
+        // catch-all 은 나머지 경로 어디에든 점 세그먼트가 있으면 일치하지 않음
+        assertNull(table.match("/files/..", HttpMethod.GET));
+        assertNull(table.match("/files/a/../../admin", HttpMethod.GET));
+        assertNull(table.match("/files/a/./b", HttpMethod.GET));
+        assertNull(table.match("/files/a/..", HttpMethod.GET));
+        assertEquals(URI.create("http://files/store/a/..b/c..d"),
+                     table.match("/files/a/..b/c..d", HttpMethod.GET).downstreamUri());
+    }
+
+    @Test
+    void 잘못된_패턴과_중복_패턴은_건너뜀() {
+        load(route("a/{id}", "GET", "http://up/{id}"),
+             route("a/{other}", "GET", "http://up/other"),
+             route("b/{*rest}/c", "GET", "http://up/"),
+             route("c/{id}", "GET", "http://up/{missing}"),
+             route("d/file-{id}", "GET", "http://up/"));
+
+        assertEquals(1, table.size());
+        assertEquals("a/{id}", table.match("/a/1", HttpMethod.GET).getRoute().getApiId());
+        assertThrows(IllegalArgumentException.class, () -> RoutePattern.parse("x/{id}/{id}"));
+    }
+
+    @Test
+    void 타임아웃은_라우트_값이_없으면_기본값() {
+        ReflectionTestUtils.setField(table, "defaultConnectTimeoutMs", 10_000);
+        ReflectionTestUtils.setField(table, "defaultResponseTimeoutMs", 120_000);
+        ReflectionTestUtils.setField(table, "defaultIdleTimeoutMs", 120_000);
+        ApiRoute lookup = route("LOOKUP", "GET", "http://up/lookup");
+        ReflectionTestUtils.setField(lookup, "connectTimeoutMs", 500);
+        ReflectionTestUtils.setField(lookup, "responseTimeoutMs", 2_000);
+        ReflectionTestUtils.setField(lookup, "idleTimeoutMs", -1);
+        load(lookup, route("LLM", "POST", "http://up/llm"));
+
+        CompiledRoute fast = table.match("/LOOKUP", HttpMethod.GET).getRoute();
+        assertEquals(500, fast.getConnectTimeoutMs());
+        assertEquals(2_000, fast.getResponseTimeoutMs());
+        assertEquals(0, fast.getIdleTimeoutMs()); // 음수는 0 (HttpClient 기본값)
+
+        CompiledRoute llm = table.match("/LLM", HttpMethod.POST).getRoute();
+        assertEquals(10_000, llm.getConnectTimeoutMs());
+        assertEquals(120_000, llm.getResponseTimeoutMs());
+        assertEquals(120_000, llm.getIdleTimeoutMs());
+    }
+
+    private void load(ApiRoute... rows) {
+        when(repository.findAll()).thenReturn(Arrays.asList(rows));
+        table.refresh();
+    }
+
+    private static ApiRoute route(String apiId, String method, String path) {
+        ApiRoute row = new ApiRoute();
+        ReflectionTestUtils.setField(row, "apiId", apiId);
+        ReflectionTestUtils.setField(row, "method", method);
+        ReflectionTestUtils.setField(row, "path", path);
+        ReflectionTestUtils.setField(row, "useYn", "Y");
+        return row;
+    }
+}
@@ -0,0 +1,103 @@
+package com.kdn.ets.api_gateway.service;
+
+import com.kdn.ets.api_gateway.auth.PermissionMatrix;
+import com.kdn.ets.api_gateway.exception.ApiException;
+import com.kdn.ets.api_gateway.repository.ApiKeyRepository;
+import com.kdn.ets.api_gateway.repository.ApiKeyRepository.ApiKeyOwner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String SALT = "test-salt";
+
+    private AuthService authService;
+    private ApiKeyRepository apiKeyRepository;
+    private PermissionMatrix permissionMatrix;
+
+    @BeforeEach
+    void setUp() {
+        apiKeyRepository = mock(ApiKeyRepository.class);
+        permissionMatrix = mock(PermissionMatrix.class);
+
+        authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "apiSalt", SALT);
+        ReflectionTestUtils.setField(authService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(authService, "cacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(authService, "negativeTtl", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(authService, "apiKeyRepository", apiKeyRepository);
+        ReflectionTestUtils.setField(authService, "permissionMatrix", permissionMatrix);
+        authService.init();
+    }
+
+    @Test
+    void hashWithSalt_기존_해시와_동일() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest((SALT + "my-key").getBytes(StandardCharsets.UTF_8));
+        StringBuilder expected = new StringBuilder();
+        for (byte b : hash) expected.append(String.format("%02x", b));
+
+        assertEquals(expected.toString(), authService.hashWithSalt("my-key"));
+    }
+
+    @Test
+    void 두번째_요청은_DB를_조회하지_않음() {
+        String hashed = authService.hashWithSalt("my-key");
+        when(apiKeyRepository.findOwnerByApiKey(hashed)).thenReturn(Optional.of(owner("user1", "Y")));
+        when(permissionMatrix.isAllowed("user1", "LLM_RAG")).thenReturn(true);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("user1", authService.verifyAndGetUserId(request("my-key"), "LLM_RAG").block());
+        }
+
+        verify(apiKeyRepository, times(1)).findOwnerByApiKey(anyString());
+    }
+
+    @Test
+    void 비활성_사용자는_403() {
+        when(apiKeyRepository.findOwnerByApiKey(anyString())).thenReturn(Optional.of(owner("user1", "N")));
+
+        ApiException ex = assertThrows(ApiException.class,
+                () -> authService.verifyAndGetUserId(request("my-key"), "LLM_RAG").block());
+        assertEquals(403, ex.getStatusCode());
+    }
+
+    @Test
+    void 무효화_후에는_다시_조회() {
+        when(apiKeyRepository.findOwnerByApiKey(anyString())).thenReturn(Optional.of(owner("user1", "Y")));
+        when(permissionMatrix.isAllowed("user1", "LLM_RAG")).thenReturn(true);
+
+        authService.verifyAndGetUserId(request("my-key"), "LLM_RAG").block();
+        authService.invalidateUser("user1");
+        authService.verifyAndGetUserId(request("my-key"), "LLM_RAG").block();
+
+        verify(apiKeyRepository, times(2)).findOwnerByApiKey(anyString());
+        verify(permissionMatrix).reloadUser("user1");
+    }
+
+    private static MockServerHttpRequest request(String apiKey) {
+        return MockServerHttpRequest.post("/LLM_RAG").header("Authorization", apiKey).build();
+    }
+
+    private static ApiKeyOwner owner(String userId, String useYn) {
+        return new ApiKeyOwner() {
+            @Override public String getUserId() { return userId; }
+            @Override public String getUseYn() { return useYn; }
+        };
+    }
+}
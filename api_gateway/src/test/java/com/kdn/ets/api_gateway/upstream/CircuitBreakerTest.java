@@ -0,0 +1,124 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kdn.ets.api_gateway.exception.CircuitOpenException;
+import com.kdn.ets.api_gateway.exception.GlobalExceptionHandler;
+import com.kdn.ets.api_gateway.helper.GatewayLogHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class CircuitBreakerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong(-5_000 * MS); // nanoTime 은 음수일 수 있음
+    // 최소 10건, 실패 50%, 1초 이상이면 느린 호출(80%), 5초 열림, 시험 2건, 창 10초
+    private final CircuitBreaker breaker = new CircuitBreaker("ECHO",
+            new CircuitBreaker.Config(10, 50, 1000, 80, 5000, 2, 10_000, 10), now::get);
+
+    @Test
+    void 실패_비율이_넘으면_열리고_시험_호출_후_닫힘() {
+        for (int i = 0; i < 4; i++) breaker.tryAcquire().complete(503);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState()); // 최소 호출 수 미달
+        for (int i = 0; i < 5; i++) breaker.tryAcquire().complete(200);
+        breaker.tryAcquire().fail();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState()); // 5 / 10
+
+        assertNull(breaker.tryAcquire());
+        assertEquals(5, breaker.retryAfterSeconds());
+        assertEquals(503, breaker.rejection().getStatusCode());
+        assertTrue(breaker.rejection().getBody().contains("\"circuit\":\"ECHO\""));
+
+        now.addAndGet(5000 * MS);
+        CircuitBreaker.Call first = breaker.tryAcquire();
+        CircuitBreaker.Call second = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire()); // 시험 호출 2건까지만
+        second.ignore();                  // 취소되면 허용 건수를 돌려줌
+        CircuitBreaker.Call third = breaker.tryAcquire();
+        assertNotNull(third);
+
+        first.complete(200);
+        third.complete(200);
+        third.fail(); // 두 번째 기록은 무시
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertNotNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void 공유_거절_예외에는_suppressed_가_쌓이지_않음() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(
+                mock(GatewayLogHelper.class), new ObjectMapper(), mock(Environment.class));
+        CircuitOpenException rejection = breaker.rejection();
+
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/ECHO"));
+            Mono.<Void>error(breaker.rejection())
+                    .checkpoint("ECHO")
+                    .onErrorResume(e -> handler.handle(exchange, e))
+                    .block();
+            assertEquals(503, exchange.getResponse().getRawStatusCode());
+        }
+        assertSame(rejection, breaker.rejection());
+        assertEquals(0, rejection.getSuppressed().length);
+        assertEquals(0, rejection.getStackTrace().length);
+    }
+
+    @Test
+    void 시험_호출이_실패하면_다시_열림() {
+        for (int i = 0; i < 10; i++) breaker.tryAcquire().complete(502);
+        now.addAndGet(5000 * MS);
+        breaker.tryAcquire().complete(500);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void 느린_호출_비율과_지난_구간은_창에서_제외() {
+        for (int i = 0; i < 9; i++) {
+            CircuitBreaker.Call call = breaker.tryAcquire();
+            now.addAndGet(1500 * MS);
+            call.complete(200);
+        }
+        // 앞의 느린 호출 중 일부는 10초 창을 벗어남
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        for (int i = 0; i < 12; i++) {
+            CircuitBreaker.Call call = breaker.tryAcquire();
+            if (call == null) break; // 열림
+            now.addAndGet(1001 * MS);
+            call.complete(200);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void 서킷이_열린_대상은_부하_분산에서_제외() {
+        UpstreamTarget a = new UpstreamTarget(1, "ECHO", "http://a", null, 1);
+        UpstreamTarget b = new UpstreamTarget(2, "ECHO", "http://b", null, 1);
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry(true, 1, 50, 0, 0, 60_000, 1, 10_000);
+        CircuitBreaker breakerA = registry.breaker("ECHO", a);
+        assertSame(breakerA, registry.breaker("ECHO", a));
+        assertSame(registry.breaker("HELLO", null), registry.breaker("HELLO", null));
+
+        breakerA.tryAcquire().fail();
+        assertFalse(a.isAvailable());
+        TargetGroup group = new TargetGroup(LbPolicy.ROUND_ROBIN, Arrays.asList(a, b));
+        for (int i = 0; i < 10; i++) assertSame(b, group.choose());
+        assertNull(new CircuitBreakerRegistry(false, 1, 50, 0, 0, 60_000, 1, 10_000).breaker("HELLO", null));
+    }
+}
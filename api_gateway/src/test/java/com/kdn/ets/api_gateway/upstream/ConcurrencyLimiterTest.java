@@ -0,0 +1,101 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kdn.ets.api_gateway.exception.ApiException;
+import com.kdn.ets.api_gateway.exception.DeadlineExceededException;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong(-5_000 * MS); // nanoTime 은 음수일 수 있음
+    // 초기 10, 2~100, 허용 1.5배, 그대로 반영(smoothing 1), 과부하 시 절반, 1초 창 10건 이상, 장기 평균 10개 창
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter("HELLO",
+            new ConcurrencyLimiter.Config(10, 2, 100, 1.5, 1.0, 0.5, 1000, 10, 10), now::get);
+
+    @Test
+    void 한도까지만_허용하고_반환하면_다시_허용() {
+        List<ConcurrencyLimiter.Permit> permits = acquire(10);
+        assertNull(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+
+        permits.get(0).release();
+        permits.get(0).release(); // 두 번째 반환은 무시
+        assertEquals(9, limiter.getInflight());
+        assertNotNull(limiter.tryAcquire());
+        assertNull(limiter.tryAcquire());
+
+        assertEquals(503, limiter.rejection().getStatusCode());
+        assertEquals(1, limiter.rejection().retryAfterSeconds());
+        assertTrue(limiter.rejection().getBody().contains("\"api_id\":\"HELLO\""));
+    }
+
+    @Test
+    void 공유_거절_예외에는_suppressed_가_쌓이지_않음() {
+        for (int i = 0; i < 2; i++) {
+            // 요청마다 같은 인스턴스를 checkpoint 가 지나감
+            RuntimeException thrown = assertThrows(RuntimeException.class,
+                    () -> Mono.error(limiter.rejection()).checkpoint("HELLO").block());
+            assertSame(limiter.rejection(), thrown);
+        }
+        assertEquals(0, limiter.rejection().getSuppressed().length);
+    }
+
+    @Test
+    void 지연이_그대로면_늘리고_늘어나면_줄이고_과부하_신호면_크게_줄임() {
+        complete(acquire(10), 1000, false);
+        assertEquals(13, limiter.getLimit()); // 10 + sqrt(10)
+
+        complete(acquire(10), 10_000, false); // 10배 느려짐 → 0.5 x 13.16 + sqrt(13.16)
+        assertEquals(10, limiter.getLimit());
+
+        complete(acquire(10), 1000, true);
+        assertEquals(5, limiter.getLimit());
+
+        // 한도의 절반도 쓰지 않으면 늘리지 않음
+        for (int i = 0; i < 5; i++) complete(acquire(2), 300, false);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void 타임아웃과_과부하_응답만_과부하_신호() {
+        assertTrue(ConcurrencyLimiter.isTimeout(new DeadlineExceededException("SLOW", true)));
+        // 클라이언트가 줄인 기한 / 보내기 전에 이미 지난 기한은 과부하 신호 아님
+        assertFalse(ConcurrencyLimiter.isTimeout(new DeadlineExceededException("SLOW", false)));
+        assertFalse(ConcurrencyLimiter.isTimeout(new ApiException(504, "deadline")));
+        assertTrue(ConcurrencyLimiter.isTimeout(new RuntimeException(ReadTimeoutException.INSTANCE)));
+        assertFalse(ConcurrencyLimiter.isTimeout(new ApiException(401, "unauthorized")));
+        assertTrue(ConcurrencyLimiter.isOverloadStatus(503));
+        assertFalse(ConcurrencyLimiter.isOverloadStatus(500));
+    }
+
+    private List<ConcurrencyLimiter.Permit> acquire(int n) {
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < n; i++) permits.add(limiter.tryAcquire());
+        return permits;
+    }
+
+    private void complete(List<ConcurrencyLimiter.Permit> permits, long rttMs, boolean drop) {
+        now.addAndGet(rttMs * MS);
+        for (ConcurrencyLimiter.Permit p : permits) {
+            p.record(drop);
+            p.release();
+        }
+    }
+}
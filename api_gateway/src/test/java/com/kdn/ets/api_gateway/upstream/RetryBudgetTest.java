@@ -0,0 +1,46 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(-3 * SECOND); // nanoTime 은 음수일 수 있음
+
+    @Test
+    void 요청_수의_비율과_최소_허용량까지만_재시도() {
+        // 20% + 초당 1건 (10초 창 → 10건)
+        RetryBudget budget = new RetryBudget(20, 1, now::get);
+        for (int i = 0; i < 100; i++) budget.onRequest();
+
+        for (int i = 0; i < 30; i++) assertTrue(budget.tryWithdraw(), "retry " + i);
+        assertFalse(budget.tryWithdraw());
+
+        budget.onRequest();
+        budget.onRequest();
+        budget.onRequest();
+        budget.onRequest();
+        budget.onRequest(); // 105건 → 21 + 10
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    void 창이_지나면_예산이_다시_채워짐() {
+        RetryBudget budget = new RetryBudget(0, 1, now::get);
+        for (int i = 0; i < 10; i++) assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        now.addAndGet(5 * SECOND);
+        assertFalse(budget.tryWithdraw()); // 아직 10초 안
+
+        now.addAndGet(5 * SECOND);
+        assertTrue(budget.tryWithdraw());
+    }
+}
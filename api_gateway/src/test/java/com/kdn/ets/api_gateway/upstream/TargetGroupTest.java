@@ -0,0 +1,113 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TargetGroupTest {
+
+    @Test
+    void 라운드로빈은_가중치_비율대로_고르게_섞어_선택() {
+        UpstreamTarget a = target(1, 5), b = target(2, 1), c = target(3, 1);
+        TargetGroup group = new TargetGroup(LbPolicy.ROUND_ROBIN, Arrays.asList(a, b, c));
+
+        assertArrayEquals(new int[] {0, 0, 1, 0, 2, 0, 0}, TargetGroup.smoothSchedule(new int[] {5, 1, 1}, 7));
+        Map<UpstreamTarget, Integer> counts = count(group, 700);
+        assertEquals(500, counts.get(a));
+        assertEquals(100, counts.get(b));
+        assertEquals(100, counts.get(c));
+    }
+
+    @Test
+    void 제외된_대상은_건너뛰고_모두_제외되면_전체에서_선택() {
+        UpstreamTarget a = target(1, 1), b = target(2, 1);
+        for (LbPolicy policy : LbPolicy.values()) {
+            TargetGroup group = new TargetGroup(policy, Arrays.asList(a, b));
+            fail(a, 2);
+            for (int i = 0; i < 50; i++) assertSame(b, group.choose(), policy.name());
+
+            fail(b, 2);
+            Map<UpstreamTarget, Integer> counts = count(group, 200);
+            assertEquals(200, counts.values().stream().mapToInt(Integer::intValue).sum());
+
+            recover(a, 2);
+            recover(b, 2);
+        }
+    }
+
+    @Test
+    void 처리_중_요청이_적은_대상을_선택() {
+        UpstreamTarget a = target(1, 1), b = target(2, 1), c = target(3, 2);
+        TargetGroup least = new TargetGroup(LbPolicy.LEAST_OUTSTANDING, Arrays.asList(a, b, c));
+        a.acquire(); a.acquire();
+        b.acquire();
+        c.acquire(); c.acquire(); c.acquire();
+        // 처리 중 / 가중치: a=2, b=1, c=1.5
+        for (int i = 0; i < 10; i++) assertSame(b, least.choose());
+
+        // POWER_OF_TWO: 가장 바쁜 대상은 (둘 다 같은 대상을 뽑은 경우가 아니면) 덜 선택됨
+        UpstreamTarget idle = target(4, 1), busy = target(5, 1);
+        for (int i = 0; i < 10; i++) busy.acquire();
+        Map<UpstreamTarget, Integer> counts = count(new TargetGroup(LbPolicy.POWER_OF_TWO, Arrays.asList(idle, busy)), 1000);
+        assertTrue(counts.getOrDefault(busy, 0) < 400, counts.toString());
+    }
+
+    @Test
+    void 재시도_대상은_직전_대상을_피하고_라운드로빈_순서를_건드리지_않음() {
+        UpstreamTarget a = target(1, 1), b = target(2, 1), c = target(3, 1);
+        TargetGroup group = new TargetGroup(LbPolicy.ROUND_ROBIN, Arrays.asList(a, b, c));
+        fail(b, 2);
+        for (int i = 0; i < 20; i++) assertSame(c, group.chooseOther(a));
+        assertSame(a, group.choose());
+
+        UpstreamTarget only = target(4, 1);
+        assertSame(only, new TargetGroup(LbPolicy.ROUND_ROBIN, Arrays.asList(only)).chooseOther(only));
+    }
+
+    @Test
+    void 상태_확인_임계값과_URI_교체() {
+        UpstreamTarget t = target(1, 1);
+        assertFalse(t.markFailure(2));
+        assertTrue(t.isHealthy());
+        assertTrue(t.markFailure(2));
+        assertFalse(t.isHealthy());
+        assertFalse(t.markSuccess(2));
+        assertFalse(t.markFailure(2)); // 이미 제외됨, 연속 성공 횟수 초기화
+        assertFalse(t.markSuccess(2));
+        assertTrue(t.markSuccess(2));
+        assertTrue(t.isHealthy());
+
+        assertEquals(URI.create("http://10.0.0.1:8080/v1/orders/a%20b?x=1"),
+                t.resolve(URI.create("http://order/v1/orders/a%20b?x=1")));
+        assertNotSame(LbPolicy.ROUND_ROBIN, LbPolicy.parse("p2c", LbPolicy.ROUND_ROBIN));
+        assertEquals(LbPolicy.LEAST_OUTSTANDING, LbPolicy.parse("least-outstanding", LbPolicy.ROUND_ROBIN));
+    }
+
+    private static Map<UpstreamTarget, Integer> count(TargetGroup group, int n) {
+        Map<UpstreamTarget, Integer> counts = new HashMap<>();
+        for (int i = 0; i < n; i++) counts.merge(group.choose(), 1, Integer::sum);
+        return counts;
+    }
+
+    private static void fail(UpstreamTarget t, int times) {
+        for (int i = 0; i < times; i++) t.markFailure(times);
+    }
+
+    private static void recover(UpstreamTarget t, int times) {
+        for (int i = 0; i < times; i++) t.markSuccess(times);
+    }
+
+    private static UpstreamTarget target(int id, int weight) {
+        return new UpstreamTarget(id, "API", "http://10.0.0." + id + ":8080", null, weight);
+    }
+}
@@ -0,0 +1,270 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.kdn.ets.api_gateway.entity.ApiRoute;
+import com.kdn.ets.api_gateway.exception.DeadlineExceededException;
+import com.kdn.ets.api_gateway.metrics.LiveStats;
+import com.kdn.ets.api_gateway.repository.ApiRouteRepository;
+import com.kdn.ets.api_gateway.route.CompiledRoute;
+import com.kdn.ets.api_gateway.route.RouteTable;
+
+import io.netty.channel.ConnectTimeoutException;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UpstreamDispatcherTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final LiveStats liveStats = mock(LiveStats.class);
+    // p95, 20ms ~ 2000ms, 표본 50건 이상
+    private final UpstreamDispatcher dispatcher = new UpstreamDispatcher(
+            mock(CircuitBreakerRegistry.class), new RetryBudget(20, 5), liveStats, 0.95, 20, 2000, 50, 10_000, 120_000, "X-Request-Timeout-Ms");
+
+    @Test
+    void 헤징_지연은_최근_백분위를_범위_안으로_자르고_1초마다_갱신() {
+        when(liveStats.percentileMicros("HELLO", 1, 0.95, 50)).thenReturn(-1L, 5_000L, 150_000L, 9_000_000L);
+
+        assertEquals(-1, dispatcher.hedgeDelayNanos("HELLO", 0)); // 표본 부족
+        assertEquals(-1, dispatcher.hedgeDelayNanos("HELLO", 999 * MS)); // 캐시
+        assertEquals(20 * MS, dispatcher.hedgeDelayNanos("HELLO", 1000 * MS)); // 5ms → 최소값
+        assertEquals(150 * MS, dispatcher.hedgeDelayNanos("HELLO", 2000 * MS));
+        assertEquals(2000 * MS, dispatcher.hedgeDelayNanos("HELLO", 3000 * MS)); // 9s → 최대값
+        verify(liveStats, times(4)).percentileMicros("HELLO", 1, 0.95, 50);
+    }
+
+    @Test
+    void 요청_기한은_클라이언트가_보낸_남은_시간으로_정하고_업스트림에_남은_시간을_전달() {
+        // 라우트 응답 타임아웃 없음 (0)
+        CompiledRoute route = new CompiledRoute("SLOW", "GET", "http://up/slow", null, true, 0, 0, 0);
+        assertEquals(UpstreamDispatcher.NO_DEADLINE,
+                dispatcher.deadlineNanos(MockServerHttpRequest.get("/SLOW").build(), route, null));
+        assertEquals(UpstreamDispatcher.NO_DEADLINE, dispatcher.deadlineNanos(
+                MockServerHttpRequest.get("/SLOW").header("X-Request-Timeout-Ms", "1.5s").build(), route, null));
+
+        long before = System.nanoTime();
+        long deadline = dispatcher.deadlineNanos(
+                MockServerHttpRequest.get("/SLOW").header("x-request-timeout-ms", "300").build(), route, null);
+        assertTrue(deadline - before >= 300 * MS && deadline - System.nanoTime() <= 300 * MS);
+        assertFalse(UpstreamDispatcher.isExpired(deadline));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Request-Timeout-Ms", "300");
+        dispatcher.propagateDeadline(headers, deadline);
+        long remaining = Long.parseLong(headers.getFirst("X-Request-Timeout-Ms"));
+        assertTrue(remaining > 0 && remaining <= 300, headers.toString());
+
+        // 터무니없이 큰 값은 기한 없음 (ns 환산 오버플로 방지), 라우트 타임아웃이 있으면 그 값
+        assertEquals(UpstreamDispatcher.NO_DEADLINE, dispatcher.deadlineNanos(
+                MockServerHttpRequest.get("/SLOW").header("X-Request-Timeout-Ms", "999999999999999999").build(), route, null));
+        CompiledRoute bounded = route("BOUNDED", "N", 0, 2_000);
+        before = System.nanoTime();
+        long routeDeadline = dispatcher.deadlineNanos(
+                MockServerHttpRequest.get("/BOUNDED").header("X-Request-Timeout-Ms", "999999999999999999").build(), bounded, null);
+        assertTrue(routeDeadline - before >= 2_000 * MS && routeDeadline - System.nanoTime() <= 2_000 * MS);
+
+        assertTrue(UpstreamDispatcher.isExpired(System.nanoTime() - 1));
+        assertEquals(504, UpstreamDispatcher.deadlineExceeded(route).getStatusCode());
+    }
+
+    @Test
+    void 헤징한_요청이_먼저_응답하면_원_요청은_취소하고_헤징_응답의_상태와_헤더를_씀() {
+        when(liveStats.percentileMicros("HELLO", 1, 0.95, 50)).thenReturn(20_000L); // 20ms 후 헤징
+        UpstreamTarget a = target(1), b = target(2);
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        List<String> hosts = new CopyOnWriteArrayList<>();
+        GatewayFilterChain chain = ex -> {
+            URI uri = ex.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+            hosts.add(uri.getHost());
+            if (uri.getHost().equals("10.0.0.1")) {
+                return Mono.<Void>never().doOnCancel(() -> primaryCancelled.set(true));
+            }
+            ex.getResponse().setStatusCode(HttpStatus.CREATED);
+            ex.getResponse().getHeaders().set("X-Upstream", uri.getHost());
+            return Mono.empty();
+        };
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/HELLO"), a);
+
+        dispatcher.dispatch(exchange, chain, route("HELLO", "Y", 0), group(a, b), a, null, UpstreamDispatcher.NO_DEADLINE)
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(Arrays.asList("10.0.0.1", "10.0.0.2"), hosts);
+        assertTrue(primaryCancelled.get());
+        assertEquals(HttpStatus.CREATED, exchange.getResponse().getStatusCode());
+        assertEquals("10.0.0.2", exchange.getResponse().getHeaders().getFirst("X-Upstream"));
+        assertEquals(URI.create("http://10.0.0.2:8080/hello"), exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR));
+        assertEquals(0, a.getOutstanding());
+        assertEquals(0, b.getOutstanding());
+    }
+
+    @Test
+    void 연결_실패는_다른_대상으로_재시도() {
+        UpstreamTarget a = target(1), b = target(2);
+        List<String> hosts = new CopyOnWriteArrayList<>();
+        GatewayFilterChain chain = ex -> {
+            URI uri = ex.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+            hosts.add(uri.getHost());
+            if (hosts.size() == 1) return Mono.error(new ConnectException("refused"));
+            ex.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/HELLO"), a);
+
+        dispatcher.dispatch(exchange, chain, route("HELLO", "N", 1), group(a, b), a, null, UpstreamDispatcher.NO_DEADLINE)
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(Arrays.asList("10.0.0.1", "10.0.0.2"), hosts);
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(0, a.getOutstanding());
+        assertEquals(0, b.getOutstanding());
+    }
+
+    @Test
+    void 기한_헤더는_시도마다_남은_시간으로_다시_계산() {
+        UpstreamTarget a = target(1), b = target(2);
+        List<Long> sent = new CopyOnWriteArrayList<>();
+        GatewayFilterChain chain = ex -> {
+            sent.add(Long.parseLong(ex.getRequest().getHeaders().getFirst("X-Request-Timeout-Ms")));
+            if (sent.size() == 1) return Mono.delay(Duration.ofMillis(100)).then(Mono.error(new ConnectException("refused")));
+            ex.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/HELLO").header("X-Request-Timeout-Ms", "60000"), a);
+        long deadline = System.nanoTime() + 10_000 * MS;
+
+        dispatcher.dispatch(exchange, chain, route("HELLO", "N", 1), group(a, b), a, null, deadline).block(Duration.ofSeconds(5));
+
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(0) <= 10_000 && sent.get(1) <= sent.get(0) - 100, sent.toString());
+    }
+
+    @Test
+    void 라우트_타임아웃만_업스트림_타임아웃으로_표시하고_클라이언트가_줄인_기한은_표시하지_않음() {
+        UpstreamTarget a = target(1);
+        GatewayFilterChain chain = ex -> Mono.never();
+        CompiledRoute route = route("HELLO", "N", 0, 100);
+
+        MockServerWebExchange byRoute = exchange(MockServerHttpRequest.get("/HELLO"), a);
+        Mono<Void> routeTimeout = dispatcher.dispatch(byRoute, chain, route, null, a, null,
+                dispatcher.deadlineNanos(byRoute.getRequest(), route, null));
+        assertTrue(assertThrows(DeadlineExceededException.class, () -> block(routeTimeout)).isRouteTimeout());
+
+        MockServerWebExchange byClient = exchange(MockServerHttpRequest.get("/HELLO").header("X-Request-Timeout-Ms", "50"), a);
+        Mono<Void> clientTimeout = dispatcher.dispatch(byClient, chain, route, null, a, null,
+                dispatcher.deadlineNanos(byClient.getRequest(), route, null));
+        assertFalse(assertThrows(DeadlineExceededException.class, () -> block(clientTimeout)).isRouteTimeout());
+
+        assertFalse(UpstreamDispatcher.deadlineExceeded(route).isRouteTimeout());
+        assertEquals(0, a.getOutstanding());
+    }
+
+    @Test
+    void 재시도_예산이_없거나_요청_바디가_있으면_재시도하지_않음() {
+        UpstreamTarget a = target(1), b = target(2);
+        AtomicLong calls = new AtomicLong();
+        GatewayFilterChain chain = ex -> {
+            calls.incrementAndGet();
+            return Mono.error(new ConnectException("refused"));
+        };
+        // 예산 0: 요청 수 비율 0%, 초당 최소 0건
+        UpstreamDispatcher noBudget = new UpstreamDispatcher(
+                mock(CircuitBreakerRegistry.class), new RetryBudget(0, 0), liveStats, 0.95, 20, 2000, 50, 10_000, 120_000, "X-Request-Timeout-Ms");
+        Mono<Void> first = noBudget.dispatch(exchange(MockServerHttpRequest.get("/HELLO"), a), chain,
+                route("HELLO", "N", 3), group(a, b), a, null, UpstreamDispatcher.NO_DEADLINE);
+        ConnectException e = assertThrows(ConnectException.class, () -> block(first));
+        assertEquals("refused", e.getMessage());
+        assertEquals(1, calls.get());
+
+        // 예산은 있지만 바디는 다시 보낼 수 없음
+        calls.set(0);
+        Mono<Void> withBody = dispatcher.dispatch(exchange(MockServerHttpRequest.get("/HELLO").header(HttpHeaders.CONTENT_LENGTH, "5"), a), chain,
+                route("HELLO", "Y", 3), group(a, b), a, null, UpstreamDispatcher.NO_DEADLINE);
+        assertThrows(ConnectException.class, () -> block(withBody));
+        assertEquals(1, calls.get());
+        assertEquals(0, a.getOutstanding());
+    }
+
+    @Test
+    void 연결_실패만_재시도_대상() {
+        assertTrue(UpstreamDispatcher.isConnectFailure(new ConnectException("refused")));
+        assertTrue(UpstreamDispatcher.isConnectFailure(new IOException(new ConnectTimeoutException("timeout"))));
+        assertFalse(UpstreamDispatcher.isConnectFailure(new IOException("connection reset")));
+        assertFalse(UpstreamDispatcher.isConnectFailure(new TimeoutException()));
+    }
+
+    /** 검사 예외(ConnectException)를 감싸지 않고 그대로 던짐 */
+    private static void block(Mono<Void> mono) throws Exception {
+        try {
+            mono.block(Duration.ofSeconds(5));
+        } catch (RuntimeException e) {
+            Throwable cause = reactor.core.Exceptions.unwrap(e);
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    /** 필터가 고른 대상으로 목적지 URI 를 바꿔 둔 exchange */
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, UpstreamTarget target) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, target.resolve(URI.create("http://up/hello")));
+        return exchange;
+    }
+
+    private static UpstreamTarget target(int id) {
+        return new UpstreamTarget(id, "HELLO", "http://10.0.0." + id + ":8080", null, 1);
+    }
+
+    private static TargetGroup group(UpstreamTarget... targets) {
+        return new TargetGroup(LbPolicy.ROUND_ROBIN, Arrays.asList(targets));
+    }
+
+    private static CompiledRoute route(String apiId, String hedgeYn, int maxRetries) {
+        return route(apiId, hedgeYn, maxRetries, 0);
+    }
+
+    /** 라우트 테이블을 거쳐 만든 GET 라우트 (헤징 여부 / 최대 재시도 횟수 / 응답 타임아웃, 0 이면 없음) */
+    private static CompiledRoute route(String apiId, String hedgeYn, int maxRetries, int responseTimeoutMs) {
+        ApiRoute row = new ApiRoute();
+        ReflectionTestUtils.setField(row, "apiId", apiId);
+        ReflectionTestUtils.setField(row, "method", "GET");
+        ReflectionTestUtils.setField(row, "path", "http://up/hello");
+        ReflectionTestUtils.setField(row, "useYn", "Y");
+        ReflectionTestUtils.setField(row, "hedgeYn", hedgeYn);
+        ReflectionTestUtils.setField(row, "maxRetries", maxRetries);
+        ReflectionTestUtils.setField(row, "responseTimeoutMs", responseTimeoutMs);
+        ApiRouteRepository repository = mock(ApiRouteRepository.class);
+        when(repository.findAll()).thenReturn(Arrays.asList(row));
+        RouteTable table = new RouteTable(repository);
+        table.refresh();
+        return table.match("/" + apiId, HttpMethod.GET).getRoute();
+    }
+}
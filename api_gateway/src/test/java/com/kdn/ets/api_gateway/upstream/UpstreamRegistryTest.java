@@ -0,0 +1,79 @@
+package com.kdn.ets.api_gateway.upstream;
+
+import com.kdn.ets.api_gateway.entity.ApiRoute;
+import com.kdn.ets.api_gateway.entity.ApiTarget;
+import com.kdn.ets.api_gateway.repository.ApiRouteRepository;
+import com.kdn.ets.api_gateway.repository.ApiTargetRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UpstreamRegistryTest {
+
+    private final ApiTargetRepository targetRepository = mock(ApiTargetRepository.class);
+    private final ApiRouteRepository routeRepository = mock(ApiRouteRepository.class);
+    private final UpstreamRegistry registry = new UpstreamRegistry(targetRepository, routeRepository);
+
+    @Test
+    void 재적재해도_같은_대상의_상태를_유지() {
+        when(routeRepository.findAll()).thenReturn(Collections.singletonList(route("ECHO", "least-outstanding")));
+        when(targetRepository.findByUseYn("Y")).thenReturn(Arrays.asList(
+                target(1, "ECHO", "http://a:8080/", "/health"),
+                target(2, "ECHO", "http://b:8080", null),
+                target(3, "ECHO", "http://c:8080/path", null),
+                target(4, "HELLO", "http://h:9000", null)));
+        registry.refresh();
+
+        TargetGroup echo = registry.group("ECHO");
+        assertEquals(LbPolicy.LEAST_OUTSTANDING, echo.getPolicy());
+        assertEquals(2, echo.getTargets().length); // 경로가 있는 base_url 은 건너뜀
+        UpstreamTarget a = echo.getTargets()[0];
+        assertEquals(URI.create("http://a:8080/health"), a.getHealthUri());
+        assertNull(echo.getTargets()[1].getHealthUri());
+        assertEquals(LbPolicy.ROUND_ROBIN, registry.group("HELLO").getPolicy());
+        assertNull(registry.group("NONE"));
+
+        a.acquire();
+        a.markFailure(1);
+        when(targetRepository.findByUseYn("Y")).thenReturn(Arrays.asList(
+                target(1, "ECHO", "http://a:8080", "/health"),
+                target(2, "ECHO", "http://b2:8080", null)));
+        registry.refresh();
+
+        UpstreamTarget[] targets = registry.group("ECHO").getTargets();
+        assertSame(a, targets[0]);
+        assertEquals(1, targets[0].getOutstanding());
+        assertFalse(targets[0].isHealthy());
+        assertNotSame(echo.getTargets()[1], targets[1]);
+        assertNull(registry.group("HELLO"));
+    }
+
+    private static ApiRoute route(String apiId, String lbPolicy) {
+        ApiRoute row = new ApiRoute();
+        ReflectionTestUtils.setField(row, "apiId", apiId);
+        ReflectionTestUtils.setField(row, "lbPolicy", lbPolicy);
+        return row;
+    }
+
+    private static ApiTarget target(int id, String apiId, String baseUrl, String healthPath) {
+        ApiTarget row = new ApiTarget();
+        ReflectionTestUtils.setField(row, "targetId", id);
+        ReflectionTestUtils.setField(row, "apiId", apiId);
+        ReflectionTestUtils.setField(row, "baseUrl", baseUrl);
+        ReflectionTestUtils.setField(row, "weight", 1);
+        ReflectionTestUtils.setField(row, "useYn", "Y");
+        ReflectionTestUtils.setField(row, "healthPath", healthPath);
+        return row;
+    }
+}
@@ -0,0 +1,83 @@
+package com.kdn.ets.api_gateway.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * GlobalAuthRoutingFilter 요청 데코레이터: 업스트림으로 흘려보내는 바디에서 앞부분만 로그용으로 복사(tee).
+ * passThrough(데코레이터 없이 같은 바디 소비)와의 차이가 tee 비용입니다.
+ * 바디는 8KB 청크로 나눈 bodyKb 크기이고, 버퍼는 읽기 위치를 옮기지 않으므로 호출 간 재사용합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestDecoratorBenchmark {
+
+    private static final int CHUNK = 8 * 1024;
+
+    @Param({"1", "256"})
+    public int bodyKb;
+
+    @Param({"4000", "65536"})
+    public int captureBytes;
+
+    private ServerHttpRequest base;
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setUp() {
+        byte[] body = new byte[bodyKb * 1024];
+        byte[] pattern = "{\"k\":\"값\",\"n\":12345},".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < body.length; i++) body[i] = pattern[i % pattern.length];
+
+        DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+        DataBuffer[] chunks = new DataBuffer[(body.length + CHUNK - 1) / CHUNK];
+        for (int i = 0; i < chunks.length; i++) {
+            int from = i * CHUNK;
+            chunks[i] = factory.wrap(Arrays.copyOfRange(body, from, Math.min(body.length, from + CHUNK)));
+        }
+
+        base = MockServerHttpRequest.post("/API/ECHO")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.fromArray(chunks));
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/API/ECHO").build());
+    }
+
+    @Benchmark
+    public Integer passThrough() {
+        return drain(base);
+    }
+
+    @Benchmark
+    public Integer decorateBody() {
+        return drain(GlobalAuthRoutingFilter.decorateBody(base, exchange, captureBytes));
+    }
+
+    private static Integer drain(ServerHttpRequest request) {
+        return request.getBody().reduce(0, (n, b) -> n + b.readableByteCount()).block();
+    }
+}
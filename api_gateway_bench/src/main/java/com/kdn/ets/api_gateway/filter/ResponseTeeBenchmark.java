@@ -0,0 +1,141 @@
+package com.kdn.ets.api_gateway.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.kdn.ets.api_gateway.helper.GatewayLogHelper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ResponseCaptureFilter 응답 tee: 업스트림 버퍼를 그대로 넘기면서 앞부분만 로그용으로 복사.
+ * - passThrough: 필터 없이 같은 응답을 쓰는 비용 (기준선)
+ * - tee: 현재 ResponseCaptureFilter
+ * - legacyCopyTee: 이전 구현 (버퍼마다 byte[] 복사 + 전체 문자열 누적 + 재래핑) — 개선 폭 비교용
+ * contentType 이 바이너리면 캡처 자체를 건너뛰는 경로를 잽니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseTeeBenchmark {
+
+    private static final int CHUNK = 8 * 1024;
+
+    @Param({"1", "256"})
+    public int bodyKb;
+
+    @Param({MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public String contentType;
+
+    private DataBuffer[] chunks;
+    private MediaType mediaType;
+    private ResponseCaptureFilter filter;
+    private GatewayFilterChain upstream;
+    private ServerWebExchange template;
+
+    @Setup
+    public void setUp() {
+        byte[] body = new byte[bodyKb * 1024];
+        byte[] pattern = "{\"k\":\"값\",\"n\":12345},".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < body.length; i++) body[i] = pattern[i % pattern.length];
+
+        DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+        chunks = new DataBuffer[(body.length + CHUNK - 1) / CHUNK];
+        for (int i = 0; i < chunks.length; i++) {
+            int from = i * CHUNK;
+            chunks[i] = factory.wrap(Arrays.copyOfRange(body, from, Math.min(body.length, from + CHUNK)));
+        }
+        mediaType = MediaType.parseMediaType(contentType);
+        template = MockServerWebExchange.from(MockServerHttpRequest.get("/API/ECHO").build());
+
+        // 로그 적재는 측정 대상이 아니므로 비활성화
+        GatewayLogHelper noLog = new GatewayLogHelper(null, null, null) {
+            @Override
+            public void asyncLogOnce(ServerWebExchange exchange, int statusCode, String responseBody, Throwable error) {
+            }
+        };
+        filter = new ResponseCaptureFilter(noLog);
+        ReflectionTestUtils.setField(filter, "defaultCaptureBytes", 4000);
+        ReflectionTestUtils.setField(filter, "defaultStreamIdleTimeoutMs", 60000);
+
+        upstream = ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.OK);
+            ex.getResponse().getHeaders().setContentType(mediaType);
+            ex.getResponse().getHeaders().setContentLength(body.length);
+            return ex.getResponse().writeWith(Flux.fromArray(chunks));
+        };
+    }
+
+    @Benchmark
+    public Void passThrough() {
+        return upstream.filter(newExchange()).block();
+    }
+
+    @Benchmark
+    public Void tee() {
+        return filter.filter(newExchange(), upstream).block();
+    }
+
+    @Benchmark
+    public Void legacyCopyTee() {
+        ServerWebExchange exchange = newExchange();
+        ServerHttpResponse original = exchange.getResponse();
+        StringBuilder respBody = new StringBuilder();
+
+        ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                Flux<DataBuffer> flux = Flux.from(body).map(buf -> {
+                    byte[] bytes = new byte[buf.readableByteCount()];
+                    buf.asByteBuffer().get(bytes);   // 재사용 버퍼의 읽기 위치를 보존하기 위해 read() 대신 사용
+                    DataBufferUtils.release(buf);
+                    respBody.append(new String(bytes, StandardCharsets.UTF_8));
+                    return original.bufferFactory().wrap(bytes);
+                });
+                return super.writeWith(flux);
+            }
+        };
+        return upstream.filter(exchange.mutate().response(decorated).build()).block();
+    }
+
+    /**
+     * 새 응답만 끼운 exchange. (MockServerWebExchange 생성은 코덱 설정 등으로 tee 보다 훨씬 비싸서 한 번만 만듦)
+     * 응답 바디는 쌓아 두지 않고 흘려보내기만 합니다.
+     */
+    private ServerWebExchange newExchange() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        response.setWriteHandler(body -> Flux.from(body).then());
+        return template.mutate().response(response).build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.kdn.ets.api_gateway.helper;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+/**
+ * 요청마다 실행되는 클라이언트 IP 해석.
+ * - forwarded: nginx 뒤 (X-Forwarded-For 2단)
+ * - direct: 프록시 없이 소켓 주소만 있는 경우 (IPv6 루프백 정규화 포함)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientIpHelperBenchmark {
+
+    private MockServerWebExchange forwarded;
+    private MockServerWebExchange direct;
+
+    @Setup
+    public void setUp() {
+        forwarded = MockServerWebExchange.from(MockServerHttpRequest.get("/API/ECHO")
+                .header("X-Forwarded-For", "203.0.113.7, 10.0.0.1")
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 51234))
+                .build());
+        direct = MockServerWebExchange.from(MockServerHttpRequest.get("/API/ECHO")
+                .remoteAddress(new InetSocketAddress("::1", 51234))
+                .build());
+    }
+
+    @Benchmark
+    public String resolveForwarded() {
+        return ClientIpHelper.resolve(forwarded);
+    }
+
+    @Benchmark
+    public String resolveDirect() {
+        return ClientIpHelper.resolve(direct);
+    }
+}
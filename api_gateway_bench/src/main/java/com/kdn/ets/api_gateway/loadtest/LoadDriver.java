@@ -0,0 +1,129 @@
+package com.kdn.ets.api_gateway.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * 고정 동시성(closed loop) 부하 발생기.
+ * concurrency 개의 가상 사용자가 응답을 끝까지 읽은 뒤 바로 다음 요청을 보냅니다.
+ * 응답 바디는 모아 두지 않고 흘려 읽기만 하며, 지연 시간은 요청 시작부터 마지막 바이트까지(µs)입니다.
+ * 게이트웨이와 스레드가 섞이지 않도록 전용 이벤트 루프(loadgen-*)에서 동작합니다. (할당량 집계에서 제외)
+ */
+final class LoadDriver implements AutoCloseable {
+
+    static final String THREAD_PREFIX = "loadgen";
+
+    private final LoopResources loops;
+    private final ConnectionProvider provider;
+    private final HttpClient client;
+
+    LoadDriver(int gatewayPort, int concurrency) {
+        loops = LoopResources.create(THREAD_PREFIX, Math.max(2, Runtime.getRuntime().availableProcessors() / 2), true);
+        provider = ConnectionProvider.builder(THREAD_PREFIX)
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        client = HttpClient.create(provider)
+                .runOn(loops)
+                .baseUrl("http://127.0.0.1:" + gatewayPort);
+    }
+
+    /** 요청 1건 정의 */
+    static final class Request {
+        final HttpMethod method;
+        final String uri;
+        final String apiKey;
+        final byte[] body;
+
+        Request(HttpMethod method, String uri, String apiKey, byte[] body) {
+            this.method = method;
+            this.uri = uri;
+            this.apiKey = apiKey;
+            this.body = body;
+        }
+    }
+
+    /** 측정 구간 결과 */
+    static final class Result {
+        final Histogram latencyMicros;
+        final long requests;
+        final long errors;
+        final long elapsedNanos;
+
+        Result(Histogram latencyMicros, long requests, long errors, long elapsedNanos) {
+            this.latencyMicros = latencyMicros;
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double rps() {
+            return requests * 1e9 / elapsedNanos;
+        }
+    }
+
+    /** duration 동안 concurrency 개 가상 사용자로 요청을 반복 (기대 상태 코드가 아니거나 예외면 오류로 집계) */
+    Result run(Request request, int expectedStatus, int concurrency, Duration duration) {
+        Recorder recorder = new Recorder(3);
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        Flux.range(0, concurrency)
+            .flatMap(i -> Mono.defer(() -> {
+                        long t0 = System.nanoTime();
+                        return send(request)
+                                .doOnNext(status -> {
+                                    recorder.recordValue((System.nanoTime() - t0) / 1000);
+                                    requests.incrementAndGet();
+                                    if (status != expectedStatus) errors.incrementAndGet();
+                                })
+                                .onErrorResume(e -> {
+                                    requests.incrementAndGet();
+                                    errors.incrementAndGet();
+                                    return Mono.empty();
+                                });
+                    })
+                    .repeat(() -> System.nanoTime() < deadline), concurrency)
+            .blockLast();
+
+        return new Result(recorder.getIntervalHistogram(), requests.get(), errors.get(), System.nanoTime() - start);
+    }
+
+    private Mono<Integer> send(Request request) {
+        HttpClient c = client.headers(h -> {
+            if (request.apiKey != null) h.set(HttpHeaderNames.AUTHORIZATION, request.apiKey);
+            if (request.body != null) {
+                h.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+                h.set(HttpHeaderNames.CONTENT_LENGTH, request.body.length);
+            }
+        });
+        HttpClient.RequestSender sender = c.request(request.method).uri(request.uri);
+        HttpClient.ResponseReceiver<?> receiver = request.body != null
+                ? sender.send(ByteBufFlux.fromInbound(Mono.just(request.body)))
+                : sender;
+        return receiver
+                .response((res, content) -> content.then(Mono.just(res.status().code())))
+                .next();
+    }
+
+    @Override
+    public void close() {
+        provider.disposeLater().block(Duration.ofSeconds(5));
+        loops.dispose();
+    }
+}
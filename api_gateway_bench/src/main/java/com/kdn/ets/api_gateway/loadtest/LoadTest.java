@@ -0,0 +1,234 @@
+package com.kdn.ets.api_gateway.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.kdn.ets.api_gateway.ApiGatewayApplication;
+import com.kdn.ets.api_gateway.logging.GatewayLogWriter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * 게이트웨이 종단 간 부하 테스트.
+ * 임시 SQLite 파일(users / api_keys / api_list / api_permissions 시드)과 프로세스 내 스텁 업스트림을 띄운 뒤
+ * 게이트웨이를 실제 설정으로 기동하고, 시나리오별로 고정 동시성 부하를 걸어 결과를 표로 출력합니다.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.kdn.ets.api_gateway.loadtest.LoadTest \
+ *      --scenarios=small-json,upload-1mb,sse,auth-failure --concurrency=64 --duration=20s
+ * </pre>
+ *
+ * 옵션 (괄호 안은 기본값)
+ * - scenarios (전체), concurrency (64), warmup (5s), duration (20s)
+ * - upstream-latency-ms (0): 스텁이 응답 헤더 전에 기다리는 시간
+ * - payload-bytes (512): small-json 응답 크기 / upload-bytes (1048576): upload-1mb 요청 크기
+ * - sse-events (20), sse-interval-ms (10)
+ * - keep-db (false): 종료 후 임시 디렉터리(DB, 스풀) 보존
+ * 그 밖의 --key=value 는 게이트웨이(Spring) 설정으로 그대로 전달됩니다. (예: --app.log.batch-size=1000)
+ *
+ * 출력 항목
+ * - rps, p50/p99/p999/max: 클라이언트가 잰 요청 시작 ~ 응답 마지막 바이트 (ms)
+ * - alloc/req: 측정 구간 동안 게이트웨이 스레드(부하 발생기/스텁 스레드 제외)가 할당한 바이트 / 요청 수
+ * - log-q max: 측정 구간 중 gateway_logs 저장 큐 최대 길이
+ * - log lag: 부하가 끝난 시점부터 그때까지 제출된 로그가 모두 DB 에 기록될 때까지 걸린 시간 (ms)
+ */
+public final class LoadTest {
+
+    private static final String SALT = "loadtest-salt";
+    private static final String API_KEY = "loadtest-key";
+    private static final Duration LOG_DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        // 게이트웨이 기동 전(스텁/DB 준비)에는 logback 기본 설정(DEBUG)이 적용되므로 미리 낮춤
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String key = arg.startsWith("--") && eq > 2 ? arg.substring(2, eq) : null;
+            if (key != null && !key.contains(".")) {
+                options.put(key, arg.substring(eq + 1));
+            } else {
+                springArgs.add(arg);
+            }
+        }
+
+        List<Scenario> scenarios = new ArrayList<>();
+        String selected = options.get("scenarios");
+        if (selected == null) {
+            for (Scenario s : Scenario.values()) scenarios.add(s);
+        } else {
+            for (String id : selected.split(",")) scenarios.add(Scenario.of(id));
+        }
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "5s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "20s"));
+        Duration latency = Duration.ofMillis(Long.parseLong(options.getOrDefault("upstream-latency-ms", "0")));
+        int payloadBytes = Integer.parseInt(options.getOrDefault("payload-bytes", "512"));
+        int uploadBytes = Integer.parseInt(options.getOrDefault("upload-bytes", "1048576"));
+        int sseEvents = Integer.parseInt(options.getOrDefault("sse-events", "20"));
+        Duration sseInterval = Duration.ofMillis(Long.parseLong(options.getOrDefault("sse-interval-ms", "10")));
+        boolean keepDb = Boolean.parseBoolean(options.getOrDefault("keep-db", "false"));
+
+        Path dir = Files.createTempDirectory("gateway-loadtest");
+        try (StubUpstream stub = new StubUpstream(latency, payloadBytes, sseEvents, sseInterval)) {
+            String url = LoadTestDatabase.create(dir.resolve("ets_api.db"), SALT, API_KEY, stub.baseUrl());
+
+            List<String> gatewayArgs = new ArrayList<>();
+            gatewayArgs.add("--server.port=0");
+            gatewayArgs.add("--management.server.port=0");
+            gatewayArgs.add("--spring.datasource.url=" + url);
+            gatewayArgs.add("--app.api.salt=" + SALT);
+            gatewayArgs.add("--app.log.spool.dir=" + dir.resolve("spool"));
+            gatewayArgs.add("--spring.main.banner-mode=off");
+            gatewayArgs.add("--spring.jpa.show-sql=false");
+            // 요청당 INFO/DEBUG 로그는 콘솔 출력 비용이 결과를 왜곡하므로 기본은 WARN (필요하면 인자로 덮어쓰기)
+            gatewayArgs.add("--logging.level.root=WARN");
+            gatewayArgs.add("--logging.level.org.springframework.cloud.gateway=WARN");
+            gatewayArgs.add("--logging.level.reactor.netty.http.client=WARN");
+            gatewayArgs.add("--logging.level.com.kdn.ets=WARN");
+            gatewayArgs.addAll(springArgs);
+
+            ConfigurableApplicationContext ctx = SpringApplication.run(ApiGatewayApplication.class, gatewayArgs.toArray(new String[0]));
+            try (LoadDriver driver = new LoadDriver(Integer.parseInt(ctx.getEnvironment().getProperty("local.server.port")), concurrency)) {
+                GatewayLogWriter writer = ctx.getBean(GatewayLogWriter.class);
+
+                System.out.printf("%nconcurrency=%d warmup=%s duration=%s upstream-latency=%dms payload=%dB upload=%dB sse=%dx%dms%n%n",
+                        concurrency, warmup, duration, latency.toMillis(), payloadBytes, uploadBytes, sseEvents, sseInterval.toMillis());
+                System.out.printf("%-13s %9s %7s %9s %8s %8s %8s %8s %11s %9s %9s%n",
+                        "scenario", "requests", "errors", "rps", "p50", "p99", "p999", "max", "alloc/req", "log-q max", "log lag");
+
+                for (Scenario scenario : scenarios) {
+                    LoadDriver.Request request = request(scenario, uploadBytes);
+
+                    driver.run(request, scenario.expectedStatus(), concurrency, warmup);
+                    awaitLogDrain(writer);
+
+                    QueueSampler sampler = new QueueSampler(writer);
+                    long allocBefore = gatewayAllocatedBytes();
+                    LoadDriver.Result result = driver.run(request, scenario.expectedStatus(), concurrency, duration);
+                    long allocated = gatewayAllocatedBytes() - allocBefore;
+                    long lagNanos = awaitLogDrain(writer);
+                    int maxQueue = sampler.stop();
+
+                    Histogram h = result.latencyMicros;
+                    System.out.printf("%-13s %9d %7d %9.1f %8.2f %8.2f %8.2f %8.2f %9.1fKB %9d %7dms%n",
+                            scenario.id(), result.requests, result.errors, result.rps(),
+                            h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                            h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0,
+                            result.requests > 0 ? allocated / 1024.0 / result.requests : 0.0,
+                            maxQueue, lagNanos / 1_000_000);
+                }
+                System.out.printf("%n(latency in ms; log lag = time from end of load until every submitted log row is stored) gateway_logs rows=%d, dropped=%d, spooled=%d, failed=%d%n",
+                        LoadTestDatabase.countLogs(url), writer.getDroppedCount(), writer.getSpooledCount(), writer.getFailedCount());
+            } finally {
+                ctx.close();
+            }
+        } finally {
+            if (keepDb) {
+                System.out.println("kept: " + dir);
+            } else {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    private static LoadDriver.Request request(Scenario scenario, int uploadBytes) {
+        Scenario.Route route = scenario.route();
+        String key = scenario.validKey() ? API_KEY : "invalid-" + API_KEY;
+        byte[] body = null;
+        if (route.method() == org.springframework.http.HttpMethod.POST) {
+            body = StubUpstream.jsonPayload(scenario.upload() ? uploadBytes : 200);
+        }
+        return new LoadDriver.Request(HttpMethod.valueOf(route.method().name()), "/" + route.apiId(), key, body);
+    }
+
+    /** 지금까지 제출된 로그가 모두 처리(저장/실패/버림)될 때까지 대기, 걸린 시간(ns) 반환 */
+    private static long awaitLogDrain(GatewayLogWriter writer) throws InterruptedException {
+        long start = System.nanoTime();
+        long target = writer.getSubmittedCount();
+        long deadline = start + LOG_DRAIN_TIMEOUT.toNanos();
+        // 스풀로 간 건은 재적재 시 written 으로 집계됨
+        while (writer.getWrittenCount() + writer.getFailedCount() + writer.getDroppedCount() < target
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /** 게이트웨이 스레드의 누적 할당 바이트 (부하 발생기/스텁/이 클래스의 스레드 제외, 종료된 스레드는 집계 누락) */
+    private static long gatewayAllocatedBytes() {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = mx.getAllThreadIds();
+        ThreadInfo[] infos = mx.getThreadInfo(ids);
+        long[] bytes = mx.getThreadAllocatedBytes(ids);
+        long sum = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (infos[i] == null || bytes[i] < 0) continue;
+            String name = infos[i].getThreadName();
+            if (name.startsWith(LoadDriver.THREAD_PREFIX) || name.startsWith(StubUpstream.THREAD_PREFIX)
+                    || name.startsWith(QueueSampler.THREAD_NAME) || name.equals("main")) {
+                continue;
+            }
+            sum += bytes[i];
+        }
+        return sum;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /** 측정 구간 동안 로그 저장 큐 길이를 주기적으로 읽어 최댓값을 기록 */
+    private static final class QueueSampler {
+        static final String THREAD_NAME = "loadtest-sampler";
+
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile int max;
+
+        QueueSampler(GatewayLogWriter writer) {
+            thread = new Thread(() -> {
+                while (running) {
+                    max = Math.max(max, writer.getQueueDepth());
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            return max;
+        }
+    }
+}
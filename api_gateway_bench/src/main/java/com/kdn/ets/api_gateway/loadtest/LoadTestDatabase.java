@@ -0,0 +1,108 @@
+package com.kdn.ets.api_gateway.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 부하 테스트용 임시 SQLite 파일 생성/시드.
+ * 사용자 1명과 API 키 1개, 스텁 업스트림을 가리키는 라우트와 권한을 넣습니다.
+ */
+final class LoadTestDatabase {
+
+    static final String USER_ID = "loadtest";
+
+    private LoadTestDatabase() {}
+
+    /** @return spring.datasource.url 에 넣을 JDBC URL */
+    static String create(Path file, String salt, String apiKey, String upstreamBaseUrl) throws SQLException {
+        String url = "jdbc:sqlite:" + file.toAbsolutePath();
+        try (Connection c = DriverManager.getConnection(url)) {
+            c.setAutoCommit(false);
+            try (Statement st = c.createStatement()) {
+                for (String ddl : readSchema().split(";")) {
+                    String sql = stripComments(ddl);
+                    if (!sql.isEmpty()) st.execute(sql);
+                }
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO users (user_id, password, user_name, use_yn) VALUES (?, 'x', 'load test', 'Y')")) {
+                ps.setString(1, USER_ID);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO api_keys (user_id, api_key) VALUES (?, ?)")) {
+                ps.setString(1, USER_ID);
+                ps.setString(2, sha256Hex(salt + apiKey));
+                ps.executeUpdate();
+            }
+            try (PreparedStatement route = c.prepareStatement(
+                         "INSERT INTO api_list (api_id, api_name, path, method, use_yn) VALUES (?, ?, ?, ?, 'Y')");
+                 PreparedStatement grant = c.prepareStatement(
+                         "INSERT INTO api_permissions (api_id, method, user_id) VALUES (?, ?, ?)")) {
+                for (Scenario.Route r : Scenario.Route.values()) {
+                    route.setString(1, r.apiId());
+                    route.setString(2, r.apiId());
+                    route.setString(3, upstreamBaseUrl + r.upstreamPath());
+                    route.setString(4, r.method().name());
+                    route.addBatch();
+                    grant.setString(1, r.apiId());
+                    grant.setString(2, r.method().name());
+                    grant.setString(3, USER_ID);
+                    grant.addBatch();
+                }
+                route.executeBatch();
+                grant.executeBatch();
+            }
+            c.commit();
+        }
+        return url;
+    }
+
+    static long countLogs(String url) throws SQLException {
+        try (Connection c = DriverManager.getConnection(url);
+             Statement st = c.createStatement()) {
+            return st.executeQuery("SELECT COUNT(*) FROM gateway_logs").getLong(1);
+        }
+    }
+
+    private static String readSchema() {
+        try (InputStream in = LoadTestDatabase.class.getResourceAsStream("/loadtest/schema.sql")) {
+            if (in == null) throw new IllegalStateException("loadtest/schema.sql not found");
+            byte[] buf = new byte[8192];
+            StringBuilder sb = new StringBuilder();
+            for (int n; (n = in.read(buf)) > 0; ) sb.append(new String(buf, 0, n, StandardCharsets.UTF_8));
+            return sb.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String stripComments(String sql) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            if (!line.trim().startsWith("--")) sb.append(line).append('\n');
+        }
+        return sb.toString().trim();
+    }
+
+    /** AuthService.hashWithSalt 와 같은 규칙 (SHA-256(salt + key) 소문자 hex) */
+    private static String sha256Hex(String s) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.kdn.ets.api_gateway.loadtest;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * 부하 테스트 시나리오.
+ * - small-json: 작은 JSON POST → 스텁이 payload-bytes 크기의 JSON 응답
+ * - upload-1mb: upload-bytes(기본 1MB) JSON 업로드 → 작은 JSON 응답
+ * - sse: SSE 스트림 (sse-events 개 이벤트, sse-interval-ms 간격)
+ * - auth-failure: 등록되지 않은 API 키 → 401 (업스트림 호출 없음)
+ */
+enum Scenario {
+
+    SMALL_JSON("small-json", Route.ECHO, false, true, 200),
+    UPLOAD_1MB("upload-1mb", Route.ECHO, true, true, 200),
+    SSE("sse", Route.SSE, false, true, 200),
+    AUTH_FAILURE("auth-failure", Route.ECHO, false, false, 401);
+
+    /** 임시 DB 에 시드하는 라우트 (api_list.path 는 스텁 업스트림 주소 + upstreamPath) */
+    enum Route {
+        ECHO("LT_ECHO", HttpMethod.POST, "/echo"),
+        SSE("LT_SSE", HttpMethod.GET, "/sse");
+
+        private final String apiId;
+        private final HttpMethod method;
+        private final String upstreamPath;
+
+        Route(String apiId, HttpMethod method, String upstreamPath) {
+            this.apiId = apiId;
+            this.method = method;
+            this.upstreamPath = upstreamPath;
+        }
+
+        String apiId() { return apiId; }
+        HttpMethod method() { return method; }
+        String upstreamPath() { return upstreamPath; }
+    }
+
+    private final String id;
+    private final Route route;
+    private final boolean upload;
+    private final boolean validKey;
+    private final int expectedStatus;
+
+    Scenario(String id, Route route, boolean upload, boolean validKey, int expectedStatus) {
+        this.id = id;
+        this.route = route;
+        this.upload = upload;
+        this.validKey = validKey;
+        this.expectedStatus = expectedStatus;
+    }
+
+    String id() { return id; }
+    Route route() { return route; }
+    boolean upload() { return upload; }
+    boolean validKey() { return validKey; }
+    int expectedStatus() { return expectedStatus; }
+
+    static Scenario of(String id) {
+        for (Scenario s : values()) {
+            if (s.id.equalsIgnoreCase(id.trim())) return s;
+        }
+        throw new IllegalArgumentException("unknown scenario: " + id);
+    }
+}
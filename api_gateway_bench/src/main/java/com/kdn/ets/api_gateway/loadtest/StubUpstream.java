@@ -0,0 +1,84 @@
+package com.kdn.ets.api_gateway.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * 프로세스 내 스텁 업스트림 (reactor-netty).
+ * - POST /echo: 요청 바디를 모두 읽고 latency 만큼 기다린 뒤 payloadBytes 크기의 JSON 응답
+ * - GET /sse: latency 만큼 기다린 뒤 sseEvents 개의 SSE 이벤트를 sseInterval 간격으로 전송
+ * 게이트웨이와 스레드가 섞이지 않도록 전용 이벤트 루프(stub-*)에서 동작합니다. (할당량 집계에서 제외)
+ */
+final class StubUpstream implements AutoCloseable {
+
+    static final String THREAD_PREFIX = "stub";
+
+    private final LoopResources loops;
+    private final Scheduler timer;
+    private final DisposableServer server;
+
+    StubUpstream(Duration latency, int payloadBytes, int sseEvents, Duration sseInterval) {
+        final byte[] payload = jsonPayload(payloadBytes);
+        final String contentLength = String.valueOf(payload.length);
+
+        loops = LoopResources.create(THREAD_PREFIX, 2, true);
+        // 지연/이벤트 간격 타이머도 게이트웨이가 쓰는 parallel 스케줄러와 분리
+        timer = Schedulers.newParallel(THREAD_PREFIX + "-timer", 1, true);
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .runOn(loops)
+                .route(routes -> routes
+                        .post("/echo", (req, res) -> req.receive().then()
+                                .then(delay(latency, timer))
+                                .then(Mono.defer(() -> res
+                                        .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                        .header(HttpHeaderNames.CONTENT_LENGTH, contentLength)
+                                        .sendByteArray(Mono.just(payload))
+                                        .then())))
+                        .get("/sse", (req, res) -> delay(latency, timer)
+                                .then(Mono.defer(() -> res
+                                        .header(HttpHeaderNames.CONTENT_TYPE, "text/event-stream")
+                                        .sendString(events(sseEvents, sseInterval, timer), StandardCharsets.UTF_8)
+                                        .then()))))
+                .bindNow();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+        loops.dispose();
+        timer.dispose();
+    }
+
+    private static Mono<Void> delay(Duration latency, Scheduler timer) {
+        return latency.isZero() ? Mono.empty() : Mono.delay(latency, timer).then();
+    }
+
+    private static Flux<String> events(int count, Duration interval, Scheduler timer) {
+        Flux<Long> ticks = interval.isZero()
+                ? Flux.range(0, count).map(Integer::longValue)
+                : Flux.interval(interval, timer).take(count);
+        return ticks.map(i -> "data: {\"seq\":" + i + ",\"token\":\"토큰-" + i + "\"}\n\n");
+    }
+
+    /** {"data":"xxxx..."} 형태로 size 바이트에 맞춘 JSON */
+    static byte[] jsonPayload(int size) {
+        StringBuilder sb = new StringBuilder(Math.max(size, 16)).append("{\"data\":\"");
+        while (sb.length() < size - 2) sb.append('x');
+        return sb.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
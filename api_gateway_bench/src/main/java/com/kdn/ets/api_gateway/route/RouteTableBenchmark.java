@@ -0,0 +1,90 @@
+package com.kdn.ets.api_gateway.route;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.kdn.ets.api_gateway.entity.ApiRoute;
+import com.kdn.ets.api_gateway.repository.ApiRouteRepository;
+
+/**
+ * 요청마다 실행되는 라우트 조회 (api_list 1,000건: 일반 문자열 900 + 패턴 100).
+ * - literal: 기존 방식의 api_id (ECHO_123)
+ * - template: orders_42/{id}/items/{item} 캡처
+ * - templateUri: 캡처 + 다운스트림 URI 조립
+ * - miss: 일치하는 라우트 없음 (404)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteTableBenchmark {
+
+    private RouteTable table;
+
+    @Setup
+    public void setUp() {
+        List<ApiRoute> rows = new ArrayList<>();
+        for (int i = 0; i < 900; i++) {
+            rows.add(route("ECHO_" + i, "http://up/echo/" + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            rows.add(route("orders_" + i + "/{id}/items/{item}", "http://order/v1/" + i + "/orders/{id}/items/{item}"));
+        }
+        // findAll() 만 쓰는 리포지토리 (DB / Spring 컨텍스트 없이 적재)
+        ApiRouteRepository repository = (ApiRouteRepository) Proxy.newProxyInstance(
+                ApiRouteRepository.class.getClassLoader(), new Class<?>[] {ApiRouteRepository.class},
+                (proxy, method, args) -> {
+                    if ("findAll".equals(method.getName()) && (args == null || args.length == 0)) return rows;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        table = new RouteTable(repository);
+        table.refresh();
+    }
+
+    @Benchmark
+    public RouteMatch literal() {
+        return table.match("/ECHO_123", HttpMethod.POST);
+    }
+
+    @Benchmark
+    public RouteMatch template() {
+        return table.match("/orders_42/A-1001/items/7", HttpMethod.POST);
+    }
+
+    @Benchmark
+    public URI templateUri() {
+        return table.match("/orders_42/A-1001/items/7", HttpMethod.POST).downstreamUri();
+    }
+
+    @Benchmark
+    public RouteMatch miss() {
+        return table.match("/NOT_FOUND/1", HttpMethod.POST);
+    }
+
+    private static ApiRoute route(String apiId, String path) {
+        ApiRoute row = new ApiRoute();
+        ReflectionTestUtils.setField(row, "apiId", apiId);
+        ReflectionTestUtils.setField(row, "method", "POST");
+        ReflectionTestUtils.setField(row, "path", path);
+        ReflectionTestUtils.setField(row, "useYn", "Y");
+        return row;
+    }
+}
@@ -0,0 +1,48 @@
+package com.kdn.ets.api_gateway.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 요청마다 1회 실행되는 API 키 해시 (캐시 조회 키 생성).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthServiceBenchmark {
+
+    private AuthService authService;
+    private String apiKey;
+
+    @Setup
+    public void setUp() {
+        authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "apiSalt", "bench-salt-0123456789");
+        ReflectionTestUtils.setField(authService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(authService, "cacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(authService, "negativeTtl", Duration.ofSeconds(10));
+        authService.init();
+
+        apiKey = "ets_4f1c2b9e7a0d4e56b8c3a1f2e9d7c6b5";
+    }
+
+    @Benchmark
+    public String hashWithSalt() {
+        return authService.hashWithSalt(apiKey);
+    }
+}
@@ -0,0 +1,90 @@
+package com.kdn.ets.api_gateway.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 로그 작성 스레드에서 건마다 실행되는 요청 바디/헤더 마스킹.
+ * items 는 JSON 바디 안 배열 원소 수 (원소 1개 ≒ 120 바이트).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingServiceBenchmark {
+
+    @Param({"1", "32"})
+    public int items;
+
+    private LoggingService loggingService;
+    private String jsonBody;
+    private String formBody;
+    private HttpHeaders headers;
+
+    @Setup
+    public void setUp() {
+        loggingService = new LoggingService();
+        ReflectionTestUtils.setField(loggingService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(loggingService, "bodyMaxChars", 2000);
+        loggingService.init();
+
+        StringBuilder sb = new StringBuilder("{\"user\":{\"id\":\"u1\",\"password\":\"p@ss\"},\"access_token\":\"abc\",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"seq\":").append(i)
+              .append(",\"name\":\"item-").append(i)
+              .append("\",\"memo\":\"한글 메모 텍스트\",\"secret\":\"s-").append(i)
+              .append("\",\"tags\":[\"a\",\"b\",\"c\"],\"price\":1234.5}");
+        }
+        jsonBody = sb.append("]}").toString();
+
+        formBody = "grant_type=password&username=u1&password=p%40ss&client_id=web&client_secret=xyz&scope=read";
+
+        headers = new HttpHeaders();
+        headers.set(HttpHeaders.HOST, "gateway.example.com");
+        headers.set(HttpHeaders.USER_AGENT, "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
+        headers.set(HttpHeaders.ACCEPT, "application/json, text/plain, */*");
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        headers.set(HttpHeaders.ACCEPT_LANGUAGE, "ko-KR,ko;q=0.9,en-US;q=0.8");
+        headers.set(HttpHeaders.AUTHORIZATION, "ets_4f1c2b9e7a0d4e56b8c3a1f2e9d7c6b5");
+        headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        headers.set(HttpHeaders.CONTENT_LENGTH, "1024");
+        headers.set(HttpHeaders.COOKIE, "SESSION=7d1f0c; theme=dark");
+        headers.set("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+        headers.set("X-Request-Id", "9b2e4c1a-5d3f-4e7a-8b6c-1f2e3d4c5b6a");
+        headers.set("X-Api-Key", "ets_4f1c2b9e7a0d4e56b8c3a1f2e9d7c6b5");
+    }
+
+    @Benchmark
+    public String maskJsonBody() {
+        return loggingService.maskBodyIfPossible(jsonBody, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    @Benchmark
+    public String maskFormBody() {
+        return loggingService.maskBodyIfPossible(formBody, MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    @Benchmark
+    public String maskSensitiveHeaders() {
+        return loggingService.maskSensitiveHeaders(headers);
+    }
+}
@@ -0,0 +1,6 @@
+-- 부하 테스트용 임시 DB 스키마 (운영 DB 기준 원본 테이블, 추가 컬럼은 기동 시 SchemaMigrator 가 보강)
+CREATE TABLE users (user_id TEXT PRIMARY KEY, password TEXT NOT NULL, user_name TEXT NOT NULL, permission_code TEXT, use_yn TEXT, create_id TEXT, create_date TEXT, update_id TEXT, update_date TEXT, refresh_token TEXT);
+CREATE TABLE api_keys (user_id TEXT PRIMARY KEY, api_key TEXT NOT NULL UNIQUE, comment TEXT, generate_date TEXT, generate_id TEXT, regenerate_date TEXT, regenerate_id TEXT);
+CREATE TABLE api_list (api_id TEXT PRIMARY KEY, api_name TEXT NOT NULL, path TEXT NOT NULL, method TEXT NOT NULL, use_yn TEXT NOT NULL, description TEXT, flow_data TEXT, write_id TEXT, write_date TEXT, update_id TEXT, update_date TEXT);
+CREATE TABLE api_permissions (api_id TEXT NOT NULL, method TEXT NOT NULL, user_id TEXT NOT NULL, create_id TEXT, create_date TEXT, update_id TEXT, update_date TEXT, PRIMARY KEY (api_id, method, user_id));
+CREATE TABLE gateway_logs (log_id INTEGER PRIMARY KEY AUTOINCREMENT, user_id TEXT, api_id TEXT, method TEXT NOT NULL, path TEXT NOT NULL, query_param TEXT, headers TEXT, body TEXT, status_code INTEGER, response TEXT, requested_at TEXT NOT NULL, responded_at TEXT NOT NULL, latency_ms INTEGER, client_ip TEXT, user_agent TEXT, is_success TEXT NOT NULL, error_message TEXT);